@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,9 @@
  *******************************************************************************/
 package org.eclipse.e4.core.commands;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.e4.core.contexts.IEclipseContext;
 
@@ -126,4 +129,25 @@ public interface EHandlerService {
 	 * @return true if the command can be executed.
 	 */
 	public boolean canExecute(ParameterizedCommand command, IEclipseContext staticContext);
+
+	/**
+	 * Tests for each of the passed <code>commands</code> if its active handler can
+	 * be executed. This is equivalent to calling
+	 * {@link #canExecute(ParameterizedCommand)} for every command, but lets the
+	 * implementation resolve the execution context only once, which makes it the
+	 * preferred way to update the enablement of many items, like the ones of a
+	 * tool bar.
+	 *
+	 * @param commands Must not be <code>null</code>
+	 * @return a map from each of the passed commands to whether it can be
+	 *         executed, in the iteration order of <code>commands</code>
+	 * @since 1.2
+	 */
+	public default Map<ParameterizedCommand, Boolean> canExecute(Collection<ParameterizedCommand> commands) {
+		Map<ParameterizedCommand, Boolean> result = new LinkedHashMap<>();
+		for (ParameterizedCommand command : commands) {
+			result.put(command, Boolean.valueOf(canExecute(command)));
+		}
+		return result;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2015 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,9 @@
 package org.eclipse.e4.core.commands.internal;
 
 import jakarta.inject.Inject;
+import java.util.Collection;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.Map;
 import org.eclipse.core.commands.AbstractParameterValueConverter;
@@ -183,6 +185,27 @@ public class HandlerServiceImpl implements EHandlerService {
 		}
 	}
 
+	@Override
+	public Map<ParameterizedCommand, Boolean> canExecute(Collection<ParameterizedCommand> commands) {
+		final IEclipseContext executionContext = getExecutionContext();
+		final ExpressionContext evaluationContext = new ExpressionContext(executionContext);
+		Map<ParameterizedCommand, Boolean> result = new LinkedHashMap<>();
+		for (ParameterizedCommand command : commands) {
+			final IEclipseContext staticContext = EclipseContextFactory.create(TMP_STATIC_CONTEXT);
+			addParms(command, staticContext);
+			push(executionContext, staticContext);
+			try {
+				Command cmd = command.getCommand();
+				cmd.setEnabled(evaluationContext);
+				result.put(command, Boolean.valueOf(cmd.isEnabled()));
+			} finally {
+				pop();
+				staticContext.dispose();
+			}
+		}
+		return result;
+	}
+
 	@Override
 	public void deactivateHandler(String commandId, Object handler) {
 		context.remove(H_ID + commandId);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2020 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,6 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.progress.internal;
 
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.jobs.Job;
@@ -30,16 +27,21 @@ import org.eclipse.swt.graphics.Image;
  * display job status in a tree.
  */
 public class JobInfo extends JobTreeElement {
-	private IStatus blockedStatus;
+	private volatile IStatus blockedStatus;
 
 	private volatile boolean canceled;
-	private final Queue<JobTreeElement> children = new ConcurrentLinkedQueue<>();
+
+	// Set once the progress manager no longer tracks the receiver.
+	private volatile boolean removed;
+
+	// Only the most recent sub task is shown, so a single slot is enough.
+	private volatile SubTaskInfo subTask;
 
 	private final Job job;
 
 	private GroupInfo parent;
 
-	private TaskInfo taskInfo;
+	private volatile TaskInfo taskInfo;
 
 	private ProgressManager progressManager;
 
@@ -61,12 +63,12 @@ public class JobInfo extends JobTreeElement {
 	}
 
 	/**
-	 * Adds the subtask to the receiver.
+	 * Replaces the subtask of the receiver.
 	 *
 	 * @param subTaskName name for the sub task
 	 */
-	void addSubTask(String subTaskName) {
-		children.add(new SubTaskInfo(this, subTaskName));
+	void setSubTask(String subTaskName) {
+		subTask = new SubTaskInfo(this, subTaskName);
 	}
 
 	/**
@@ -75,13 +77,14 @@ public class JobInfo extends JobTreeElement {
 	 * @param workIncrement
 	 */
 	void addWork(double workIncrement) {
-		if (taskInfo == null) {
+		TaskInfo info = taskInfo;
+		if (info == null) {
 			return;
 		}
 		if (parent == null || ticks < 1) {
-			taskInfo.addWork(workIncrement);
+			info.addWork(workIncrement);
 		} else {
-			taskInfo.addWork(workIncrement, parent, ticks);
+			info.addWork(workIncrement, parent, ticks);
 		}
 	}
 
@@ -105,18 +108,34 @@ public class JobInfo extends JobTreeElement {
 		}
 	}
 
+	/**
+	 * Marks the receiver as no longer tracked by the progress manager, so that
+	 * monitors holding on to it look up the current info of the job.
+	 */
+	void setRemoved() {
+		removed = true;
+	}
+
+	/**
+	 * @return whether the progress manager no longer tracks the receiver
+	 */
+	boolean isRemoved() {
+		return removed;
+	}
+
 	/**
 	 * Clears the collection of subtasks an the task info.
 	 */
 	void clearChildren() {
-		children.clear();
+		subTask = null;
 	}
 
 	void clearTaskInfo() {
-		if (finishedJobs != null) {
-			finishedJobs.remove(taskInfo);
-		}
+		TaskInfo info = taskInfo;
 		taskInfo = null;
+		if (finishedJobs != null && info != null) {
+			finishedJobs.remove(info);
+		}
 	}
 
 	/**
@@ -209,7 +228,11 @@ public class JobInfo extends JobTreeElement {
 
 	@Override
 	Object[] getChildren() {
-		return children.toArray();
+		SubTaskInfo info = subTask;
+		if (info == null) {
+			return ProgressManagerUtil.EMPTY_OBJECT_ARRAY;
+		}
+		return new Object[] { info };
 	}
 
 	@Override
@@ -328,7 +351,7 @@ public class JobInfo extends JobTreeElement {
 			if (info.totalWork == 0) {
 				return 0;
 			}
-			return (int) info.preWork * 100 / info.totalWork;
+			return (int) info.getWork() * 100 / info.totalWork;
 		}
 		return IProgressMonitor.UNKNOWN;
 	}
@@ -342,7 +365,7 @@ public class JobInfo extends JobTreeElement {
 
 	@Override
 	boolean hasChildren() {
-		return !children.isEmpty();
+		return subTask != null;
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2022 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,7 @@ package org.eclipse.e4.ui.progress.internal;
 import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
@@ -29,6 +30,8 @@ import java.util.HashSet;
 import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.ICoreRunnable;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -48,12 +51,14 @@ import org.eclipse.e4.ui.progress.internal.legacy.EventLoopProgressMonitor;
 import org.eclipse.e4.ui.progress.internal.legacy.PlatformUI;
 import org.eclipse.e4.ui.progress.internal.legacy.Policy;
 import org.eclipse.jface.dialogs.Dialog;
+import org.eclipse.jface.util.Throttler;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageLoader;
 import org.eclipse.swt.widgets.Display;
 
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.inject.Inject;
 
 /**
@@ -76,10 +81,23 @@ public class ProgressManager extends ProgressProvider {
 
 	private static ProgressManager singleton;
 
-	final private Map<Job, JobInfo> jobs = Collections
-			.synchronizedMap(new HashMap<>());
+	final private Map<Job, JobInfo> jobs = new ConcurrentHashMap<>();
+
+	final Map<Job, JobMonitor> runnableMonitors = new ConcurrentHashMap<>();
+
+	/*
+	 * Jobs and groups whose progress changed since the listeners were last
+	 * notified. Progress is reported far more often than it can be shown, so
+	 * the listeners are refreshed at most once per UI_REFRESH_INTERVAL with the
+	 * state at that time.
+	 */
+	private final Set<JobInfo> pendingJobUpdates = ConcurrentHashMap.newKeySet();
+
+	private final Set<GroupInfo> pendingGroupUpdates = ConcurrentHashMap.newKeySet();
+
+	private static final Duration UI_REFRESH_INTERVAL = Duration.ofMillis(100);
 
-	final Map<Job, JobMonitor> runnableMonitors = new HashMap<>();
+	private Throttler uiRefreshThrottler;
 
 	final private Map<Object, Collection<IJobBusyListener>> familyListeners = Collections
 			.synchronizedMap(new HashMap<>());
@@ -142,6 +160,7 @@ public class ProgressManager extends ProgressProvider {
 		setUpImages();
 
 		changeListener = createChangeListener();
+		uiRefreshThrottler = new Throttler(Display.getDefault(), UI_REFRESH_INTERVAL, this::notifyListeners);
 
 		Job.getJobManager().setProgressProvider(this);
 		Job.getJobManager().addJobChangeListener(this.changeListener);
@@ -173,15 +192,7 @@ public class ProgressManager extends ProgressProvider {
 	 * @return IProgressMonitor
 	 */
 	public JobMonitor progressFor(Job job) {
-		synchronized (runnableMonitors) {
-			JobMonitor monitor = runnableMonitors.get(job);
-			if (monitor == null) {
-				monitor = new JobMonitor(job);
-				runnableMonitors.put(job, monitor);
-			}
-
-			return monitor;
-		}
+		return runnableMonitors.computeIfAbsent(job, JobMonitor::new);
 	}
 
 	@Override
@@ -195,7 +206,7 @@ public class ProgressManager extends ProgressProvider {
 		JobMonitor monitor = progressFor(job);
 		if (group instanceof GroupInfo) {
 			GroupInfo groupInfo = (GroupInfo) group;
-			JobInfo jobInfo = getJobInfo(job);
+			JobInfo jobInfo = monitor.info;
 			jobInfo.setGroupInfo(groupInfo);
 			jobInfo.setTicks(ticks);
 			groupInfo.addJobInfo(jobInfo);
@@ -212,8 +223,7 @@ public class ProgressManager extends ProgressProvider {
 	JobInfo getJobInfo(Job job) {
 		JobInfo info = internalGetJobInfo(job);
 		if (info == null) {
-			info = jobInfoFactory.getJobInfo(job);
-			jobs.put(job, info);
+			info = jobs.computeIfAbsent(job, jobInfoFactory::getJobInfo);
 		}
 		return info;
 	}
@@ -237,6 +247,8 @@ public class ProgressManager extends ProgressProvider {
 	class JobMonitor implements IProgressMonitor {
 		Job job;
 
+		volatile JobInfo info;
+
 		String currentTaskName;
 
 		IProgressMonitor listener;
@@ -248,6 +260,43 @@ public class ProgressManager extends ProgressProvider {
 		 */
 		JobMonitor(Job newJob) {
 			job = newJob;
+			info = getJobInfo(newJob);
+		}
+
+		/**
+		 * Return the info of the job. The cached info is looked up again once
+		 * it has been removed or replaced, e.g. when the job was rescheduled,
+		 * as the listeners are only refreshed for the current info.
+		 *
+		 * @return JobInfo
+		 */
+		JobInfo getInfo() {
+			JobInfo current = internalGetInfo();
+			if (current == null) {
+				current = getJobInfo(job);
+				info = current;
+			}
+			return current;
+		}
+
+		/**
+		 * Return the current info of the job like {@link #getInfo()}, but
+		 * without creating one.
+		 *
+		 * @return JobInfo or <code>null</code> if the job is not tracked
+		 */
+		JobInfo internalGetInfo() {
+			JobInfo current = info;
+			if (current.isRemoved()) {
+				// Use the internal get so we don't create a Job Info for
+				// a job that is not running (see bug 149857)
+				current = internalGetJobInfo(job);
+				if (current == null) {
+					return null;
+				}
+				info = current;
+			}
+			return current;
 		}
 
 		/**
@@ -257,17 +306,17 @@ public class ProgressManager extends ProgressProvider {
 		 */
 		void addProgressListener(IProgressMonitor monitor) {
 			listener = monitor;
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			TaskInfo currentTask = info.getTaskInfo();
 			if (currentTask != null) {
 				listener.beginTask(currentTaskName, currentTask.totalWork);
-				listener.internalWorked(currentTask.preWork);
+				listener.internalWorked(currentTask.getWork());
 			}
 		}
 
 		@Override
 		public void beginTask(String taskName, int totalWork) {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			info.beginTask(taskName, totalWork);
 			refreshJobInfo(info);
 			currentTaskName = taskName;
@@ -278,12 +327,12 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public void done() {
-			synchronized (runnableMonitors) {
-				JobInfo info = getJobInfo(job);
+			JobInfo info = internalGetInfo();
+			if (info != null) {
 				info.clearTaskInfo();
 				info.clearChildren();
-				runnableMonitors.remove(job);
 			}
+			runnableMonitors.remove(job, this);
 			if (listener != null) {
 				listener.done();
 			}
@@ -291,7 +340,7 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public void internalWorked(double work) {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			if (info.hasTaskInfo()) {
 				info.addWork(work);
 				refreshJobInfo(info);
@@ -303,17 +352,13 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public boolean isCanceled() {
-			// Use the internal get so we don't create a Job Info for
-			// a job that is not running (see bug 149857)
-			JobInfo info = internalGetJobInfo(job);
-			if (info == null)
-				return false;
-			return info.isCanceled();
+			JobInfo current = internalGetInfo();
+			return current != null && current.isCanceled();
 		}
 
 		@Override
 		public void setCanceled(boolean value) {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			// Don't bother cancelling twice
 			if (value && !info.isCanceled()) {
 				info.cancel();
@@ -326,7 +371,7 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public void setTaskName(String taskName) {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			if (info.hasTaskInfo()) {
 				info.setTaskName(taskName);
 			} else {
@@ -346,9 +391,8 @@ public class ProgressManager extends ProgressProvider {
 			if (name == null) {
 				return;
 			}
-			JobInfo info = getJobInfo(job);
-			info.clearChildren();
-			info.addSubTask(name);
+			JobInfo info = getInfo();
+			info.setSubTask(name);
 			refreshJobInfo(info);
 			if (listener != null) {
 				listener.subTask(name);
@@ -362,7 +406,7 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public void clearBlocked() {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			info.setBlockedStatus(null);
 			refreshJobInfo(info);
 			if (listener != null) {
@@ -372,7 +416,7 @@ public class ProgressManager extends ProgressProvider {
 
 		@Override
 		public void setBlocked(IStatus reason) {
-			JobInfo info = getJobInfo(job);
+			JobInfo info = getInfo();
 			info.setBlockedStatus(reason);
 			refreshJobInfo(info);
 			if (listener != null) {
@@ -560,18 +604,49 @@ public class ProgressManager extends ProgressProvider {
 
 	/**
 	 * Refresh the IJobProgressManagerListeners as a result of a change in info.
+	 * The listeners are not notified right away, but with the next throttled
+	 * UI refresh.
 	 *
 	 * @param info the updated job info
 	 */
 	public void refreshJobInfo(JobInfo info) {
 		GroupInfo group = info.getGroupInfo();
 		if (group != null) {
-			refreshGroup(group);
+			pendingGroupUpdates.add(group);
 		}
+		pendingJobUpdates.add(info);
 
-		for (IJobProgressManagerListener listener : listeners) {
-			if (!isNeverDisplaying(info.getJob(), listener.showsDebug())) {
-				listener.refreshJobInfo(info);
+		Throttler throttler = uiRefreshThrottler;
+		if (throttler == null) {
+			// Not initialized yet, so there is no display to refresh on.
+			notifyListeners();
+		} else {
+			throttler.throttledExec();
+		}
+	}
+
+	/**
+	 * Notify the IJobProgressManagerListeners of the jobs and groups updated
+	 * since the last call. Each element is refreshed once with its state at
+	 * the time of the call, however often it changed in between.
+	 */
+	void notifyListeners() {
+		for (Iterator<GroupInfo> iterator = pendingGroupUpdates.iterator(); iterator.hasNext();) {
+			GroupInfo group = iterator.next();
+			iterator.remove();
+			refreshGroup(group);
+		}
+		for (Iterator<JobInfo> iterator = pendingJobUpdates.iterator(); iterator.hasNext();) {
+			JobInfo info = iterator.next();
+			iterator.remove();
+			// The listeners have already been told if the job was removed
+			if (jobs.get(info.getJob()) != info) {
+				continue;
+			}
+			for (IJobProgressManagerListener listener : listeners) {
+				if (!isNeverDisplaying(info.getJob(), listener.showsDebug())) {
+					listener.refreshJobInfo(info);
+				}
 			}
 		}
 	}
@@ -608,12 +683,14 @@ public class ProgressManager extends ProgressProvider {
 	 * @return the removed job info
 	 */
 	public JobInfo removeJob(Job job) {
-		JobInfo info;
-		synchronized (runnableMonitors) {
-			info = getJobInfo(job);
-			jobs.remove(job);
-			runnableMonitors.remove(job);
+		JobInfo info = jobs.remove(job);
+		if (info == null) {
+			info = jobInfoFactory.getJobInfo(job);
+		} else {
+			info.setRemoved();
 		}
+		runnableMonitors.remove(job);
+		pendingJobUpdates.remove(info);
 
 		for (IJobProgressManagerListener listener : listeners) {
 			if (!isNeverDisplaying(info.getJob(), listener.showsDebug())) {
@@ -659,7 +736,10 @@ public class ProgressManager extends ProgressProvider {
 			refreshGroup(group);
 		}
 
-		jobs.put(info.getJob(), info);
+		JobInfo previous = jobs.put(info.getJob(), info);
+		if (previous != null && previous != info) {
+			previous.setRemoved();
+		}
 		for (IJobProgressManagerListener listener : listeners) {
 			if (!isCurrentDisplaying(info.getJob(), listener.showsDebug())) {
 				listener.addJob(info);
@@ -716,17 +796,15 @@ public class ProgressManager extends ProgressProvider {
 	 * @return JobInfo[]
 	 */
 	public JobInfo[] getJobInfos(boolean debug) {
-		synchronized (jobs) {
-			Collection<JobInfo> result = new ArrayList<>();
-			for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
-				if (!isCurrentDisplaying(entry.getKey(), debug)) {
-					result.add(entry.getValue());
-				}
+		Collection<JobInfo> result = new ArrayList<>();
+		for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
+			if (!isCurrentDisplaying(entry.getKey(), debug)) {
+				result.add(entry.getValue());
 			}
-			JobInfo[] infos = new JobInfo[result.size()];
-			result.toArray(infos);
-			return infos;
 		}
+		JobInfo[] infos = new JobInfo[result.size()];
+		result.toArray(infos);
+		return infos;
 	}
 
 	/**
@@ -736,23 +814,21 @@ public class ProgressManager extends ProgressProvider {
 	 * @return JobTreeElement[]
 	 */
 	public JobTreeElement[] getRootElements(boolean debug) {
-		synchronized (jobs) {
-			Collection<JobTreeElement> result = new HashSet<>();
-			for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
-				if (!isCurrentDisplaying(entry.getKey(), debug)) {
-					JobInfo jobInfo = entry.getValue();
-					GroupInfo group = jobInfo.getGroupInfo();
-					if (group == null) {
-						result.add(jobInfo);
-					} else {
-						result.add(group);
-					}
+		Collection<JobTreeElement> result = new HashSet<>();
+		for (Entry<Job, JobInfo> entry : jobs.entrySet()) {
+			if (!isCurrentDisplaying(entry.getKey(), debug)) {
+				JobInfo jobInfo = entry.getValue();
+				GroupInfo group = jobInfo.getGroupInfo();
+				if (group == null) {
+					result.add(jobInfo);
+				} else {
+					result.add(group);
 				}
 			}
-			JobTreeElement[] infos = new JobTreeElement[result.size()];
-			result.toArray(infos);
-			return infos;
 		}
+		JobTreeElement[] infos = new JobTreeElement[result.size()];
+		result.toArray(infos);
+		return infos;
 	}
 
 	/**
@@ -761,9 +837,7 @@ public class ProgressManager extends ProgressProvider {
 	 * @return boolean
 	 */
 	public boolean hasJobInfos() {
-		synchronized (jobs) {
-			return !jobs.isEmpty();
-		}
+		return !jobs.isEmpty();
 	}
 
 	/**
@@ -798,8 +872,11 @@ public class ProgressManager extends ProgressProvider {
 	/**
 	 * Shutdown the receiver.
 	 */
-	private void shutdown() {
+	@PreDestroy
+	protected void shutdown() {
 		listeners.clear();
+		pendingJobUpdates.clear();
+		pendingGroupUpdates.clear();
 		Job.getJobManager().setProgressProvider(null);
 		Job.getJobManager().removeJobChangeListener(this.changeListener);
 	}
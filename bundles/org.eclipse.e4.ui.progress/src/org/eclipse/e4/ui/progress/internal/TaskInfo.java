@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2015 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,6 +13,8 @@
  *******************************************************************************/
 package org.eclipse.e4.ui.progress.internal;
 
+import java.util.concurrent.atomic.DoubleAdder;
+
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.osgi.util.NLS;
 
@@ -22,7 +24,8 @@ import org.eclipse.osgi.util.NLS;
  * deleted.
  */
 public class TaskInfo extends SubTaskInfo {
-	double preWork = 0;
+	// Updated by the job's thread and read by the UI without locking.
+	private final DoubleAdder preWork = new DoubleAdder();
 
 	int totalWork = 0;
 
@@ -50,7 +53,7 @@ public class TaskInfo extends SubTaskInfo {
 		if (totalWork == IProgressMonitor.UNKNOWN) {
 			return;
 		}
-		preWork += workIncrement;
+		preWork.add(workIncrement);
 
 	}
 
@@ -76,6 +79,15 @@ public class TaskInfo extends SubTaskInfo {
 		parentMonitor.internalWorked(workIncrement * parentTicks / totalWork);
 	}
 
+	/**
+	 * Return the amount of work done so far.
+	 *
+	 * @return double
+	 */
+	double getWork() {
+		return preWork.sum();
+	}
+
 	@Override
 	String getDisplayString(boolean showProgress) {
 
@@ -134,7 +146,7 @@ public class TaskInfo extends SubTaskInfo {
 			return IProgressMonitor.UNKNOWN;
 		}
 
-		return Math.min((int) (preWork * 100 / totalWork), 100);
+		return Math.min((int) (getWork() * 100 / totalWork), 100);
 	}
 
 	/**
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,7 @@ import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 import org.eclipse.jface.internal.text.SelectionProcessor;
 
@@ -1733,4 +1734,139 @@ public class ProjectionViewer extends SourceViewer implements ITextViewerExtensi
 
 		return -1;
 	}
+
+	@Override
+	protected int replaceAll(String findString, String replaceString, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IRegion range, IProgressMonitor monitor) {
+
+		if (!isProjectionMode())
+			return super.replaceAll(findString, replaceString, caseSensitive, wholeWord, regExSearch, range, monitor);
+
+		if (getTextWidget() == null)
+			return 0;
+
+		FindReplaceDocumentAdapter adapter= getFindReplaceDocumentAdapter();
+		IRegion modelRange= range == null ? new Region(0, adapter.length()) : range;
+		setRedraw(false);
+		try {
+			/*
+			 * The adapter works on the master document and replaces all matches in one change, which
+			 * expands every collapsed region between the first and the last match. Replacing the matches
+			 * one after the other only expands the collapsed regions containing a match, so the other
+			 * ones are collapsed again afterwards.
+			 */
+			List<ProjectionAnnotation> collapsed= getCollapsedAnnotations(modelRange);
+			if (!collapsed.isEmpty()) {
+				List<IRegion> matches= findAll(adapter, modelRange, findString, caseSensitive, wholeWord, regExSearch);
+				collapsed.removeIf(annotation -> containsMatch(fProjectionAnnotationModel.getPosition(annotation), matches));
+			}
+
+			int count= adapter.replaceAll(modelRange.getOffset(), modelRange.getLength(), findString, replaceString, caseSensitive, wholeWord, regExSearch, monitor);
+			if (count > 0)
+				collapseAgain(collapsed);
+			return count;
+		} catch (BadLocationException x) {
+			if (TRACE_ERRORS)
+				System.out.println("ProjectionViewer.replaceAll: BadLocationException"); //$NON-NLS-1$
+		} finally {
+			setRedraw(true);
+		}
+
+		return 0;
+	}
+
+	/**
+	 * Returns the collapsed projection annotations overlapping with the given model range.
+	 *
+	 * @param modelRange the model range
+	 * @return the collapsed projection annotations
+	 */
+	private List<ProjectionAnnotation> getCollapsedAnnotations(IRegion modelRange) {
+		List<ProjectionAnnotation> collapsed= new ArrayList<>();
+		Iterator<Annotation> iterator= fProjectionAnnotationModel.getAnnotationIterator();
+		while (iterator.hasNext()) {
+			ProjectionAnnotation annotation= (ProjectionAnnotation) iterator.next();
+			if (annotation.isCollapsed()) {
+				Position position= fProjectionAnnotationModel.getPosition(annotation);
+				if (position != null && position.overlapsWith(modelRange.getOffset(), modelRange.getLength()))
+					collapsed.add(annotation);
+			}
+		}
+		return collapsed;
+	}
+
+	/**
+	 * Returns the non-empty matches inside the given model range in ascending order, like they are
+	 * found by replacing them one after the other.
+	 *
+	 * @param adapter the find/replace adapter of the master document
+	 * @param modelRange the model range to search in
+	 * @param findString the find string specification
+	 * @param caseSensitive <code>true</code> if case sensitive, <code>false</code> otherwise
+	 * @param wholeWord <code>true</code> if matches must be whole words, <code>false</code> otherwise
+	 * @param regExSearch <code>true</code> if <code>findString</code> is a regular expression, <code>false</code> otherwise
+	 * @return the matches
+	 * @throws BadLocationException if the range is not inside the document
+	 */
+	private List<IRegion> findAll(FindReplaceDocumentAdapter adapter, IRegion modelRange, String findString, boolean caseSensitive, boolean wholeWord, boolean regExSearch) throws BadLocationException {
+		List<IRegion> matches= new ArrayList<>();
+		int end= modelRange.getOffset() + modelRange.getLength();
+		int offset= modelRange.getOffset();
+		while (offset <= end) {
+			IRegion match= adapter.find(offset, findString, true, caseSensitive, wholeWord, regExSearch);
+			if (match == null || match.getLength() == 0 || match.getOffset() + match.getLength() > end)
+				break;
+			matches.add(match);
+			offset= match.getOffset() + match.getLength();
+		}
+		return matches;
+	}
+
+	/**
+	 * Tells whether one of the given matches would expand the collapsed region at the given
+	 * position, see {@link #exposeModelRange(IRegion)}.
+	 *
+	 * @param position the position of the collapsed region, may be <code>null</code>
+	 * @param matches the matches in ascending order
+	 * @return <code>true</code> if a match overlaps with the position
+	 */
+	private static boolean containsMatch(Position position, List<IRegion> matches) {
+		if (position == null)
+			return false;
+
+		// the first match ending after the start of the position is the only candidate
+		int low= 0;
+		int high= matches.size();
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			IRegion match= matches.get(mid);
+			if (match.getOffset() + match.getLength() <= position.getOffset())
+				low= mid + 1;
+			else
+				high= mid;
+		}
+		if (low == matches.size())
+			return false;
+
+		IRegion match= matches.get(low);
+		return position.overlapsWith(match.getOffset(), match.getLength());
+	}
+
+	/**
+	 * Collapses the given projection annotations again if they are still part of the projection
+	 * annotation model. The model is notified once.
+	 *
+	 * @param annotations the annotations to collapse
+	 */
+	private void collapseAgain(List<ProjectionAnnotation> annotations) {
+		List<Annotation> modified= new ArrayList<>();
+		for (ProjectionAnnotation annotation : annotations) {
+			Position position= fProjectionAnnotationModel.getPosition(annotation);
+			if (position != null && !position.isDeleted() && !annotation.isCollapsed()) {
+				annotation.markCollapsed();
+				modified.add(annotation);
+			}
+		}
+		if (!modified.isEmpty())
+			fProjectionAnnotationModel.modifyAnnotations(null, null, modified.toArray(new Annotation[modified.size()]));
+	}
 }
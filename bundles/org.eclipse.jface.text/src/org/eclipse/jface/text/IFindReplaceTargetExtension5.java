@@ -0,0 +1,58 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.jface.text;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+
+
+/**
+ * Extension interface for {@link org.eclipse.jface.text.IFindReplaceTarget}.
+ * <p>
+ * Allows to replace all occurrences of a find string in one go instead of
+ * finding and replacing them one after the other. All replacements are applied
+ * as a single change of the target's document, which results in a single undo
+ * step.
+ *
+ * @since 3.25
+ */
+public interface IFindReplaceTargetExtension5 {
+
+	/**
+	 * Replaces all occurrences of a string inside this target's scope, or inside the whole
+	 * target if there is no scope. The result is the same as finding forward from the
+	 * beginning and replacing each occurrence with
+	 * {@link IFindReplaceTargetExtension3#replaceSelection(String, boolean)}.
+	 * <p>
+	 * This target must be editable. Otherwise nothing happens.
+	 *
+	 * @param findString the specification of what should be found
+	 * @param replaceString the specification of the substitution text
+	 * @param caseSensitive <code>true</code> performs a case sensitive search, <code>false</code> an insensitive search
+	 * @param wholeWord if <code>true</code> only occurrences are reported in which the findString stands as a word by itself.
+	 * 				Must not be used in combination with <code>regExSearch</code>.
+	 * @param regExSearch if <code>true</code> findString represents a regular expression and
+	 * 				<code>replaceString</code> the substitution for its matches.
+	 * 				Must not be used in combination with <code>wholeWord</code>.
+	 * @param monitor the progress monitor to report progress and check for cancellation,
+	 * 				may be <code>null</code>
+	 * @return the number of replaced occurrences, or -1 if this target cannot replace all
+	 * 				occurrences in one go. Clients then have to find and replace the
+	 * 				occurrences one after the other.
+	 * @throws java.util.regex.PatternSyntaxException if regExSearch is <code>true</code> and
+	 * 				findString or replaceString are invalid regular expressions
+	 * @throws org.eclipse.core.runtime.OperationCanceledException if the monitor has been
+	 * 				canceled, nothing has been replaced in that case
+	 */
+	int replaceAll(String findString, String replaceString, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IProgressMonitor monitor);
+}
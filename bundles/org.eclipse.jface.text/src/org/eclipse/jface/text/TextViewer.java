@@ -66,6 +66,7 @@ import org.eclipse.swt.widgets.ScrollBar;
 import org.eclipse.swt.widgets.Shell;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
 
 import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.internal.text.NonDeletingPositionUpdater;
@@ -765,7 +766,7 @@ public class TextViewer extends Viewer implements
 	/**
 	 * This viewer's find/replace target.
 	 */
-	class FindReplaceTarget implements IFindReplaceTarget, IFindReplaceTargetExtension, IFindReplaceTargetExtension3, IFindReplaceTargetExtension4 {
+	class FindReplaceTarget implements IFindReplaceTarget, IFindReplaceTargetExtension, IFindReplaceTargetExtension3, IFindReplaceTargetExtension4, IFindReplaceTargetExtension5 {
 
 		/** The range for this target. */
 		private FindReplaceRange fRange;
@@ -851,6 +852,15 @@ public class TextViewer extends Viewer implements
 			return widgetOffset;
 		}
 
+		@Override
+		public int replaceAll(String findString, String replaceString, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IProgressMonitor monitor) {
+			if (!isEditable())
+				return 0;
+
+			IRegion range= fRange == null ? null : fRange.getRange();
+			return TextViewer.this.replaceAll(findString, replaceString, caseSensitive, wholeWord, regExSearch, range, monitor);
+		}
+
 		@Override
 		public boolean canPerformFind() {
 			return TextViewer.this.canPerformFind();
@@ -4700,6 +4710,39 @@ public class TextViewer extends Viewer implements
 		return -1;
 	}
 
+	/**
+	 * Adheres to the contract of
+	 * {@link org.eclipse.jface.text.IFindReplaceTargetExtension5#replaceAll(String, String, boolean, boolean, boolean, IProgressMonitor)}.
+	 *
+	 * @param findString the find string specification
+	 * @param replaceString the substitution text specification
+	 * @param caseSensitive <code>true</code> if case sensitive, <code>false</code> otherwise
+	 * @param wholeWord <code>true</code> if matches must be whole words, <code>false</code> otherwise
+	 * @param regExSearch <code>true</code> if <code>findString</code> is a regular expression, <code>false</code> otherwise
+	 * @param range the model range of the search scope, or <code>null</code> to search the whole visible document
+	 * @param monitor the progress monitor, may be <code>null</code>
+	 * @return the number of replaced occurrences
+	 * @since 3.25
+	 */
+	protected int replaceAll(String findString, String replaceString, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IRegion range, IProgressMonitor monitor) {
+		if (fTextWidget == null)
+			return 0;
+
+		FindReplaceDocumentAdapter adapter= getFindReplaceDocumentAdapter();
+		IRegion widgetRange= range == null ? new Region(0, adapter.length()) : modelRange2WidgetRange(range);
+		if (widgetRange == null)
+			return 0;
+
+		try {
+			return adapter.replaceAll(widgetRange.getOffset(), widgetRange.getLength(), findString, replaceString, caseSensitive, wholeWord, regExSearch, monitor);
+		} catch (BadLocationException x) {
+			if (TRACE_ERRORS)
+				System.out.println(JFaceTextMessages.getString("TextViewer.error.bad_location.replaceAll")); //$NON-NLS-1$
+		}
+
+		return 0;
+	}
+
 	//---------- text presentation support
 
 	@Override
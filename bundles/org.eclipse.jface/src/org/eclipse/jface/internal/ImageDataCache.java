@@ -0,0 +1,468 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.internal;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.util.Policy;
+import org.eclipse.swt.graphics.ImageData;
+import org.eclipse.swt.graphics.PaletteData;
+import org.eclipse.swt.graphics.RGB;
+
+/**
+ * Caches decoded image data for the image descriptors of JFace.
+ * <p>
+ * The cache has two tiers:
+ * </p>
+ * <ul>
+ * <li>Image data preloaded in the background with
+ * {@link #preload(Object, int, Supplier)}. Each entry is handed out once by
+ * {@link #takePreloaded(Object, int)} and is only softly referenced until
+ * then. At most {@value #MAX_PRELOADED} entries are kept.</li>
+ * <li>An optional persistent cache of the image data decoded from local image
+ * files. Every entry is a file holding the raw pixels, so that later sessions
+ * do not need to decode PNG or GIF files again. An entry is only used if the
+ * modification time and size of its image file did not change. When the
+ * entries grow beyond {@value #MAX_DIRECTORY_SIZE} bytes, the oldest ones are
+ * deleted.</li>
+ * </ul>
+ *
+ * @since 3.33
+ * @noinstantiate This class is not intended to be instantiated by clients.
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class ImageDataCache {
+
+	/** Marks a cache file, "JFID". */
+	private static final int MAGIC = 0x4A464944;
+
+	/** Version of the file format, to be increased on every change. */
+	private static final int FORMAT_VERSION = 2;
+
+	/** Image data with more pixel bytes is not worth to be cached. */
+	private static final int MAX_DATA_SIZE = 1 << 20;
+
+	/** Maximum number of preloaded entries not taken yet. */
+	private static final int MAX_PRELOADED = 256;
+
+	/** Maximum size of the persistent cache in bytes. */
+	private static final long MAX_DIRECTORY_SIZE = 32L << 20;
+
+	/** Number of stores after which the size of the persistent cache is checked. */
+	private static final int PRUNE_INTERVAL = 64;
+
+	private static final String FILE_EXTENSION = ".img"; //$NON-NLS-1$
+
+	private static final ImageDataCache INSTANCE = new ImageDataCache();
+
+	/**
+	 * Image data that has been preloaded for a zoom level.
+	 */
+	private static final class Preloaded {
+		final int zoom;
+		final SoftReference<ImageData> data;
+
+		Preloaded(int zoom, ImageData data) {
+			this.zoom = zoom;
+			this.data = new SoftReference<>(data);
+		}
+	}
+
+	/**
+	 * A file of the persistent cache.
+	 */
+	private static final class Entry {
+		final Path file;
+		final BasicFileAttributes attributes;
+
+		Entry(Path file, BasicFileAttributes attributes) {
+			this.file = file;
+			this.attributes = attributes;
+		}
+	}
+
+	private final Map<Object, Preloaded> preloaded = new ConcurrentHashMap<>();
+
+	private final Set<CompletableFuture<Void>> pendingStores = ConcurrentHashMap.newKeySet();
+
+	private final AtomicInteger storeCount = new AtomicInteger();
+
+	private volatile Path directory;
+
+	private ImageDataCache() {
+	}
+
+	/**
+	 * @return the singleton instance
+	 */
+	public static ImageDataCache getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Sets the directory of the persistent cache. The size of an existing cache
+	 * is checked in the background.
+	 *
+	 * @param directory the directory to store decoded image data in, or
+	 *                  <code>null</code> to disable the persistent cache
+	 */
+	public void setDirectory(Path directory) {
+		this.directory = directory;
+		if (directory != null) {
+			track(CompletableFuture.runAsync(() -> prune(directory, MAX_DIRECTORY_SIZE)));
+		}
+	}
+
+	/**
+	 * @return whether image data decoded from image files is stored
+	 *         persistently
+	 */
+	public boolean isPersistent() {
+		return directory != null;
+	}
+
+	/**
+	 * Computes the image data for the given key and zoom level in the
+	 * background. The result can be obtained once with
+	 * {@link #takePreloaded(Object, int)}. Nothing is kept if there are too many
+	 * preloaded entries which have not been taken yet.
+	 *
+	 * @param key    the key of the image, usually an image descriptor
+	 * @param zoom   the zoom level the image data is computed for
+	 * @param loader computes the image data, it is called in a background thread
+	 *               and may return <code>null</code>
+	 * @return a future which completes when the image data is available
+	 */
+	public CompletableFuture<Void> preload(Object key, int zoom, Supplier<ImageData> loader) {
+		return CompletableFuture.runAsync(() -> {
+			ImageData data = loader.get();
+			if (data == null) {
+				return;
+			}
+			if (preloaded.size() >= MAX_PRELOADED) {
+				preloaded.values().removeIf(entry -> entry.data.get() == null);
+			}
+			if (preloaded.size() < MAX_PRELOADED || preloaded.containsKey(key)) {
+				preloaded.put(key, new Preloaded(zoom, data));
+			}
+		});
+	}
+
+	/**
+	 * @param key the key of the image
+	 * @return whether there is preloaded image data for the given key
+	 */
+	public boolean hasPreloaded(Object key) {
+		return preloaded.containsKey(key);
+	}
+
+	/**
+	 * Returns and forgets the image data preloaded for the given key and zoom
+	 * level.
+	 *
+	 * @param key  the key of the image
+	 * @param zoom the zoom level
+	 * @return the preloaded image data, or <code>null</code> if there is none
+	 */
+	public ImageData takePreloaded(Object key, int zoom) {
+		Preloaded entry = preloaded.get(key);
+		if (entry == null || entry.zoom != zoom || !preloaded.remove(key, entry)) {
+			return null;
+		}
+		return entry.data.get();
+	}
+
+	/**
+	 * Returns the image data stored for the given image file by
+	 * {@link #store(Path, long, ImageData)}.
+	 *
+	 * @param file  the image file
+	 * @param stamp the modification stamp of the image file, see
+	 *              {@link #getStamp(Path)}
+	 * @return the image data, or <code>null</code> if there is no valid entry
+	 */
+	public ImageData load(Path file, long stamp) {
+		Path dir = directory;
+		if (dir == null || stamp == 0) {
+			return null;
+		}
+		String key = file.toString();
+		Path entry = getFile(dir, key);
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(entry)))) {
+			return read(in, key, stamp, Files.size(entry));
+		} catch (NoSuchFileException e) {
+			return null;
+		} catch (IOException | RuntimeException e) {
+			// a corrupt entry is a cache miss, it gets replaced by the next store
+			return null;
+		}
+	}
+
+	/**
+	 * Stores the image data decoded from the given image file. The entry is
+	 * written in the background.
+	 *
+	 * @param file  the image file
+	 * @param stamp the modification stamp of the image file, see
+	 *              {@link #getStamp(Path)}
+	 * @param data  the decoded image data
+	 * @return a future which completes when the entry has been written or
+	 *         skipped
+	 */
+	public CompletableFuture<Void> store(Path file, long stamp, ImageData data) {
+		Path dir = directory;
+		if (dir == null || stamp == 0 || data.data == null || data.data.length > MAX_DATA_SIZE) {
+			return CompletableFuture.completedFuture(null);
+		}
+		String key = file.toString();
+		boolean prune = storeCount.incrementAndGet() % PRUNE_INTERVAL == 0;
+		return track(CompletableFuture.runAsync(() -> {
+			try {
+				byte[] bytes = write(data, key, stamp);
+				Files.createDirectories(dir);
+				Path temp = Files.createTempFile(dir, null, null);
+				try {
+					Files.write(temp, bytes);
+					Files.move(temp, getFile(dir, key), StandardCopyOption.REPLACE_EXISTING,
+							StandardCopyOption.ATOMIC_MOVE);
+				} finally {
+					Files.deleteIfExists(temp);
+				}
+			} catch (IOException e) {
+				Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE, e.getLocalizedMessage(), e));
+			}
+			if (prune) {
+				prune(dir, MAX_DIRECTORY_SIZE);
+			}
+		}));
+	}
+
+	/**
+	 * @return a future which completes when all entries stored so far have been
+	 *         written and the size of the persistent cache has been checked
+	 */
+	public CompletableFuture<Void> flush() {
+		return CompletableFuture.allOf(pendingStores.toArray(new CompletableFuture[0]));
+	}
+
+	/**
+	 * Deletes the oldest entries of the persistent cache until it is not larger
+	 * than three quarters of the given size. Nothing is deleted while the cache
+	 * is not larger than the given size.
+	 *
+	 * @param dir     the directory of the persistent cache
+	 * @param maxSize the maximum size in bytes
+	 */
+	public static void prune(Path dir, long maxSize) {
+		List<Entry> entries = new ArrayList<>();
+		long size = 0;
+		try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + FILE_EXTENSION)) { //$NON-NLS-1$
+			for (Path file : stream) {
+				Entry entry = new Entry(file, Files.readAttributes(file, BasicFileAttributes.class));
+				entries.add(entry);
+				size += entry.attributes.size();
+			}
+		} catch (NoSuchFileException e) {
+			return;
+		} catch (IOException e) {
+			Policy.getLog().log(new Status(IStatus.WARNING, Policy.JFACE, e.getLocalizedMessage(), e));
+			return;
+		}
+		if (size <= maxSize) {
+			return;
+		}
+		entries.sort(Comparator.comparing(entry -> entry.attributes.lastModifiedTime()));
+		long target = maxSize / 4 * 3;
+		for (int i = 0; i < entries.size() && size > target; i++) {
+			Entry entry = entries.get(i);
+			try {
+				Files.deleteIfExists(entry.file);
+				size -= entry.attributes.size();
+			} catch (IOException e) {
+				// still in use, try the next one
+			}
+		}
+	}
+
+	/**
+	 * Returns a stamp which changes whenever the contents of the given image
+	 * file change. For files in installed bundles, this changes when the bundle
+	 * is updated.
+	 *
+	 * @param file the image file
+	 * @return the stamp, or <code>0</code> if it is unknown
+	 */
+	public static long getStamp(Path file) {
+		try {
+			BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+			long modified = attributes.lastModifiedTime().toMillis();
+			if (modified == 0) {
+				return 0;
+			}
+			return modified * 31 + attributes.size();
+		} catch (IOException e) {
+			return 0;
+		}
+	}
+
+	private CompletableFuture<Void> track(CompletableFuture<Void> future) {
+		pendingStores.add(future);
+		future.whenComplete((result, e) -> pendingStores.remove(future));
+		return future;
+	}
+
+	private static Path getFile(Path dir, String key) {
+		return dir.resolve(Integer.toHexString(key.hashCode()) + Integer.toHexString(key.length()) + FILE_EXTENSION);
+	}
+
+	private static byte[] write(ImageData data, String key, long stamp) throws IOException {
+		ByteArrayOutputStream bytes = new ByteArrayOutputStream(data.data.length + 256);
+		try (DataOutputStream out = new DataOutputStream(bytes)) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(stamp);
+			writeBytes(out, key.getBytes(StandardCharsets.UTF_8));
+			out.writeInt(data.width);
+			out.writeInt(data.height);
+			out.writeInt(data.depth);
+			out.writeInt(data.scanlinePad);
+			out.writeInt(data.bytesPerLine);
+			PaletteData palette = data.palette;
+			out.writeBoolean(palette.isDirect);
+			if (palette.isDirect) {
+				out.writeInt(palette.redMask);
+				out.writeInt(palette.greenMask);
+				out.writeInt(palette.blueMask);
+			} else {
+				out.writeInt(palette.colors.length);
+				for (RGB rgb : palette.colors) {
+					out.writeByte(rgb.red);
+					out.writeByte(rgb.green);
+					out.writeByte(rgb.blue);
+				}
+			}
+			out.writeInt(data.transparentPixel);
+			out.writeInt(data.maskPad);
+			out.writeInt(data.alpha);
+			out.writeInt(data.type);
+			out.writeInt(data.x);
+			out.writeInt(data.y);
+			out.writeInt(data.disposalMethod);
+			out.writeInt(data.delayTime);
+			writeBytes(out, data.data);
+			writeBytes(out, data.maskData);
+			writeBytes(out, data.alphaData);
+		}
+		return bytes.toByteArray();
+	}
+
+	private static ImageData read(DataInputStream in, String key, long stamp, long size) throws IOException {
+		if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION || in.readLong() != stamp) {
+			return null;
+		}
+		byte[] storedKey = readBytes(in, size);
+		if (storedKey == null || !key.equals(new String(storedKey, StandardCharsets.UTF_8))) {
+			return null;
+		}
+		int width = in.readInt();
+		int height = in.readInt();
+		int depth = in.readInt();
+		int scanlinePad = in.readInt();
+		int bytesPerLine = in.readInt();
+		PaletteData palette;
+		if (in.readBoolean()) {
+			palette = new PaletteData(in.readInt(), in.readInt(), in.readInt());
+		} else {
+			int count = in.readInt();
+			if (count < 0 || count > size) {
+				return null;
+			}
+			RGB[] colors = new RGB[count];
+			for (int i = 0; i < colors.length; i++) {
+				colors[i] = new RGB(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+			}
+			palette = new PaletteData(colors);
+		}
+		int transparentPixel = in.readInt();
+		int maskPad = in.readInt();
+		int alpha = in.readInt();
+		int type = in.readInt();
+		int x = in.readInt();
+		int y = in.readInt();
+		int disposalMethod = in.readInt();
+		int delayTime = in.readInt();
+		byte[] pixels = readBytes(in, size);
+		ImageData data = new ImageData(width, height, depth, palette, scanlinePad, pixels);
+		if (data.bytesPerLine != bytesPerLine) {
+			return null;
+		}
+		data.transparentPixel = transparentPixel;
+		data.maskPad = maskPad;
+		data.alpha = alpha;
+		data.type = type;
+		data.x = x;
+		data.y = y;
+		data.disposalMethod = disposalMethod;
+		data.delayTime = delayTime;
+		data.maskData = readBytes(in, size);
+		data.alphaData = readBytes(in, size);
+		return data;
+	}
+
+	private static void writeBytes(DataOutputStream out, byte[] bytes) throws IOException {
+		if (bytes == null) {
+			out.writeInt(-1);
+		} else {
+			out.writeInt(bytes.length);
+			out.write(bytes);
+		}
+	}
+
+	private static byte[] readBytes(DataInputStream in, long size) throws IOException {
+		int length = in.readInt();
+		if (length < 0) {
+			return null;
+		}
+		if (length > size) {
+			throw new EOFException();
+		}
+		byte[] bytes = new byte[length];
+		in.readFully(bytes);
+		return bytes;
+	}
+}
@@ -23,6 +23,7 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URL;
 import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -31,6 +32,7 @@ import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -123,6 +125,10 @@ class FileImageDescriptor extends ImageDescriptor implements IAdaptable {
 	 */
 	@Override
 	public ImageData getImageData(int zoom) {
+		ImageData preloaded = ImageDataCache.getInstance().takePreloaded(this, zoom);
+		if (preloaded != null) {
+			return preloaded;
+		}
 		InputStream in = getStream(zoom);
 		if (in != null) {
 			try (BufferedInputStream stream = new BufferedInputStream(in)) {
@@ -139,6 +145,11 @@ class FileImageDescriptor extends ImageDescriptor implements IAdaptable {
 		return null;
 	}
 
+	@Override
+	public CompletableFuture<Void> preload(int zoom) {
+		return ImageDataCache.getInstance().preload(this, zoom, () -> getImageData(zoom));
+	}
+
 	/**
 	 * Returns a stream on the image contents. Returns null if a stream could
 	 * not be opened.
@@ -240,6 +251,10 @@ class FileImageDescriptor extends ImageDescriptor implements IAdaptable {
 
 	@Override
 	public Image createImage(boolean returnMissingImageOnError, Device device) {
+		if (ImageDataCache.getInstance().hasPreloaded(this)) {
+			// the preloaded image data is only used through the data provider
+			return super.createImage(returnMissingImageOnError, device);
+		}
 		if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
 			try {
 				// We really want a fresh ImageFileNameProvider instance to make
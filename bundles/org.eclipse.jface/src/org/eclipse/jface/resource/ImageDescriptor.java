@@ -16,6 +16,7 @@ package org.eclipse.jface.resource;
 import java.net.MalformedURLException;
 import java.net.URI;
 import java.net.URL;
+import java.util.concurrent.CompletableFuture;
 import java.util.function.Supplier;
 
 import org.eclipse.swt.SWTException;
@@ -413,6 +414,30 @@ public abstract class ImageDescriptor extends DeviceResourceDescriptor<Image> {
 		return getImageData(100);
 	}
 
+	/**
+	 * Starts computing the image data of this descriptor for the given zoom
+	 * level in a background thread. A subsequent call to one of the
+	 * <code>createImage</code> methods then only needs to allocate the image on
+	 * the device instead of reading and decoding the image file in the UI
+	 * thread.
+	 * <p>
+	 * Preloaded image data is used by the next image created for this
+	 * descriptor and is dropped when memory is low.
+	 * </p>
+	 * <p>
+	 * The default implementation does nothing. Descriptors created from URLs and
+	 * files support preloading.
+	 * </p>
+	 *
+	 * @param zoom the zoom level in % of the standard resolution, see
+	 *             {@link #getImageData(int)}
+	 * @return a future which completes when the image data has been computed
+	 * @since 3.33
+	 */
+	public CompletableFuture<Void> preload(int zoom) {
+		return CompletableFuture.completedFuture(null);
+	}
+
 	/**
 	 * Returns the shared image descriptor for a missing image.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -201,6 +201,13 @@ public class JFaceResources {
 	 */
 	private static final int CACHE_SIZE = Integer.getInteger("org.eclipse.jface.resource.cacheSize", 300).intValue(); //$NON-NLS-1$
 
+	/**
+	 * Upper bound for the estimated native size of unreferenced resources kept
+	 * in the cache, unbounded by default.
+	 */
+	private static final long CACHE_BYTES = Long.getLong("org.eclipse.jface.resource.cacheBytes", Long.MAX_VALUE) //$NON-NLS-1$
+			.longValue();
+
 	/**
 	 * Returns the global resource manager for the given display
 	 *
@@ -217,7 +224,7 @@ public class JFaceResources {
 			if (CACHE_SIZE == 0) {
 				reg = new DeviceResourceManager(toQuery);
 			} else {
-				reg = new LazyResourceManager(CACHE_SIZE, new DeviceResourceManager(toQuery));
+				reg = new LazyResourceManager(CACHE_SIZE, CACHE_BYTES, new DeviceResourceManager(toQuery));
 			}
 			registries.put(toQuery, reg);
 			final ResourceManager mgr = reg;
@@ -14,55 +14,76 @@
 package org.eclipse.jface.resource;
 
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 
 import org.eclipse.pde.api.tools.annotations.NoReference;
+import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Device;
+import org.eclipse.swt.graphics.Font;
 import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.graphics.Rectangle;
 
 /**
  * A LRU based ResourceManager Wrapper. Not to be used by clients.
+ * <p>
+ * The LRU is bounded by the number of unreferenced resources and optionally by
+ * their estimated native size. Counters for requests, reused resources,
+ * allocations and evictions allow to judge whether the cache is big enough.
+ * </p>
  */
 @NoReference
 public class LazyResourceManager extends ResourceManager {
 	/**
-	 * This LRU Map only holds the DeviceResourceDescriptors which are not
-	 * referenced otherwise anymore. The Resources itself are only cached by the
-	 * parent ResourceManager.
+	 * Estimated native size of a font, which cannot be measured.
 	 */
-	private static class LruMap extends LinkedHashMap<DeviceResourceDescriptor<?>, ResourceManager> {
-		private static final long serialVersionUID = 1L;
-		int cacheSize;
-
-		LruMap(int cacheSize) {
-			super(cacheSize, 0.75f, true); // last access-order
-			this.cacheSize = cacheSize;
-		}
+	private static final long FONT_SIZE_ESTIMATE = 4096;
 
-		@Override
-		protected boolean removeEldestEntry(java.util.Map.Entry<DeviceResourceDescriptor<?>, ResourceManager> eldest) {
-			boolean remove = size() > cacheSize;
-			if (remove) {
-				// destroy resource which was not used recently:
-				eldest.getValue().destroy(eldest.getKey());
-			}
-			return remove;
-		}
-	}
+	/**
+	 * Estimated native size of resources other than images and fonts.
+	 */
+	private static final long DEFAULT_SIZE_ESTIMATE = 64;
 
 	private final ResourceManager parent;
-	private final LruMap unreferenced;
+	/**
+	 * This LRU Map only holds the DeviceResourceDescriptors which are not
+	 * referenced otherwise anymore, mapped to the estimated size of their
+	 * resources. The Resources itself are only cached by the parent
+	 * ResourceManager.
+	 */
+	private final LinkedHashMap<DeviceResourceDescriptor<?>, Long> unreferenced;
 	private final Map<DeviceResourceDescriptor<?>, Integer> refCount;
+	private final int cacheSize;
+	private final long maxCachedBytes;
+	private long cachedBytes;
+
+	private long requestCount;
+	private long hitCount;
+	private long allocationCount;
+	private long evictionCount;
 
 	/**
 	 * @param cacheSize the lru cache size
 	 * @param parent    ResourceManager
 	 */
 	public LazyResourceManager(int cacheSize, ResourceManager parent) {
+		this(cacheSize, Long.MAX_VALUE, parent);
+	}
+
+	/**
+	 * @param cacheSize      the maximum number of unreferenced resources kept
+	 * @param maxCachedBytes the maximum estimated native size of all
+	 *                       unreferenced resources kept
+	 * @param parent         ResourceManager
+	 * @since 3.33
+	 */
+	public LazyResourceManager(int cacheSize, long maxCachedBytes, ResourceManager parent) {
 		this.parent = parent;
-		this.unreferenced = new LruMap(cacheSize);
+		this.unreferenced = new LinkedHashMap<>(cacheSize, 0.75f, true); // last access-order
 		this.refCount = new HashMap<>();
+		this.cacheSize = cacheSize;
+		this.maxCachedBytes = maxCachedBytes;
 	}
 
 	@Override
@@ -88,14 +109,18 @@ public class LazyResourceManager extends ResourceManager {
 		if (!shouldBeCached(descriptor)) {
 			return parent.create(descriptor);
 		}
+		requestCount++;
 		@SuppressWarnings("boxing")
 		int updatedRefs = refCount.compute(descriptor, (k, refs) -> refs == null ? 1 : refs + 1);
 		if (updatedRefs == 1) {
-			ResourceManager cached = unreferenced.remove(descriptor);
+			Long cached = unreferenced.remove(descriptor);
 			if (cached == null) {
+				allocationCount++;
 				return parent.create(descriptor);
 			}
 			// referenced again
+			cachedBytes -= cached.longValue();
+			hitCount++;
 		} else {
 			assert !unreferenced.containsKey(descriptor);
 		}
@@ -112,9 +137,111 @@ public class LazyResourceManager extends ResourceManager {
 		Integer refsLeft = refCount.computeIfPresent(descriptor, (k, refs) -> refs == 1 ? null : (refs - 1));
 		if (refsLeft == null) {
 			// defer destroy:
-			ResourceManager old = unreferenced.put(descriptor, parent);
+			long size = estimateSize(parent.find(descriptor));
+			Long old = unreferenced.put(descriptor, Long.valueOf(size));
 			assert old == null;
+			cachedBytes += size;
+			trim();
+		}
+	}
+
+	/**
+	 * Destroys the least recently used resources until the cache fits into its
+	 * bounds.
+	 */
+	private void trim() {
+		Iterator<Map.Entry<DeviceResourceDescriptor<?>, Long>> iterator = unreferenced.entrySet().iterator();
+		while ((unreferenced.size() > cacheSize || cachedBytes > maxCachedBytes) && iterator.hasNext()) {
+			Map.Entry<DeviceResourceDescriptor<?>, Long> eldest = iterator.next();
+			iterator.remove();
+			cachedBytes -= eldest.getValue().longValue();
+			evictionCount++;
+			// destroy resource which was not used recently:
+			parent.destroy(eldest.getKey());
+		}
+	}
+
+	/**
+	 * Estimates the native memory used by the given resource.
+	 *
+	 * @param resource the resource, may be <code>null</code>
+	 * @return the estimated size in bytes
+	 */
+	private static long estimateSize(Object resource) {
+		if (resource instanceof Image) {
+			Image image = (Image) resource;
+			if (image.isDisposed()) {
+				return 0;
+			}
+			Rectangle bounds = image.getBounds();
+			return 4L * bounds.width * bounds.height;
+		}
+		if (resource instanceof Font) {
+			return FONT_SIZE_ESTIMATE;
 		}
+		if (resource instanceof Color || resource == null) {
+			return 0;
+		}
+		return DEFAULT_SIZE_ESTIMATE;
+	}
+
+	/**
+	 * @return the number of resources requested from this manager
+	 * @since 3.33
+	 */
+	public long getRequestCount() {
+		return requestCount;
+	}
+
+	/**
+	 * @return the number of requests which reused an unreferenced resource kept
+	 *         in the cache
+	 * @since 3.33
+	 */
+	public long getHitCount() {
+		return hitCount;
+	}
+
+	/**
+	 * @return the number of resources allocated by the parent resource manager
+	 *         on behalf of this manager
+	 * @since 3.33
+	 */
+	public long getAllocationCount() {
+		return allocationCount;
+	}
+
+	/**
+	 * @return the number of unreferenced resources destroyed because the cache
+	 *         was full
+	 * @since 3.33
+	 */
+	public long getEvictionCount() {
+		return evictionCount;
+	}
+
+	/**
+	 * @return the number of unreferenced resources currently kept
+	 * @since 3.33
+	 */
+	public int getCachedCount() {
+		return unreferenced.size();
+	}
+
+	/**
+	 * @return the estimated native size of the unreferenced resources currently
+	 *         kept
+	 * @since 3.33
+	 */
+	public long getCachedBytes() {
+		return cachedBytes;
+	}
+
+	@Override
+	public String toString() {
+		return "LazyResourceManager [requests=" + requestCount + ", hits=" + hitCount + ", allocations=" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				+ allocationCount + ", evictions=" + evictionCount + ", cached=" + unreferenced.size() //$NON-NLS-1$ //$NON-NLS-2$
+				+ ", cachedBytes=" + cachedBytes + "]"; //$NON-NLS-1$ //$NON-NLS-2$
 	}
 
 	@Override
@@ -15,7 +15,9 @@
 package org.eclipse.jface.resource;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.Status;
@@ -196,6 +198,29 @@ public abstract class ResourceManager {
 		}
 	}
 
+	/**
+	 * Computes the image data of the given image descriptors in the background,
+	 * so that a later {@link #create(DeviceResourceDescriptor)} for them only
+	 * needs to allocate the images. Descriptors whose image has already been
+	 * allocated by this manager are skipped.
+	 *
+	 * @param descriptors the descriptors of images that will be created soon
+	 * @param zoom        the zoom level in % of the standard resolution which
+	 *                    the images will be created for
+	 * @return a future which completes when all image data has been computed
+	 * @see ImageDescriptor#preload(int)
+	 * @since 3.33
+	 */
+	public CompletableFuture<Void> preload(Collection<? extends ImageDescriptor> descriptors, int zoom) {
+		List<CompletableFuture<Void>> futures = new ArrayList<>(descriptors.size());
+		for (ImageDescriptor descriptor : descriptors) {
+			if (descriptor != null && find(descriptor) == null) {
+				futures.add(descriptor.preload(zoom));
+			}
+		}
+		return CompletableFuture.allOf(futures.toArray(new CompletableFuture[futures.size()]));
+	}
+
 	/**
 	 * Returns the default image that will be returned in the event that the intended
 	 * image is missing.
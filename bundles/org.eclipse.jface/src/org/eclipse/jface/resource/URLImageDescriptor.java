@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,12 +22,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
 
 import org.eclipse.core.runtime.FileLocator;
 import org.eclipse.core.runtime.IAdaptable;
 import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Status;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.util.Policy;
 import org.eclipse.swt.SWT;
@@ -134,7 +137,25 @@ class URLImageDescriptor extends ImageDescriptor implements IAdaptable {
 		return getImageData(url, zoom);
 	}
 
+	@Override
+	public CompletableFuture<Void> preload(int zoom) {
+		return ImageDataCache.getInstance().preload(url, zoom, () -> getImageData(url, zoom));
+	}
+
 	private static ImageData getImageData(String url, int zoom) {
+		ImageData preloaded = ImageDataCache.getInstance().takePreloaded(url, zoom);
+		if (preloaded != null) {
+			return preloaded;
+		}
+		if (ImageDataCache.getInstance().isPersistent()) {
+			// the same zoom specific file that an image created with a
+			// URLImageFileNameProvider would use
+			String path = new URLImageFileNameProvider(url).getImagePath(zoom);
+			ImageData cached = path != null ? getCachedImageData(path) : null;
+			if (cached != null) {
+				return cached;
+			}
+		}
 		URL tempURL = getURL(url);
 		if (tempURL != null) {
 			if (zoom == 100) {
@@ -158,6 +179,33 @@ class URLImageDescriptor extends ImageDescriptor implements IAdaptable {
 		return null;
 	}
 
+	/**
+	 * Returns the image data of the given image file from the persistent cache,
+	 * or decodes the file and stores the result in the cache.
+	 *
+	 * @param path the path of the image file
+	 * @return the image data, or <code>null</code> if the file cannot be read
+	 */
+	private static ImageData getCachedImageData(String path) {
+		ImageDataCache cache = ImageDataCache.getInstance();
+		Path file = Path.of(path);
+		long stamp = ImageDataCache.getStamp(file);
+		ImageData result = cache.load(file, stamp);
+		if (result != null) {
+			return result;
+		}
+		try {
+			result = new ImageData(path);
+		} catch (SWTException e) {
+			if (e.code != SWT.ERROR_INVALID_IMAGE && e.code != SWT.ERROR_IO) {
+				throw e;
+			}
+			return null;
+		}
+		cache.store(file, stamp, result);
+		return result;
+	}
+
 	private static ImageData getImageData(URL url) {
 		ImageData result = null;
 		try (InputStream in = getStream(url)) {
@@ -292,7 +340,11 @@ class URLImageDescriptor extends ImageDescriptor implements IAdaptable {
 		}
 		try {
 			if (InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_2x) {
-				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY) {
+				// cached or preloaded image data is only used through the data
+				// provider, which reads the same zoom specific files
+				ImageDataCache cache = ImageDataCache.getInstance();
+				boolean useCache = cache.isPersistent() || cache.hasPreloaded(url);
+				if (!InternalPolicy.DEBUG_LOAD_URL_IMAGE_DESCRIPTOR_DIRECTLY && !useCache) {
 					try {
 						// We really want a fresh ImageFileNameProvider instance to make
 						// sure the code that uses created images can use equals(),
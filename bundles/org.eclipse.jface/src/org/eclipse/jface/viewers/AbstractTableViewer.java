@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -54,6 +54,19 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 		 */
 		private Object[] cachedElements = new Object[0];
 
+		/**
+		 * Whether {@link #find(Object)} has searched the cache since it was
+		 * last set.
+		 */
+		private boolean searched;
+
+		/**
+		 * Row indices of the elements in {@link #cachedElements}, or
+		 * <code>null</code> if the cache has been searched at most once since
+		 * it was last set.
+		 */
+		private ElementMap cachedIndices;
+
 		/**
 		 * Create a new instance of the receiver.
 		 *
@@ -139,7 +152,7 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 						cachedElements.length - index);
 			}
 			newCache[index] = element;
-			cachedElements = newCache;
+			setCachedElements(newCache);
 
 			doSetItemCount(requiredCount);
 		}
@@ -167,7 +180,7 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 					newCache[indexInNewCache++] = cachedElements[i];
 				}
 			}
-			cachedElements = newCache;
+			setCachedElements(newCache);
 		}
 
 		/**
@@ -193,7 +206,24 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 		 * @return the index of the element in the cache, or null
 		 */
 		public int find(Object element) {
-			return Arrays.asList(cachedElements).indexOf(element);
+			if (element == null) {
+				return Arrays.asList(cachedElements).indexOf(null);
+			}
+			if (!searched) {
+				// a single lookup is cheaper as a scan than building the index
+				searched = true;
+				return Arrays.asList(cachedElements).indexOf(element);
+			}
+			if (cachedIndices == null) {
+				cachedIndices = new ElementMap(cachedElements.length, null, true);
+				// iterate backwards so that the first occurrence wins, like indexOf
+				for (int i = cachedElements.length - 1; i >= 0; i--) {
+					if (cachedElements[i] != null) {
+						cachedIndices.putIndex(cachedElements[i], i);
+					}
+				}
+			}
+			return cachedIndices.getIndex(element);
 		}
 
 		/**
@@ -205,15 +235,34 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 			} else if (count < cachedElements.length) {
 				Object[] newCache = new Object[count];
 				System.arraycopy(cachedElements, 0, newCache, 0, count);
-				cachedElements = newCache;
+				setCachedElements(newCache);
 			} else {
 				Object[] newCache = new Object[count];
 				System.arraycopy(cachedElements, 0, newCache, 0,
 						cachedElements.length);
-				cachedElements = newCache;
+				setCachedElements(newCache);
 			}
 		}
 
+		/**
+		 * Replaces the cache and discards the index of the previous one.
+		 *
+		 * @param elements
+		 */
+		public void setCachedElements(Object[] elements) {
+			cachedElements = elements;
+			invalidateIndex();
+		}
+
+		/**
+		 * Discards the index of the cache, for example because the elements
+		 * may have changed in place.
+		 */
+		public void invalidateIndex() {
+			searched = false;
+			cachedIndices = null;
+		}
+
 	}
 
 	private VirtualManager virtualManager;
@@ -661,10 +710,12 @@ public abstract class AbstractTableViewer extends ColumnViewer {
 				&& (contentProvider instanceof IStructuredContentProvider)) {
 			// Don't cache if the root is null but cache if it is not lazy.
 			if (root != null) {
-				virtualManager.cachedElements = getSortedChildren(root);
+				virtualManager.setCachedElements(getSortedChildren(root));
 				doSetItemCount(virtualManager.cachedElements.length);
 			}
 		}
+		// the content provider may have returned the same array with other contents
+		virtualManager.invalidateIndex();
 		doClearAll();
 	}
 
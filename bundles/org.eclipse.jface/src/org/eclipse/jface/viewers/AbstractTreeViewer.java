@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -25,9 +25,16 @@ package org.eclipse.jface.viewers;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IStatus;
@@ -38,13 +45,16 @@ import org.eclipse.jface.util.Policy;
 import org.eclipse.jface.util.SafeRunnable;
 import org.eclipse.jface.viewers.internal.ExpandableNode;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.SWTException;
 import org.eclipse.swt.custom.BusyIndicator;
+import org.eclipse.swt.events.DisposeEvent;
 import org.eclipse.swt.events.SelectionEvent;
 import org.eclipse.swt.events.SelectionListener;
 import org.eclipse.swt.events.TreeEvent;
 import org.eclipse.swt.events.TreeListener;
 import org.eclipse.swt.graphics.Point;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Item;
 import org.eclipse.swt.widgets.TreeItem;
 import org.eclipse.swt.widgets.Widget;
@@ -112,6 +122,50 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 */
 	private boolean isTreePathContentProvider = false;
 
+	/**
+	 * Indicates if the children of nodes expanded by the user are computed in
+	 * the background.
+	 *
+	 * @see #setExpandInBackground(boolean)
+	 */
+	private boolean expandInBackground = false;
+
+	/**
+	 * Background expansions that have not inserted all their items yet, keyed
+	 * by the expanded item. Only accessed in the UI thread.
+	 */
+	private final Map<Widget, BackgroundExpansion> backgroundExpansions = new HashMap<>();
+
+	/**
+	 * The number of items a background expansion inserts at a time.
+	 */
+	private static final int BACKGROUND_EXPANSION_CHUNK_SIZE = 200;
+
+	/**
+	 * The maximum number of threads computing the children of background
+	 * expansions.
+	 */
+	private static final int MAX_BACKGROUND_EXPANSION_THREADS = Math.max(1,
+			Math.min(4, Runtime.getRuntime().availableProcessors() / 2));
+
+	/**
+	 * The executor computing the children of background expansions of all
+	 * viewers. Content providers may block, so they are kept off the common
+	 * pool. Its threads end when they have been idle for a while.
+	 */
+	private static final ThreadPoolExecutor BACKGROUND_EXPANSION_EXECUTOR;
+
+	static {
+		AtomicInteger threadCount = new AtomicInteger();
+		BACKGROUND_EXPANSION_EXECUTOR = new ThreadPoolExecutor(MAX_BACKGROUND_EXPANSION_THREADS,
+				MAX_BACKGROUND_EXPANSION_THREADS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+					Thread thread = new Thread(runnable, "Tree Expansion " + threadCount.incrementAndGet()); //$NON-NLS-1$
+					thread.setDaemon(true);
+					return thread;
+				});
+		BACKGROUND_EXPANSION_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
 	/**
 	 * Safe runnable used to update an item.
 	 */
@@ -132,6 +186,239 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 	}
 
+	/**
+	 * Computes the children of an expanded item in the background and inserts
+	 * them in chunks in the UI thread.
+	 *
+	 * @see AbstractTreeViewer#setExpandInBackground(boolean)
+	 */
+	private final class BackgroundExpansion {
+		private final Item item;
+
+		private final Object element;
+
+		private final Object parentElementOrTreePath;
+
+		private final TreePath sorterParentPath;
+
+		private final IContentProvider contentProvider;
+
+		private final ViewerFilter[] filters;
+
+		private final ViewerComparator comparator;
+
+		private final Display display;
+
+		private volatile boolean canceled;
+
+		private CompletableFuture<Object[]> future;
+
+		private Object[] rawChildren;
+
+		private Object[] children;
+
+		private int inserted;
+
+		BackgroundExpansion(Item item) {
+			this.item = item;
+			this.element = item.getData();
+			this.parentElementOrTreePath = isTreePathContentProvider ? getTreePathFromItem(item) : element;
+			this.comparator = getComparator();
+			this.sorterParentPath = internalGetSorterParentPath(item, comparator);
+			this.contentProvider = getContentProvider();
+			this.filters = getFilters();
+			this.display = item.getDisplay();
+		}
+
+		/**
+		 * Starts computing the children in the background.
+		 */
+		void start() {
+			future = CompletableFuture.supplyAsync(this::computeChildren, BACKGROUND_EXPANSION_EXECUTOR);
+			future.whenComplete((result, error) -> {
+				if (canceled || display.isDisposed()) {
+					return;
+				}
+				try {
+					display.asyncExec(() -> {
+						if (canceled) {
+							return;
+						}
+						if (error != null) {
+							// compute the children again in the UI thread and
+							// let failures surface there as they would without
+							// background expansion
+							backgroundExpansions.remove(item);
+							if (!item.isDisposed()) {
+								createChildren(item);
+							}
+							return;
+						}
+						children = result;
+						insertChunk();
+					});
+				} catch (SWTException e) {
+					// the display was disposed meanwhile
+				}
+			});
+		}
+
+		/**
+		 * Fetches, filters and sorts the children. Runs in a background thread
+		 * and must not access any widgets.
+		 *
+		 * @return the sorted and filtered children or <code>null</code> if
+		 *         canceled
+		 */
+		private Object[] computeChildren() {
+			Object[] result = null;
+			if (contentProvider instanceof ITreePathContentProvider && parentElementOrTreePath instanceof TreePath) {
+				result = ((ITreePathContentProvider) contentProvider).getChildren((TreePath) parentElementOrTreePath);
+			} else if (contentProvider instanceof ITreeContentProvider) {
+				result = ((ITreeContentProvider) contentProvider).getChildren(element);
+			}
+			if (result == null) {
+				result = new Object[0];
+			}
+			for (Object child : result) {
+				// null elements are reported by the synchronous fallback
+				Assert.isNotNull(child);
+			}
+			rawChildren = result;
+			for (ViewerFilter filter : filters) {
+				if (canceled) {
+					return null;
+				}
+				result = filter.filter(AbstractTreeViewer.this, parentElementOrTreePath, result);
+			}
+			if (canceled) {
+				return null;
+			}
+			if (comparator != null) {
+				result = result.clone();
+				if (comparator instanceof TreePathViewerSorter) {
+					((TreePathViewerSorter) comparator).sort(AbstractTreeViewer.this, sorterParentPath, result);
+				} else {
+					comparator.sort(AbstractTreeViewer.this, result);
+				}
+			}
+			return result;
+		}
+
+		/**
+		 * Inserts the next chunk of children and schedules the following one.
+		 */
+		private void insertChunk() {
+			if (item.isDisposed() || item.getData() != element) {
+				backgroundExpansions.remove(item);
+				return;
+			}
+			if (isBusy()) {
+				display.asyncExec(() -> {
+					if (!canceled) {
+						insertChunk();
+					}
+				});
+				return;
+			}
+			if (!insert(BACKGROUND_EXPANSION_CHUNK_SIZE)) {
+				return;
+			}
+			if (inserted < children.length) {
+				display.asyncExec(() -> {
+					if (!canceled) {
+						insertChunk();
+					}
+				});
+			} else {
+				backgroundExpansions.remove(item);
+			}
+		}
+
+		/**
+		 * Inserts up to the given number of children, replacing the dummy
+		 * items with the first chunk.
+		 *
+		 * @param count the maximum number of children to insert
+		 * @return <code>false</code> if the children of the item were changed
+		 *         by someone else and this expansion was abandoned
+		 */
+		private boolean insert(int count) {
+			Item[] existing = null;
+			if (inserted == 0) {
+				existing = getChildren(item);
+				if (existing.length > 0 && existing[0].getData() != null) {
+					// populated synchronously meanwhile
+					abandon();
+					return false;
+				}
+			} else if (getItemCount(item) != inserted) {
+				// children were added or removed while inserting
+				abandon();
+				preservingSelection(() -> internalRefreshStruct(item, element, false));
+				return false;
+			}
+
+			boolean oldBusy = isBusy();
+			setBusy(true);
+			try {
+				int end = Math.min(children.length, inserted + count);
+				for (int i = inserted; i < end; i++) {
+					createTreeItem(item, children[i], -1);
+				}
+				if (existing != null) {
+					for (Item dummy : existing) {
+						if (dummy.getData() != null) {
+							disassociate(dummy);
+						}
+						dummy.dispose();
+					}
+					internalNotifyFilteredOut(rawChildren, children);
+				}
+				inserted = end;
+			} finally {
+				setBusy(oldBusy);
+			}
+			return true;
+		}
+
+		/**
+		 * Stops this expansion. Children inserted so far are kept.
+		 */
+		void abandon() {
+			canceled = true;
+			if (future != null) {
+				// skips the computation if it has not started yet
+				future.cancel(false);
+			}
+			if (backgroundExpansions.get(item) == this) {
+				backgroundExpansions.remove(item);
+			}
+		}
+
+		/**
+		 * Cancels this expansion if none of its children have been inserted
+		 * yet, so that the next expansion starts over. Otherwise the remaining
+		 * children are still inserted.
+		 */
+		void cancel() {
+			if (children == null) {
+				abandon();
+			}
+		}
+
+		/**
+		 * Inserts all remaining children right away if some have been
+		 * inserted already, and stops this expansion.
+		 */
+		void complete() {
+			if (children != null && inserted > 0 && !item.isDisposed() && item.getData() == element) {
+				insert(children.length);
+			}
+			abandon();
+		}
+	}
+
 	/**
 	 * Creates an abstract tree viewer. The viewer has no input, no content
 	 * provider, a default label provider, no sorter, no filters, and has
@@ -818,6 +1105,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 * 			  true if children are expected to be fully materialized
 	 */
 	void createChildren(final Widget widget, boolean materialize) {
+		BackgroundExpansion expansion = backgroundExpansions.remove(widget);
+		if (expansion != null) {
+			expansion.complete();
+		}
 		boolean oldBusy = isBusy();
 		setBusy(true);
 		try {
@@ -1567,6 +1858,10 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 *            the SWT tree event
 	 */
 	protected void handleTreeCollapse(TreeEvent event) {
+		BackgroundExpansion expansion = backgroundExpansions.get(event.item);
+		if (expansion != null) {
+			expansion.cancel();
+		}
 		if (event.item.getData() != null) {
 			fireTreeCollapsed(new TreeExpansionEvent(this, event.item.getData()));
 		}
@@ -1579,12 +1874,57 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 	 *            the SWT tree event
 	 */
 	protected void handleTreeExpand(TreeEvent event) {
-		createChildren(event.item);
+		if (!startBackgroundExpansion(event.item)) {
+			createChildren(event.item);
+		}
 		if (event.item.getData() != null) {
 			fireTreeExpanded(new TreeExpansionEvent(this, event.item.getData()));
 		}
 	}
 
+	/**
+	 * Starts computing the children of the given widget in the background if
+	 * background expansion is enabled and applicable.
+	 *
+	 * @param widget the expanded widget
+	 * @return <code>true</code> if the children are or already were being
+	 *         computed in the background, <code>false</code> if they have to be
+	 *         created synchronously
+	 */
+	private boolean startBackgroundExpansion(Widget widget) {
+		if (!expandInBackground || !(widget instanceof Item) || widget.getData() == null || getItemsLimit() > 0
+				|| isBusy()) {
+			return false;
+		}
+		if (backgroundExpansions.containsKey(widget)) {
+			return true;
+		}
+		Item[] items = getChildren(widget);
+		if (items.length > 0 && items[0].getData() != null) {
+			return false; // children already there
+		}
+		BackgroundExpansion expansion = new BackgroundExpansion((Item) widget);
+		backgroundExpansions.put(widget, expansion);
+		expansion.start();
+		return true;
+	}
+
+	/**
+	 * Stops all background expansions.
+	 */
+	private void cancelBackgroundExpansions() {
+		for (BackgroundExpansion expansion : new ArrayList<>(backgroundExpansions.values())) {
+			expansion.abandon();
+		}
+		backgroundExpansions.clear();
+	}
+
+	@Override
+	protected void handleDispose(DisposeEvent event) {
+		cancelBackgroundExpansions();
+		super.handleDispose(event);
+	}
+
 	@Override
 	protected void hookControl(Control control) {
 		super.hookControl(control);
@@ -1603,6 +1943,7 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 
 	@Override
 	protected void inputChanged(Object input, Object oldInput) {
+		cancelBackgroundExpansions();
 		preservingSelection(() -> {
 			Control tree = getControl();
 			tree.setRedraw(false);
@@ -3352,6 +3693,58 @@ public abstract class AbstractTreeViewer extends ColumnViewer {
 		}
 	}
 
+	/**
+	 * Sets whether the children of a node the user expands are computed in the
+	 * background.
+	 * <p>
+	 * When enabled, expanding a node whose children have not been created yet
+	 * returns immediately. The content provider, the filters and the comparator
+	 * are then called in a background thread, and the resulting items are
+	 * inserted in chunks so that the UI stays responsive. Collapsing the node
+	 * before the children are known, or disposing the viewer, cancels the
+	 * computation. Nodes expanded
+	 * programmatically, for example by {@link #expandToLevel(Object, int)}, are
+	 * still populated synchronously, as are nodes of viewers with an items
+	 * limit.
+	 * </p>
+	 * <p>
+	 * Only enable this if the content provider, the filters and the comparator,
+	 * including the label provider it may consult, can be called from a thread
+	 * other than the UI thread.
+	 * </p>
+	 *
+	 * @param expandInBackground <code>true</code> to compute children in the
+	 *                           background
+	 * @see #isExpandInBackground()
+	 * @since 3.33
+	 */
+	public void setExpandInBackground(boolean expandInBackground) {
+		this.expandInBackground = expandInBackground;
+		if (!expandInBackground) {
+			// populate pending nodes synchronously, createChildren completes
+			// their background expansions
+			for (BackgroundExpansion expansion : new ArrayList<>(backgroundExpansions.values())) {
+				if (expansion.item.isDisposed()) {
+					expansion.abandon();
+				} else {
+					createChildren(expansion.item);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns whether the children of a node the user expands are computed in
+	 * the background.
+	 *
+	 * @return <code>true</code> if children are computed in the background
+	 * @see #setExpandInBackground(boolean)
+	 * @since 3.33
+	 */
+	public boolean isExpandInBackground() {
+		return expandInBackground;
+	}
+
 	/**
 	 * @param widget
 	 * @return if the given widget's children has an expandable node at the end.
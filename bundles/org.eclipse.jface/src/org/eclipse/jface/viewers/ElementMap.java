@@ -0,0 +1,370 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.jface.viewers;
+
+/**
+ * ElementMap associates viewer elements with widgets or with row indices.
+ * Keys are compared with an optional {@link IElementComparer}, like in
+ * {@link CustomHashtable}. Keys and values cannot be null.
+ * <p>
+ * The map uses open addressing with linear probing over parallel arrays of
+ * keys, cached hash codes and values, so that it does not allocate an entry
+ * object per element. A map created in index mode stores <code>int</code>
+ * values in a primitive array instead of an object array.
+ * </p>
+ */
+/* package */final class ElementMap {
+
+	/**
+	 * The smallest table size, must be a power of two.
+	 */
+	private static final int MIN_CAPACITY = 8;
+
+	private final IElementComparer comparer;
+
+	/** The keys, <code>null</code> for free slots. */
+	private Object[] keys;
+
+	/** The spread hash codes of the keys. */
+	private int[] hashes;
+
+	/** The values in object mode, <code>null</code> in index mode. */
+	private Object[] values;
+
+	/** The values in index mode, <code>null</code> in object mode. */
+	private int[] indices;
+
+	private int size;
+
+	/** The number of keys at which the table grows. */
+	private int threshold;
+
+	/**
+	 * Constructs a new map holding widgets or other objects.
+	 *
+	 * @param expectedSize the number of elements that can be added without
+	 *                     growing the table
+	 * @param comparer     the element comparer to use to compare keys and
+	 *                     obtain hash codes for keys, or <code>null</code> to
+	 *                     use the normal <code>equals</code> and
+	 *                     <code>hashCode</code> methods
+	 */
+	public ElementMap(int expectedSize, IElementComparer comparer) {
+		this(expectedSize, comparer, false);
+	}
+
+	/**
+	 * Constructs a new map.
+	 *
+	 * @param expectedSize the number of elements that can be added without
+	 *                     growing the table
+	 * @param comparer     the element comparer to use to compare keys and
+	 *                     obtain hash codes for keys, or <code>null</code> to
+	 *                     use the normal <code>equals</code> and
+	 *                     <code>hashCode</code> methods
+	 * @param indexMode    <code>true</code> to map elements to row indices with
+	 *                     {@link #putIndex(Object, int)} and
+	 *                     {@link #getIndex(Object)}, <code>false</code> to map
+	 *                     them to objects
+	 */
+	public ElementMap(int expectedSize, IElementComparer comparer, boolean indexMode) {
+		if (expectedSize < 0) {
+			throw new IllegalArgumentException();
+		}
+		this.comparer = comparer;
+		allocate(capacityFor(expectedSize), indexMode);
+	}
+
+	/**
+	 * Constructs a new map with all keys and values of the given map, using the
+	 * given element comparer.
+	 *
+	 * @param map      the map to copy from
+	 * @param comparer the element comparer to use to compare keys and obtain
+	 *                 hash codes for keys, or <code>null</code> to use the
+	 *                 normal <code>equals</code> and <code>hashCode</code>
+	 *                 methods
+	 */
+	public ElementMap(ElementMap map, IElementComparer comparer) {
+		this(map.size, comparer, map.indices != null);
+		Object[] oldKeys = map.keys;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				if (indices != null) {
+					putIndex(oldKeys[i], map.indices[i]);
+				} else {
+					put(oldKeys[i], map.values[i]);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the element comparer used to compare keys and to obtain hash
+	 * codes for keys, or <code>null</code> if no comparer has been provided.
+	 *
+	 * @return the element comparer or <code>null</code>
+	 */
+	public IElementComparer getComparer() {
+		return comparer;
+	}
+
+	/**
+	 * Answers the value associated with the given key.
+	 *
+	 * @param key the key of the value returned
+	 * @return the value associated with the given key, <code>null</code> if the
+	 *         key does not exist
+	 */
+	public Object get(Object key) {
+		int slot = find(key);
+		return slot < 0 ? null : values[slot];
+	}
+
+	/**
+	 * Answers the row index associated with the given key in a map created in
+	 * index mode.
+	 *
+	 * @param key the key of the index returned
+	 * @return the index associated with the given key, <code>-1</code> if the
+	 *         key does not exist
+	 */
+	public int getIndex(Object key) {
+		int slot = find(key);
+		return slot < 0 ? -1 : indices[slot];
+	}
+
+	/**
+	 * Answers if this map contains the given key.
+	 *
+	 * @param key the key to look for
+	 * @return <code>true</code> if the key exists, <code>false</code> otherwise
+	 */
+	public boolean containsKey(Object key) {
+		return find(key) >= 0;
+	}
+
+	/**
+	 * Associates the given value with the given key. If the key already exists,
+	 * the old key and value are replaced. The key and value cannot be null.
+	 *
+	 * @param key   the key to add
+	 * @param value the value to add
+	 * @return the old value associated with the given key, <code>null</code> if
+	 *         the key did not exist
+	 */
+	public Object put(Object key, Object value) {
+		if (value == null) {
+			throw new NullPointerException();
+		}
+		int slot = insert(key);
+		Object result = values[slot];
+		values[slot] = value;
+		return result;
+	}
+
+	/**
+	 * Associates the given row index with the given key in a map created in
+	 * index mode. If the key already exists, the old key and index are
+	 * replaced. The key cannot be null.
+	 *
+	 * @param key   the key to add
+	 * @param index the index to add
+	 */
+	public void putIndex(Object key, int index) {
+		int slot = insert(key);
+		indices[slot] = index;
+	}
+
+	/**
+	 * Removes the given key and its value.
+	 *
+	 * @param key the key to remove
+	 * @return the value associated with the given key in object mode,
+	 *         <code>null</code> if the key did not exist or in index mode
+	 */
+	public Object remove(Object key) {
+		int slot = find(key);
+		if (slot < 0) {
+			return null;
+		}
+		Object result = values != null ? values[slot] : null;
+		delete(slot);
+		return result;
+	}
+
+	/**
+	 * Answers the number of keys in this map.
+	 *
+	 * @return the number of keys
+	 */
+	public int size() {
+		return size;
+	}
+
+	@Override
+	public String toString() {
+		if (size == 0) {
+			return "{}"; //$NON-NLS-1$
+		}
+		StringBuilder buffer = new StringBuilder();
+		buffer.append('{');
+		for (int i = 0; i < keys.length; i++) {
+			if (keys[i] != null) {
+				buffer.append(keys[i]);
+				buffer.append('=');
+				buffer.append(values != null ? values[i] : Integer.valueOf(indices[i]));
+				buffer.append(", "); //$NON-NLS-1$
+			}
+		}
+		buffer.setLength(buffer.length() - 2);
+		buffer.append('}');
+		return buffer.toString();
+	}
+
+	/**
+	 * Returns the slot of the given key, or <code>-1</code> if the key does
+	 * not exist.
+	 */
+	private int find(Object key) {
+		int hash = hash(key);
+		int mask = keys.length - 1;
+		for (int slot = hash & mask;; slot = (slot + 1) & mask) {
+			Object candidate = keys[slot];
+			if (candidate == null) {
+				return -1;
+			}
+			if (hashes[slot] == hash && keyEquals(key, candidate)) {
+				return slot;
+			}
+		}
+	}
+
+	/**
+	 * Returns the slot of the given key, adding the key if it does not exist
+	 * yet. An existing key is replaced to avoid hanging onto keys that are
+	 * equal but "old", see bug 30607.
+	 */
+	private int insert(Object key) {
+		int hash = hash(key);
+		int mask = keys.length - 1;
+		int slot = hash & mask;
+		for (Object candidate; (candidate = keys[slot]) != null; slot = (slot + 1) & mask) {
+			if (hashes[slot] == hash && keyEquals(key, candidate)) {
+				keys[slot] = key;
+				return slot;
+			}
+		}
+		if (size >= threshold) {
+			grow();
+			return insert(key);
+		}
+		keys[slot] = key;
+		hashes[slot] = hash;
+		size++;
+		return slot;
+	}
+
+	/**
+	 * Frees the given slot and moves later entries of the same probe sequence
+	 * back, so that lookups never need tombstones.
+	 */
+	private void delete(int slot) {
+		int mask = keys.length - 1;
+		int free = slot;
+		for (int next = (free + 1) & mask; keys[next] != null; next = (next + 1) & mask) {
+			int distance = (next - hashes[next]) & mask;
+			int gap = (next - free) & mask;
+			if (distance >= gap) {
+				keys[free] = keys[next];
+				hashes[free] = hashes[next];
+				if (values != null) {
+					values[free] = values[next];
+				} else {
+					indices[free] = indices[next];
+				}
+				free = next;
+			}
+		}
+		keys[free] = null;
+		if (values != null) {
+			values[free] = null;
+		}
+		size--;
+	}
+
+	private void grow() {
+		Object[] oldKeys = keys;
+		int[] oldHashes = hashes;
+		Object[] oldValues = values;
+		int[] oldIndices = indices;
+		allocate(oldKeys.length << 1, oldIndices != null);
+		int mask = keys.length - 1;
+		for (int i = 0; i < oldKeys.length; i++) {
+			if (oldKeys[i] != null) {
+				int slot = oldHashes[i] & mask;
+				while (keys[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				hashes[slot] = oldHashes[i];
+				if (oldValues != null) {
+					values[slot] = oldValues[i];
+				} else {
+					indices[slot] = oldIndices[i];
+				}
+			}
+		}
+	}
+
+	private void allocate(int capacity, boolean indexMode) {
+		keys = new Object[capacity];
+		hashes = new int[capacity];
+		if (indexMode) {
+			indices = new int[capacity];
+			values = null;
+		} else {
+			values = new Object[capacity];
+			indices = null;
+		}
+		threshold = capacity - (capacity >> 2);
+	}
+
+	private static int capacityFor(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity - (capacity >> 2) <= expectedSize && capacity < (1 << 30)) {
+			capacity <<= 1;
+		}
+		return capacity;
+	}
+
+	/**
+	 * Answers the spread hash code for the given key.
+	 */
+	private int hash(Object key) {
+		int h = comparer == null ? key.hashCode() : comparer.hashCode(key);
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * Compares two keys for equality.
+	 */
+	private boolean keyEquals(Object a, Object b) {
+		if (comparer == null) {
+			return a.equals(b);
+		}
+		return comparer.equals(a, b);
+	}
+}
@@ -69,7 +69,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 * <code>Object</code>, value type: <code>Widget</code>, or <code>Widget[]</code>).
 	 * <code>null</code> means that the element map is disabled.
 	 */
-	private CustomHashtable elementMap;
+	private ElementMap elementMap;
 
 	/**
 	 * The comparer to use for comparing elements, or <code>null</code> to use
@@ -863,6 +863,20 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		return result;
 	}
 
+	/**
+	 * Notifies the AssociateListener, if any, of the elements that have been
+	 * filtered out of the given raw children.
+	 *
+	 * @param rawResult      the unfiltered children
+	 * @param filteredResult the children that passed all filters, in the same
+	 *                       order
+	 */
+	void internalNotifyFilteredOut(Object[] rawResult, Object[] filteredResult) {
+		if (associateListener != null && filteredResult.length != rawResult.length) {
+			notifyFilteredOut(rawResult, filteredResult);
+		}
+	}
+
 	/**
 	 * Notifies an AssociateListener of the elements that have been filtered out.
 	 *
@@ -1771,7 +1785,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		Assert.isTrue(getInput() == null,
 				"Can only enable the hash look up before input has been set");//$NON-NLS-1$
 		if (enable) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementMap(CustomHashtable.DEFAULT_CAPACITY, getComparer());
 		} else {
 			elementMap = null;
 		}
@@ -1789,7 +1803,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	public void setComparer(IElementComparer comparer) {
 		this.comparer = comparer;
 		if (elementMap != null) {
-			elementMap = new CustomHashtable(elementMap, comparer);
+			elementMap = new ElementMap(elementMap, comparer);
 		}
 	}
 
@@ -1860,7 +1874,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 	 */
 	protected void unmapAllElements() {
 		if (elementMap != null) {
-			elementMap = newHashtable(CustomHashtable.DEFAULT_CAPACITY);
+			elementMap = new ElementMap(CustomHashtable.DEFAULT_CAPACITY, getComparer());
 		}
 	}
 
@@ -2278,7 +2292,7 @@ public abstract class StructuredViewer extends ContentViewer implements IPostSel
 		comparer = null;
 		if (filters != null)
 			filters.clear();
-		elementMap = newHashtable(1);
+		elementMap = new ElementMap(1, getComparer());
 		openListeners.clear();
 		doubleClickListeners.clear();
 		colorAndFontCollector.clear();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2016 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,8 @@
 
 package org.eclipse.jface.viewers;
 
+import java.text.CollationKey;
+import java.text.Collator;
 import java.util.Arrays;
 import java.util.Comparator;
 
@@ -48,6 +50,41 @@ import org.eclipse.jface.util.Policy;
  */
 public class ViewerComparator {
 
+	/**
+	 * Remembers for each subclass whether it inherits the default
+	 * {@link #compare(Viewer, Object, Object)}, in which case the sort keys of
+	 * the elements can be computed up front.
+	 */
+	private static final ClassValue<Boolean> DEFAULT_COMPARE = new ClassValue<>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				return Boolean.valueOf(type.getMethod("compare", Viewer.class, Object.class, Object.class) //$NON-NLS-1$
+						.getDeclaringClass() == ViewerComparator.class);
+			} catch (NoSuchMethodException e) {
+				return Boolean.FALSE;
+			}
+		}
+	};
+
+	/**
+	 * The sort key of an element: its category and its label, or the collation
+	 * key of its label if the strings are compared by a {@link Collator}.
+	 */
+	private static final class SortKey {
+		final Object element;
+		final int category;
+		final String label;
+		final CollationKey collationKey;
+
+		SortKey(Object element, int category, String label, CollationKey collationKey) {
+			this.element = element;
+			this.category = category;
+			this.label = label;
+			this.collationKey = collationKey;
+		}
+	}
+
 	/**
 	 * The comparator to use to sort a viewer's contents.
 	 */
@@ -195,6 +232,14 @@ public class ViewerComparator {
 	 * elements.
 	 * </p>
 	 * <p>
+	 * If a subclass does not override {@link #compare(Viewer, Object, Object)},
+	 * the category and the label of each element are computed only once before
+	 * sorting, with the same result. If the strings are compared by a
+	 * {@link Collator}, the labels are compared by their collation keys, and
+	 * large arrays are sorted with
+	 * {@link java.util.Arrays#parallelSort(Object[], Comparator)}.
+	 * </p>
+	 * <p>
 	 * Subclasses may reimplement this method to provide a more optimized implementation.
 	 * </p>
 	 *
@@ -203,7 +248,11 @@ public class ViewerComparator {
 	 */
 	public void sort(final Viewer viewer, Object[] elements) {
 		try {
-			Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			if (elements.length > 1 && DEFAULT_COMPARE.get(getClass()).booleanValue()) {
+				sortByKeys(viewer, elements);
+			} else {
+				Arrays.sort(elements, (a, b) -> ViewerComparator.this.compare(viewer, a, b));
+			}
 		} catch (IllegalArgumentException e) {
 			String msg = e
 					+ "\nWorkaround for comparator violation:\n\tSet system property -Djava.util.Arrays.useLegacyMergeSort=true" //$NON-NLS-1$
@@ -228,4 +277,38 @@ public class ViewerComparator {
 			throw e;
 		}
 	}
+
+	/**
+	 * Sorts the given elements like the default
+	 * {@link #compare(Viewer, Object, Object)} would, computing the category and
+	 * the label of each element only once.
+	 *
+	 * @param viewer   the viewer
+	 * @param elements the elements to sort
+	 */
+	private void sortByKeys(Viewer viewer, Object[] elements) {
+		Comparator<? super String> stringComparator = getComparator();
+		Collator collator = stringComparator instanceof Collator ? (Collator) stringComparator : null;
+
+		SortKey[] keys = new SortKey[elements.length];
+		for (int i = 0; i < elements.length; i++) {
+			Object element = elements[i];
+			String label = getLabel(viewer, element);
+			keys[i] = new SortKey(element, category(element), label,
+					collator != null ? collator.getCollationKey(label) : null);
+		}
+
+		if (collator != null) {
+			// collation keys are immutable, so they can be compared from any thread
+			Arrays.parallelSort(keys, (a, b) -> a.category != b.category ? a.category - b.category
+					: a.collationKey.compareTo(b.collationKey));
+		} else {
+			Arrays.sort(keys, (a, b) -> a.category != b.category ? a.category - b.category
+					: stringComparator.compare(a.label, b.label));
+		}
+
+		for (int i = 0; i < keys.length; i++) {
+			elements[i] = keys[i].element;
+		}
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2022 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,6 +28,7 @@ import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.SubProgressMonitor;
 
+import org.eclipse.ltk.internal.core.refactoring.ParallelChangeValidation;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
 import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
 
@@ -48,6 +49,7 @@ public class CompositeChange extends Change {
 	private String fName;
 	private List<Change> fChanges;
 	private boolean fIsSynthetic;
+	private boolean fParallelValidation;
 	private Change fUndoUntilException;
 
 	/**
@@ -97,6 +99,42 @@ public class CompositeChange extends Change {
 		fIsSynthetic= true;
 	}
 
+	/**
+	 * Returns whether the validation data of the children of this change is
+	 * initialized in parallel.
+	 *
+	 * @return <code>true</code> if the validation data is initialized in
+	 *  parallel; otherwise <code>false</code>
+	 *
+	 * @see #setParallelValidation(boolean)
+	 * @since 3.15
+	 */
+	public boolean isParallelValidation() {
+		return fParallelValidation;
+	}
+
+	/**
+	 * Sets whether <code>initializeValidationData</code> is sent to the children
+	 * of this change in parallel. The children of nested composite changes which
+	 * are no subclasses are processed as if they were direct children.
+	 * <code>isValid</code> is always sent from the calling thread, since
+	 * validating may call <code>IWorkspace.validateEdit</code> while the caller
+	 * holds a scheduling rule.
+	 * <p>
+	 * Only use this mode if the validation data of the children can be
+	 * initialized independently of each other and from any thread without a
+	 * scheduling rule, as for example for text file changes of different files.
+	 * </p>
+	 *
+	 * @param parallel <code>true</code> to initialize the validation data of the
+	 *  children in parallel
+	 *
+	 * @since 3.15
+	 */
+	public void setParallelValidation(boolean parallel) {
+		fParallelValidation= parallel;
+	}
+
 	@Override
 	public String getName() {
 		return fName;
@@ -205,7 +243,7 @@ public class CompositeChange extends Change {
 	 * {@inheritDoc}
 	 * <p>
 	 * The composite change sends <code>initializeValidationData</code> to all its
-	 * children.
+	 * children, in parallel if {@link #isParallelValidation()} is set.
 	 * </p>
 	 * <p>
 	 * Client are allowed to extend this method.
@@ -213,6 +251,10 @@ public class CompositeChange extends Change {
 	 */
 	@Override
 	public void initializeValidationData(IProgressMonitor pm) {
+		if (fParallelValidation) {
+			ParallelChangeValidation.initializeValidationData(getChildren(), pm);
+			return;
+		}
 		pm.beginTask("", fChanges.size()); //$NON-NLS-1$
 		for (Change change : fChanges) {
 			change.initializeValidationData(new SubProgressMonitor(pm, 1));
@@ -226,7 +268,8 @@ public class CompositeChange extends Change {
 	 * The composite change sends <code>isValid</code> to all its children
 	 * until the first one returns a status with a severity of <code>FATAL
 	 * </code>. If one of the children throws an exception the remaining children
-	 * will not receive the <code>isValid</code> call.
+	 * will not receive the <code>isValid</code> call. The children are always
+	 * validated in the calling thread.
 	 * </p>
 	 * <p>
 	 * Client are allowed to extend this method.
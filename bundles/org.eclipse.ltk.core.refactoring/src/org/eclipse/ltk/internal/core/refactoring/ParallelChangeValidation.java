@@ -0,0 +1,207 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+
+/**
+ * Sends <code>initializeValidationData</code> to the changes of a change tree
+ * on a bounded number of threads.
+ * <p>
+ * Children of plain {@link CompositeChange}s are flattened into one list in
+ * depth-first order, other changes are processed as a whole. Only the
+ * validation data is initialized in parallel: it records the state of the
+ * changed resources and needs neither a scheduling rule nor the UI thread.
+ * <code>isValid</code> may call <code>IWorkspace.validateEdit</code>, whose
+ * team hooks can need the rule held by the calling thread, so it is always
+ * sent from the calling thread.
+ * </p>
+ */
+public final class ParallelChangeValidation {
+
+	private static final int MAX_THREADS= Math.max(1, Math.min(Runtime.getRuntime().availableProcessors(), 8));
+
+	/**
+	 * Interval in milliseconds in which the progress is updated.
+	 */
+	private static final long PROGRESS_INTERVAL= 100;
+
+	/**
+	 * The threads shared by all validations. They end when they have been idle
+	 * for a while.
+	 */
+	private static final ThreadPoolExecutor EXECUTOR;
+	static {
+		EXECUTOR= new ThreadPoolExecutor(MAX_THREADS, MAX_THREADS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread= new Thread(runnable, "Refactoring Change Validation"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		EXECUTOR.allowCoreThreadTimeOut(true);
+	}
+
+	/**
+	 * The state of one call of {@link ParallelChangeValidation#initializeValidationData(Change[], IProgressMonitor)}.
+	 */
+	private static final class Validation {
+		private final List<Change> fChanges;
+		private final IProgressMonitor fMonitor;
+		private final IProgressMonitor fChildMonitor;
+		private final RuntimeException[] fExceptions;
+		private final AtomicInteger fNext= new AtomicInteger();
+		private final AtomicInteger fDone= new AtomicInteger();
+		private final AtomicInteger fStopAt;
+
+		Validation(List<Change> changes, IProgressMonitor pm) {
+			fChanges= changes;
+			fMonitor= pm;
+			fChildMonitor= new NullProgressMonitor() {
+				@Override
+				public boolean isCanceled() {
+					return pm.isCanceled();
+				}
+			};
+			fExceptions= new RuntimeException[changes.size()];
+			fStopAt= new AtomicInteger(changes.size());
+		}
+
+		/**
+		 * Initializes the next change. After a change threw an exception, no
+		 * further changes are started.
+		 *
+		 * @return <code>false</code> if there was no change left
+		 */
+		boolean processNext() {
+			int index;
+			if (fMonitor.isCanceled() || (index= fNext.getAndIncrement()) >= fStopAt.get())
+				return false;
+			try {
+				fChanges.get(index).initializeValidationData(fChildMonitor);
+			} catch (RuntimeException e) {
+				fExceptions[index]= e;
+				fStopAt.accumulateAndGet(index, Math::min);
+			} finally {
+				fDone.incrementAndGet();
+			}
+			return true;
+		}
+
+		void processAll() {
+			while (processNext()) {
+				// continue
+			}
+		}
+
+		int getDone() {
+			return fDone.get();
+		}
+
+		/**
+		 * Throws the exception of the first change that failed, if any.
+		 */
+		void rethrow() {
+			for (RuntimeException exception : fExceptions) {
+				if (exception != null)
+					throw exception;
+			}
+		}
+	}
+
+	/**
+	 * Sends <code>initializeValidationData</code> to all given changes.
+	 *
+	 * @param changes the changes
+	 * @param pm the progress monitor
+	 */
+	public static void initializeValidationData(Change[] changes, IProgressMonitor pm) {
+		List<Change> leaves= new ArrayList<>();
+		collectLeaves(changes, leaves);
+		Validation validation= new Validation(leaves, pm);
+		pm.beginTask("", leaves.size()); //$NON-NLS-1$
+		List<Future<?>> futures= new ArrayList<>();
+		boolean interrupted= false;
+		try {
+			int helpers= Math.min(MAX_THREADS, leaves.size()) - 1;
+			for (int i= 0; i < helpers; i++) {
+				futures.add(EXECUTOR.submit(validation::processAll));
+			}
+			// the calling thread works as well, so the validation proceeds even
+			// when all shared threads are busy, e.g. with an enclosing validation
+			int reported= 0;
+			while (validation.processNext()) {
+				int current= validation.getDone();
+				pm.worked(current - reported);
+				reported= current;
+			}
+			for (Future<?> future : futures) {
+				if (EXECUTOR.remove((Runnable) future))
+					continue; // not started, there is nothing left to do
+				while (true) {
+					try {
+						future.get(PROGRESS_INTERVAL, TimeUnit.MILLISECONDS);
+						break;
+					} catch (TimeoutException e) {
+						int current= validation.getDone();
+						pm.worked(current - reported);
+						reported= current;
+					} catch (InterruptedException e) {
+						// let the workers stop, then restore the interrupt
+						interrupted= true;
+						pm.setCanceled(true);
+					} catch (ExecutionException e) {
+						// only errors can escape from the worker
+						Throwable cause= e.getCause();
+						if (cause instanceof Error) {
+							throw (Error) cause;
+						}
+						throw new IllegalStateException(cause);
+					}
+				}
+			}
+		} finally {
+			pm.done();
+			if (interrupted) {
+				Thread.currentThread().interrupt();
+			}
+		}
+		validation.rethrow();
+	}
+
+	private static void collectLeaves(Change[] changes, List<Change> leaves) {
+		for (Change change : changes) {
+			if (change.getClass() == CompositeChange.class) {
+				collectLeaves(((CompositeChange) change).getChildren(), leaves);
+			} else {
+				leaves.add(change);
+			}
+		}
+	}
+
+	private ParallelChangeValidation() {
+	}
+}
@@ -0,0 +1,755 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.internal.core.refactoring.history;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCoreMessages;
+import org.eclipse.ltk.internal.core.refactoring.RefactoringCorePlugin;
+
+/**
+ * Binary index of the refactoring descriptor proxies of a refactoring history
+ * store.
+ * <p>
+ * The XML history files and the text index files in the time stamp folders of
+ * a history store remain the persistent format of the history, since they are
+ * shared with team providers. This index keeps the proxies of all of them
+ * sorted by time stamp in memory, so that time ranges can be answered with a
+ * binary search instead of reading every index file of the store. The
+ * descriptions are kept in their encoded form and are only decoded for the
+ * proxies which are returned.
+ * </p>
+ * <p>
+ * The index is persisted as an append-only log in the state location of the
+ * refactoring plug-in. Each change of the history appends its records to the
+ * log, followed by a fingerprint of the index files of the store, which is
+ * derived from their paths, sizes and modification times. When the index is
+ * used for the first time, or after the store may have been changed
+ * externally, the fingerprint is compared with the one of the files on disk,
+ * which only requires their file infos. If they differ, for instance for a
+ * history written by an earlier version, the index is rebuilt from the index
+ * files and the log is rewritten.
+ * </p>
+ * <p>
+ * Since file systems store modification times with a limited resolution, a
+ * rewrite of an index file shortly after the fingerprint has been recorded
+ * may keep both its size and its modification time. The fingerprint record
+ * therefore also holds the time it has been recorded at, and index files
+ * modified shortly before that time are compared by content.
+ * </p>
+ */
+public final class RefactoringHistoryIndex {
+
+	/** The name of the folder of the index logs in the state location */
+	private static final String NAME_LOG_FOLDER= ".refactorings.logs"; //$NON-NLS-1$
+
+	/** The file extension of the index logs */
+	private static final String EXTENSION_LOG= ".log"; //$NON-NLS-1$
+
+	/** The magic number of an index log */
+	private static final int LOG_MAGIC= 0x52484c47;
+
+	/** The version of the index log format */
+	private static final byte LOG_VERSION= 2;
+
+	/** The record adding a proxy: time stamp and description */
+	private static final byte RECORD_ADD= 1;
+
+	/** The record removing a proxy: time stamp and description */
+	private static final byte RECORD_REMOVE= 2;
+
+	/**
+	 * The record holding the fingerprint of the index files and the time it
+	 * has been recorded at
+	 */
+	private static final byte RECORD_FINGERPRINT= 3;
+
+	/** The length of a fingerprint record */
+	private static final int FINGERPRINT_LENGTH= 17;
+
+	/**
+	 * The time in milliseconds before the recording of a fingerprint in which
+	 * modifications of index files are not reliably reflected by their file
+	 * infos, which exceeds the modification time resolution of common file
+	 * systems
+	 */
+	private static final long RACY_INTERVAL= 3000;
+
+	/** The minimal size of a log before it is compacted */
+	private static final int MIN_COMPACT_SIZE= 64 * 1024;
+
+	/** The indexes of the history stores, by the URI of the store */
+	private static final Map<URI, RefactoringHistoryIndex> fgIndexes= new HashMap<>();
+
+	/**
+	 * Returns the index of the specified history store.
+	 *
+	 * @param store
+	 *            the history store
+	 * @return the index of the store
+	 */
+	static RefactoringHistoryIndex getIndex(final IFileStore store) {
+		final URI uri= store.toURI();
+		synchronized (fgIndexes) {
+			RefactoringHistoryIndex index= fgIndexes.get(uri);
+			if (index == null) {
+				final Path folder= RefactoringCorePlugin.getDefault().getStateLocation().append(NAME_LOG_FOLDER).toFile().toPath();
+				final String name= Integer.toHexString(uri.toString().hashCode()) + EXTENSION_LOG;
+				index= new RefactoringHistoryIndex(store, folder.resolve(name));
+				fgIndexes.put(uri, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Forces all indexes to compare their fingerprint with the index files on
+	 * disk before they are used the next time.
+	 * <p>
+	 * This must be called whenever history stores are changed other than by
+	 * {@link RefactoringHistoryManager}.
+	 * </p>
+	 */
+	static void invalidateAll() {
+		synchronized (fgIndexes) {
+			for (RefactoringHistoryIndex index : fgIndexes.values()) {
+				index.invalidate();
+			}
+		}
+	}
+
+	/**
+	 * Returns the hash of an index file contributing to the fingerprint.
+	 *
+	 * @param path
+	 *            the path of the index file folder relative to the store
+	 * @param info
+	 *            the file info of the index file
+	 * @return the hash, or <code>0</code> if the file does not exist
+	 */
+	private static long hash(final String path, final IFileInfo info) {
+		if (!info.exists() || info.isDirectory())
+			return 0;
+		long hash= path.hashCode();
+		hash= hash * 0x9e3779b97f4a7c15L + info.getLastModified();
+		hash= hash * 0x9e3779b97f4a7c15L + info.getLength();
+		return hash;
+	}
+
+	/** The history store */
+	private final IFileStore fHistoryStore;
+
+	/** The log file */
+	private final Path fLogFile;
+
+	/** The time stamps of the proxies, in ascending order */
+	private long[] fStamps= new long[64];
+
+	/** The offsets of the encoded descriptions of the proxies in the data */
+	private int[] fOffsets= new int[64];
+
+	/** The number of proxies */
+	private int fSize= 0;
+
+	/** The content of the log, holding the encoded descriptions */
+	private byte[] fData= new byte[0];
+
+	/** The length of the log content */
+	private int fLength= 0;
+
+	/** The fingerprint of the index files the index corresponds to */
+	private long fFingerprint= 0;
+
+	/** The time the fingerprint has been recorded at */
+	private long fFingerprintTime= 0;
+
+	/** Has the log been read or rebuilt? */
+	private boolean fLoaded= false;
+
+	/** Has the fingerprint been compared with the files on disk? */
+	private boolean fValidated= false;
+
+	/**
+	 * Creates a new refactoring history index.
+	 *
+	 * @param store
+	 *            the history store
+	 * @param logFile
+	 *            the file of the index log
+	 */
+	public RefactoringHistoryIndex(final IFileStore store, final Path logFile) {
+		fHistoryStore= store;
+		fLogFile= logFile;
+	}
+
+	/**
+	 * Updates the index after refactoring descriptors have been added to the
+	 * index file in the specified folder.
+	 *
+	 * @param proxies
+	 *            the added proxies
+	 * @param path
+	 *            the path of the history folder relative to the store
+	 * @param previous
+	 *            the file info of the index file before it was written
+	 * @param current
+	 *            the file info of the index file after it was written
+	 */
+	public synchronized void added(final RefactoringDescriptorProxy[] proxies, final IPath path, final IFileInfo previous, final IFileInfo current) {
+		if (!fLoaded || !fValidated)
+			return;
+		final int length= fLength;
+		for (RefactoringDescriptorProxy proxy : proxies) {
+			if (indexOf(proxy.getTimeStamp(), proxy.getDescription()) < 0)
+				insert(proxy.getTimeStamp(), appendRecord(RECORD_ADD, proxy));
+		}
+		appendFingerprint(path, previous, current, length);
+	}
+
+	/**
+	 * Updates the index after refactoring descriptors have been removed from
+	 * the index file in the specified folder.
+	 *
+	 * @param proxies
+	 *            the removed proxies
+	 * @param path
+	 *            the path of the history folder relative to the store
+	 * @param previous
+	 *            the file info of the index file before it was written
+	 * @param current
+	 *            the file info of the index file after it was written or
+	 *            deleted
+	 */
+	public synchronized void removed(final RefactoringDescriptorProxy[] proxies, final IPath path, final IFileInfo previous, final IFileInfo current) {
+		if (!fLoaded || !fValidated)
+			return;
+		final int length= fLength;
+		for (RefactoringDescriptorProxy proxy : proxies) {
+			final int index= indexOf(proxy.getTimeStamp(), proxy.getDescription());
+			if (index >= 0) {
+				remove(index);
+				appendRecord(RECORD_REMOVE, proxy);
+			}
+		}
+		appendFingerprint(path, previous, current, length);
+	}
+
+	/**
+	 * Forces the index to compare its fingerprint with the index files on disk
+	 * before it is used the next time.
+	 */
+	public synchronized void invalidate() {
+		fValidated= false;
+	}
+
+	/**
+	 * Reads the refactoring descriptor proxies with a time stamp in the
+	 * specified range.
+	 *
+	 * @param project
+	 *            the name of the project, or <code>null</code> for the
+	 *            workspace
+	 * @param collection
+	 *            the collection of proxies to fill in
+	 * @param start
+	 *            the start time stamp, inclusive
+	 * @param end
+	 *            the end time stamp, inclusive
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while rebuilding the index
+	 */
+	public synchronized void readRefactoringDescriptorProxies(final String project, final Collection<RefactoringDescriptorProxy> collection, final long start, final long end, final IProgressMonitor monitor) throws CoreException {
+		try {
+			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 1);
+			validate(monitor);
+			for (int index= lowerBound(start); index < fSize && fStamps[index] <= end; index++)
+				collection.add(new DefaultRefactoringDescriptorProxy(getDescription(index), project, fStamps[index]));
+		} finally {
+			monitor.done();
+		}
+	}
+
+	/**
+	 * Appends the updated fingerprint to the log content, and writes the
+	 * records of the change to the log.
+	 *
+	 * @param path
+	 *            the path of the changed history folder relative to the store
+	 * @param previous
+	 *            the file info of the index file before the change
+	 * @param current
+	 *            the file info of the index file after the change
+	 * @param start
+	 *            the length of the log content before the change
+	 */
+	private void appendFingerprint(final IPath path, final IFileInfo previous, final IFileInfo current, final int start) {
+		fFingerprint+= hash(path.toString(), current) - hash(path.toString(), previous);
+		fFingerprintTime= System.currentTimeMillis();
+		ensureDataCapacity(fLength + FINGERPRINT_LENGTH);
+		fData[fLength++]= RECORD_FINGERPRINT;
+		for (int shift= 56; shift >= 0; shift-= 8)
+			fData[fLength++]= (byte) (fFingerprint >>> shift);
+		for (int shift= 56; shift >= 0; shift-= 8)
+			fData[fLength++]= (byte) (fFingerprintTime >>> shift);
+		if (fLength > MIN_COMPACT_SIZE && fLength > 4 * getLiveSize() || !Files.isRegularFile(fLogFile)) {
+			// The log is compacted, or written again after it has been deleted
+			writeLog();
+			return;
+		}
+		try (OutputStream stream= Files.newOutputStream(fLogFile, StandardOpenOption.APPEND)) {
+			stream.write(fData, start, fLength - start);
+		} catch (IOException exception) {
+			deleteLog(exception);
+		}
+	}
+
+	/**
+	 * Appends a record for the specified proxy to the log content.
+	 *
+	 * @param type
+	 *            the type of the record
+	 * @param proxy
+	 *            the proxy
+	 * @return the offset of the encoded description
+	 */
+	private int appendRecord(final byte type, final RefactoringDescriptorProxy proxy) {
+		final ByteArrayOutputStream buffer= new ByteArrayOutputStream(64);
+		try (DataOutputStream output= new DataOutputStream(buffer)) {
+			output.writeByte(type);
+			output.writeLong(proxy.getTimeStamp());
+			output.writeUTF(proxy.getDescription());
+		} catch (IOException exception) {
+			// Cannot happen for a byte array
+		}
+		final byte[] record= buffer.toByteArray();
+		ensureDataCapacity(fLength + record.length);
+		System.arraycopy(record, 0, fData, fLength, record.length);
+		fLength+= record.length;
+		return fLength - record.length + 9;
+	}
+
+	/**
+	 * Computes the fingerprint of the index files in the specified store.
+	 *
+	 * @param store
+	 *            the store to visit
+	 * @param path
+	 *            the path of the store relative to the history store
+	 * @param racy
+	 *            the map to add the index files to which have been modified
+	 *            too shortly before the fingerprint of the index has been
+	 *            recorded, by the path of their folder
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @return the fingerprint
+	 * @throws CoreException
+	 *             if an error occurs
+	 */
+	private long computeFingerprint(final IFileStore store, final String path, final Map<String, IFileStore> racy, final IProgressMonitor monitor) throws CoreException {
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+		long fingerprint= 0;
+		for (IFileInfo info : store.childInfos(EFS.NONE, null)) {
+			final String name= info.getName();
+			if (info.isDirectory())
+				fingerprint+= computeFingerprint(store.getChild(name), path.isEmpty() ? name : path + IPath.SEPARATOR + name, racy, monitor);
+			else if (RefactoringHistoryService.NAME_INDEX_FILE.equalsIgnoreCase(name)) {
+				fingerprint+= hash(path, info);
+				if (info.exists() && info.getLastModified() > fFingerprintTime - RACY_INTERVAL)
+					racy.put(path, store.getChild(name));
+			}
+		}
+		return fingerprint;
+	}
+
+	/**
+	 * Compares the specified index file with the proxies of the index.
+	 *
+	 * @param path
+	 *            the path of the history folder relative to the store
+	 * @param file
+	 *            the index file in the folder
+	 * @return <code>true</code> if the index file holds the proxies of the
+	 *         index in the folder, <code>false</code> otherwise
+	 * @throws CoreException
+	 *             if an error occurs while reading the index file
+	 */
+	private boolean contentEquals(final String path, final IFileStore file) throws CoreException {
+		final Set<RefactoringDescriptorProxy> proxies= new HashSet<>();
+		try (InputStream stream= file.openInputStream(EFS.NONE, null)) {
+			proxies.addAll(Arrays.asList(RefactoringHistoryManager.readRefactoringDescriptorProxies(stream, null, 0, Long.MAX_VALUE)));
+		} catch (IOException exception) {
+			throw RefactoringHistoryManager.createCoreException(exception);
+		}
+		for (RefactoringDescriptorProxy proxy : proxies) {
+			if (indexOf(proxy.getTimeStamp(), proxy.getDescription()) < 0)
+				return false;
+		}
+		int count= 0;
+		for (int index= 0; index < fSize; index++) {
+			if (path.equals(RefactoringHistoryManager.stampToPath(fStamps[index]).toString()))
+				count++;
+		}
+		return count == proxies.size();
+	}
+
+	private void deleteLog(final Throwable exception) {
+		RefactoringCorePlugin.log(exception);
+		try {
+			Files.deleteIfExists(fLogFile);
+		} catch (IOException e) {
+			// Do nothing
+		}
+	}
+
+	private void ensureDataCapacity(final int capacity) {
+		if (capacity > fData.length)
+			fData= Arrays.copyOf(fData, Math.max(capacity, fData.length * 2));
+	}
+
+	/**
+	 * Decodes the description of the proxy at the specified index.
+	 *
+	 * @param index
+	 *            the index of the proxy
+	 * @return the description
+	 */
+	private String getDescription(final int index) {
+		try {
+			final int offset= fOffsets[index];
+			return new DataInputStream(new ByteArrayInputStream(fData, offset, fData.length - offset)).readUTF();
+		} catch (IOException exception) {
+			throw new IllegalStateException(exception);
+		}
+	}
+
+	/**
+	 * Returns the number of bytes the records of the current proxies need in
+	 * the log.
+	 *
+	 * @return the number of bytes
+	 */
+	private int getLiveSize() {
+		int size= 0;
+		for (int index= 0; index < fSize; index++) {
+			final int offset= fOffsets[index];
+			size+= 11 + (((fData[offset] & 0xff) << 8) | (fData[offset + 1] & 0xff));
+		}
+		return size;
+	}
+
+	/**
+	 * Returns the index of the proxy with the specified time stamp and
+	 * description.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @param description
+	 *            the description
+	 * @return the index of the proxy, or <code>-1</code>
+	 */
+	private int indexOf(final long stamp, final String description) {
+		for (int index= lowerBound(stamp); index < fSize && fStamps[index] == stamp; index++) {
+			if (description.equals(getDescription(index)))
+				return index;
+		}
+		return -1;
+	}
+
+	/**
+	 * Inserts a proxy behind all proxies with a time stamp less than or equal
+	 * to the specified one.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @param offset
+	 *            the offset of the encoded description
+	 */
+	private void insert(final long stamp, final int offset) {
+		if (fSize == fStamps.length) {
+			fStamps= Arrays.copyOf(fStamps, fSize * 2);
+			fOffsets= Arrays.copyOf(fOffsets, fSize * 2);
+		}
+		int index= fSize;
+		if (index > 0 && fStamps[index - 1] > stamp) {
+			index= lowerBound(stamp + 1);
+			System.arraycopy(fStamps, index, fStamps, index + 1, fSize - index);
+			System.arraycopy(fOffsets, index, fOffsets, index + 1, fSize - index);
+		}
+		fStamps[index]= stamp;
+		fOffsets[index]= offset;
+		fSize++;
+	}
+
+	/**
+	 * Reads the log and replays its records.
+	 *
+	 * @return <code>true</code> if the log could be read, <code>false</code>
+	 *         otherwise
+	 */
+	private boolean readLog() {
+		if (!Files.isRegularFile(fLogFile))
+			return false;
+		final byte[] data;
+		try {
+			data= Files.readAllBytes(fLogFile);
+		} catch (IOException exception) {
+			RefactoringCorePlugin.log(exception);
+			return false;
+		}
+		fData= data;
+		fLength= 0;
+		fSize= 0;
+		boolean valid= false;
+		final ByteArrayInputStream stream= new ByteArrayInputStream(data);
+		final DataInputStream input= new DataInputStream(stream);
+		try {
+			if (input.readInt() != LOG_MAGIC || input.readByte() != LOG_VERSION || !fHistoryStore.toURI().toString().equals(input.readUTF()))
+				return false;
+			while (true) {
+				final byte type= input.readByte();
+				if (type == RECORD_ADD) {
+					final long stamp= input.readLong();
+					final int offset= data.length - stream.available();
+					input.readUTF();
+					insert(stamp, offset);
+				} else if (type == RECORD_REMOVE) {
+					final long stamp= input.readLong();
+					final int index= indexOf(stamp, input.readUTF());
+					if (index >= 0)
+						remove(index);
+				} else if (type == RECORD_FINGERPRINT) {
+					fFingerprint= input.readLong();
+					fFingerprintTime= input.readLong();
+					fLength= data.length - stream.available();
+					valid= true;
+				} else
+					break;
+			}
+		} catch (EOFException exception) {
+			// A change has not been written completely, see below
+		} catch (IOException exception) {
+			RefactoringCorePlugin.log(exception);
+			return false;
+		}
+		if (!valid)
+			return false;
+		if (fLength < data.length) {
+			// Drop the records of a change which has not been written completely
+			try {
+				Files.write(fLogFile, Arrays.copyOf(data, fLength));
+			} catch (IOException exception) {
+				deleteLog(exception);
+				return false;
+			}
+			return readLog();
+		}
+		return true;
+	}
+
+	/**
+	 * Rebuilds the index from the index files of the history store.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs while reading the index files
+	 */
+	private void rebuild(final IProgressMonitor monitor) throws CoreException {
+		final Set<RefactoringDescriptorProxy> set= new HashSet<>();
+		final long time= System.currentTimeMillis();
+		long fingerprint= 0;
+		try {
+			if (fHistoryStore.fetchInfo().exists())
+				fingerprint= rebuild(fHistoryStore, "", set, monitor); //$NON-NLS-1$
+		} catch (IOException exception) {
+			throw RefactoringHistoryManager.createCoreException(exception);
+		}
+		final RefactoringDescriptorProxy[] proxies= set.toArray(new RefactoringDescriptorProxy[set.size()]);
+		RefactoringHistoryManager.sortRefactoringDescriptorsAscending(proxies);
+		final ByteArrayOutputStream buffer= new ByteArrayOutputStream(64 + proxies.length * 64);
+		fSize= 0;
+		try (DataOutputStream output= new DataOutputStream(buffer)) {
+			writeHeader(output);
+			for (RefactoringDescriptorProxy proxy : proxies) {
+				output.writeByte(RECORD_ADD);
+				output.writeLong(proxy.getTimeStamp());
+				insert(proxy.getTimeStamp(), output.size());
+				output.writeUTF(proxy.getDescription());
+			}
+			output.writeByte(RECORD_FINGERPRINT);
+			output.writeLong(fingerprint);
+			output.writeLong(time);
+		} catch (IOException exception) {
+			// Cannot happen for a byte array
+		}
+		fData= buffer.toByteArray();
+		fLength= fData.length;
+		fFingerprint= fingerprint;
+		fFingerprintTime= time;
+		fLoaded= true;
+		writeLog();
+	}
+
+	private long rebuild(final IFileStore store, final String path, final Collection<RefactoringDescriptorProxy> proxies, final IProgressMonitor monitor) throws CoreException, IOException {
+		if (monitor.isCanceled())
+			throw new OperationCanceledException();
+		long fingerprint= 0;
+		for (IFileInfo info : store.childInfos(EFS.NONE, null)) {
+			final String name= info.getName();
+			if (info.isDirectory())
+				fingerprint+= rebuild(store.getChild(name), path.isEmpty() ? name : path + IPath.SEPARATOR + name, proxies, monitor);
+			else if (RefactoringHistoryService.NAME_INDEX_FILE.equalsIgnoreCase(name)) {
+				fingerprint+= hash(path, info);
+				try (InputStream stream= store.getChild(name).openInputStream(EFS.NONE, null)) {
+					proxies.addAll(Arrays.asList(RefactoringHistoryManager.readRefactoringDescriptorProxies(stream, null, 0, Long.MAX_VALUE)));
+				}
+			}
+		}
+		return fingerprint;
+	}
+
+	private void remove(final int index) {
+		System.arraycopy(fStamps, index + 1, fStamps, index, fSize - index - 1);
+		System.arraycopy(fOffsets, index + 1, fOffsets, index, fSize - index - 1);
+		fSize--;
+	}
+
+	/**
+	 * Returns the index of the first proxy with a time stamp greater than or
+	 * equal to the specified one.
+	 *
+	 * @param stamp
+	 *            the time stamp
+	 * @return the index, or the number of proxies
+	 */
+	private int lowerBound(final long stamp) {
+		int low= 0;
+		int high= fSize;
+		while (low < high) {
+			final int middle= (low + high) >>> 1;
+			if (fStamps[middle] < stamp)
+				low= middle + 1;
+			else
+				high= middle;
+		}
+		return low;
+	}
+
+	/**
+	 * Makes sure that the index corresponds to the index files of the history
+	 * store.
+	 *
+	 * @param monitor
+	 *            the progress monitor to use
+	 * @throws CoreException
+	 *             if an error occurs
+	 */
+	private void validate(final IProgressMonitor monitor) throws CoreException {
+		if (fValidated)
+			return;
+		if (!fLoaded)
+			fLoaded= readLog();
+		final Map<String, IFileStore> racy= new LinkedHashMap<>();
+		final long fingerprint= fHistoryStore.fetchInfo().exists() ? computeFingerprint(fHistoryStore, "", racy, monitor) : 0; //$NON-NLS-1$
+		boolean valid= fLoaded && fingerprint == fFingerprint;
+		if (valid) {
+			for (Map.Entry<String, IFileStore> entry : racy.entrySet()) {
+				if (!contentEquals(entry.getKey(), entry.getValue())) {
+					valid= false;
+					break;
+				}
+			}
+		}
+		if (!valid)
+			rebuild(monitor);
+		fValidated= true;
+	}
+
+	private void writeHeader(final DataOutputStream output) throws IOException {
+		output.writeInt(LOG_MAGIC);
+		output.writeByte(LOG_VERSION);
+		output.writeUTF(fHistoryStore.toURI().toString());
+	}
+
+	/**
+	 * Writes a compact log of the current proxies.
+	 *
+	 * @return <code>true</code> if the log has been written
+	 */
+	private boolean writeLog() {
+		final ByteArrayOutputStream buffer= new ByteArrayOutputStream(64 + getLiveSize());
+		final int[] offsets= new int[fSize];
+		try (DataOutputStream output= new DataOutputStream(buffer)) {
+			writeHeader(output);
+			for (int index= 0; index < fSize; index++) {
+				output.writeByte(RECORD_ADD);
+				output.writeLong(fStamps[index]);
+				offsets[index]= output.size();
+				output.writeUTF(getDescription(index));
+			}
+			output.writeByte(RECORD_FINGERPRINT);
+			output.writeLong(fFingerprint);
+			output.writeLong(fFingerprintTime);
+		} catch (IOException exception) {
+			// Cannot happen for a byte array
+		}
+		fData= buffer.toByteArray();
+		fLength= fData.length;
+		System.arraycopy(offsets, 0, fOffsets, 0, fSize);
+		try {
+			Files.createDirectories(fLogFile.getParent());
+			final Path temporary= fLogFile.resolveSibling(fLogFile.getFileName() + ".tmp"); //$NON-NLS-1$
+			try (OutputStream stream= Files.newOutputStream(temporary)) {
+				stream.write(fData);
+			}
+			Files.move(temporary, fLogFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			return true;
+		} catch (IOException exception) {
+			deleteLog(exception);
+			return false;
+		}
+	}
+}
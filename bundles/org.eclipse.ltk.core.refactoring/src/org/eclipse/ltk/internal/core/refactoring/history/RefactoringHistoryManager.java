@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2015 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -142,7 +142,7 @@ public final class RefactoringHistoryManager {
 	 *            the throwable to wrap
 	 * @return the core exception
 	 */
-	private static CoreException createCoreException(final Throwable exception) {
+	static CoreException createCoreException(final Throwable exception) {
 		return new CoreException(new Status(IStatus.ERROR, RefactoringCore.ID_PLUGIN, IRefactoringCoreStatusCodes.REFACTORING_HISTORY_IO_ERROR, exception.getLocalizedMessage(), exception));
 	}
 
@@ -732,6 +732,9 @@ public final class RefactoringHistoryManager {
 	/** The history file store */
 	private final IFileStore fHistoryStore;
 
+	/** The index of the history file store */
+	private final RefactoringHistoryIndex fIndex;
+
 	/**
 	 * The non-empty name of the managed project, or <code>null</code> for the
 	 * workspace
@@ -751,6 +754,7 @@ public final class RefactoringHistoryManager {
 		Assert.isNotNull(store);
 		Assert.isTrue(name == null || !"".equals(name)); //$NON-NLS-1$
 		fHistoryStore= store;
+		fIndex= RefactoringHistoryIndex.getIndex(store);
 		fProjectName= name;
 	}
 
@@ -779,6 +783,7 @@ public final class RefactoringHistoryManager {
 				final IFileStore history= folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE);
 				final IFileStore index= folder.getChild(RefactoringHistoryService.NAME_INDEX_FILE);
 				final RefactoringDescriptorProxy[] proxies= new RefactoringDescriptorProxy[] { new DefaultRefactoringDescriptorProxy(descriptor.getDescription(), descriptor.getProject(), descriptor.getTimeStamp())};
+				final IFileInfo previous= index.fetchInfo();
 				if (history.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists()) {
 					InputStream input= null;
 					try {
@@ -820,6 +825,7 @@ public final class RefactoringHistoryManager {
 								writeIndexEntry(index, set.toArray(new RefactoringDescriptorProxy[set.size()]), EFS.NONE, new SubProgressMonitor(monitor, 3, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL), RefactoringCoreMessages.RefactoringHistoryService_updating_history);
 							} else
 								writeIndexEntry(index, proxies, EFS.APPEND, new SubProgressMonitor(monitor, 5, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL), RefactoringCoreMessages.RefactoringHistoryService_updating_history);
+							fIndex.added(proxies, path, previous, index.fetchInfo());
 						}
 					} catch (ParserConfigurationException | IOException | SAXException exception) {
 						throw createCoreException(exception);
@@ -837,11 +843,16 @@ public final class RefactoringHistoryManager {
 						final Document result= transformDescriptor(descriptor, false);
 						writeHistoryEntry(history, result, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL), RefactoringCoreMessages.RefactoringHistoryService_updating_history);
 							writeIndexEntry(index, proxies, EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL), RefactoringCoreMessages.RefactoringHistoryService_updating_history);
+						fIndex.added(proxies, path, previous, index.fetchInfo());
 					} catch (IOException exception) {
 						throw createCoreException(exception);
 					}
 				}
 			}
+		} catch (CoreException | RuntimeException exception) {
+			// The index files may have been written partially
+			fIndex.invalidate();
+			throw exception;
 		} finally {
 			monitor.done();
 		}
@@ -921,11 +932,9 @@ public final class RefactoringHistoryManager {
 			monitor.beginTask(RefactoringCoreMessages.RefactoringHistoryService_retrieving_history, 200);
 			final Set<RefactoringDescriptorProxy> set= new HashSet<>();
 			try {
-				if (fHistoryStore.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(fHistoryStore, fProjectName, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				fIndex.readRefactoringDescriptorProxies(fProjectName, set, start, end, new SubProgressMonitor(monitor, 100));
 				final IFileStore store= EFS.getLocalFileSystem().getStore(RefactoringCorePlugin.getDefault().getStateLocation()).getChild(RefactoringHistoryService.NAME_HISTORY_FOLDER).getChild(RefactoringHistoryService.NAME_WORKSPACE_PROJECT);
-				if (store.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 20, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists())
-					readRefactoringDescriptorProxies(store, null, set, start, end, new SubProgressMonitor(monitor, 80), RefactoringCoreMessages.RefactoringHistoryService_retrieving_history);
+				RefactoringHistoryIndex.getIndex(store).readRefactoringDescriptorProxies(null, set, start, end, new SubProgressMonitor(monitor, 100));
 			} catch (CoreException exception) {
 				RefactoringCorePlugin.log(exception);
 			}
@@ -963,9 +972,11 @@ public final class RefactoringHistoryManager {
 			if (index.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists()) {
 				final Set<RefactoringDescriptorProxy> resultingProxies= new HashSet<>(64);
 				readRefactoringDescriptorProxies(index, null, resultingProxies, 0, Long.MAX_VALUE, new SubProgressMonitor(monitor, 1), task);
-				if (resultingProxies.size() == proxies.length)
+				final IFileInfo previous= index.fetchInfo();
+				if (resultingProxies.size() == proxies.length) {
 					removeIndexTree(folder, new SubProgressMonitor(monitor, 1), task);
-				else {
+					fIndex.removed(proxies, path, previous, index.fetchInfo());
+				} else {
 					final IFileStore history= folder.getChild(RefactoringHistoryService.NAME_HISTORY_FILE);
 					if (history.fetchInfo(EFS.NONE, new SubProgressMonitor(monitor, 1, SubProgressMonitor.SUPPRESS_SUBTASK_LABEL)).exists()) {
 						InputStream input= null;
@@ -1015,9 +1026,14 @@ public final class RefactoringHistoryManager {
 						} catch (IOException exception) {
 							throw createCoreException(exception);
 						}
+						fIndex.removed(proxies, path, previous, index.fetchInfo());
 					}
 				}
 			}
+		} catch (CoreException | RuntimeException exception) {
+			// The index files may have been written partially
+			fIndex.invalidate();
+			throw exception;
 		} finally {
 			monitor.done();
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2016 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -49,6 +49,7 @@ import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.ListenerList;
 import org.eclipse.core.runtime.MultiStatus;
 import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Path;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.Status;
@@ -271,6 +272,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 						}
 					}
 				} finally {
+					RefactoringHistoryIndex.invalidateAll();
 					if (enable)
 						project.refreshLocal(IResource.DEPTH_INFINITE, new SubProgressMonitor(monitor, 30));
 					else {
@@ -516,6 +518,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 			if (NAME_WORKSPACE_PROJECT.equals(name)) {
 				final IFileStore metaStore= stateStore.getChild(NAME_HISTORY_FOLDER).getChild(name);
 				metaStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 100));
+				RefactoringHistoryIndex.invalidateAll();
 			} else {
 				final URI uri= project.getLocationURI();
 				if (uri != null && project.isAccessible()) {
@@ -525,6 +528,7 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 						final IFileStore projectStore= EFS.getStore(uri).getChild(NAME_HISTORY_FOLDER);
 						projectStore.delete(EFS.NONE, new SubProgressMonitor(monitor, 20));
 					} finally {
+						RefactoringHistoryIndex.invalidateAll();
 						project.refreshLocal(IResource.DEPTH_INFINITE, new SubProgressMonitor(monitor, 60));
 					}
 				}
@@ -858,15 +862,36 @@ public final class RefactoringHistoryService implements IRefactoringHistoryServi
 		} catch (CoreException exception) {
 			RefactoringCorePlugin.log(exception);
 		} finally {
+			RefactoringHistoryIndex.invalidateAll();
 			monitor.done();
 		}
 	}
 
+	/**
+	 * Returns whether the specified workspace delta may have changed project
+	 * histories without involving a refactoring history manager.
+	 *
+	 * @param delta
+	 *            the workspace delta
+	 * @return <code>true</code> if a project has been added, removed,
+	 *         opened or closed, or if a history folder has changed
+	 */
+	private static boolean isHistoryAffected(final IResourceDelta delta) {
+		final IPath path= new Path(NAME_HISTORY_FOLDER);
+		for (IResourceDelta projectDelta : delta.getAffectedChildren()) {
+			if (projectDelta.getKind() != IResourceDelta.CHANGED || (projectDelta.getFlags() & IResourceDelta.OPEN) != 0 || projectDelta.findMember(path) != null)
+				return true;
+		}
+		return false;
+	}
+
 	private void peformResourceChanged(final IResourceChangeEvent event) {
 		final int type= event.getType();
 		if ((type & IResourceChangeEvent.POST_CHANGE) != 0) {
 			final IResourceDelta delta= event.getDelta();
 			if (delta != null) {
+				if (isHistoryAffected(delta))
+					RefactoringHistoryIndex.invalidateAll();
 				final IResourceDelta[] deltas= delta.getAffectedChildren();
 				if (deltas.length == 2) {
 					final IPath toPath= deltas[0].getMovedToPath();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,15 +20,19 @@ import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.eclipse.search.ui.ISearchResult;
 import org.eclipse.search.ui.ISearchResultListener;
 import org.eclipse.search.ui.SearchResultEvent;
 
+import org.eclipse.search2.internal.ui.text.MatchStore;
+
 /**
  * An abstract base implementation for text-match based search results. This search
  * result implementation consists of a list of {@link org.eclipse.search.ui.text.Match matches}.
@@ -40,7 +44,8 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 
 	private static final Match[] EMPTY_ARRAY= new Match[0];
 
-	private final ConcurrentMap<Object, Set<Match>> fElementsToMatches;
+	private final ConcurrentMap<Object, MatchStore> fElementsToMatches;
+	private final AtomicInteger fMatchCount;
 	private final List<ISearchResultListener> fListeners;
 	private final MatchEvent fMatchEvent;
 
@@ -51,6 +56,7 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 	 */
 	protected AbstractTextSearchResult() {
 		fElementsToMatches= new ConcurrentHashMap<>();
+		fMatchCount= new AtomicInteger();
 		fListeners= new ArrayList<>();
 		fMatchEvent= new MatchEvent(this);
 
@@ -76,11 +82,41 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 		if (element == null) {
 			return EMPTY_ARRAY;
 		}
-		Set<Match> matches = fElementsToMatches.get(element);
+		MatchStore matches = fElementsToMatches.get(element);
+		if (matches != null) {
+			return matches.getSortedMatches();
+		}
+		return EMPTY_ARRAY;
+	}
+
+	/**
+	 * Returns the matches reported against the given element in the given range,
+	 * sorted per offset and length. The filter state of the matches is not
+	 * relevant.
+	 * <p>
+	 * The range refers to the offsets the matches had when they were added to
+	 * this result. Later changes of the match positions, for example when a
+	 * file with matches is modified and saved, are not taken into account.
+	 * This makes the method suitable to find the matches in a range of the
+	 * content the search was run on, like a line of a file.
+	 * </p>
+	 *
+	 * @param element
+	 *            the element to report matches for
+	 * @param offset
+	 *            the start of the range
+	 * @param length
+	 *            the length of the range
+	 * @return the matches for this element in the given range
+	 * @since 3.16
+	 */
+	public Match[] getMatches(Object element, int offset, int length) {
+		if (element == null) {
+			return EMPTY_ARRAY;
+		}
+		MatchStore matches = fElementsToMatches.get(element);
 		if (matches != null) {
-			Match[] sortingCopy = matches.toArray(new Match[matches.size()]);
-			Arrays.sort(sortingCopy, AbstractTextSearchResult::compare);
-			return sortingCopy;
+			return matches.getMatches(offset, length);
 		}
 		return EMPTY_ARRAY;
 	}
@@ -101,9 +137,9 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 		if (element == null) {
 			return Collections.emptyEnumeration();
 		}
-		Set<Match> matches = fElementsToMatches.get(element);
+		MatchStore matches = fElementsToMatches.get(element);
 		if (matches != null) {
-			return Collections.enumeration(matches);
+			return Collections.enumeration(Arrays.asList(matches.getMatches()));
 		}
 		return Collections.emptyEnumeration();
 	}
@@ -131,12 +167,23 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 	 * @param matches the matches to add
 	 */
 	public void addMatches(Match[] matches) {
-		Collection<Match> reallyAdded= new ArrayList<>();
+		Map<Object, Collection<Match>> matchesByElement= new LinkedHashMap<>();
 		for (Match match : matches) {
-			if (didAddMatch(match)) {
-				reallyAdded.add(match);
-			}
+			updateFilterState(match);
+			matchesByElement.computeIfAbsent(match.getElement(), e -> new ArrayList<>()).add(match);
 		}
+		Collection<Match> reallyAdded= new ArrayList<>(matches.length);
+		matchesByElement.forEach((element, elementMatches) -> {
+			fElementsToMatches.compute(element, (e, store) -> {
+				if (store == null) {
+					store= new MatchStore();
+				}
+				int sizeBefore= reallyAdded.size();
+				store.addAll(elementMatches, reallyAdded);
+				fMatchCount.addAndGet(reallyAdded.size() - sizeBefore);
+				return store;
+			});
+		});
 		if (!reallyAdded.isEmpty())
 			fireChange(getSearchResultEvent(reallyAdded, MatchEvent.ADDED));
 	}
@@ -156,14 +203,18 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 
 	private boolean didAddMatch(Match match) {
 		updateFilterState(match);
-		return fElementsToMatches.computeIfAbsent(match.getElement(), k -> ConcurrentHashMap.newKeySet()).add(match);
-	}
-
-	private static int compare(Match match2, Match match1) {
-		int diff= match2.getOffset()-match1.getOffset();
-		if (diff != 0)
-			return diff;
-		return match2.getLength()-match1.getLength();
+		boolean[] added= new boolean[1];
+		fElementsToMatches.compute(match.getElement(), (element, matches) -> {
+			if (matches == null) {
+				matches= new MatchStore();
+			}
+			added[0]= matches.add(match);
+			return matches;
+		});
+		if (added[0]) {
+			fMatchCount.incrementAndGet();
+		}
+		return added[0];
 	}
 
 	/**
@@ -177,7 +228,12 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 		fireChange(new RemoveAllEvent(this));
 	}
 	private void doRemoveAll() {
-		fElementsToMatches.clear();
+		for (Object element : fElementsToMatches.keySet()) {
+			fElementsToMatches.computeIfPresent(element, (e, matches) -> {
+				fMatchCount.addAndGet(-matches.size());
+				return null; // remove
+			});
+		}
 	}
 
 	/**
@@ -203,11 +259,19 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 	 * @param matches the matches to remove
 	 */
 	public void removeMatches(Match[] matches) {
-		Collection<Match> existing= new ArrayList<>();
+		Map<Object, Collection<Match>> matchesByElement= new LinkedHashMap<>();
 		for (Match match : matches) {
-			if (didRemoveMatch(match))
-				existing.add(match); // no duplicate matches at this point
+			matchesByElement.computeIfAbsent(match.getElement(), e -> new ArrayList<>()).add(match);
 		}
+		Collection<Match> existing= new ArrayList<>();
+		matchesByElement.forEach((element, elementMatches) -> {
+			fElementsToMatches.computeIfPresent(element, (e, store) -> {
+				int sizeBefore= existing.size();
+				store.removeAll(elementMatches, existing);
+				fMatchCount.addAndGet(sizeBefore - existing.size());
+				return store.size() == 0 ? null : store;
+			});
+		});
 		if (!existing.isEmpty())
 			fireChange(getSearchResultEvent(existing, MatchEvent.REMOVED));
 	}
@@ -217,11 +281,14 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 		boolean[] existed = new boolean[1];
 		fElementsToMatches.computeIfPresent(match.getElement(), (f, matches) -> {
 			existed[0] = matches.remove(match);
-			if (matches.isEmpty()) {
+			if (matches.size() == 0) {
 				return null; // remove
 			}
 			return matches;
 		});
+		if (existed[0]) {
+			fMatchCount.decrementAndGet();
+		}
 		return existed[0];
 	}
 
@@ -301,11 +368,7 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 	 * @return total number of matches
 	 */
 	public int getMatchCount() {
-		int count = 0;
-		for (Set<Match> element : fElementsToMatches.values()) {
-			count += element.size();
-		}
-		return count;
+		return fMatchCount.get();
 	}
 
 	/**
@@ -320,7 +383,7 @@ public abstract class AbstractTextSearchResult implements ISearchResult {
 		if (element == null) {
 			return 0;
 		}
-		Set<Match> matches = fElementsToMatches.get(element);
+		MatchStore matches = fElementsToMatches.get(element);
 		if (matches != null)
 			return matches.size();
 		return 0;
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,9 +17,11 @@ package org.eclipse.search.ui.text;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Enumeration;
 import java.util.HashSet;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingDeque;
 
 import org.osgi.framework.FrameworkUtil;
@@ -151,8 +153,10 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 				return Status.OK_STATUS;
 			}
 			runBatchedClear();
-			runBatchedUpdates();
-			if (hasMoreUpdates() || isQueryRunning()) {
+			if (!runBatchedUpdates()) {
+				// the time budget was used up, continue after other events were handled
+				schedule(UPDATE_DELAY);
+			} else if (hasMoreUpdates() || isQueryRunning()) {
 				schedule(500);
 			} else {
 				fIsUIUpdateScheduled= false;
@@ -215,6 +219,7 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 	}
 
 	private volatile boolean fIsUIUpdateScheduled= false;
+	private volatile UpdateUIJob fUpdateJob;
 	private volatile boolean fScheduleEnsureSelection= false;
 	private static final String KEY_LAYOUT = "org.eclipse.search.resultpage.layout"; //$NON-NLS-1$
 
@@ -230,7 +235,23 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 	private boolean fIsBusyShown;
 	private ISearchResultViewPart fViewPart;
 	private final LinkedBlockingDeque<Object> fBatchedUpdates = new LinkedBlockingDeque<>();
+	// the elements in fBatchedUpdates, so that an element is queued only once
+	private final Set<Object> fPendingUpdates= ConcurrentHashMap.newKeySet();
 	private volatile boolean fBatchedClearAll;
+	// threads reporting matches wait on this lock while too many updates are queued
+	private final Object fUpdateLock= new Object();
+	private volatile long fLastUpdateTime;
+
+	// the number of queued elements above which threads reporting matches wait for the UI
+	private static final int MAX_PENDING_UPDATES= 10000;
+	// the number of elements passed to elementsChanged(Object[]) at once
+	private static final int UPDATE_CHUNK_SIZE= 500;
+	// the time in milliseconds an update job may spend before other UI events are handled
+	private static final long UPDATE_TIME_BUDGET= 30;
+	// the delay in milliseconds before queued updates that did not fit the budget are continued
+	private static final long UPDATE_DELAY= 20;
+	// reporting threads do not wait for a UI that has not taken updates for this many milliseconds
+	private static final long UPDATE_STALL_TIMEOUT= 1000;
 
 	private ISearchResultListener fListener;
 	private IQueryListener fQueryListener;
@@ -483,7 +504,8 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 	 * changes. This method is guaranteed to be called in the UI thread. Note
 	 * that this notification is asynchronous. i.e. further changes may have
 	 * occurred by the time this method is called. They will be described in a
-	 * future call.
+	 * future call. Many changes are reported in several calls, so that the UI
+	 * thread can handle other events in between.
 	 * <p>The changed elements are evaluated by {@link #evaluateChangedElements(Match[], Set)}.</p>
 	 *
 	 * @param objects
@@ -587,7 +609,8 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 	private synchronized void scheduleUIUpdate() {
 		if (!fIsUIUpdateScheduled) {
 			fIsUIUpdateScheduled= true;
-			new UpdateUIJob().schedule();
+			fUpdateJob= new UpdateUIJob();
+			fUpdateJob.schedule();
 		}
 	}
 
@@ -1111,10 +1134,11 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 		if (result.getActiveMatchFilters() == null) // default behaviour: filter state not used, all matches shown
 			return result.getMatchCount(element);
 
+		// counting does not need the matches in order
 		int count= 0;
-		Match[] matches= result.getMatches(element);
-		for (Match match : matches) {
-			if (!match.isFiltered()) {
+		Enumeration<Match> matches= result.getMatchSet(element);
+		while (matches.hasMoreElements()) {
+			if (!matches.nextElement().isFiltered()) {
 				count++;
 			}
 		}
@@ -1247,20 +1271,83 @@ public abstract class AbstractTextSearchViewPage extends Page implements ISearch
 		evaluateChangedElements(matches, collect);
 		// nulls are forbidden in concurrent datastructures:
 		collect.removeIf(Objects::isNull);
-		fBatchedUpdates.addAll(collect);
+		for (Object element : collect) {
+			if (fPendingUpdates.add(element)) {
+				fBatchedUpdates.add(element);
+			}
+		}
 		scheduleUIUpdate(); // still synchronized
+		if (fBatchedUpdates.size() > MAX_PENDING_UPDATES && Display.getCurrent() == null) {
+			waitForUIUpdates();
+		}
 	}
 
-	private void runBatchedUpdates() {
-		Collection<Object> drain = new ArrayList<>();
-		fBatchedUpdates.drainTo(drain);
-		elementsChanged(drain.toArray());
+	/*
+	 * Blocks a thread reporting matches until the UI has taken enough of the queued updates,
+	 * so that a search slows down to the pace of the viewer instead of growing the queue. The
+	 * thread is not blocked if the UI does not take updates, e.g. because the UI thread itself
+	 * waits for the search.
+	 */
+	private void waitForUIUpdates() {
+		UpdateUIJob job= fUpdateJob;
+		if (job != null) {
+			// do not wait for the delay of a job that was scheduled while the queue was short
+			job.wakeUp();
+		}
+		synchronized (fUpdateLock) {
+			while (fBatchedUpdates.size() > MAX_PENDING_UPDATES) {
+				Control control= getControl();
+				if (control == null || control.isDisposed()
+						|| System.currentTimeMillis() - fLastUpdateTime > UPDATE_STALL_TIMEOUT) {
+					return;
+				}
+				try {
+					fUpdateLock.wait(50);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return;
+				}
+			}
+		}
+	}
+
+	private void notifyUIUpdated() {
+		fLastUpdateTime= System.currentTimeMillis();
+		synchronized (fUpdateLock) {
+			fUpdateLock.notifyAll();
+		}
+	}
+
+	/*
+	 * Passes the queued elements to elementsChanged(Object[]) in chunks until the queue is
+	 * empty or the time budget is used up. Returns whether the queue was drained.
+	 */
+	private boolean runBatchedUpdates() {
+		long deadline= System.currentTimeMillis() + UPDATE_TIME_BUDGET;
+		boolean drained;
+		do {
+			Collection<Object> drain= new ArrayList<>();
+			fBatchedUpdates.drainTo(drain, UPDATE_CHUNK_SIZE);
+			for (Object element : drain) {
+				fPendingUpdates.remove(element);
+			}
+			if (!drain.isEmpty()) {
+				elementsChanged(drain.toArray());
+			}
+			notifyUIUpdated();
+			drained= fBatchedUpdates.isEmpty();
+		} while (!drained && System.currentTimeMillis() < deadline);
 		updateBusyLabel();
+		return drained;
 	}
 
 	private void postClear() {
 		fBatchedClearAll= true;
 		fBatchedUpdates.clear();
+		fPendingUpdates.clear();
+		synchronized (fUpdateLock) {
+			fUpdateLock.notifyAll();
+		}
 		scheduleUIUpdate(); // still synchronized
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,6 +15,8 @@ package org.eclipse.search.ui.text;
 
 import org.eclipse.core.runtime.Assert;
 
+import org.eclipse.search2.internal.ui.text.MatchStore;
+
 /**
  * A textual match in a given object. This class may be instantiated and also subclassed (to add
  * additional match state like accuracy, etc). The element a match is reported
@@ -96,7 +98,10 @@ public class Match {
 	 *            the offset to set
 	 */
 	public void setOffset(int offset) {
-		fOffset= offset;
+		if (offset != fOffset) {
+			fOffset= offset;
+			MatchStore.positionChanged();
+		}
 	}
 
 	/**
@@ -115,7 +120,10 @@ public class Match {
 	 *            the length to set
 	 */
 	public void setLength(int length) {
-		fLength= length;
+		if (length != fLength) {
+			fLength= length;
+			MatchStore.positionChanged();
+		}
 	}
 
 	/**
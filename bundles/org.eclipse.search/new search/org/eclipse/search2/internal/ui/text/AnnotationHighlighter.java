@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,10 +13,13 @@
  *******************************************************************************/
 package org.eclipse.search2.internal.ui.text;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
@@ -27,8 +30,14 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.core.filebuffers.IFileBuffer;
 import org.eclipse.core.filebuffers.ITextFileBuffer;
 
+import org.eclipse.swt.custom.StyledText;
+
 import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.IViewportListener;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
@@ -42,19 +51,95 @@ import org.eclipse.search2.internal.ui.SearchMessages;
 
 
 public class AnnotationHighlighter extends Highlighter {
+	/*
+	 * Number of highlighted matches from which on only the matches around the visible part of the
+	 * text viewer get an annotation. The rest of the document gets one annotation per region, so
+	 * that the overview ruler still shows where the matches are.
+	 */
+	private static final int VIEWPORT_THRESHOLD= 1000;
+	private static final int OVERVIEW_REGIONS= 250;
+
 	private IAnnotationModel fModel;
 	private IDocument fDocument;
 	private Map<Match, Annotation> fMatchesToAnnotations;
 
+	private final ITextViewer fViewer;
+	private final IViewportListener fViewportListener;
+	private final IDocumentListener fDocumentListener;
+	// all highlighted matches, only maintained if there is a viewer
+	private final Set<Match> fMatches;
+	// the matches annotated for the overview ruler, null if they need to be computed
+	private Set<Match> fOverviewMatches;
+	// the highlighted matches sorted by their offset when the index was built, null if it needs to be built
+	private Match[] fSortedMatches;
+	private int[] fSortedOffsets;
+	// how far the offsets of the matches can have moved since the index was built
+	private int fDrift;
+	private boolean fUpdatePending;
+
 	public AnnotationHighlighter(IAnnotationModel model, IDocument document) {
+		this(model, document, null);
+	}
+
+	/**
+	 * Creates a highlighter that only annotates the matches around the visible part of the
+	 * given viewer if there are many matches.
+	 *
+	 * @param model the annotation model
+	 * @param document the document of the model
+	 * @param viewer the viewer showing the document or <code>null</code> to annotate all matches
+	 */
+	public AnnotationHighlighter(IAnnotationModel model, IDocument document, ITextViewer viewer) {
 		fModel= model;
 		fDocument= document;
 		fMatchesToAnnotations= new HashMap<>();
+		fViewer= viewer != null && document != null && viewer.getDocument() == document ? viewer : null;
+		if (fViewer != null) {
+			fMatches= new HashSet<>();
+			fViewportListener= verticalOffset -> {
+				if (isViewportScoped()) {
+					scheduleUpdate();
+				}
+			};
+			fViewer.addViewportListener(fViewportListener);
+			fDocumentListener= new IDocumentListener() {
+				@Override
+				public void documentAboutToBeChanged(DocumentEvent event) {
+					// only the applied change counts
+				}
+
+				@Override
+				public void documentChanged(DocumentEvent event) {
+					int textLength= event.getText() == null ? 0 : event.getText().length();
+					synchronized (AnnotationHighlighter.this) {
+						// no offset moves further than the replaced or the inserted text is long
+						fDrift+= Math.max(event.getLength(), textLength);
+					}
+				}
+			};
+			fDocument.addDocumentListener(fDocumentListener);
+		} else {
+			fMatches= null;
+			fViewportListener= null;
+			fDocumentListener= null;
+		}
 	}
 
 	@Override
-	public void addHighlights(Match[] matches) {
-		HashMap<Annotation, Position> map= new HashMap<>(matches.length);
+	public synchronized void addHighlights(Match[] matches) {
+		if (fViewer != null) {
+			Collections.addAll(fMatches, matches);
+			if (isViewportScoped()) {
+				invalidateIndex();
+				scheduleUpdate();
+				return;
+			}
+		}
+		annotate(Arrays.asList(matches));
+	}
+
+	private void annotate(Collection<Match> matches) {
+		HashMap<Annotation, Position> map= new HashMap<>(matches.size());
 		for (Match match : matches) {
 			int offset= match.getOffset();
 			int length= match.getLength();
@@ -97,7 +182,7 @@ public class AnnotationHighlighter extends Highlighter {
 	}
 
 	@Override
-	public void removeHighlights(Match[] matches) {
+	public synchronized void removeHighlights(Match[] matches) {
 		HashSet<Annotation> annotations= new HashSet<>(matches.length);
 		for (Match match : matches) {
 			Annotation annotation= fMatchesToAnnotations.remove(match);
@@ -106,13 +191,186 @@ public class AnnotationHighlighter extends Highlighter {
 			}
 		}
 		removeAnnotations(annotations);
+		if (fViewer != null) {
+			boolean wasScoped= isViewportScoped();
+			for (Match match : matches) {
+				fMatches.remove(match);
+			}
+			if (wasScoped) {
+				invalidateIndex();
+				scheduleUpdate();
+			}
+		}
 	}
 
 	@Override
-	public  void removeAll() {
+	public synchronized void removeAll() {
 		Collection<Annotation> matchSet= fMatchesToAnnotations.values();
 		removeAnnotations(matchSet);
 		fMatchesToAnnotations.clear();
+		if (fViewer != null) {
+			fMatches.clear();
+			invalidateIndex();
+		}
+	}
+
+	@Override
+	public void dispose() {
+		if (fViewer != null) {
+			fViewer.removeViewportListener(fViewportListener);
+			fDocument.removeDocumentListener(fDocumentListener);
+		}
+		super.dispose();
+	}
+
+	private synchronized boolean isViewportScoped() {
+		return fViewer != null && fMatches.size() >= VIEWPORT_THRESHOLD;
+	}
+
+	private synchronized void scheduleUpdate() {
+		StyledText textWidget= fViewer.getTextWidget();
+		if (fUpdatePending || textWidget == null || textWidget.isDisposed())
+			return;
+		fUpdatePending= true;
+		textWidget.getDisplay().asyncExec(() -> {
+			synchronized (this) {
+				fUpdatePending= false;
+				if (!textWidget.isDisposed()) {
+					updateAnnotations();
+				}
+			}
+		});
+	}
+
+	/*
+	 * Annotates the matches around the visible part of the viewer and the matches representing
+	 * their region in the overview ruler, and removes the annotations of all other matches. Must
+	 * be called in the UI thread.
+	 */
+	private void updateAnnotations() {
+		Set<Match> shown;
+		if (isViewportScoped()) {
+			shown= computeShownMatches();
+		} else {
+			shown= fMatches;
+		}
+		List<Annotation> removed= new ArrayList<>();
+		fMatchesToAnnotations.entrySet().removeIf(entry -> {
+			if (shown.contains(entry.getKey())) {
+				return false;
+			}
+			removed.add(entry.getValue());
+			return true;
+		});
+		if (!removed.isEmpty()) {
+			removeAnnotations(removed);
+		}
+		List<Match> added= new ArrayList<>();
+		for (Match match : shown) {
+			if (!fMatchesToAnnotations.containsKey(match)) {
+				added.add(match);
+			}
+		}
+		if (!added.isEmpty()) {
+			annotate(added);
+		}
+	}
+
+	private Set<Match> computeShownMatches() {
+		int visibleStart= 0;
+		int visibleEnd= -1;
+		int topLine= fViewer.getTopIndex();
+		int bottomLine= fViewer.getBottomIndex();
+		try {
+			if (topLine >= 0 && bottomLine >= topLine) {
+				// include a page above and below so that scrolling does not show unannotated matches
+				int pageLines= bottomLine - topLine + 1;
+				int firstLine= Math.max(0, topLine - pageLines);
+				int lastLine= Math.min(fDocument.getNumberOfLines() - 1, bottomLine + pageLines);
+				visibleStart= fDocument.getLineOffset(firstLine);
+				visibleEnd= fDocument.getLineOffset(lastLine) + fDocument.getLineLength(lastLine);
+			}
+		} catch (BadLocationException e) {
+			// nothing is visible
+		}
+
+		if (fSortedMatches == null || fDrift > Math.max(visibleEnd - visibleStart, 0)) {
+			buildIndex();
+		}
+		Set<Match> shown= new HashSet<>(fOverviewMatches);
+		if (visibleEnd >= visibleStart) {
+			// only the matches which can have moved into the visible range need their edits replayed
+			int from= lowerBound(visibleStart - fDrift);
+			int to= lowerBound(visibleEnd + fDrift + 1);
+			for (int i= from; i < to; i++) {
+				Match match= fSortedMatches[i];
+				Position position= createPosition(match);
+				if (position != null && position.getOffset() >= visibleStart && position.getOffset() <= visibleEnd) {
+					shown.add(match);
+				}
+			}
+		}
+		return shown;
+	}
+
+	/*
+	 * Sorts the highlighted matches by their current offset and picks one match per overview
+	 * ruler region.
+	 */
+	private void buildIndex() {
+		int count= 0;
+		long[] keys= new long[fMatches.size()];
+		Match[] matches= fMatches.toArray(new Match[fMatches.size()]);
+		Set<Match> overviewMatches= new HashSet<>();
+		Set<Integer> overviewRegions= new HashSet<>();
+		int linesPerRegion= Math.max(1, fDocument.getNumberOfLines() / OVERVIEW_REGIONS);
+		for (int i= 0; i < matches.length; i++) {
+			Position position= createPosition(matches[i]);
+			if (position == null) {
+				continue;
+			}
+			keys[count++]= ((long) position.getOffset() << 32) | i;
+			try {
+				Integer region= Integer.valueOf(fDocument.getLineOfOffset(position.getOffset()) / linesPerRegion);
+				if (overviewRegions.add(region)) {
+					overviewMatches.add(matches[i]);
+				}
+			} catch (BadLocationException e) {
+				// outdated match
+			}
+		}
+		Arrays.sort(keys, 0, count);
+		fSortedMatches= new Match[count];
+		fSortedOffsets= new int[count];
+		for (int i= 0; i < count; i++) {
+			fSortedMatches[i]= matches[(int) keys[i]];
+			fSortedOffsets[i]= (int) (keys[i] >>> 32);
+		}
+		fOverviewMatches= overviewMatches;
+		fDrift= 0;
+	}
+
+	/*
+	 * Returns the index of the first sorted match at or after the given offset.
+	 */
+	private int lowerBound(int offset) {
+		int low= 0;
+		int high= fSortedOffsets.length;
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			if (fSortedOffsets[mid] < offset) {
+				low= mid + 1;
+			} else {
+				high= mid;
+			}
+		}
+		return low;
+	}
+
+	private void invalidateIndex() {
+		fSortedMatches= null;
+		fSortedOffsets= null;
+		fOverviewMatches= null;
 	}
 
 	private void addAnnotations(Map<Annotation, Position> annotationToPositionMap) {
@@ -153,10 +411,12 @@ public class AnnotationHighlighter extends Highlighter {
 
 		ITextFileBuffer textBuffer= (ITextFileBuffer) buffer;
 		if (fDocument != null && fDocument.equals(textBuffer.getDocument())) {
-			Set<Match> allMatches= fMatchesToAnnotations.keySet();
-			Match[] matchesCopy= allMatches.toArray(new Match[allMatches.size()]);
-			removeAll();
-			addHighlights(matchesCopy);
+			synchronized (this) {
+				Set<Match> allMatches= fViewer != null ? fMatches : fMatchesToAnnotations.keySet();
+				Match[] matchesCopy= allMatches.toArray(new Match[allMatches.size()]);
+				removeAll();
+				addHighlights(matchesCopy);
+			}
 		}
 	}
 }
@@ -0,0 +1,190 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.search2.internal.ui.text;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DefaultPositionUpdater;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.Position;
+
+/**
+ * Tracks positions in a document without adding them to the document. Changes of the document are
+ * only appended to an edit log, which is replayed on a position when the position is asked for.
+ * A change of the document therefore costs the same no matter how many positions are tracked.
+ * <p>
+ * The positions are updated like the ones in the default category of a document, so a position
+ * obtained from {@link #update(DeferredPosition)} equals the position that would have been added
+ * to the document.
+ * </p>
+ */
+public final class DeferredPositions implements IDocumentListener {
+
+	/**
+	 * A position tracked by a {@link DeferredPositions}. The offset and length are only current
+	 * after {@link DeferredPositions#update(DeferredPosition)}.
+	 */
+	public static final class DeferredPosition extends Position {
+		private final DeferredPositions fOwner;
+		private int fVersion;
+
+		DeferredPosition(DeferredPositions owner, int offset, int length, int version) {
+			super(offset, length);
+			fOwner= owner;
+			fVersion= version;
+		}
+
+		/**
+		 * Returns the positions this position belongs to.
+		 *
+		 * @return the owner of this position
+		 */
+		public DeferredPositions getOwner() {
+			return fOwner;
+		}
+	}
+
+	/*
+	 * Applies a recorded edit to a single position, using the rules of the default position
+	 * updater. The category is never registered with the document, so deleted positions are
+	 * only marked as deleted.
+	 */
+	private static final class EditReplayer extends DefaultPositionUpdater {
+		EditReplayer() {
+			super(EditReplayer.class.getName());
+		}
+
+		void replay(IDocument document, Position position, int offset, int length, int replaceLength) {
+			fDocument= document;
+			fPosition= position;
+			fOriginalPosition.offset= position.offset;
+			fOriginalPosition.length= position.length;
+			fOffset= offset;
+			fLength= length;
+			fReplaceLength= replaceLength;
+			try {
+				if (notDeleted())
+					adaptToReplace();
+			} finally {
+				fDocument= null;
+				fPosition= null;
+			}
+		}
+	}
+
+	// the log is replayed on all positions when it gets longer than this
+	private static final int MAX_EDITS= 4096;
+
+	private final IDocument fDocument;
+	private final EditReplayer fReplayer= new EditReplayer();
+	private final Set<DeferredPosition> fPositions= Collections.newSetFromMap(new IdentityHashMap<>());
+
+	private int[] fEditOffsets= new int[16];
+	private int[] fEditLengths= new int[16];
+	private int[] fEditReplaceLengths= new int[16];
+	private int fEditCount;
+	// the version of the first edit in the log
+	private int fBaseVersion;
+
+	public DeferredPositions(IDocument document) {
+		fDocument= document;
+		fDocument.addDocumentListener(this);
+	}
+
+	/**
+	 * Starts tracking a position in the current state of the document.
+	 *
+	 * @param offset the offset of the position
+	 * @param length the length of the position
+	 * @return the tracked position
+	 * @throws BadLocationException if the position is not inside the document
+	 */
+	public DeferredPosition add(int offset, int length) throws BadLocationException {
+		if (offset < 0 || length < 0 || offset + length > fDocument.getLength())
+			throw new BadLocationException();
+		DeferredPosition position= new DeferredPosition(this, offset, length, fBaseVersion + fEditCount);
+		fPositions.add(position);
+		return position;
+	}
+
+	/**
+	 * Stops tracking a position.
+	 *
+	 * @param position the position
+	 */
+	public void remove(DeferredPosition position) {
+		fPositions.remove(position);
+	}
+
+	/**
+	 * Returns the number of tracked positions.
+	 *
+	 * @return the number of tracked positions
+	 */
+	public int size() {
+		return fPositions.size();
+	}
+
+	/**
+	 * Replays the edits the position has not seen yet.
+	 *
+	 * @param position the position to update
+	 * @return the updated position
+	 */
+	public DeferredPosition update(DeferredPosition position) {
+		int version= fBaseVersion + fEditCount;
+		for (int i= position.fVersion - fBaseVersion; i < fEditCount && !position.isDeleted(); i++) {
+			fReplayer.replay(fDocument, position, fEditOffsets[i], fEditLengths[i], fEditReplaceLengths[i]);
+		}
+		position.fVersion= version;
+		return position;
+	}
+
+	public void dispose() {
+		fDocument.removeDocumentListener(this);
+		fPositions.clear();
+	}
+
+	@Override
+	public void documentAboutToBeChanged(DocumentEvent event) {
+		// edits are recorded once they are applied
+	}
+
+	@Override
+	public void documentChanged(DocumentEvent event) {
+		if (fEditCount == fEditOffsets.length) {
+			int capacity= fEditCount * 2;
+			fEditOffsets= Arrays.copyOf(fEditOffsets, capacity);
+			fEditLengths= Arrays.copyOf(fEditLengths, capacity);
+			fEditReplaceLengths= Arrays.copyOf(fEditReplaceLengths, capacity);
+		}
+		fEditOffsets[fEditCount]= event.getOffset();
+		fEditLengths[fEditCount]= event.getLength();
+		fEditReplaceLengths[fEditCount]= event.getText() == null ? 0 : event.getText().length();
+		fEditCount++;
+		if (fEditCount >= MAX_EDITS) {
+			for (DeferredPosition position : fPositions) {
+				update(position);
+			}
+			fBaseVersion+= fEditCount;
+			fEditCount= 0;
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -22,6 +22,8 @@ import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.resources.IFile;
 
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextOperationTarget;
+import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.source.IAnnotationModel;
 
 import org.eclipse.ui.IEditorInput;
@@ -186,7 +188,7 @@ public class EditorAnnotationManager implements ISearchResultListener {
 			return new EditorAccessHighlighter(access);
 		IAnnotationModel model= getAnnotationModel(editor);
 		if (model != null)
-			return new AnnotationHighlighter(model, getDocument(editor));
+			return new AnnotationHighlighter(model, getDocument(editor), getTextViewer(editor));
 		IEditorInput input= editor.getEditorInput();
 		if (input instanceof IFileEditorInput) {
 			IFile file= ((IFileEditorInput)input).getFile();
@@ -200,7 +202,7 @@ public class EditorAnnotationManager implements ISearchResultListener {
 		if (fgHighlighterType == HIGHLIGHTER_ANNOTATION) {
 			IAnnotationModel model= getAnnotationModel(editor);
 			if (model != null)
-				return new AnnotationHighlighter(model, getDocument(editor));
+				return new AnnotationHighlighter(model, getDocument(editor), getTextViewer(editor));
 		} else if (fgHighlighterType == HIGHLIGHTER_MARKER) {
 			IEditorInput input= editor.getEditorInput();
 			if (input instanceof IFileEditorInput) {
@@ -266,6 +268,14 @@ public class EditorAnnotationManager implements ISearchResultListener {
 		return model;
 	}
 
+	private static ITextViewer getTextViewer(IWorkbenchPart part) {
+		ITextOperationTarget target= part.getAdapter(ITextOperationTarget.class);
+		if (target instanceof ITextViewer) {
+			return (ITextViewer) target;
+		}
+		return null;
+	}
+
 	private static IDocument getDocument(IWorkbenchPart part) {
 		IDocument doc= null;
 		doc= part.getAdapter(IDocument.class);
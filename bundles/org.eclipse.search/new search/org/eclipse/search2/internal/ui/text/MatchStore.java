@@ -0,0 +1,326 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.search2.internal.ui.text;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.eclipse.search.ui.text.Match;
+
+/**
+ * The matches reported against one element of a search result. The matches are kept in an array
+ * sorted by the offset and length they had when they were added, and these keys are stored in
+ * primitive arrays next to it. Compared to a hash set this needs no entry object per match, the
+ * matches can be returned in order without sorting them, and the matches reported in a range can
+ * be found by binary search.
+ * <p>
+ * Matches are identified by identity, like in {@link org.eclipse.search.ui.text.AbstractTextSearchResult}.
+ * A match whose position was changed after it was added is no longer found by its key. The store
+ * collects these matches again after {@link Match#setOffset(int)} or {@link Match#setLength(int)}
+ * changed the position of any match. This class is thread safe.
+ * </p>
+ */
+public final class MatchStore {
+
+	private static final Match[] EMPTY_ARRAY= new Match[0];
+	private static final int INITIAL_CAPACITY= 4;
+
+	/** The number of position changes of all matches. */
+	private static final AtomicInteger POSITION_CHANGES= new AtomicInteger();
+
+	private Match[] fMatches;
+	private int[] fOffsets;
+	private int[] fLengths;
+	private int fSize;
+	/** The matches stored under a key that differs from their position. */
+	private Set<Match> fMoved;
+	/** The number of position changes when the moved matches were collected. */
+	private int fMovedChanges;
+
+	public MatchStore() {
+		fMatches= new Match[INITIAL_CAPACITY];
+		fOffsets= new int[INITIAL_CAPACITY];
+		fLengths= new int[INITIAL_CAPACITY];
+		fMoved= Collections.emptySet();
+		fMovedChanges= POSITION_CHANGES.get();
+	}
+
+	/**
+	 * Records that the position of a match was changed.
+	 */
+	public static void positionChanged() {
+		POSITION_CHANGES.incrementAndGet();
+	}
+
+	/**
+	 * Adds a match unless it is already contained.
+	 *
+	 * @param match the match to add
+	 * @return <code>true</code> if the match was added
+	 */
+	public synchronized boolean add(Match match) {
+		if (indexOf(match) >= 0) {
+			return false;
+		}
+		insert(match);
+		return true;
+	}
+
+	/**
+	 * Adds the given matches unless they are already contained.
+	 *
+	 * @param matches the matches to add
+	 * @param added receives the matches that were added
+	 */
+	public synchronized void addAll(Collection<Match> matches, Collection<Match> added) {
+		for (Match match : matches) {
+			if (add(match)) {
+				added.add(match);
+			}
+		}
+	}
+
+	private void insert(Match match) {
+		int offset= match.getOffset();
+		int length= match.getLength();
+		int index= upperBound(offset, length);
+		if (fSize == fMatches.length) {
+			int capacity= fSize + (fSize >> 1) + 1;
+			fMatches= Arrays.copyOf(fMatches, capacity);
+			fOffsets= Arrays.copyOf(fOffsets, capacity);
+			fLengths= Arrays.copyOf(fLengths, capacity);
+		}
+		// matches are usually reported in ascending order, so this rarely moves anything
+		int moved= fSize - index;
+		if (moved > 0) {
+			System.arraycopy(fMatches, index, fMatches, index + 1, moved);
+			System.arraycopy(fOffsets, index, fOffsets, index + 1, moved);
+			System.arraycopy(fLengths, index, fLengths, index + 1, moved);
+		}
+		fMatches[index]= match;
+		fOffsets[index]= offset;
+		fLengths[index]= length;
+		fSize++;
+	}
+
+	/**
+	 * Removes a match.
+	 *
+	 * @param match the match to remove
+	 * @return <code>true</code> if the match was contained
+	 */
+	public synchronized boolean remove(Match match) {
+		int index= indexOf(match);
+		if (index < 0) {
+			return false;
+		}
+		int moved= fSize - index - 1;
+		if (moved > 0) {
+			System.arraycopy(fMatches, index + 1, fMatches, index, moved);
+			System.arraycopy(fOffsets, index + 1, fOffsets, index, moved);
+			System.arraycopy(fLengths, index + 1, fLengths, index, moved);
+		}
+		fMatches[--fSize]= null;
+		fMoved.remove(match);
+		return true;
+	}
+
+	/**
+	 * Removes the given matches in a single pass.
+	 *
+	 * @param matches the matches to remove
+	 * @param removed receives the matches that were contained
+	 */
+	public synchronized void removeAll(Collection<Match> matches, Collection<Match> removed) {
+		if (matches.size() == 1) {
+			Match match= matches.iterator().next();
+			if (remove(match)) {
+				removed.add(match);
+			}
+			return;
+		}
+		Set<Match> toRemove= Collections.newSetFromMap(new IdentityHashMap<>(matches.size()));
+		toRemove.addAll(matches);
+		int k= 0;
+		for (int i= 0; i < fSize; i++) {
+			Match match= fMatches[i];
+			if (toRemove.contains(match)) {
+				removed.add(match);
+			} else {
+				fMatches[k]= match;
+				fOffsets[k]= fOffsets[i];
+				fLengths[k]= fLengths[i];
+				k++;
+			}
+		}
+		Arrays.fill(fMatches, k, fSize, null);
+		fSize= k;
+		if (!fMoved.isEmpty()) {
+			fMoved.removeAll(toRemove);
+		}
+	}
+
+	/**
+	 * Returns the number of matches.
+	 *
+	 * @return the number of matches
+	 */
+	public synchronized int size() {
+		return fSize;
+	}
+
+	/**
+	 * Returns the matches in the order of their insertion keys. Use {@link #getSortedMatches()} if
+	 * the order by current position is required.
+	 *
+	 * @return a new array with all matches
+	 */
+	public synchronized Match[] getMatches() {
+		if (fSize == 0) {
+			return EMPTY_ARRAY;
+		}
+		return Arrays.copyOf(fMatches, fSize);
+	}
+
+	/**
+	 * Returns the matches sorted by their current offset and length. The positions of matches
+	 * can be updated after they were added, in that case the matches are sorted again.
+	 *
+	 * @return a new array with all matches
+	 */
+	public Match[] getSortedMatches() {
+		Match[] matches= getMatches();
+		for (int i= 1; i < matches.length; i++) {
+			if (compare(matches[i - 1], matches[i]) > 0) {
+				Arrays.sort(matches, MatchStore::compare);
+				break;
+			}
+		}
+		return matches;
+	}
+
+	/**
+	 * Returns the matches that had an offset in the given range when they were added, sorted by
+	 * that offset and length.
+	 *
+	 * @param offset the start of the range
+	 * @param length the length of the range
+	 * @return a new array with the matches in the range
+	 */
+	public synchronized Match[] getMatches(int offset, int length) {
+		int start= lowerBound(offset);
+		int end= lowerBound(offset + length);
+		if (start >= end) {
+			return EMPTY_ARRAY;
+		}
+		return Arrays.copyOfRange(fMatches, start, end);
+	}
+
+	private int indexOf(Match match) {
+		int index= indexOfKey(match);
+		if (index >= 0) {
+			return index;
+		}
+		if (!getMovedMatches().contains(match)) {
+			return -1;
+		}
+		for (int i= 0; i < fSize; i++) {
+			if (fMatches[i] == match) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Returns the matches whose position was changed after they were added, collecting them
+	 * again if any position was changed since they were last collected.
+	 */
+	private Set<Match> getMovedMatches() {
+		// read before the positions, a concurrent change is seen by the next call
+		int changes= POSITION_CHANGES.get();
+		if (changes != fMovedChanges) {
+			Set<Match> moved= Collections.newSetFromMap(new IdentityHashMap<>());
+			for (int i= 0; i < fSize; i++) {
+				Match match= fMatches[i];
+				if (match.getOffset() != fOffsets[i] || match.getLength() != fLengths[i]) {
+					moved.add(match);
+				}
+			}
+			fMoved= moved;
+			fMovedChanges= changes;
+		}
+		return fMoved;
+	}
+
+	/*
+	 * Returns the index of the match if it is stored with its current offset and length.
+	 */
+	private int indexOfKey(Match match) {
+		int offset= match.getOffset();
+		int length= match.getLength();
+		for (int i= upperBound(offset, length) - 1; i >= 0 && fOffsets[i] == offset && fLengths[i] == length; i--) {
+			if (fMatches[i] == match) {
+				return i;
+			}
+		}
+		return -1;
+	}
+
+	/*
+	 * Returns the index of the first key with an offset not less than the given offset.
+	 */
+	private int lowerBound(int offset) {
+		int low= 0;
+		int high= fSize;
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			if (fOffsets[mid] < offset) {
+				low= mid + 1;
+			} else {
+				high= mid;
+			}
+		}
+		return low;
+	}
+
+	/*
+	 * Returns the index of the first key greater than the given offset and length.
+	 */
+	private int upperBound(int offset, int length) {
+		int low= 0;
+		int high= fSize;
+		while (low < high) {
+			int mid= (low + high) >>> 1;
+			int diff= fOffsets[mid] != offset ? Integer.compare(fOffsets[mid], offset) : Integer.compare(fLengths[mid], length);
+			if (diff <= 0) {
+				low= mid + 1;
+			} else {
+				high= mid;
+			}
+		}
+		return low;
+	}
+
+	private static int compare(Match match1, Match match2) {
+		int diff= Integer.compare(match1.getOffset(), match2.getOffset());
+		if (diff != 0)
+			return diff;
+		return Integer.compare(match1.getLength(), match2.getLength());
+	}
+}
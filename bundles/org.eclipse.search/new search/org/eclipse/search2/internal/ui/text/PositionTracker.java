@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -47,12 +47,21 @@ import org.eclipse.search.ui.text.Match;
 import org.eclipse.search.ui.text.MatchEvent;
 import org.eclipse.search.ui.text.RemoveAllEvent;
 
+import org.eclipse.search2.internal.ui.text.DeferredPositions.DeferredPosition;
 
 public class PositionTracker implements IQueryListener, ISearchResultListener, IFileBufferListener {
 
+	/*
+	 * Number of matches in a file buffer from which on the matches are no longer tracked by
+	 * positions of the document, which are updated on every change, but by an edit log that is
+	 * replayed when a position is asked for.
+	 */
+	private static final int DEFERRED_TRACKING_THRESHOLD= 1000;
+
 	private Map<Match, Position> fMatchesToPositions= new HashMap<>();
 	private Map<Match, AbstractTextSearchResult> fMatchesToSearchResults= new HashMap<>();
 	private Map<ITextFileBuffer, Set<Match>> fFileBuffersToMatches= new HashMap<>();
+	private Map<ITextFileBuffer, DeferredPositions> fFileBuffersToDeferredPositions= new HashMap<>();
 
 	private interface IFileBufferMatchOperation {
 		void run(ITextFileBuffer buffer, Match match);
@@ -125,10 +134,15 @@ public class PositionTracker implements IQueryListener, ISearchResultListener, I
 	private void untrackPosition(ITextFileBuffer fb, Match match) {
 		Position position= fMatchesToPositions.get(match);
 		if (position != null) {
+			if (position instanceof DeferredPosition) {
+				DeferredPosition deferredPosition= (DeferredPosition) position;
+				deferredPosition.getOwner().remove(deferredPosition);
+			} else {
+				fb.getDocument().removePosition(position);
+			}
 			removeFileBufferMapping(fb, match);
 			fMatchesToSearchResults.remove(match);
 			fMatchesToPositions.remove(match);
-			fb.getDocument().removePosition(position);
 		}
 	}
 
@@ -144,7 +158,12 @@ public class PositionTracker implements IQueryListener, ISearchResultListener, I
 			if (match.getBaseUnit() == Match.UNIT_LINE) {
 				position= convertToCharacterPosition(position, doc);
 			}
-			doc.addPosition(position);
+			DeferredPositions deferredPositions= fFileBuffersToDeferredPositions.get(fb);
+			if (deferredPositions != null) {
+				position= deferredPositions.add(position.getOffset(), position.getLength());
+			} else {
+				doc.addPosition(position);
+			}
 			fMatchesToSearchResults.put(match, result);
 			fMatchesToPositions.put(match, position);
 			addFileBufferMapping(fb, match);
@@ -175,17 +194,58 @@ public class PositionTracker implements IQueryListener, ISearchResultListener, I
 			fFileBuffersToMatches.put(fb, matches);
 		}
 		matches.add(match);
+		if (matches.size() == DEFERRED_TRACKING_THRESHOLD && !fFileBuffersToDeferredPositions.containsKey(fb)) {
+			startDeferredTracking(fb, matches);
+		}
+	}
+
+	/*
+	 * Moves the positions of all matches in the buffer from the document to an edit log, so that
+	 * changes of the document no longer need to update them.
+	 */
+	private void startDeferredTracking(ITextFileBuffer fb, Set<Match> matches) {
+		IDocument doc= fb.getDocument();
+		DeferredPositions deferredPositions= new DeferredPositions(doc);
+		fFileBuffersToDeferredPositions.put(fb, deferredPositions);
+		for (Match match : matches) {
+			Position position= fMatchesToPositions.get(match);
+			if (position != null && !position.isDeleted() && !(position instanceof DeferredPosition)) {
+				try {
+					fMatchesToPositions.put(match, deferredPositions.add(position.getOffset(), position.getLength()));
+					doc.removePosition(position);
+				} catch (BadLocationException e) {
+					// keep the position in the document
+				}
+			}
+		}
 	}
 
 	private void removeFileBufferMapping(ITextFileBuffer fb, Match match) {
 		Set<Match> matches= fFileBuffersToMatches.get(fb);
 		if (matches != null) {
 			matches.remove(match);
-			if (matches.isEmpty())
+			if (matches.isEmpty()) {
 				fFileBuffersToMatches.remove(fb);
+				DeferredPositions deferredPositions= fFileBuffersToDeferredPositions.remove(fb);
+				if (deferredPositions != null) {
+					deferredPositions.dispose();
+				}
+			}
 		}
 	}
 
+	/*
+	 * Returns the tracked position of the match, with all changes of the document applied.
+	 */
+	private Position getTrackedPosition(Match match) {
+		Position pos= fMatchesToPositions.get(match);
+		if (pos instanceof DeferredPosition) {
+			DeferredPosition deferredPosition= (DeferredPosition) pos;
+			deferredPosition.getOwner().update(deferredPosition);
+		}
+		return pos;
+	}
+
 	private ITextFileBuffer getTrackedFileBuffer(AbstractTextSearchResult result, Object element) {
 		IFileMatchAdapter adapter= result.getFileMatchAdapter();
 		if (adapter == null)
@@ -199,7 +259,7 @@ public class PositionTracker implements IQueryListener, ISearchResultListener, I
 	}
 
 	public Position getCurrentPosition(Match match) {
-		Position pos= fMatchesToPositions.get(match);
+		Position pos= getTrackedPosition(match);
 		if (pos == null)
 			return pos;
 		AbstractTextSearchResult result= fMatchesToSearchResults.get(match);
@@ -316,7 +376,7 @@ public class PositionTracker implements IQueryListener, ISearchResultListener, I
 		final int[] trackCount= new int[1];
 		doForExistingMatchesIn(buffer, (textBuffer, match) -> {
 			trackCount[0]++;
-			Position pos= fMatchesToPositions.get(match);
+			Position pos= getTrackedPosition(match);
 			if (pos != null) {
 				if (pos.isDeleted()) {
 					AbstractTextSearchResult result= fMatchesToSearchResults.get(match);
@@ -524,8 +524,11 @@ public class FileSearchPage extends AbstractTextSearchViewPage implements IAdapt
 			if (element instanceof LineElement) {
 				LineElement lineEntry= (LineElement) element;
 				IResource res = lineEntry.getParent();
-				if (super.getDisplayedMatchCount(res) > 0) {
-					return lineEntry.getNumberOfMatches(getInput());
+				if (getInput() != null) {
+					FileMatch[] matches= lineEntry.getMatches(getInput());
+					if (matches.length > 0 && isShown(res, matches)) {
+						return matches.length;
+					}
 				}
 			}
 			return 0;
@@ -539,8 +542,11 @@ public class FileSearchPage extends AbstractTextSearchViewPage implements IAdapt
 			if (element instanceof LineElement) {
 				LineElement lineEntry= (LineElement) element;
 				IResource res = lineEntry.getParent();
-				if (super.getDisplayedMatchCount(res) > 0) {
-					return lineEntry.getMatches(getInput());
+				if (getInput() != null) {
+					FileMatch[] matches= lineEntry.getMatches(getInput());
+					if (matches.length > 0 && isShown(res, matches)) {
+						return matches;
+					}
 				}
 			}
 			return new Match[0];
@@ -548,6 +554,20 @@ public class FileSearchPage extends AbstractTextSearchViewPage implements IAdapt
 		return super.getDisplayedMatches(element);
 	}
 
+	/*
+	 * Returns whether the file of a line is shown. This is the case if it has a displayed match,
+	 * which is usually found among the matches of the line without counting all matches of the file.
+	 */
+	private boolean isShown(IResource res, Match[] lineMatches) {
+		boolean filtering= getInput().getActiveMatchFilters() != null;
+		for (Match match : lineMatches) {
+			if (!filtering || !match.isFiltered()) {
+				return true;
+			}
+		}
+		return super.getDisplayedMatchCount(res) > 0;
+	}
+
 	@Override
 	protected void evaluateChangedElements(Match[] matches, Set<Object> changedElements) {
 		if (showLineMatches()) {
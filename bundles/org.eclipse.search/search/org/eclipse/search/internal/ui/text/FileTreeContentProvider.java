@@ -17,11 +17,15 @@
  *******************************************************************************/
 package org.eclipse.search.internal.ui.text;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.Spliterator;
@@ -42,6 +46,22 @@ import org.eclipse.search.ui.text.MatchFilter;
 
 public class FileTreeContentProvider implements ITreeContentProvider, IFileSearchContentProvider {
 
+	/*
+	 * The viewer changes caused by a batch of changed elements. New children are added with one
+	 * call per parent, and the viewer only creates items for them if the parent is expanded. A
+	 * batch therefore costs little for the collapsed parts of the tree.
+	 */
+	private static class ViewerChanges {
+		final Map<Object, List<Object>> fAdded= new LinkedHashMap<>();
+		final Set<Object> fUpdated= new LinkedHashSet<>();
+		final Set<Object> fRefreshed= new LinkedHashSet<>();
+		boolean fRefreshAll;
+
+		void add(Object parent, Object child) {
+			fAdded.computeIfAbsent(parent, p -> new ArrayList<>()).add(child);
+		}
+	}
+
 	private final Object[] EMPTY_ARR= new Object[0];
 
 	private AbstractTextSearchResult fResult;
@@ -94,33 +114,36 @@ public class FileTreeContentProvider implements ITreeContentProvider, IFileSearc
 					Match[] matches= result.getMatches(element);
 					for (Match match : matches) {
 						if (!match.isFiltered()) {
-							insert(((FileMatch) match).getLineElement(), false);
+							insert(((FileMatch) match).getLineElement(), null);
 						}
 					}
 				} else {
-					insert(element, false);
+					insert(element, null);
 				}
 			}
 		}
 	}
 
-	private void insert(Object child, boolean refreshViewer) {
+	private void insert(Object child, ViewerChanges changes) {
 		Object parent= getParent(child);
 		while (parent != null) {
 			if (insertChild(parent, child)) {
-				if (refreshViewer)
-					fTreeViewer.add(parent, child);
+				if (changes != null) {
+					changes.add(parent, child);
+					// the label of the parent shows the number of matches
+					changes.fUpdated.add(parent);
+				}
 			} else {
-				if (refreshViewer)
-					fTreeViewer.update(parent, null);
+				if (changes != null)
+					changes.fUpdated.add(parent);
 				return;
 			}
 			child= parent;
 			parent= getParent(child);
 		}
 		if (insertChild(fResult, child)) {
-			if (refreshViewer)
-				fTreeViewer.add(fResult, child);
+			if (changes != null)
+				changes.add(fResult, child);
 		}
 	}
 
@@ -147,32 +170,50 @@ public class FileTreeContentProvider implements ITreeContentProvider, IFileSearc
 	}
 
 
-	private void remove(Object element, boolean refreshViewer) {
+	private void remove(Object element, ViewerChanges changes) {
 		// precondition here:  fResult.getMatchCount(child) <= 0
 
 		if (hasChildren(element)) {
-			if (refreshViewer)
-				fTreeViewer.refresh(element);
+			changes.fRefreshed.add(element);
 		} else {
 			if (!hasMatches(element)) {
 				fChildrenMap.remove(element);
 				Object parent= getParent(element);
 				if (parent != null) {
 					removeFromSiblings(element, parent);
-					remove(parent, refreshViewer);
+					remove(parent, changes);
 				} else {
 					removeFromSiblings(element, fResult);
-					if (refreshViewer)
-						fTreeViewer.refresh();
+					changes.fRefreshAll= true;
 				}
 			} else {
-				if (refreshViewer) {
-					fTreeViewer.refresh(element);
-				}
+				changes.fRefreshed.add(element);
 			}
 		}
 	}
 
+	private void applyViewerChanges(ViewerChanges changes) {
+		if (changes.fRefreshAll || changes.fAdded.containsKey(fResult) && exceedsElementLimit()) {
+			fTreeViewer.refresh();
+			return;
+		}
+		for (Map.Entry<Object, List<Object>> entry : changes.fAdded.entrySet()) {
+			fTreeViewer.add(entry.getKey(), entry.getValue().toArray());
+		}
+		for (Object element : changes.fRefreshed) {
+			fTreeViewer.refresh(element);
+		}
+		if (!changes.fUpdated.isEmpty()) {
+			fTreeViewer.update(changes.fUpdated.toArray(), null);
+		}
+	}
+
+	private boolean exceedsElementLimit() {
+		// only a refresh applies the limit of getElements(Object)
+		int elementLimit= getElementLimit();
+		return elementLimit != -1 && getChildren(fResult).length > elementLimit;
+	}
+
 	private boolean hasMatches(Object element) {
 		if (element instanceof LineElement) {
 			LineElement lineElement= (LineElement) element;
@@ -240,7 +281,7 @@ public class FileTreeContentProvider implements ITreeContentProvider, IFileSearc
 	 */
 	@Override
 	public synchronized void elementsChanged(Object[] updatedElements) {
-		boolean singleElement = updatedElements.length == 1;
+		ViewerChanges changes= new ViewerChanges();
 		Set<LineElement> lineMatches = Collections.emptySet();
 		// if we have active match filters, we should only use non-filtered FileMatch
 		// objects to collect LineElements to update
@@ -266,9 +307,9 @@ public class FileTreeContentProvider implements ITreeContentProvider, IFileSearc
 					// change events to elements are reported in file search.
 					// ask the page to determine if element is filtered.
 					if (getMatchCount(updatedElement) > 0) {
-						insert(updatedElement, singleElement);
+						insert(updatedElement, changes);
 					} else {
-						remove(updatedElement, singleElement);
+						remove(updatedElement, changes);
 					}
 				} else {
 					// change events to line elements are reported in text
@@ -276,20 +317,19 @@ public class FileTreeContentProvider implements ITreeContentProvider, IFileSearc
 					LineElement lineElement = (LineElement) updatedElement;
 					boolean hasMatches = lineMatches.contains(lineElement);
 					if (hasMatches) {
-						if (singleElement && hasChild(lineElement.getParent(), lineElement)) {
-							fTreeViewer.update(new Object[] { lineElement, lineElement.getParent() }, null);
+						if (hasChild(lineElement.getParent(), lineElement)) {
+							changes.fUpdated.add(lineElement);
+							changes.fUpdated.add(lineElement.getParent());
 						} else {
-							insert(lineElement, singleElement);
+							insert(lineElement, changes);
 						}
 					} else {
-						remove(lineElement, singleElement);
+						remove(lineElement, changes);
 					}
 				}
 			}
 		} finally {
-			if (updatedElements.length > 0 && !singleElement) {
-				fTreeViewer.refresh();
-			}
+			applyViewerChanges(changes);
 		}
 	}
 
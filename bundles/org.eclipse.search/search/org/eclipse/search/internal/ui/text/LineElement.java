@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2008 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,7 +15,6 @@
 package org.eclipse.search.internal.ui.text;
 
 import java.util.ArrayList;
-import java.util.Enumeration;
 
 import org.eclipse.core.resources.IResource;
 
@@ -65,11 +64,18 @@ public class LineElement {
 		return fLineContents.length();
 	}
 
+	/*
+	 * Returns the matches reported in the range of this line. The matches were created with
+	 * offsets of the searched content, so only the matches of this line need to be looked at.
+	 */
+	private Match[] getMatchesInLine(AbstractTextSearchResult result) {
+		return result.getMatches(fParent, fLineStartOffset, fLineContents.length());
+	}
+
 	public FileMatch[] getMatches(AbstractTextSearchResult result) {
 		ArrayList<FileMatch> res= new ArrayList<>();
-		Enumeration<Match> matches = result.getMatchSet(fParent);
-		while (matches.hasMoreElements()) {
-			FileMatch curr = (FileMatch) matches.nextElement();
+		for (Match match : getMatchesInLine(result)) {
+			FileMatch curr = (FileMatch) match;
 			if (curr.getLineElement() == this) {
 				res.add(curr);
 			}
@@ -79,9 +85,8 @@ public class LineElement {
 
 	public int getNumberOfMatches(AbstractTextSearchResult result) {
 		int count= 0;
-		Enumeration<Match> matches = result.getMatchSet(fParent);
-		while (matches.hasMoreElements()) {
-			FileMatch curr = (FileMatch) matches.nextElement();
+		for (Match match : getMatchesInLine(result)) {
+			FileMatch curr = (FileMatch) match;
 			if (curr.getLineElement() == this) {
 				count++;
 			}
@@ -90,9 +95,8 @@ public class LineElement {
 	}
 
 	public boolean hasMatches(AbstractTextSearchResult result) {
-		Enumeration<Match> matches = result.getMatchSet(fParent);
-		while (matches.hasMoreElements()) {
-			FileMatch curr = (FileMatch) matches.nextElement();
+		for (Match match : getMatchesInLine(result)) {
+			FileMatch curr = (FileMatch) match;
 			if (curr.getLineElement() == this) {
 				return true;
 			}
@@ -370,6 +370,7 @@ public class ReplaceRefactoring extends Refactoring {
 		progress.setWorkRemaining(workSize);
 		CompositeChange compositeChange= new CompositeChange(SearchMessages.ReplaceRefactoring_composite_change_name);
 		compositeChange.markAsSynthetic();
+		compositeChange.setParallelValidation(true);
 
 		ArrayList<MatchGroup> matchGroups= new ArrayList<>();
 		boolean hasChanges= false;
@@ -20,6 +20,13 @@ import java.util.regex.Pattern;
 import java.util.regex.PatternSyntaxException;
 
 import org.eclipse.core.runtime.Assert;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.SubMonitor;
+
+import org.eclipse.text.edits.MultiTextEdit;
+import org.eclipse.text.edits.ReplaceEdit;
+import org.eclipse.text.edits.TextEdit;
 
 
 /**
@@ -159,21 +166,8 @@ public class FindReplaceDocumentAdapter implements CharSequence {
 			if (startOffset < 0 || startOffset > length())
 				throw new BadLocationException();
 
-			int patternFlags= 0;
-
-			if (regExSearch) {
-				patternFlags |= Pattern.MULTILINE;
-				findString= substituteLinebreak(findString);
-			}
-
-			if (!caseSensitive)
-				patternFlags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
-
-			if (!regExSearch)
-				findString= asRegPattern(findString);
-
-			if (wholeWord)
-				findString= "\\b" + findString + "\\b"; //$NON-NLS-1$ //$NON-NLS-2$
+			int patternFlags= getPatternFlags(caseSensitive, regExSearch);
+			findString= getPatternString(findString, wholeWord, regExSearch);
 
 			fFindReplaceMatchOffset= startOffset;
 			if (fFindReplaceMatcher != null && fFindReplaceMatcher.pattern().pattern().equals(findString) && fFindReplaceMatcher.pattern().flags() == patternFlags) {
@@ -192,26 +186,13 @@ public class FindReplaceDocumentAdapter implements CharSequence {
 		fFindReplaceState= operationCode;
 
 		if (operationCode == REPLACE || operationCode == REPLACE_FIND_NEXT) {
-			if (regExSearch) {
-				Pattern pattern= fFindReplaceMatcher.pattern();
-				String prevMatch= fFindReplaceMatcher.group();
-				try {
-					replaceText= interpretReplaceEscapes(replaceText, prevMatch);
-					Matcher replaceTextMatcher= pattern.matcher(prevMatch);
-					replaceText= replaceTextMatcher.replaceFirst(replaceText);
-				} catch (IndexOutOfBoundsException ex) {
-					throw new PatternSyntaxException(ex.getLocalizedMessage(), replaceText, -1);
-				}
-			}
+			if (regExSearch)
+				replaceText= interpretReplaceText(fFindReplaceMatcher.pattern(), replaceText, fFindReplaceMatcher.group());
 
 			int offset= fFindReplaceMatcher.start();
 			int length= fFindReplaceMatcher.group().length();
 
-			if (fDocument instanceof IRepairableDocumentExtension
-					&& ((IRepairableDocumentExtension)fDocument).isLineInformationRepairNeeded(offset, length, replaceText)) {
-				String message= TextMessages.getString("FindReplaceDocumentAdapter.incompatibleLineDelimiter"); //$NON-NLS-1$
-				throw new PatternSyntaxException(message, replaceText, offset);
-			}
+			checkLineDelimiterRepair(offset, length, replaceText);
 
 			fDocument.replace(offset, length, replaceText);
 
@@ -262,6 +243,87 @@ public class FindReplaceDocumentAdapter implements CharSequence {
 		return null;
 	}
 
+	/**
+	 * Returns the flags of the pattern used to search for a find string.
+	 *
+	 * @param caseSensitive indicates whether lower and upper case should be distinguished
+	 * @param regExSearch if <code>true</code> the find string represents a regular expression
+	 * @return the pattern flags
+	 * @since 3.14
+	 */
+	private static int getPatternFlags(boolean caseSensitive, boolean regExSearch) {
+		int patternFlags= 0;
+
+		if (regExSearch)
+			patternFlags |= Pattern.MULTILINE;
+
+		if (!caseSensitive)
+			patternFlags |= Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE;
+
+		return patternFlags;
+	}
+
+	/**
+	 * Returns the regular expression used to search for a find string.
+	 *
+	 * @param findString the string to find
+	 * @param wholeWord indicates whether the find string should be limited by word boundaries
+	 * @param regExSearch if <code>true</code> the find string represents a regular expression
+	 * @return the regular expression to search for
+	 * @throws PatternSyntaxException if \R is used at an illegal position
+	 * @since 3.14
+	 */
+	private String getPatternString(String findString, boolean wholeWord, boolean regExSearch) {
+		if (regExSearch)
+			findString= substituteLinebreak(findString);
+		else
+			findString= asRegPattern(findString);
+
+		if (wholeWord)
+			findString= "\\b" + findString + "\\b"; //$NON-NLS-1$ //$NON-NLS-2$
+
+		return findString;
+	}
+
+	/**
+	 * Computes the text replacing a match of a regular expression.
+	 *
+	 * @param pattern the pattern that found the match
+	 * @param replaceText the substitution text
+	 * @param foundText the text of the match
+	 * @return the text replacing the match
+	 * @throws PatternSyntaxException if the substitution text is invalid
+	 * @since 3.14
+	 */
+	private String interpretReplaceText(Pattern pattern, String replaceText, String foundText) {
+		try {
+			replaceText= interpretReplaceEscapes(replaceText, foundText);
+			Matcher replaceTextMatcher= pattern.matcher(foundText);
+			return replaceTextMatcher.replaceFirst(replaceText);
+		} catch (IndexOutOfBoundsException ex) {
+			throw new PatternSyntaxException(ex.getLocalizedMessage(), replaceText, -1);
+		}
+	}
+
+	/**
+	 * Checks that replacing the given range with <code>replaceText</code> does not
+	 * require the document to repair its line information.
+	 *
+	 * @param offset the offset of the replaced range
+	 * @param length the length of the replaced range
+	 * @param replaceText the replacement
+	 * @throws BadLocationException if the range is not inside the document
+	 * @throws PatternSyntaxException if the replacement would corrupt a line delimiter
+	 * @since 3.14
+	 */
+	private void checkLineDelimiterRepair(int offset, int length, String replaceText) throws BadLocationException {
+		if (fDocument instanceof IRepairableDocumentExtension
+				&& ((IRepairableDocumentExtension)fDocument).isLineInformationRepairNeeded(offset, length, replaceText)) {
+			String message= TextMessages.getString("FindReplaceDocumentAdapter.incompatibleLineDelimiter"); //$NON-NLS-1$
+			throw new PatternSyntaxException(message, replaceText, offset);
+		}
+	}
+
 	/**
 	 * Substitutes \R in a regex find pattern with {@code (?>\r\n?|\n)}
 	 *
@@ -607,6 +669,126 @@ public class FindReplaceDocumentAdapter implements CharSequence {
 		return findReplace(REPLACE, -1, null, text, false, false, false, regExReplace);
 	}
 
+	/**
+	 * Replaces all occurrences of a find string inside the given range of this adapter's
+	 * document. The document is scanned once and all replacements are applied as one
+	 * document change, so listeners and the undo history see a single change instead of
+	 * one per match. Document positions are updated as if every match had been replaced
+	 * on its own, see {@link TextEdit#BULK_UPDATE}.
+	 * <p>
+	 * The result is the same as searching forward from <code>offset</code> and replacing
+	 * each match in turn: a match has to lie completely inside the range and the search
+	 * stops at the first empty match.
+	 * </p>
+	 *
+	 * @param offset the offset of the range to search in
+	 * @param length the length of the range to search in
+	 * @param findString the string to find
+	 * @param replaceText the substitution text
+	 * @param caseSensitive indicates whether lower and upper case should be distinguished
+	 * @param wholeWord indicates whether the findString should be limited by white spaces as
+	 * 			defined by Character.isWhiteSpace. Must not be used in combination with <code>regExSearch</code>.
+	 * @param regExSearch if <code>true</code> findString represents a regular expression and
+	 * 			<code>replaceText</code> the substitution for its matches.
+	 * 			Must not be used in combination with <code>wholeWord</code>.
+	 * @param monitor the progress monitor to report progress and check for cancellation,
+	 * 			may be <code>null</code>
+	 * @return the number of replaced occurrences
+	 * @throws BadLocationException if the range is not inside the document
+	 * @throws PatternSyntaxException if a regular expression has invalid syntax
+	 * @throws OperationCanceledException if the monitor has been canceled, the document is
+	 * 			not modified in that case
+	 * @since 3.14
+	 */
+	public int replaceAll(int offset, int length, String findString, String replaceText, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IProgressMonitor monitor) throws BadLocationException {
+		Assert.isTrue(!(regExSearch && wholeWord));
+
+		if (offset < 0 || length < 0 || offset + length > length())
+			throw new BadLocationException();
+
+		if (findString == null || findString.isEmpty())
+			return 0;
+
+		if (replaceText == null)
+			replaceText= ""; //$NON-NLS-1$
+
+		SubMonitor progress= SubMonitor.convert(monitor, length);
+		Pattern pattern= Pattern.compile(getPatternString(findString, wholeWord, regExSearch), getPatternFlags(caseSensitive, regExSearch));
+
+		// the monitor may run the event loop, scan again if the document changed meanwhile
+		boolean[] changed= new boolean[1];
+		IDocumentListener listener= new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+				changed[0]= true;
+			}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+			}
+		};
+		MultiTextEdit edit;
+		fDocument.addDocumentListener(listener);
+		try {
+			do {
+				changed[0]= false;
+				progress.setWorkRemaining(length);
+				edit= findAll(pattern, offset, length, replaceText, regExSearch, progress);
+			} while (changed[0]);
+		} catch (StackOverflowError e) {
+			String message= TextMessages.getString("FindReplaceDocumentAdapter.patternTooComplex"); //$NON-NLS-1$
+			throw new PatternSyntaxException(message, findString, -1);
+		} finally {
+			fDocument.removeDocumentListener(listener);
+		}
+
+		int count= edit.getChildrenSize();
+		if (count > 0) {
+			edit.apply(fDocument, TextEdit.BULK_UPDATE);
+			// the matcher of a preceding find does not know about the change
+			fFindReplaceState= null;
+		}
+		return count;
+	}
+
+	/**
+	 * Scans the given range of the document once and collects the replacements of all
+	 * matches of <code>pattern</code>.
+	 *
+	 * @param pattern the pattern to search for
+	 * @param offset the offset of the range to search in
+	 * @param length the length of the range to search in
+	 * @param replaceText the substitution text
+	 * @param regExReplace if <code>true</code> <code>replaceText</code> represents a regular expression
+	 * @param progress the progress monitor, <code>length</code> units of work are reported
+	 * @return an edit with one replace edit per match
+	 * @throws BadLocationException if the range is not inside the document
+	 * @throws OperationCanceledException if the monitor has been canceled
+	 * @since 3.14
+	 */
+	private MultiTextEdit findAll(Pattern pattern, int offset, int length, String replaceText, boolean regExReplace, SubMonitor progress) throws BadLocationException {
+		// match against a copy of the document, the document is only modified once all matches are known
+		Matcher matcher= pattern.matcher(fDocument.get());
+		matcher.region(offset, offset + length);
+		matcher.useTransparentBounds(true);
+		matcher.useAnchoringBounds(false);
+
+		MultiTextEdit edit= new MultiTextEdit();
+		int scanned= offset;
+		while (matcher.find() && matcher.end() > matcher.start()) {
+			String foundText= matcher.group();
+			String replacement= regExReplace ? interpretReplaceText(pattern, replaceText, foundText) : replaceText;
+			checkLineDelimiterRepair(matcher.start(), foundText.length(), replacement);
+			edit.addChild(new ReplaceEdit(matcher.start(), foundText.length(), replacement));
+
+			progress.worked(matcher.end() - scanned);
+			scanned= matcher.end();
+			if (progress.isCanceled())
+				throw new OperationCanceledException();
+		}
+		return edit;
+	}
+
 	// ---------- CharSequence implementation ----------
 
 	@Override
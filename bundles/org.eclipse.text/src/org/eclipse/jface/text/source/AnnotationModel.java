@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,7 +16,7 @@
 package org.eclipse.jface.text.source;
 
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
@@ -27,9 +27,7 @@ import java.util.concurrent.ConcurrentHashMap;
 
 import org.eclipse.core.runtime.Assert;
 
-import org.eclipse.jface.text.AbstractDocument;
 import org.eclipse.jface.text.BadLocationException;
-import org.eclipse.jface.text.BadPositionCategoryException;
 import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IDocumentListener;
@@ -114,75 +112,236 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 				Position position= fModel.getPosition(next);
 				if (position != null) {
 					int offset= position.getOffset();
-					if (isWithinRegion(offset, position.getLength()))
+					if (isWithinRegion(fRegion, offset, position.getLength(), fCanStartBefore, fCanEndAfter))
 						return next;
 				}
 			}
 			return null;
 		}
 
-		private boolean isWithinRegion(int start, int length) {
-			if (fCanStartBefore && fCanEndAfter)
-				return fRegion.overlapsWith(start, length);
-			else if (fCanStartBefore)
-				return fRegion.includes(start + length - (length > 0 ? 1 : 0));
-			else if (fCanEndAfter)
-				return fRegion.includes(start);
+		static boolean isWithinRegion(Position region, int start, int length, boolean canStartBefore, boolean canEndAfter) {
+			if (canStartBefore && canEndAfter)
+				return region.overlapsWith(start, length);
+			else if (canStartBefore)
+				return region.includes(start + length - (length > 0 ? 1 : 0));
+			else if (canEndAfter)
+				return region.includes(start);
 			else
-				return fRegion.includes(start) && fRegion.includes(start + length - (length > 0 ? 1 : 0));
+				return region.includes(start) && region.includes(start + length - (length > 0 ? 1 : 0));
 		}
 	}
 
 	/**
-	 * An iterator iteration over a Positions and mapping positions to
-	 * annotations using a provided map if the provided map contains the element.
+	 * Index of the annotations of a model ordered by the offsets of their
+	 * positions. Range queries cost <code>O(log n + k)</code> instead of a
+	 * scan over all annotations.
+	 * <p>
+	 * The index refers to the positions themselves. Like the position lists of
+	 * {@link org.eclipse.jface.text.AbstractDocument} it relies on the position
+	 * updaters preserving the order of the positions, so document changes do not
+	 * affect it unless they delete positions, which the model removes before the
+	 * next query. For each index it remembers the
+	 * position with the largest end offset up to that index, which stays the
+	 * largest one when the document moves the positions. The index is updated
+	 * when annotations are added, removed or moved.
+	 * </p>
 	 *
-	 * @since 3.4
+	 * @since 3.14
 	 */
-	private static final class AnnotationsInterator implements Iterator<Annotation> {
+	private static final class AnnotationIndex {
 
-		private Annotation fNext;
-		private final Position[] fPositions;
-		private int fIndex;
-		private final Map<Position, Annotation> fMap;
+		/**
+		 * The number of updates without a query after which updating the index
+		 * costs more than building it again for the next query.
+		 */
+		private static final int MAX_UPDATES= 32;
+
+		private Annotation[] fAnnotations;
+		private Position[] fPositions;
+		/** The position with the largest end offset up to and including an index. */
+		private Position[] fMaxEnds;
+		private int fSize;
+		/** The number of updates since the last query. */
+		private int fUpdates;
 
 		/**
-		 * @param positions positions to iterate over
-		 * @param map a map to map positions to annotations
+		 * Creates a new index.
+		 *
+		 * @param annotations the annotations to index
+		 * @param map the map from annotations to their positions
 		 */
-		public AnnotationsInterator(Position[] positions, Map<Position, Annotation> map) {
-			fPositions= positions;
-			fIndex= 0;
-			fMap= map;
-			fNext= findNext();
+		public AnnotationIndex(Iterator<Annotation> annotations, IAnnotationMap map) {
+			List<Annotation> indexed= new ArrayList<>();
+			List<Position> positions= new ArrayList<>();
+			while (annotations.hasNext()) {
+				Annotation annotation= annotations.next();
+				Position position= map.get(annotation);
+				if (position != null && !position.isDeleted()) {
+					indexed.add(annotation);
+					positions.add(position);
+				}
+			}
+			Integer[] order= new Integer[positions.size()];
+			for (int i= 0; i < order.length; i++)
+				order[i]= Integer.valueOf(i);
+			Arrays.sort(order, (i1, i2) -> Integer.compare(positions.get(i1.intValue()).getOffset(), positions.get(i2.intValue()).getOffset()));
+
+			fSize= order.length;
+			int capacity= Math.max(fSize, 8);
+			fAnnotations= new Annotation[capacity];
+			fPositions= new Position[capacity];
+			fMaxEnds= new Position[capacity];
+			for (int i= 0; i < fSize; i++) {
+				fAnnotations[i]= indexed.get(order[i].intValue());
+				fPositions[i]= positions.get(order[i].intValue());
+			}
+			updateMaxEnds(0);
 		}
 
-		@Override
-		public boolean hasNext() {
-			return fNext != null;
+		/**
+		 * Adds an annotation.
+		 *
+		 * @param annotation the annotation
+		 * @param position the position of the annotation
+		 * @return <code>false</code> if the index should rather be built again
+		 */
+		public boolean add(Annotation annotation, Position position) {
+			if (++fUpdates > MAX_UPDATES)
+				return false;
+			if (position.isDeleted())
+				return true;
+			if (fSize == fAnnotations.length) {
+				int capacity= fSize * 2;
+				fAnnotations= Arrays.copyOf(fAnnotations, capacity);
+				fPositions= Arrays.copyOf(fPositions, capacity);
+				fMaxEnds= Arrays.copyOf(fMaxEnds, capacity);
+			}
+			int index= getFirstIndex(position.getOffset() + 1);
+			int moved= fSize - index;
+			// annotations are mostly added in ascending order, so this rarely moves anything
+			if (moved > 0) {
+				System.arraycopy(fAnnotations, index, fAnnotations, index + 1, moved);
+				System.arraycopy(fPositions, index, fPositions, index + 1, moved);
+			}
+			fAnnotations[index]= annotation;
+			fPositions[index]= position;
+			fSize++;
+			updateMaxEnds(index);
+			return true;
 		}
 
-		@Override
-		public Annotation next() {
-			Annotation result= fNext;
-			fNext= findNext();
-			return result;
+		/**
+		 * Removes an annotation.
+		 *
+		 * @param position the position of the annotation
+		 * @param offset the offset of the position when it was indexed
+		 * @return <code>false</code> if the index should rather be built again
+		 */
+		public boolean remove(Position position, int offset) {
+			if (++fUpdates > MAX_UPDATES)
+				return false;
+			int index= -1;
+			for (int i= getFirstIndex(offset); i < fSize && fPositions[i].getOffset() == offset; i++) {
+				if (fPositions[i] == position) {
+					index= i;
+					break;
+				}
+			}
+			if (index < 0) {
+				// the position was changed without the model
+				for (int i= 0; i < fSize && index < 0; i++) {
+					if (fPositions[i] == position)
+						index= i;
+				}
+				if (index < 0)
+					return true;
+			}
+			int moved= fSize - index - 1;
+			if (moved > 0) {
+				System.arraycopy(fAnnotations, index + 1, fAnnotations, index, moved);
+				System.arraycopy(fPositions, index + 1, fPositions, index, moved);
+			}
+			fSize--;
+			fAnnotations[fSize]= null;
+			fPositions[fSize]= null;
+			fMaxEnds[fSize]= null;
+			updateMaxEnds(index);
+			return true;
 		}
 
-		@Override
-		public void remove() {
-			throw new UnsupportedOperationException();
+		private void updateMaxEnds(int from) {
+			Position maxEnd= from > 0 ? fMaxEnds[from - 1] : null;
+			for (int i= from; i < fSize; i++) {
+				Position position= fPositions[i];
+				if (maxEnd == null || getEnd(position) > getEnd(maxEnd))
+					maxEnd= position;
+				else if (getEnd(position) == getEnd(maxEnd) && position.getLength() == 0)
+					// an insertion at their end moves empty positions but not the others
+					maxEnd= position;
+				fMaxEnds[i]= maxEnd;
+			}
 		}
 
-		private Annotation findNext() {
-			while (fIndex < fPositions.length) {
-				Position position= fPositions[fIndex];
-				fIndex++;
-				if (fMap.containsKey(position))
-					return fMap.get(position);
+		private static int getEnd(Position position) {
+			return position.getOffset() + position.getLength();
+		}
+
+		/*
+		 * Returns the first index with an offset greater than or equal to the given offset.
+		 */
+		private int getFirstIndex(int offset) {
+			int low= 0, high= fSize;
+			while (low < high) {
+				int mid= (low + high) >>> 1;
+				if (fPositions[mid].getOffset() < offset)
+					low= mid + 1;
+				else
+					high= mid;
 			}
+			return low;
+		}
 
-			return null;
+		/**
+		 * Returns the annotations inside the given region, ordered by offset.
+		 * <p>
+		 * See {@link IAnnotationModelExtension2} for a definition of inside.
+		 * </p>
+		 *
+		 * @param offset start of the region
+		 * @param length length of the region
+		 * @param canStartBefore include annotations starting before region
+		 * @param canEndAfter include annotations ending after region
+		 * @return the annotations inside the region
+		 */
+		public List<Annotation> getAnnotations(int offset, int length, boolean canStartBefore, boolean canEndAfter) {
+			fUpdates= 0;
+			int first;
+			if (canStartBefore) {
+				// positions before the first index whose maximal end reaches the region end before it
+				int high= fSize;
+				first= 0;
+				while (first < high) {
+					int mid= (first + high) >>> 1;
+					if (getEnd(fMaxEnds[mid]) < offset)
+						first= mid + 1;
+					else
+						high= mid;
+				}
+				// empty positions starting in the region may not be the ones with the maximal end
+				first= Math.min(first, getFirstIndex(offset));
+			} else {
+				first= getFirstIndex(offset);
+			}
+			// positions from the first index with an offset after the region end after it
+			int last= getFirstIndex(offset + length + 1);
+			Position region= new Position(offset, length);
+			List<Annotation> annotations= new ArrayList<>();
+			for (int i= first; i < last; i++) {
+				Position position= fPositions[i];
+				if (RegionIterator.isWithinRegion(region, position.getOffset(), position.getLength(), canStartBefore, canEndAfter))
+					annotations.add(fAnnotations[i]);
+			}
+			return annotations;
 		}
 	}
 
@@ -298,6 +457,22 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 	 * @since 3.0
 	 */
 	private Object fModificationStamp= new Object();
+	/**
+	 * The index used for region queries, <code>null</code> if it has to be built
+	 * by the next query.
+	 * @since 3.14
+	 */
+	private AnnotationIndex fIndex;
+	/**
+	 * Incremented whenever the annotations change, guarded by <code>fIndexLock</code>.
+	 * @since 3.14
+	 */
+	private int fIndexStamp;
+	/**
+	 * The lock guarding the index.
+	 * @since 3.14
+	 */
+	private final Object fIndexLock= new Object();
 
 	/**
 	 * Creates a new annotation model. The annotation is empty, i.e. does not
@@ -317,6 +492,7 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 			@Override
 			public void documentChanged(DocumentEvent event) {
 				fDocumentChanged= true;
+				indexChanged();
 			}
 		};
 	}
@@ -427,6 +603,7 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 			addPosition(fDocument, position);
 			annotations.put(annotation, position);
 			fPositions.put(position, annotation);
+			indexAdded(annotation, position);
 			synchronized (getLockObject()) {
 				getAnnotationModelEvent().annotationAdded(annotation);
 			}
@@ -661,6 +838,10 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 				}
 			}
 
+			// deleted positions are no longer ordered with the others
+			if (!deleted.isEmpty())
+				invalidateIndex();
+
 			if (fireModelChanged && forkNotification) {
 				removeAnnotations(deleted, false, false);
 				synchronized (getLockObject()) {
@@ -720,18 +901,90 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 	 * @since 3.4
 	 */
 	private Iterator<Annotation> getRegionAnnotationIterator(int offset, int length, boolean canStartBefore, boolean canEndAfter) {
-		if (!(fDocument instanceof AbstractDocument))
-			return new RegionIterator(getAnnotationIterator(true), this, offset, length, canStartBefore, canEndAfter);
-
-		AbstractDocument document= (AbstractDocument) fDocument;
 		cleanup(true);
+		return getIndexedAnnotations(offset, length, canStartBefore, canEndAfter).iterator();
+	}
 
-		try {
-			Position[] positions= document.getPositions(IDocument.DEFAULT_CATEGORY, offset, length, canStartBefore, canEndAfter);
-			return new AnnotationsInterator(positions, fPositions);
-		} catch (BadPositionCategoryException e) {
-			// can happen if e.g. the document doesn't contain such a category, or when removed in a different thread
-			return Collections.<Annotation>emptyList().iterator();
+	/**
+	 * Returns the annotations inside the given region from the index of the
+	 * annotations managed by this model, building the index if there is none.
+	 *
+	 * @param offset start of the region
+	 * @param length length of the region
+	 * @param canStartBefore include annotations starting before region
+	 * @param canEndAfter include annotations ending after region
+	 * @return the annotations inside the region
+	 * @since 3.14
+	 */
+	private List<Annotation> getIndexedAnnotations(int offset, int length, boolean canStartBefore, boolean canEndAfter) {
+		int stamp;
+		synchronized (fIndexLock) {
+			if (fIndex != null)
+				return fIndex.getAnnotations(offset, length, canStartBefore, canEndAfter);
+			stamp= fIndexStamp;
+		}
+
+		IAnnotationMap annotations= getAnnotationMap();
+		AnnotationIndex index= new AnnotationIndex(annotations.keySetIterator(), annotations);
+		synchronized (fIndexLock) {
+			// do not publish an index that missed a concurrent change
+			if (stamp == fIndexStamp)
+				fIndex= index;
+			return index.getAnnotations(offset, length, canStartBefore, canEndAfter);
+		}
+	}
+
+	/**
+	 * Records that the document changed, so that an index built concurrently
+	 * with the position updates is not used.
+	 *
+	 * @since 3.14
+	 */
+	private void indexChanged() {
+		synchronized (fIndexLock) {
+			fIndexStamp++;
+		}
+	}
+
+	/**
+	 * Discards the index, it is rebuilt by the next region query.
+	 *
+	 * @since 3.14
+	 */
+	private void invalidateIndex() {
+		synchronized (fIndexLock) {
+			fIndexStamp++;
+			fIndex= null;
+		}
+	}
+
+	/**
+	 * Adds an annotation to the index if there is one.
+	 *
+	 * @param annotation the added annotation
+	 * @param position the position of the annotation
+	 * @since 3.14
+	 */
+	private void indexAdded(Annotation annotation, Position position) {
+		synchronized (fIndexLock) {
+			fIndexStamp++;
+			if (fIndex != null && !fIndex.add(annotation, position))
+				fIndex= null;
+		}
+	}
+
+	/**
+	 * Removes an annotation from the index if there is one.
+	 *
+	 * @param position the position of the removed annotation
+	 * @param offset the offset of the position before it was removed or moved
+	 * @since 3.14
+	 */
+	private void indexRemoved(Position position, int offset) {
+		synchronized (fIndexLock) {
+			fIndexStamp++;
+			if (fIndex != null && !fIndex.remove(position, offset))
+				fIndex= null;
 		}
 	}
 
@@ -815,6 +1068,7 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 
 		annotations.clear();
 		fPositions.clear();
+		invalidateIndex();
 
 		if (fireModelChanged)
 			fireModelChanged();
@@ -845,6 +1099,7 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 
 			annotations.remove(annotation);
 			fPositions.remove(p);
+			indexRemoved(p, p.getOffset());
 			synchronized (getLockObject()) {
 				getAnnotationModelEvent().annotationRemoved(annotation, p);
 			}
@@ -883,14 +1138,17 @@ public class AnnotationModel implements IAnnotationModel, IAnnotationModelExtens
 			if (p != null) {
 
 				if (position.getOffset() != p.getOffset() || position.getLength() != p.getLength()) {
-					fDocument.removePosition(p);
+					int oldOffset= p.getOffset();
+					removePosition(fDocument, p);
 					p.setOffset(position.getOffset());
 					p.setLength(position.getLength());
 					try {
-						fDocument.addPosition(p);
+						addPosition(fDocument, p);
 					} catch (BadLocationException e) {
 						// ignore invalid position
 					}
+					indexRemoved(p, oldOffset);
+					indexAdded(annotation, p);
 				}
 				synchronized (getLockObject()) {
 					getAnnotationModelEvent().annotationChanged(annotation);
@@ -0,0 +1,443 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.text.edits;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.BadPositionCategoryException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.Position;
+
+
+/**
+ * A document which records the replace operations performed by an edit tree
+ * instead of executing them. The recorded operations are afterwards applied
+ * to the real document as one replace of the changed range, and the positions
+ * of the real document are remapped as if every operation had been executed
+ * on its own.
+ * <p>
+ * Edit trees are traversed from the last to the first edit, so the recorded
+ * operations are ordered by descending offset and each of them is described
+ * in the coordinates of the original document.
+ * </p>
+ * <p>
+ * The contents of the document are only copied if they are read while the
+ * edits are recorded.
+ * </p>
+ *
+ * @see TextEdit#BULK_UPDATE
+ * @since 3.14
+ */
+class BulkEditDocument extends EditDocument {
+
+	/**
+	 * Visitor checking that an edit tree only consists of edits whose document
+	 * updating is a plain replace of their own region.
+	 */
+	private static class BulkUpdateChecker extends TextEditVisitor {
+
+		boolean fSupported= true;
+
+		@Override
+		public boolean visit(ReplaceEdit edit) {
+			return check(!edit.hasChildren());
+		}
+
+		@Override
+		public boolean visit(DeleteEdit edit) {
+			return check(!edit.hasChildren());
+		}
+
+		@Override
+		public boolean visit(CopyingRangeMarker edit) {
+			return check(false);
+		}
+
+		@Override
+		public boolean visit(CopySourceEdit edit) {
+			return check(false);
+		}
+
+		@Override
+		public boolean visit(CopyTargetEdit edit) {
+			return check(false);
+		}
+
+		@Override
+		public boolean visit(MoveSourceEdit edit) {
+			return check(false);
+		}
+
+		@Override
+		public boolean visit(MoveTargetEdit edit) {
+			return check(false);
+		}
+
+		private boolean check(boolean supported) {
+			fSupported&= supported;
+			return fSupported;
+		}
+	}
+
+	private final IDocument fDocument;
+	private final int fLength;
+	/** The contents with the recorded operations applied, <code>null</code> until read. */
+	private StringBuilder fBuffer;
+	private int fDelta;
+
+	private int fCount;
+	private int[] fOffsets= new int[16];
+	private int[] fLengths= new int[16];
+	private String[] fTexts= new String[16];
+
+	/**
+	 * Creates a new recording document.
+	 *
+	 * @param document the document the edits are recorded for
+	 */
+	public BulkEditDocument(IDocument document) {
+		super(""); //$NON-NLS-1$
+		fDocument= document;
+		fLength= document.getLength();
+	}
+
+	/**
+	 * Tells whether the given edit tree can be recorded by a bulk edit document.
+	 *
+	 * @param root the root of the edit tree
+	 * @return <code>true</code> if the edit tree can be applied in bulk
+	 */
+	static boolean canRecord(TextEdit root) {
+		BulkUpdateChecker checker= new BulkUpdateChecker();
+		root.accept(checker);
+		return checker.fSupported;
+	}
+
+	@Override
+	public String get(int offset, int length) throws BadLocationException {
+		if (offset < 0 || length < 0 || offset + length > getLength())
+			throw new BadLocationException();
+		return getBuffer().substring(offset, offset + length);
+	}
+
+	@Override
+	public String get() {
+		return getBuffer().toString();
+	}
+
+	@Override
+	public int getLength() {
+		return fLength + fDelta;
+	}
+
+	/**
+	 * Returns the contents of the document with the operations recorded so far
+	 * applied, copying them from the real document when first called.
+	 *
+	 * @return the current contents
+	 */
+	private StringBuilder getBuffer() {
+		if (fBuffer == null) {
+			fBuffer= new StringBuilder(fDocument.get());
+			// the recorded operations are ordered by descending offset
+			for (int i= 0; i < fCount; i++)
+				fBuffer.replace(fOffsets[i], fOffsets[i] + fLengths[i], fTexts[i]);
+		}
+		return fBuffer;
+	}
+
+	@Override
+	public void replace(int offset, int length, String text) throws BadLocationException {
+		if (offset < 0 || length < 0 || offset + length > fLength)
+			throw new BadLocationException();
+		if (fCount > 0 && offset + length > fOffsets[fCount - 1])
+			throw new BadLocationException();
+
+		if (fCount == fOffsets.length) {
+			int capacity= fCount * 2;
+			fOffsets= Arrays.copyOf(fOffsets, capacity);
+			fLengths= Arrays.copyOf(fLengths, capacity);
+			fTexts= Arrays.copyOf(fTexts, capacity);
+		}
+		fOffsets[fCount]= offset;
+		fLengths[fCount]= length;
+		fTexts[fCount]= text == null ? "" : text; //$NON-NLS-1$
+		// the previous operations all lie after this one, so its offsets are the same in the original
+		// and in the current contents
+		if (fBuffer != null)
+			fBuffer.replace(offset, offset + length, fTexts[fCount]);
+		fDelta+= fTexts[fCount].length() - length;
+		fCount++;
+	}
+
+	/**
+	 * Applies the recorded replace operations to <code>document</code> as a single
+	 * replace of the range covering all of them.
+	 *
+	 * @param document the document to modify
+	 * @param undo the undo edit to which the reverse operations are added, may be
+	 *            <code>null</code>
+	 * @return the length delta caused by the recorded operations
+	 * @throws BadLocationException if the recorded operations do not fit the document
+	 */
+	int apply(IDocument document, UndoEdit undo) throws BadLocationException {
+		if (fCount == 0)
+			return 0;
+
+		int start= fOffsets[fCount - 1];
+		int end= fOffsets[0] + fLengths[0];
+		String original= document.get(start, end - start);
+
+		// compute the new contents of the changed range in one pass
+		int delta= 0;
+		int capacity= original.length();
+		for (int i= 0; i < fCount; i++) {
+			delta+= fTexts[i].length() - fLengths[i];
+			capacity+= fTexts[i].length();
+		}
+		StringBuilder buffer= new StringBuilder(capacity);
+		int current= start;
+		for (int i= fCount - 1; i >= 0; i--) {
+			buffer.append(original, current - start, fOffsets[i] - start);
+			buffer.append(fTexts[i]);
+			current= fOffsets[i] + fLengths[i];
+		}
+		buffer.append(original, current - start, end - start);
+
+		if (undo != null)
+			addUndo(undo, original, start);
+
+		List<PositionRemapping> remappings= computeRemappings(document, start, end);
+		IDocumentListener collapser= new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+				// runs after all other listeners: keep the position updaters from deleting
+				// positions inside the changed range, they are restored afterwards
+				for (PositionRemapping remapping : remappings)
+					remapping.collapse(start);
+			}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+			}
+		};
+		IDocumentListener remapper= new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+			}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+				// runs after the position updaters and before the regular listeners
+				for (PositionRemapping remapping : remappings)
+					remapping.apply(document);
+			}
+		};
+		document.addDocumentListener(collapser);
+		document.addPrenotifiedDocumentListener(remapper);
+		try {
+			document.replace(start, end - start, buffer.toString());
+		} finally {
+			document.removePrenotifiedDocumentListener(remapper);
+			document.removeDocumentListener(collapser);
+		}
+		return delta;
+	}
+
+	/**
+	 * Adds the reverse of the recorded operations to <code>undo</code>, in the same
+	 * order as an {@link UndoCollector} would.
+	 *
+	 * @param undo the undo edit
+	 * @param original the original contents of the changed range
+	 * @param start the offset of the changed range
+	 */
+	private void addUndo(UndoEdit undo, String original, int start) {
+		String lastText= null;
+		for (int i= 0; i < fCount; i++) {
+			String text= original.substring(fOffsets[i] - start, fOffsets[i] - start + fLengths[i]);
+			// share equal strings, see UndoCollector
+			if (lastText != null && lastText.equals(text))
+				text= lastText;
+			else
+				lastText= text;
+			undo.add(new ReplaceEdit(fOffsets[i], fTexts[i].length(), text));
+		}
+	}
+
+	private List<PositionRemapping> computeRemappings(IDocument document, int start, int end) {
+		// ascending offsets and the accumulated delta of all operations before an index
+		int[] offsets= new int[fCount];
+		int[] ends= new int[fCount];
+		int[] deltas= new int[fCount + 1];
+		for (int i= 0; i < fCount; i++) {
+			int j= fCount - 1 - i;
+			offsets[i]= fOffsets[j];
+			ends[i]= fOffsets[j] + fLengths[j];
+			deltas[i + 1]= deltas[i] + fTexts[j].length() - fLengths[j];
+		}
+
+		List<PositionRemapping> remappings= new ArrayList<>();
+		for (String category : document.getPositionCategories()) {
+			Position[] positions;
+			try {
+				positions= document.getPositions(category);
+			} catch (BadPositionCategoryException e) {
+				continue;
+			}
+			for (Position position : positions) {
+				if (position.isDeleted() || position.offset > end || position.offset + position.length < start)
+					continue;
+				remappings.add(remap(category, position, offsets, ends, deltas));
+			}
+		}
+		return remappings;
+	}
+
+	/**
+	 * Computes where <code>position</code> ends up if the recorded operations are
+	 * executed one after the other and the position is updated by a
+	 * {@link org.eclipse.jface.text.DefaultPositionUpdater} after each of them.
+	 * Operations ending before the position only shift it, so only the operations
+	 * touching the position have to be looked at.
+	 */
+	private PositionRemapping remap(String category, Position position, int[] offsets, int[] ends, int[] deltas) {
+		// first operation not ending before the position
+		int first= 0, last= offsets.length;
+		while (first < last) {
+			int mid= (first + last) >>> 1;
+			if (ends[mid] <= position.offset)
+				first= mid + 1;
+			else
+				last= mid;
+		}
+		// last operation starting at or before the end of the position
+		int limit= position.offset + position.length;
+		int upper= first, high= offsets.length;
+		while (upper < high) {
+			int mid= (upper + high) >>> 1;
+			if (offsets[mid] <= limit)
+				upper= mid + 1;
+			else
+				high= mid;
+		}
+
+		PositionRemapping remapping= new PositionRemapping(category, position);
+		for (int i= upper - 1; i >= first && !remapping.fDeleted; i--) {
+			int k= offsets.length - 1 - i;
+			remapping.update(fOffsets[k], fLengths[k], fTexts[k].length());
+		}
+		remapping.fOffset+= deltas[first];
+		return remapping;
+	}
+
+	/**
+	 * The new location of a document position.
+	 */
+	private static class PositionRemapping {
+
+		final String fCategory;
+		final Position fPosition;
+		int fOffset;
+		int fLength;
+		boolean fDeleted;
+
+		PositionRemapping(String category, Position position) {
+			fCategory= category;
+			fPosition= position;
+			fOffset= position.offset;
+			fLength= position.length;
+		}
+
+		/*
+		 * Mirrors DefaultPositionUpdater#update(DocumentEvent) for a single position.
+		 */
+		void update(int offset, int length, int replaceLength) {
+			if (offset < fOffset && fOffset + fLength < offset + length) {
+				fDeleted= true;
+				return;
+			}
+
+			if (length > 0 && fOffset <= offset && offset + length <= fOffset + fLength) {
+				fLength+= replaceLength - length;
+				return;
+			}
+
+			if (length > 0) {
+				int myStart= fOffset;
+				int myEnd= Math.max(myStart, fOffset + fLength - 1);
+				int yoursStart= offset;
+				int yoursEnd= Math.max(yoursStart, offset + length - 1);
+				if (myEnd >= yoursStart) {
+					if (myStart <= yoursStart) {
+						if (yoursEnd <= myEnd)
+							fLength-= length;
+						else
+							fLength-= (myEnd - yoursStart + 1);
+					} else if (yoursEnd < myStart) {
+						fOffset-= length;
+					} else {
+						fOffset-= (myStart - yoursStart);
+						fLength-= (yoursEnd - myStart + 1);
+					}
+					fOffset= Math.max(0, fOffset);
+					fLength= Math.max(0, fLength);
+				}
+			}
+
+			if (replaceLength > 0) {
+				int myStart= fOffset;
+				int myEnd= Math.max(myStart, fOffset + fLength - 1);
+				if (myEnd >= offset) {
+					if (myStart < offset)
+						fLength+= replaceLength;
+					else
+						fOffset+= replaceLength;
+				}
+			}
+		}
+
+		void collapse(int offset) {
+			fPosition.offset= offset;
+			fPosition.length= 0;
+		}
+
+		void apply(IDocument document) {
+			try {
+				if (fDeleted) {
+					if (!fPosition.isDeleted()) {
+						fPosition.delete();
+						document.removePosition(fCategory, fPosition);
+					}
+				} else if (fPosition.isDeleted()) {
+					// removed by a position updater, but survives the individual operations
+					fPosition.undelete();
+					fPosition.offset= fOffset;
+					fPosition.length= fLength;
+					document.addPosition(fCategory, fPosition);
+				} else {
+					fPosition.offset= fOffset;
+					fPosition.length= fLength;
+				}
+			} catch (BadLocationException | BadPositionCategoryException e) {
+				// the position cannot be restored, leave it as the position updaters left it
+			}
+		}
+	}
+}
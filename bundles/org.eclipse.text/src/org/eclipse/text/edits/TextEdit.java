@@ -105,6 +105,24 @@ public abstract class TextEdit {
 	 */
 	public static final int UPDATE_REGIONS= 1 << 1;
 
+	/**
+	 * Flag indicating that the document is supposed to be modified by a
+	 * single replace operation covering all changes of the edit tree,
+	 * instead of one replace operation per edit. The new content is
+	 * computed in one pass and document positions are remapped as if
+	 * each edit had been executed on its own and the positions had been
+	 * updated by a {@link org.eclipse.jface.text.DefaultPositionUpdater}.
+	 * Document listeners are notified of one change only.
+	 * <p>
+	 * This speeds up applying edit trees with many edits considerably. It is
+	 * ignored for edit trees containing move or copy edits, in which case the
+	 * edits are executed one by one.
+	 * </p>
+	 *
+	 * @since 3.14
+	 */
+	public static final int BULK_UPDATE= 1 << 2;
+
 	private static class InsertionComparator implements Comparator<TextEdit> {
 		@Override
 		public int compare(TextEdit edit1, TextEdit edit2) throws MalformedTreeException {
@@ -695,7 +713,8 @@ public abstract class TextEdit {
 	 *
 	 * @param document the document to be manipulated
 	 * @param style flags controlling the execution of the edit tree. Valid
-	 *  flags are: <code>CREATE_UNDO</code> and <code>UPDATE_REGIONS</code>.
+	 *  flags are: <code>CREATE_UNDO</code>, <code>UPDATE_REGIONS</code> and
+	 *  <code>BULK_UPDATE</code>.
 	 * @return a undo edit, if <code>CREATE_UNDO</code> is specified. Otherwise
 	 *  <code>null</code> is returned.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2015 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -55,7 +55,8 @@ public class TextEditProcessor {
 	 *  text edit processors. Clients must not modify the edit
 	 *  (e.g adding new children) any longer.
 	 *
-	 * @param style {@link TextEdit#NONE}, {@link TextEdit#CREATE_UNDO} or {@link TextEdit#UPDATE_REGIONS})
+	 * @param style {@link TextEdit#NONE} or a combination of {@link TextEdit#CREATE_UNDO},
+	 *  {@link TextEdit#UPDATE_REGIONS} and {@link TextEdit#BULK_UPDATE}
 	 */
 	public TextEditProcessor(IDocument document, TextEdit root, int style) {
 		this(document, root, style, false);
@@ -113,6 +114,7 @@ public class TextEditProcessor {
 	 * @return the style bits
 	 * @see TextEdit#CREATE_UNDO
 	 * @see TextEdit#UPDATE_REGIONS
+	 * @see TextEdit#BULK_UPDATE
 	 */
 	public int getStyle() {
 		return fStyle;
@@ -188,6 +190,9 @@ public class TextEditProcessor {
 	//---- execution --------------------------------------------------------------------
 
 	UndoEdit executeDo() throws BadLocationException {
+		if (bulkUpdate() && !hasSourceEdits() && BulkEditDocument.canRecord(fRoot))
+			return executeBulkDo();
+
 		UndoCollector collector= new UndoCollector(fRoot);
 		try {
 			if (createUndo())
@@ -203,6 +208,29 @@ public class TextEditProcessor {
 		return collector.undo;
 	}
 
+	private UndoEdit executeBulkDo() throws BadLocationException {
+		int offset= fRoot.getOffset();
+		int length= fRoot.getLength();
+		BulkEditDocument recorder= new BulkEditDocument(fDocument);
+		fRoot.traverseDocumentUpdating(this, recorder);
+		UndoEdit undo= createUndo() ? new UndoEdit() : null;
+		int delta= recorder.apply(fDocument, undo);
+		if (undo != null)
+			undo.defineRegion(offset, length + delta);
+		if (updateRegions()) {
+			fRoot.traverseRegionUpdating(this, fDocument, 0, false);
+		}
+		return undo;
+	}
+
+	private boolean hasSourceEdits() {
+		for (List<TextEdit> list : fSourceEdits) {
+			if (list != null && !list.isEmpty())
+				return true;
+		}
+		return false;
+	}
+
 	private void computeSources() {
 		for (List<TextEdit> list : fSourceEdits) {
 			if (list != null) {
@@ -235,4 +263,8 @@ public class TextEditProcessor {
 	private boolean updateRegions() {
 		return (fStyle & TextEdit.UPDATE_REGIONS) != 0;
 	}
+
+	private boolean bulkUpdate() {
+		return (fStyle & TextEdit.BULK_UPDATE) != 0;
+	}
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2003, 2018 IBM Corporation and others.
+ * Copyright (c) 2003, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -83,6 +83,7 @@ import org.eclipse.ui.internal.ide.IDEWorkbenchErrorHandler;
 import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
 import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.internal.ide.StatusUtil;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
 import org.eclipse.ui.internal.ide.undo.WorkspaceUndoMonitor;
 import org.eclipse.ui.internal.progress.ProgressMonitorJobsDialog;
 import org.eclipse.ui.progress.IProgressService;
@@ -273,6 +274,7 @@ public class IDEWorkbenchAdvisor extends WorkbenchAdvisor {
 	public void postStartup() {
 		try {
 			refreshFromLocal();
+			ResourceNameIndex.getInstance().startup();
 			activateProxyService();
 			((Workbench) PlatformUI.getWorkbench()).registerService(
 					ISelectionConversionService.class,
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -82,6 +82,7 @@ import org.eclipse.ui.internal.WorkbenchMessages;
 import org.eclipse.ui.internal.WorkbenchPlugin;
 import org.eclipse.ui.internal.ide.IDEWorkbenchMessages;
 import org.eclipse.ui.internal.ide.IIDEHelpContextIds;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
 import org.eclipse.ui.internal.ide.model.ResourceFactory;
 import org.eclipse.ui.model.WorkbenchLabelProvider;
 import org.eclipse.jface.viewers.ILabelProvider;
@@ -584,7 +585,10 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 	@Override
 	protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
 			IProgressMonitor progressMonitor) throws CoreException {
-		if (itemsFilter instanceof ResourceFilter) {
+		if (itemsFilter instanceof ResourceFilter && container.getType() == IResource.ROOT
+				&& ResourceNameIndex.getInstance().isReady()) {
+			fillContentProviderFromIndex(contentProvider, (ResourceFilter) itemsFilter, progressMonitor);
+		} else if (itemsFilter instanceof ResourceFilter) {
 			IResource[] members = container.members();
 			progressMonitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
 					members.length);
@@ -606,6 +610,29 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 		progressMonitor.done();
 	}
 
+	/**
+	 * Adds the resources of the workspace to the content provider, without
+	 * visiting the resource tree. The name index is asked for the resources with
+	 * a matching name, the remaining conditions are checked by the filter.
+	 */
+	private void fillContentProviderFromIndex(AbstractContentProvider contentProvider, ResourceFilter filter,
+			IProgressMonitor progressMonitor) {
+		List<IResource> candidates = ResourceNameIndex.getInstance().find(filter::nameMatches, progressMonitor);
+		progressMonitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName,
+				candidates.size());
+		for (IResource resource : candidates) {
+			if (progressMonitor.isCanceled())
+				break;
+			// the visitor does not enter derived folders unless derived resources
+			// are shown
+			if (resource.isAccessible()
+					&& (filter.isShowDerived() || !resource.isDerived(IResource.CHECK_ANCESTORS))) {
+				contentProvider.add(resource, filter);
+			}
+			progressMonitor.worked(1);
+		}
+	}
+
 	private boolean parentIsRoot(IResource resource) {
 		if (resource.getParent() == null) {
 			return false;
@@ -1130,6 +1157,16 @@ public class FilteredResourcesSelectionDialog extends FilteredItemsSelectionDial
 					&& (this.showDerived || !resource.isDerived());
 		}
 
+		/**
+		 * Resources are matched by their name, path and derived flag, which can be
+		 * done in parallel. Since subclasses may match items with code which is not
+		 * thread safe, they have to override this method to opt in as well.
+		 */
+		@Override
+		public boolean isParallelMatchingSupported() {
+			return getClass() == ResourceFilter.class;
+		}
+
 		private boolean matchName(IResource resource) {
 			String name = resource.getName();
 			if (nameMatches(name)) {
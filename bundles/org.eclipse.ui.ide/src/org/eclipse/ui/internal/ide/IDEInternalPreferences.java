@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -180,4 +180,15 @@ public interface IDEInternalPreferences {
 	 */
 	String HELP_CONTEXT_AVAILABILITY_CHECK = "helpContextAvailabilityCheck"; //$NON-NLS-1$
 
+	/**
+	 * Key for preference whether the marker views apply marker changes to the
+	 * markers gathered before instead of gathering all markers again. It is
+	 * read when a marker view is opened.
+	 *
+	 * <p>
+	 * The default is true.
+	 * </p>
+	 */
+	String INCREMENTAL_MARKER_UPDATES = "incrementalMarkerUpdates"; //$NON-NLS-1$
+
 }
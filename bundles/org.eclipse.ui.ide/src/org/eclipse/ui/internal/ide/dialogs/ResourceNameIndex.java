@@ -0,0 +1,760 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.ide.dialogs;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Predicate;
+
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IResourceChangeEvent;
+import org.eclipse.core.resources.IResourceChangeListener;
+import org.eclipse.core.resources.IResourceDelta;
+import org.eclipse.core.resources.IResourceProxy;
+import org.eclipse.core.resources.ISaveContext;
+import org.eclipse.core.resources.ISaveParticipant;
+import org.eclipse.core.resources.ISavedState;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.IWorkspaceRoot;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.Status;
+import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+
+/**
+ * An index of the names of all resources in the workspace, so that dialogs like
+ * Open Resource can find matching resources without visiting the whole
+ * resource tree.
+ * <p>
+ * Every resource is a node holding the id of its interned name, the node of its
+ * parent and its type, stored in parallel arrays. Equal names are stored once,
+ * so a query evaluates its name pattern once per distinct name. The index is
+ * kept up to date from resource deltas and is written at every full workspace
+ * save. On the next start it is read back and updated with the deltas that
+ * happened in between.
+ * </p>
+ * <p>
+ * Removed resources leave free node slots behind, which are dropped once they
+ * make up a quarter of all slots.
+ * </p>
+ * <p>
+ * This class is thread safe.
+ * </p>
+ */
+public final class ResourceNameIndex {
+
+	private static final int MAGIC = 0x524E4958; // "RNIX"
+
+	private static final int FORMAT_VERSION = 1;
+
+	private static final String FILE_PREFIX = "resourceNames-"; //$NON-NLS-1$
+
+	/** The name of the system job that loads or builds the index. */
+	private static final String JOB_NAME = "Indexing resource names"; //$NON-NLS-1$
+
+	private static final IPath SAVE_KEY = IPath.fromOSString("resourceNames"); //$NON-NLS-1$
+
+	/** Type of free node slots. */
+	private static final byte FREE = 0;
+
+	private static final int NO_PARENT = -1;
+
+	private static final int NO_NODE = -1;
+
+	private static final ResourceNameIndex INSTANCE = new ResourceNameIndex();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/** Distinct names, indexed by name id. */
+	private String[] names = new String[256];
+
+	private int nameCount;
+
+	private final Map<String, Integer> nameIds = new HashMap<>();
+
+	/** Per node: the name id. */
+	private int[] nodeNames = new int[1024];
+
+	/** Per node: the parent node, {@link #NO_PARENT} for projects. */
+	private int[] parents = new int[1024];
+
+	/** Per node: the resource type, {@link #FREE} for unused slots. */
+	private byte[] types = new byte[1024];
+
+	/** Per node: the last added child, {@link #NO_NODE} if there is none. */
+	private int[] children = new int[1024];
+
+	/** Per node: the previously added sibling, {@link #NO_NODE} if there is none. */
+	private int[] siblings = new int[1024];
+
+	/** The last added project, {@link #NO_NODE} if there is none. */
+	private int projects = NO_NODE;
+
+	/** Number of used node slots, including free ones. */
+	private int nodeCount;
+
+	/** Number of free node slots. */
+	private int freeCount;
+
+	/**
+	 * Open-addressing table from (parent, name) to <code>node + 1</code>,
+	 * <code>0</code> for empty slots. Entries of free nodes stay in the table
+	 * until the next compaction.
+	 */
+	private int[] slots = new int[2048];
+
+	/** Whether the index covers the workspace. */
+	private volatile boolean ready;
+
+	private boolean started;
+
+	private final IResourceChangeListener listener = this::resourceChanged;
+
+	private ResourceNameIndex() {
+	}
+
+	/**
+	 * @return the index of the workspace
+	 */
+	public static ResourceNameIndex getInstance() {
+		return INSTANCE;
+	}
+
+	/**
+	 * Starts to maintain the index in a background job. The index is read from
+	 * the last workspace save if possible and built from the workspace
+	 * otherwise.
+	 */
+	public synchronized void startup() {
+		if (started) {
+			return;
+		}
+		started = true;
+		Job job = Job.create(JOB_NAME, monitor -> {
+			connect(monitor);
+			return Status.OK_STATUS;
+		});
+		job.setSystem(true);
+		job.setPriority(Job.DECORATE);
+		job.schedule();
+	}
+
+	/**
+	 * @return whether the index covers the whole workspace and can answer
+	 *         queries
+	 */
+	public boolean isReady() {
+		return ready;
+	}
+
+	private void connect(IProgressMonitor monitor) {
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		ISavedState savedState = null;
+		try {
+			savedState = workspace.addSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH, new SaveParticipant());
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log(e.getMessage(), e);
+		}
+		boolean loaded = false;
+		if (savedState != null) {
+			IPath file = savedState.lookup(SAVE_KEY);
+			if (file != null) {
+				loaded = read(getStateLocation().append(file).toFile());
+			}
+		}
+		// reading replaces the whole index, so deltas are only applied after it
+		workspace.addResourceChangeListener(listener, IResourceChangeEvent.POST_CHANGE);
+		if (loaded) {
+			savedState.processResourceChangeEvents(listener);
+		} else {
+			build(workspace.getRoot(), monitor);
+		}
+		if (monitor.isCanceled()) {
+			disconnect(workspace);
+		} else {
+			ready = true;
+		}
+	}
+
+	/**
+	 * Stops to maintain the index and discards it, so that the next
+	 * {@link #startup()} starts over.
+	 */
+	private void disconnect(IWorkspace workspace) {
+		workspace.removeResourceChangeListener(listener);
+		workspace.removeSaveParticipant(IDEWorkbenchPlugin.IDE_WORKBENCH);
+		lock.writeLock().lock();
+		try {
+			clear();
+		} finally {
+			lock.writeLock().unlock();
+		}
+		synchronized (this) {
+			started = false;
+		}
+	}
+
+	private void clear() {
+		names = new String[256];
+		nameCount = 0;
+		nameIds.clear();
+		nodeNames = new int[1024];
+		parents = new int[1024];
+		types = new byte[1024];
+		children = new int[1024];
+		siblings = new int[1024];
+		projects = NO_NODE;
+		nodeCount = 0;
+		freeCount = 0;
+		slots = new int[2048];
+	}
+
+	/**
+	 * Collects the resources whose name is accepted by the given filter.
+	 *
+	 * @param nameFilter decides which names match, called at most once per
+	 *                   distinct name
+	 * @param monitor    the progress monitor, checked for cancellation
+	 * @return the matching resources, empty if the query was canceled
+	 */
+	public List<IResource> find(Predicate<String> nameFilter, IProgressMonitor monitor) {
+		List<String> paths = new ArrayList<>();
+		List<Byte> resourceTypes = new ArrayList<>();
+		lock.readLock().lock();
+		try {
+			byte[] matches = new byte[nameCount]; // 0 unknown, 1 match, 2 no match
+			StringBuilder path = new StringBuilder();
+			for (int node = 0; node < nodeCount; node++) {
+				if (types[node] == FREE) {
+					continue;
+				}
+				int name = nodeNames[node];
+				if (matches[name] == 0) {
+					matches[name] = nameFilter.test(names[name]) ? (byte) 1 : (byte) 2;
+				}
+				if (matches[name] == 1) {
+					path.setLength(0);
+					appendPath(path, node);
+					paths.add(path.toString());
+					resourceTypes.add(Byte.valueOf(types[node]));
+				}
+				if ((node & 0xFFF) == 0 && monitor.isCanceled()) {
+					return new ArrayList<>();
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		List<IResource> result = new ArrayList<>(paths.size());
+		for (int i = 0; i < paths.size(); i++) {
+			IPath path = IPath.fromPortableString(paths.get(i));
+			switch (resourceTypes.get(i).byteValue()) {
+			case IResource.FILE:
+				result.add(root.getFile(path));
+				break;
+			case IResource.FOLDER:
+				result.add(root.getFolder(path));
+				break;
+			case IResource.PROJECT:
+				result.add(root.getProject(path.lastSegment()));
+				break;
+			default:
+				break;
+			}
+		}
+		return result;
+	}
+
+	/**
+	 * @return the number of resources in the index
+	 */
+	public int size() {
+		lock.readLock().lock();
+		try {
+			return nodeCount - freeCount;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	private void appendPath(StringBuilder path, int node) {
+		int parent = parents[node];
+		if (parent != NO_PARENT) {
+			appendPath(path, parent);
+		}
+		path.append('/').append(names[nodeNames[node]]);
+	}
+
+	/**
+	 * Adds the given resource and its accessible members to the index.
+	 */
+	private void build(IResource resource, IProgressMonitor monitor) {
+		try {
+			resource.accept(proxy -> {
+				if (monitor.isCanceled()) {
+					return false;
+				}
+				if (proxy.getType() != IResource.ROOT) {
+					add(proxy);
+				}
+				return proxy.getType() != IResource.FILE;
+			}, IResource.NONE);
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log(e.getMessage(), e);
+		}
+	}
+
+	private void add(IResourceProxy proxy) {
+		IPath path = proxy.requestFullPath();
+		lock.writeLock().lock();
+		try {
+			add(path, (byte) proxy.getType());
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the resource with the given path, and its parents if they are missing.
+	 *
+	 * @return the node of the resource
+	 */
+	private int add(IPath path, byte type) {
+		int node = NO_PARENT;
+		int segmentCount = path.segmentCount();
+		for (int i = 0; i < segmentCount; i++) {
+			int name = internName(path.segment(i));
+			int child = lookup(node, name);
+			if (child < 0) {
+				byte childType = i == segmentCount - 1 ? type : (byte) (i == 0 ? IResource.PROJECT : IResource.FOLDER);
+				child = newNode(node, name, childType);
+			}
+			node = child;
+		}
+		return node;
+	}
+
+	private int internName(String name) {
+		Integer id = nameIds.get(name);
+		if (id != null) {
+			return id.intValue();
+		}
+		if (nameCount == names.length) {
+			names = Arrays.copyOf(names, nameCount * 2);
+		}
+		names[nameCount] = name;
+		nameIds.put(name, Integer.valueOf(nameCount));
+		return nameCount++;
+	}
+
+	private int newNode(int parent, int name, byte type) {
+		if (nodeCount == types.length) {
+			int capacity = nodeCount * 2;
+			nodeNames = Arrays.copyOf(nodeNames, capacity);
+			parents = Arrays.copyOf(parents, capacity);
+			types = Arrays.copyOf(types, capacity);
+			children = Arrays.copyOf(children, capacity);
+			siblings = Arrays.copyOf(siblings, capacity);
+		}
+		int node = nodeCount++;
+		nodeNames[node] = name;
+		parents[node] = parent;
+		types[node] = type;
+		children[node] = NO_NODE;
+		link(node);
+		if (nodeCount * 2 > slots.length) {
+			rehash(slots.length * 2);
+		} else {
+			insertSlot(node);
+		}
+		return node;
+	}
+
+	/**
+	 * Adds the given node to the children of its parent.
+	 */
+	private void link(int node) {
+		int parent = parents[node];
+		if (parent == NO_PARENT) {
+			siblings[node] = projects;
+			projects = node;
+		} else {
+			siblings[node] = children[parent];
+			children[parent] = node;
+		}
+	}
+
+	private static int hash(int parent, int name) {
+		int h = parent * 0x9E3779B9 + name;
+		return h ^ (h >>> 16);
+	}
+
+	/**
+	 * @return the node with the given parent and name, or <code>-1</code>
+	 */
+	private int lookup(int parent, int name) {
+		int mask = slots.length - 1;
+		for (int slot = hash(parent, name) & mask;; slot = (slot + 1) & mask) {
+			int node = slots[slot] - 1;
+			if (node < 0) {
+				return -1;
+			}
+			if (parents[node] == parent && nodeNames[node] == name && types[node] != FREE) {
+				return node;
+			}
+		}
+	}
+
+	private void insertSlot(int node) {
+		int mask = slots.length - 1;
+		int slot = hash(parents[node], nodeNames[node]) & mask;
+		while (slots[slot] != 0) {
+			slot = (slot + 1) & mask;
+		}
+		slots[slot] = node + 1;
+	}
+
+	private void rehash(int capacity) {
+		slots = new int[capacity];
+		for (int node = 0; node < nodeCount; node++) {
+			if (types[node] != FREE) {
+				insertSlot(node);
+			}
+		}
+	}
+
+	/**
+	 * Frees the given node and all nodes below it.
+	 */
+	private void remove(int node) {
+		int parent = parents[node];
+		if (parent == NO_PARENT ? projects == node : children[parent] == node) {
+			// unlink the most recently added node, others are skipped as free
+			if (parent == NO_PARENT) {
+				projects = siblings[node];
+			} else {
+				children[parent] = siblings[node];
+			}
+		}
+		types[node] = FREE;
+		freeCount++;
+		removeMembers(node);
+	}
+
+	/**
+	 * Frees all nodes below the given node.
+	 */
+	private void removeMembers(int node) {
+		int[] stack = new int[16];
+		int size = 0;
+		stack[size++] = children[node];
+		children[node] = NO_NODE;
+		while (size > 0) {
+			for (int child = stack[--size]; child != NO_NODE; child = siblings[child]) {
+				if (types[child] == FREE) {
+					continue;
+				}
+				types[child] = FREE;
+				freeCount++;
+				if (children[child] != NO_NODE) {
+					if (size == stack.length) {
+						stack = Arrays.copyOf(stack, size * 2);
+					}
+					stack[size++] = children[child];
+				}
+			}
+		}
+	}
+
+	/**
+	 * Drops the free nodes once they make up a quarter of all nodes.
+	 */
+	private void compactIfNeeded() {
+		if (freeCount * 4 > nodeCount) {
+			compact();
+			rehash(slots.length);
+		}
+	}
+
+	/**
+	 * Moves the used nodes to the front, keeping their order so that parents
+	 * still come before their children.
+	 */
+	private void compact() {
+		int[] newIds = new int[nodeCount];
+		int live = 0;
+		for (int node = 0; node < nodeCount; node++) {
+			if (types[node] != FREE) {
+				newIds[node] = live;
+				nodeNames[live] = nodeNames[node];
+				parents[live] = parents[node] == NO_PARENT ? NO_PARENT : newIds[parents[node]];
+				types[live] = types[node];
+				live++;
+			}
+		}
+		Arrays.fill(types, live, nodeCount, FREE);
+		nodeCount = live;
+		freeCount = 0;
+		relink();
+	}
+
+	/**
+	 * Rebuilds the children of all nodes from their parents.
+	 */
+	private void relink() {
+		projects = NO_NODE;
+		Arrays.fill(children, 0, nodeCount, NO_NODE);
+		for (int node = 0; node < nodeCount; node++) {
+			link(node);
+		}
+	}
+
+	private void resourceChanged(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return;
+		}
+		List<IResource> added = new ArrayList<>();
+		List<IPath> removedPaths = new ArrayList<>();
+		List<IPath> closedProjects = new ArrayList<>();
+		try {
+			delta.accept(child -> {
+				IResource resource = child.getResource();
+				switch (child.getKind()) {
+				case IResourceDelta.ADDED:
+					added.add(resource);
+					return false;
+				case IResourceDelta.REMOVED:
+					removedPaths.add(resource.getFullPath());
+					return false;
+				default:
+					if (resource.getType() == IResource.PROJECT && (child.getFlags() & IResourceDelta.OPEN) != 0) {
+						// members of a project which is opened or closed are not reported
+						if (resource.isAccessible()) {
+							added.add(resource);
+						} else {
+							closedProjects.add(resource.getFullPath());
+						}
+						return false;
+					}
+					return true;
+				}
+			});
+		} catch (CoreException e) {
+			IDEWorkbenchPlugin.log(e.getMessage(), e);
+			return;
+		}
+		if (!removedPaths.isEmpty() || !closedProjects.isEmpty()) {
+			lock.writeLock().lock();
+			try {
+				for (IPath path : removedPaths) {
+					int node = find(path);
+					if (node >= 0) {
+						remove(node);
+					}
+				}
+				for (IPath path : closedProjects) {
+					int node = find(path);
+					if (node >= 0) {
+						removeMembers(node);
+					}
+				}
+				compactIfNeeded();
+			} finally {
+				lock.writeLock().unlock();
+			}
+		}
+		for (IResource resource : added) {
+			build(resource, new NullProgressMonitor());
+		}
+	}
+
+	/**
+	 * @return the node of the given path, or <code>-1</code>
+	 */
+	private int find(IPath path) {
+		int node = NO_PARENT;
+		for (int i = 0; i < path.segmentCount(); i++) {
+			Integer name = nameIds.get(path.segment(i));
+			if (name == null) {
+				return -1;
+			}
+			node = lookup(node, name.intValue());
+			if (node < 0) {
+				return -1;
+			}
+		}
+		return node;
+	}
+
+	private static IPath getStateLocation() {
+		return IDEWorkbenchPlugin.getDefault().getStateLocation();
+	}
+
+	/**
+	 * Writes the used names and nodes, renumbered without free slots.
+	 */
+	private void write(File file) throws IOException {
+		lock.readLock().lock();
+		try (DataOutputStream out = new DataOutputStream(
+				new BufferedOutputStream(Files.newOutputStream(file.toPath())))) {
+			int[] nodeIds = new int[nodeCount];
+			int[] newNameIds = new int[nameCount];
+			Arrays.fill(newNameIds, -1);
+			int liveNodes = 0;
+			int liveNames = 0;
+			for (int node = 0; node < nodeCount; node++) {
+				if (types[node] != FREE) {
+					nodeIds[node] = liveNodes++;
+					if (newNameIds[nodeNames[node]] < 0) {
+						newNameIds[nodeNames[node]] = liveNames++;
+					}
+				}
+			}
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeInt(liveNames);
+			for (int name = 0; name < nameCount; name++) {
+				if (newNameIds[name] >= 0) {
+					out.writeUTF(names[name]);
+				}
+			}
+			out.writeInt(liveNodes);
+			for (int node = 0; node < nodeCount; node++) {
+				if (types[node] != FREE) {
+					out.writeInt(newNameIds[nodeNames[node]]);
+					out.writeInt(parents[node] == NO_PARENT ? NO_PARENT : nodeIds[parents[node]]);
+					out.writeByte(types[node]);
+				}
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * @return whether the index was read
+	 */
+	private boolean read(File file) {
+		if (!file.isFile()) {
+			return false;
+		}
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath())))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				return false;
+			}
+			int nameTotal = in.readInt();
+			String[] newNames = new String[Math.max(nameTotal, 16)];
+			for (int i = 0; i < nameTotal; i++) {
+				newNames[i] = in.readUTF().intern();
+			}
+			int nodeTotal = in.readInt();
+			int capacity = Math.max(nodeTotal, 16);
+			int[] newNodeNames = new int[capacity];
+			int[] newParents = new int[capacity];
+			byte[] newTypes = new byte[capacity];
+			for (int node = 0; node < nodeTotal; node++) {
+				newNodeNames[node] = in.readInt();
+				newParents[node] = in.readInt();
+				newTypes[node] = in.readByte();
+				// parents always come before their children
+				if (newNodeNames[node] < 0 || newNodeNames[node] >= nameTotal || newParents[node] < NO_PARENT
+						|| newParents[node] >= node || newTypes[node] == FREE) {
+					return false;
+				}
+			}
+			lock.writeLock().lock();
+			try {
+				names = newNames;
+				nameCount = nameTotal;
+				nameIds.clear();
+				for (int i = 0; i < nameTotal; i++) {
+					nameIds.put(names[i], Integer.valueOf(i));
+				}
+				nodeNames = newNodeNames;
+				parents = newParents;
+				types = newTypes;
+				children = new int[capacity];
+				siblings = new int[capacity];
+				nodeCount = nodeTotal;
+				freeCount = 0;
+				relink();
+				rehash(Integer.highestOneBit(Math.max(nodeTotal, 1024)) * 4);
+			} finally {
+				lock.writeLock().unlock();
+			}
+			return true;
+		} catch (IOException e) {
+			IDEWorkbenchPlugin.log(e.getMessage(), e);
+			return false;
+		}
+	}
+
+	/**
+	 * Writes the index at every full save of the workspace, and asks for the
+	 * resource deltas since that save on the next start.
+	 */
+	private final class SaveParticipant implements ISaveParticipant {
+
+		@Override
+		public void saving(ISaveContext context) throws CoreException {
+			if (context.getKind() != ISaveContext.FULL_SAVE || !ready) {
+				return;
+			}
+			String fileName = FILE_PREFIX + context.getSaveNumber();
+			try {
+				write(getStateLocation().append(fileName).toFile());
+			} catch (IOException e) {
+				throw new CoreException(
+						new Status(IStatus.WARNING, IDEWorkbenchPlugin.IDE_WORKBENCH, e.getMessage(), e));
+			}
+			context.map(SAVE_KEY, IPath.fromOSString(fileName));
+			context.needSaveNumber();
+			context.needDelta();
+		}
+
+		@Override
+		public void doneSaving(ISaveContext context) {
+			getStateLocation().append(FILE_PREFIX + context.getPreviousSaveNumber()).toFile().delete();
+		}
+
+		@Override
+		public void prepareToSave(ISaveContext context) {
+			// nothing to prepare
+		}
+
+		@Override
+		public void rollback(ISaveContext context) {
+			getStateLocation().append(FILE_PREFIX + context.getSaveNumber()).toFile().delete();
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.util.Arrays;
 import java.util.Iterator;
 
 import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.jobs.Job;
 import org.eclipse.jface.util.IPropertyChangeListener;
 import org.eclipse.jface.util.PropertyChangeEvent;
@@ -26,6 +27,8 @@ import org.eclipse.ui.IMemento;
 import org.eclipse.ui.IWorkingSet;
 import org.eclipse.ui.IWorkingSetManager;
 import org.eclipse.ui.PlatformUI;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.internal.ide.StatusUtil;
 import org.eclipse.ui.progress.IWorkbenchSiteProgressService;
 import org.eclipse.ui.statushandlers.StatusManager;
@@ -73,6 +76,7 @@ public class CachedMarkerBuilder {
 
 	private IMemento memento;
 
+	private final boolean incremental;
 
 	/**
 	 * Create a new instance of the receiver. Update using the updateJob.
@@ -85,6 +89,8 @@ public class CachedMarkerBuilder {
 		markers = new Markers(this);
 		markerListener = new MarkersChangeListener(view, this);
 		scheduler = new MarkerUpdateScheduler(view, this);
+		incremental = Platform.getPreferencesService().getBoolean(IDEWorkbenchPlugin.IDE_WORKBENCH,
+				IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES, true, null);
 	}
 
 	void restoreState(IMemento m) {
@@ -132,7 +138,7 @@ public class CachedMarkerBuilder {
 
 		if (isIncremental()) {
 			if (incrementJob != null) {
-				incrementJob.clearEntries();
+				incrementJob.clearUpdates();
 			}
 		}
 	}
@@ -293,7 +299,8 @@ public class CachedMarkerBuilder {
 	}
 
 	/**
-	 * Schedule an update of the markers with a delay.
+	 * Schedule an update of the markers with a delay. The markers are gathered
+	 * again.
 	 *
 	 */
 	void scheduleUpdate() {
@@ -303,7 +310,8 @@ public class CachedMarkerBuilder {
 	}
 
 	/**
-	 * Schedule an update of the markers with a delay.
+	 * Schedule an update of the markers with a delay. The markers are gathered
+	 * again.
 	 *
 	 */
 	void scheduleUpdate(long delay) {
@@ -450,11 +458,12 @@ public class CachedMarkerBuilder {
 			if (updateJob != null) {
 				// ensure cancellation before calling the method
 				// updateJob.cancel();
+			} else if (isIncremental()) {
+				incrementJob = new IncrementUpdateJob(this);
+				updateJob = incrementJob;
+				updateJob.setPriority(Job.LONG);
+				updateJob.setSystem(true);
 			} else {
-				/*
-				 * updateJob = isIncremental() ? new IncrementUpdateJob(this):
-				 * new MarkerUpdateJob(this);
-				 */
 				updateJob = new MarkerUpdateJob(this);
 				updateJob.setPriority(Job.LONG);
 				updateJob.setSystem(true);
@@ -599,18 +608,15 @@ public class CachedMarkerBuilder {
 ///////	<Incremental update code>///////
 		private IncrementUpdateJob incrementJob;
 	/**
-	 * Checks whether the builder should perform incrementally Note : Incremental
-	 * updating method is NOT used and tested yet but left out for further
-	 * investigation(*).
+	 * Checks whether the builder should perform incrementally. The markers are
+	 * then gathered again only if a clean update is scheduled, marker changes
+	 * are applied to the markers gathered before. This is on unless
+	 * {@link IDEInternalPreferences#INCREMENTAL_MARKER_UPDATES} is turned off.
 	 *
 	 * @return Returns true if we should collect markers incrementally.
 	 */
 	boolean isIncremental() {
-		/*
-		 * We do not update incrementally. We have
-		 * code for further investigation(*) for this anyway.
-		 */
-		return false;
+		return incremental;
 	}
 
 	/**
@@ -643,13 +649,14 @@ public class CachedMarkerBuilder {
 	 * @param update
 	 */
 	void incrementalUpdate(MarkerUpdate update) {
+		IncrementUpdateJob job;
 		synchronized (getUpdateScheduler().getSchedulingLock()) {
-			if (incrementJob == null) {
-				scheduleUpdateJob(MarkerUpdateScheduler.SHORT_DELAY, true);
-			}
+			job = incrementJob;
 		}
-		if (incrementJob != null) {
-			incrementJob.addUpdate(update);
+		// without a job the markers are not gathered yet, the first update
+		// gathers them anyway
+		if (job != null) {
+			job.addUpdate(update);
 		}
 	}
 ///////	</Incremental update code>///////
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,28 +14,32 @@
 
 package org.eclipse.ui.internal.views.markers;
 
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
+import java.util.HashMap;
 import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 
+import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.IStatus;
+import org.eclipse.core.runtime.NullProgressMonitor;
 import org.eclipse.core.runtime.Status;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 /**
- * The job that performs incremental update. Once the processing is complete it
- * schedules an UI update. If it'll be possible and beneficial switch to
- * incremental updatation, this has been left out for further investigation(*).
- * only, and not used currently.
+ * The job that performs incremental update. The markers are gathered once and
+ * whenever a clean is requested, for example after the filters or the scope
+ * changed. Afterwards the marker deltas received by the
+ * {@link MarkersChangeListener} are applied to the sorted and grouped markers.
+ * Once the processing is complete it schedules an UI update.
  *
  * @since 3.6
  *
  */
 class IncrementUpdateJob extends MarkerUpdateJob {
 
-	private LinkedList<MarkerEntry> incrementEntryList;
 	private LinkedList<MarkerUpdate> updateQueue;
 
 	/**
@@ -43,47 +47,38 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	 */
 	public IncrementUpdateJob(CachedMarkerBuilder builder) {
 		super(builder);
-		incrementEntryList = new LinkedList<>();
+		// nothing has been gathered yet
+		setClean();
 	}
 
 	@Override
 	protected IStatus run(IProgressMonitor monitor) {
 		monitor.beginTask(MarkerMessages.MarkerView_processUpdates, IProgressMonitor.UNKNOWN);
-		boolean clean= isClean();
-		if (clean) {
-			clearEntries();
+		if (monitor.isCanceled()) {
+			return Status.CANCEL_STATUS;
+		}
+		boolean clean = takeClean();
+		if (!clean) {
+			clean = !processUpdates(monitor);
 		}
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
 		if (clean) {
 			/*
-			 * Unfortunately we cannot lock marker operations between gathering
-			 * and updation. We have this code in place only for further
-			 * investigation
+			 * Marker operations cannot be locked between gathering and
+			 * updating. Changes reported while gathering are applied by the
+			 * next run, applying a change twice has no effect.
 			 */
-			clean = !clean(markerEntries, monitor);
-			LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-			synchronized (queue) {
-				queue.clear();
+			clearUpdates();
+			Collection<MarkerEntry> markerEntries = new ArrayList<>();
+			if (!clean(markerEntries, monitor) || monitor.isCanceled()) {
+				setClean();
+				return Status.CANCEL_STATUS;
 			}
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		if (!clean) {
-			builder.registerTypesToListener();
-			if (!processUpdates(monitor)) {
+			monitor.setTaskName(MarkerMessages.MarkerView_processUpdates);
+			if (!processMarkerEntries(markerEntries, monitor) || monitor.isCanceled()) {
+				setClean();
 				return Status.CANCEL_STATUS;
 			}
 		}
-		if (!processMarkerEntries(markerEntries, monitor)) {
-			return Status.CANCEL_STATUS;
-		}
-		if (monitor.isCanceled()) {
-			return Status.CANCEL_STATUS;
-		}
-		// update with sorted entries
-		updateIncrementalList(markerEntries);
-
 		if (monitor.isCanceled()) {
 			return Status.CANCEL_STATUS;
 		}
@@ -97,168 +92,78 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 	}
 
 	/**
-	 * Update the list
-	 *
-	 * @param markerEntries
-	 */
-	private boolean updateIncrementalList(Collection<MarkerEntry> markerEntries) {
-		markerEntries.clear();
-		Markers clone = builder.getMarkers();
-		synchronized (clone) {
-			clone = clone.getClone();
-		}
-		markerEntries.addAll(Arrays.asList(clone.getMarkerEntryArray()));
-		return true;
-	}
-
-	/**
-	 * Process the incremental updates
+	 * Apply the queued updates to the markers of the builder.
 	 *
 	 * @param monitor
+	 * @return <code>true</code> if the updates were applied, <code>false</code>
+	 *         if the markers have to be gathered again
 	 */
 	private boolean processUpdates(IProgressMonitor monitor) {
-		Collection<MarkerEntry> markerEntries = incrementalEntries();
-		int addCount = 0, removedCount = 0, changedCount = 0, size = 0, newSize = 0;
-		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
-		MarkerUpdate next = null;
-		do {
-			synchronized (queue) {
-				if (!queue.isEmpty()) {
-					next = queue.removeFirst();
-				} else {
-					next = null;
-				}
-			}
-			if (monitor.isCanceled() || next == null) {
-				break;
-			}
-			/**
-			 * The following performs incremental updation of the markers that
-			 * were gathered intially, and keeps them synched at any point with
-			 * the markers of interest in Workspace
-			 */
-			// unfortunately marker operations cannot be locked
-			// so locking between gathering of markers and
-			// marker deltas is not possible
-			size = markerEntries.size();
-			handleRemovedEntries(markerEntries, next.removed, monitor);
-			newSize = markerEntries.size();
-			removedCount += size - newSize;
-
-			handleChangedEntries(markerEntries, next.changed, monitor);
-			changedCount += next.changed.size();
-
-			size = newSize;
-			handleAddedEntries(markerEntries, next.added, monitor);
-			newSize = markerEntries.size();
-			removedCount += newSize - size;
-		} while (next != null);
-		boolean[] changeFlags = new boolean[] { addCount > 0, removedCount > 0,
-				changedCount > 0 };
-		for (boolean changeFlag : changeFlags) {
-			if (changeFlag) {
-				builder.updateChangeFlags(changeFlags);
-				return true;
-			}
+		List<MarkerUpdate> updates = takeUpdates();
+		if (updates.isEmpty()) {
+			return true;
 		}
-		return false;
-	}
-
-	/**
-	 * @param added
-	 * @param monitor
-	 */
-	private void handleAddedEntries(Collection<MarkerEntry> markerEntries, Collection<MarkerEntry> added,
-			IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = added.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (generator.select(entry)) {
-				markerEntries.add(entry);
+		// the state of a marker before the first change that is queued
+		Map<IMarker, MarkerEntry> previousEntries = new HashMap<>();
+		boolean added = false, removed = false, changed = false;
+		for (MarkerUpdate update : updates) {
+			for (MarkerEntry entry : update.removed) {
+				previousEntries.putIfAbsent(entry.getMarker(), entry);
+				removed = true;
 			}
-		}
-	}
-
-	/**
-	 * @param changed
-	 * @param monitor
-	 */
-	private void handleChangedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> changed, IProgressMonitor monitor) {
-		MarkerContentGenerator generator = builder.getGenerator();
-		Iterator<MarkerEntry> iterator = changed.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			Iterator<MarkerEntry> iterator2 = markerEntries.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry oldEntry = iterator2.next();
-				if (oldEntry.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-				}
+			for (MarkerEntry entry : update.changed) {
+				previousEntries.putIfAbsent(entry.getMarker(), entry);
+				changed = true;
 			}
-			if (!generator.select(entry)) {
-				iterator.remove();
+			for (MarkerEntry entry : update.added) {
+				// the marker may have been gathered already
+				previousEntries.putIfAbsent(entry.getMarker(), null);
+				added = true;
 			}
 		}
-		markerEntries.addAll(changed);
-	}
-
-	/**
-	 * @param removed
-	 * @param monitor
-	 */
-	private void handleRemovedEntries(Collection<MarkerEntry> markerEntries,
-			Collection<MarkerEntry> removed, IProgressMonitor monitor) {
-		boolean found = false;
-		Iterator<MarkerEntry> iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			found = entry.getStaleState();
-			if (found) {
-				iterator.remove();
-			}
-			if (removed.isEmpty()) {
+		// all deltas are combined into the current state of the markers
+		MarkerContentGenerator generator = builder.getGenerator();
+		Collection<MarkerEntry> newEntries = new ArrayList<>();
+		for (IMarker marker : previousEntries.keySet()) {
+			if (!marker.exists()) {
 				continue;
 			}
-			Iterator<MarkerEntry> iterator2 = removed.iterator();
-			while (iterator2.hasNext()) {
-				MarkerEntry stale = iterator2.next();
-				if (stale.getMarker().equals(entry.getMarker())) {
-					iterator2.remove();
-					if (!found) {
-						iterator.remove();
-					}
-					break;
-				}
+			MarkerEntry entry = new MarkerEntry(marker);
+			if (generator.select(entry)) {
+				newEntries.add(entry);
 			}
 		}
-		if (removed.isEmpty()) {
-			// TODO: do we check for residuals?
-			return;
-		}
-		// TODO: do we check for residuals?
-		iterator = markerEntries.iterator();
-		while (iterator.hasNext()) {
-			MarkerEntry entry = iterator.next();
-			if (entry.getMarker() != null && !entry.getMarker().exists()) {
-				iterator.remove();
-			}
+		// applied completely or not at all, so it is not canceled halfway
+		if (!builder.getMarkers().updateWithChangedMarkers(previousEntries, newEntries,
+				new NullProgressMonitor())) {
+			return false;
 		}
+		builder.updateChangeFlags(new boolean[] { added, removed, changed });
+		return true;
 	}
 
 	/**
-	 * Clean
+	 * Clear the queued updates.
 	 */
-	void clearEntries() {
-		incrementEntryList = new LinkedList<>();
+	void clearUpdates() {
+		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
+		synchronized (queue) {
+			queue.clear();
+		}
 	}
 
 	/**
-	 * @return Returns the incrementEntryies.
+	 * Remove all queued updates.
+	 *
+	 * @return the updates in the order they were added
 	 */
-	Collection<MarkerEntry> incrementalEntries() {
-		return incrementEntryList;
+	private List<MarkerUpdate> takeUpdates() {
+		LinkedList<MarkerUpdate> queue = getUpdatesQueue();
+		synchronized (queue) {
+			List<MarkerUpdate> updates = new ArrayList<>(queue);
+			queue.clear();
+			return updates;
+		}
 	}
 
 	/**
@@ -292,4 +197,4 @@ class IncrementUpdateJob extends MarkerUpdateJob {
 		}
 		return super.belongsTo(family);
 	}
-}
\ No newline at end of file
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2018 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.util.Objects;
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.osgi.util.NLS;
 import org.eclipse.ui.views.markers.MarkerItem;
+import org.eclipse.ui.views.markers.internal.MarkerGroupingEntry;
 import org.eclipse.ui.views.markers.internal.MarkerMessages;
 
 class MarkerCategory extends MarkerSupportItem {
@@ -35,6 +36,10 @@ class MarkerCategory extends MarkerSupportItem {
 
 	private final Markers markers;
 
+	// the group value the receiver was created for, used to place the
+	// markers of incremental updates
+	final MarkerGroupingEntry groupingEntry;
+
 	/**
 	 * Create a new instance of the receiver that has the markers between
 	 * startIndex and endIndex showing.
@@ -46,10 +51,27 @@ class MarkerCategory extends MarkerSupportItem {
 	 */
 	MarkerCategory(Markers markers, int startIndex,
 			int endIndex, String categoryName) {
+		this(markers, startIndex, endIndex, categoryName, null);
+	}
+
+	/**
+	 * Create a new instance of the receiver that has the markers between
+	 * startIndex and endIndex showing.
+	 *
+	 * @param markers
+	 * @param startIndex
+	 * @param endIndex
+	 * @param categoryName
+	 * @param groupingEntry
+	 *            the group value of the markers or <code>null</code>
+	 */
+	MarkerCategory(Markers markers, int startIndex, int endIndex, String categoryName,
+			MarkerGroupingEntry groupingEntry) {
 		this.markers = markers;
 		start = startIndex;
 		end = endIndex;
 		name = categoryName;
+		this.groupingEntry = groupingEntry;
 	}
 
 	@Override
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -37,7 +37,7 @@ import org.osgi.framework.Bundle;
 class MarkerUpdateJob extends Job {
 
 	CachedMarkerBuilder builder;
-	private boolean clean;
+	private volatile boolean clean;
 	private long lastUpdateTime = -1;
 
 	/**
@@ -158,10 +158,22 @@ class MarkerUpdateJob extends Job {
 	/**
 	 * Request a clean
 	 */
-	void setClean() {
+	synchronized void setClean() {
 		this.clean = true;
 	}
 
+	/**
+	 * Take a requested clean, a clean requested afterwards is kept for the
+	 * next run.
+	 *
+	 * @return Returns if a clean was requested.
+	 */
+	synchronized boolean takeClean() {
+		boolean requested = clean;
+		clean = false;
+		return requested;
+	}
+
 	/**
 	 * @return last update time
 	 */
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2018 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -114,6 +114,255 @@ class Markers {
 		}
 	}
 
+	/**
+	 * Update the sorted and grouped marker entries for changed markers without
+	 * gathering, sorting and grouping all of them again. The entries of all
+	 * changed markers are removed. The new entries are merged into the sorted
+	 * entries of their category, or appended behind them if they sort after
+	 * the shown entries, so that the entries up to the marker limit of every
+	 * category stay sorted.
+	 *
+	 * @param previousEntries
+	 *            the changed markers, mapped to an entry with their state before
+	 *            the change or to <code>null</code> if it is unknown
+	 * @param newEntries
+	 *            the entries for the changed markers which exist and pass the
+	 *            filters
+	 * @param monitor
+	 * @return <code>true</code> if the entries could be updated,
+	 *         <code>false</code> if the markers have to be gathered again
+	 */
+	synchronized boolean updateWithChangedMarkers(Map<IMarker, MarkerEntry> previousEntries,
+			Collection<MarkerEntry> newEntries, IProgressMonitor monitor) {
+		MarkerGroup group = builder.getCategoryGroup();
+		MarkerEntry[] entries = markerEntryArray;
+		MarkerCategory[] oldCategories = categories;
+		if (group != null && entries.length > 0 && oldCategories.length == 0
+				|| group == null && oldCategories.length > 0) {
+			// the grouping changed after the entries were built
+			return false;
+		}
+		boolean initialVal = inChange;
+		try {
+			inChange = true;
+			MarkerComparator markerComparator = builder.getComparator();
+			Comparator<MarkerItem> comparator = group == null ? markerComparator
+					: markerComparator.getFieldsComparator();
+			int[] counts = null;
+			Integer[] oldCounts = markerCounts;
+			if (oldCounts != null) {
+				counts = new int[] { oldCounts[0], oldCounts[1], oldCounts[2], oldCounts[3] };
+			}
+
+			// split the remaining entries of every category into the sorted
+			// entries and the rest
+			Map<MarkerGroupingEntry, CategoryUpdate> updates = group == null ? new HashMap<>()
+					: new TreeMap<>(group.getEntriesComparator());
+			CategoryUpdate ungrouped = null;
+			if (group == null) {
+				ungrouped = new CategoryUpdate(null);
+				ungrouped.add(entries, 0, entries.length - 1, getShowingLimit(entries.length),
+						previousEntries, counts);
+			} else {
+				for (MarkerCategory category : oldCategories) {
+					if (category.groupingEntry == null) {
+						return false;
+					}
+					CategoryUpdate update = new CategoryUpdate(category.getName());
+					int available = category.end - category.start + 1;
+					update.add(entries, category.start, category.end, getShowingLimit(available),
+							previousEntries, counts);
+					updates.put(category.groupingEntry, update);
+				}
+			}
+
+			// assign the new entries to their categories
+			for (MarkerEntry entry : newEntries) {
+				CategoryUpdate update = ungrouped;
+				if (group != null) {
+					IMarker marker = entry.getMarker();
+					try {
+						MarkerGroupingEntry groupingEntry = group.findGroupValue(marker.getType(), marker);
+						update = updates.get(groupingEntry);
+						if (update == null) {
+							update = new CategoryUpdate(group.getMarkerField().getValue(entry));
+							updates.put(groupingEntry, update);
+						}
+					} catch (CoreException e) {
+						// the marker has been deleted meanwhile
+						entry.checkIfMarkerStale();
+						continue;
+					}
+				}
+				update.added.add(entry);
+				if (counts != null) {
+					counts[getCountIndex(entry.getAttributeValue(IMarker.SEVERITY, -1))]++;
+				}
+			}
+
+			int size = 0;
+			for (CategoryUpdate update : updates.values()) {
+				size += update.size();
+			}
+			if (ungrouped != null) {
+				size += ungrouped.size();
+			}
+			MarkerEntry[] newArray = new MarkerEntry[size];
+			List<MarkerCategory> newCategories = new ArrayList<>(updates.size());
+			if (ungrouped != null) {
+				ungrouped.merge(comparator);
+				ungrouped.copyTo(newArray, 0, getShowingLimit(size), comparator, monitor);
+			} else {
+				int start = 0;
+				for (Entry<MarkerGroupingEntry, CategoryUpdate> mapEntry : updates.entrySet()) {
+					CategoryUpdate update = mapEntry.getValue();
+					int available = update.size();
+					if (available == 0) {
+						continue;
+					}
+					update.merge(comparator);
+					update.copyTo(newArray, start, getShowingLimit(available), comparator, monitor);
+					newCategories.add(new MarkerCategory(this, start, start + available - 1, update.name,
+							mapEntry.getKey()));
+					start += available;
+				}
+			}
+			MarkerEntry.clearCollationCache();
+
+			if (markerToEntryMap != null) {
+				markerToEntryMap.clear();
+				markerToEntryMap = null;
+			}
+			markerEntryArray = newArray;
+			categories = newCategories.isEmpty() ? EMPTY_CATEGORY_ARRAY
+					: newCategories.toArray(new MarkerCategory[newCategories.size()]);
+			markerCounts = counts == null ? null
+					: new Integer[] { counts[0], counts[1], counts[2], counts[3] };
+			return true;
+		} catch (IllegalArgumentException e) {
+			// broken comparator, see sortMarkerEntries
+			IDEWorkbenchPlugin.log("Bug 371586: broken comparator. " //$NON-NLS-1$
+					+ Arrays.toString(builder.getComparator().getFields()), e);
+			return false;
+		} finally {
+			inChange = initialVal;
+		}
+	}
+
+	/**
+	 * The entries of one category while applying an update. The sorted entries
+	 * come first and all other entries do not sort before them.
+	 */
+	private static class CategoryUpdate {
+
+		final String name;
+		List<MarkerEntry> sorted = new ArrayList<>();
+		final List<MarkerEntry> unsorted = new ArrayList<>();
+		final List<MarkerEntry> added = new ArrayList<>();
+
+		CategoryUpdate(String name) {
+			this.name = name;
+		}
+
+		/**
+		 * Add the entries between start and end, of which the first sortedCount
+		 * are sorted, except for the entries of changed markers.
+		 */
+		void add(MarkerEntry[] entries, int start, int end, int sortedCount,
+				Map<IMarker, MarkerEntry> previousEntries, int[] counts) {
+			for (int i = start; i <= end; i++) {
+				MarkerEntry entry = entries[i];
+				IMarker marker = entry.getMarker();
+				if (previousEntries.containsKey(marker)) {
+					if (counts != null) {
+						MarkerEntry previous = previousEntries.get(marker);
+						if (previous == null) {
+							previous = entry;
+						}
+						counts[getCountIndex(previous.getAttributeValue(IMarker.SEVERITY, -1))]--;
+					}
+					continue;
+				}
+				if (i - start < sortedCount) {
+					sorted.add(entry);
+				} else {
+					unsorted.add(entry);
+				}
+			}
+		}
+
+		int size() {
+			return sorted.size() + unsorted.size() + added.size();
+		}
+
+		/**
+		 * Merge the added entries which do not sort after the sorted entries
+		 * into them, the others are kept with the unsorted entries.
+		 */
+		void merge(Comparator<MarkerItem> comparator) {
+			if (added.isEmpty()) {
+				return;
+			}
+			added.sort(comparator);
+			int mergeCount = added.size();
+			if (!unsorted.isEmpty()) {
+				if (sorted.isEmpty()) {
+					// no bound known, let copyTo pick the smallest entries
+					mergeCount = 0;
+				} else {
+					MarkerEntry last = sorted.get(sorted.size() - 1);
+					while (mergeCount > 0 && comparator.compare(added.get(mergeCount - 1), last) > 0) {
+						mergeCount--;
+					}
+				}
+			}
+			List<MarkerEntry> merged = new ArrayList<>(sorted.size() + mergeCount);
+			int i = 0;
+			int j = 0;
+			while (i < sorted.size() && j < mergeCount) {
+				if (comparator.compare(added.get(j), sorted.get(i)) < 0) {
+					merged.add(added.get(j++));
+				} else {
+					merged.add(sorted.get(i++));
+				}
+			}
+			merged.addAll(sorted.subList(i, sorted.size()));
+			merged.addAll(added.subList(j, mergeCount));
+			unsorted.addAll(added.subList(mergeCount, added.size()));
+			for (MarkerEntry entry : added) {
+				entry.clearCache();
+			}
+			for (MarkerEntry entry : sorted) {
+				entry.clearCache();
+			}
+			sorted = merged;
+			added.clear();
+		}
+
+		/**
+		 * Copy the merged entries to the array and sort the first sortedCount
+		 * of them.
+		 */
+		void copyTo(MarkerEntry[] array, int start, int sortedCount, Comparator<MarkerItem> comparator,
+				IProgressMonitor monitor) {
+			int sortedSize = Math.min(sorted.size(), sortedCount);
+			for (int i = 0; i < sorted.size(); i++) {
+				array[start + i] = sorted.get(i);
+			}
+			int unsortedStart = start + sorted.size();
+			for (int i = 0; i < unsorted.size(); i++) {
+				array[unsortedStart + i] = unsorted.get(i);
+			}
+			int missing = sortedCount - sortedSize;
+			if (missing > 0 && !unsorted.isEmpty()) {
+				// the sorted entries are followed by larger or equal entries,
+				// so sorting the smallest of these completes them
+				MarkerSortUtil.sortStartingKElement(array, comparator, unsortedStart,
+						unsortedStart + unsorted.size() - 1, Math.min(missing, unsorted.size()), monitor);
+			}
+		}
+	}
+
 	/**
 	 * Sort the contained marker entries and build categories if required.
 	 *
@@ -236,7 +485,7 @@ class Markers {
 			end = entry.getValue();
 			markerCategories[i++] = new MarkerCategory(this, start, end,
 					builder.getCategoryGroup().getMarkerField()
-							.getValue(newMarkers[start]));
+							.getValue(newMarkers[start]), entry.getKey());
 			start = end + 1;
 		}
 		return markerCategories;
@@ -330,13 +579,20 @@ class Markers {
 			if (value instanceof Integer) {
 				severity = ((Integer) value).intValue();
 			}
-			if (severity >= IMarker.SEVERITY_INFO) {
-				ints[severity]++;
-			} else {
-				ints[3]++;
-			}
+			ints[getCountIndex(severity)]++;
+		}
+		return new Integer[] { ints[0], ints[1], ints[2], ints[3] };
+	}
+
+	/**
+	 * @return the index of the severity in the array returned by
+	 *         {@link #getMarkerCounts()}
+	 */
+	private static int getCountIndex(int severity) {
+		if (severity >= IMarker.SEVERITY_INFO && severity <= IMarker.SEVERITY_ERROR) {
+			return IMarker.SEVERITY_ERROR - severity;
 		}
-		return new Integer[] { ints[2], ints[1], ints[0], ints[3] };
+		return 3;
 	}
 
 	/**
@@ -397,6 +653,7 @@ class Markers {
 		if (!inChange) {
 			markers.markerEntryArray = markerEntryArray.clone();
 			markers.categories = categories.clone();
+			markers.markerCounts = markerCounts;
 		}
 		return markers;
 	}
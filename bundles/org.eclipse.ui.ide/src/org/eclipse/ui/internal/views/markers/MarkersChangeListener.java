@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2015 IBM Corporation and others.
+ * Copyright (c) 2015, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,8 +14,8 @@
 
 package org.eclipse.ui.internal.views.markers;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.LinkedList;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IMarkerDelta;
@@ -128,6 +128,11 @@ class MarkersChangeListener implements IResourceChangeListener {
 				builder.getUpdateScheduler().speedUpPendingUpdates();
 				return;
 			}
+			if (builder.isIncremental() && hasProjectOpenChange(event)) {
+				// the markers of closed projects are not shown
+				builder.scheduleUpdate();
+				return;
+			}
 			if(!hasApplicableTypes(event)){
 				return;
 			}
@@ -176,15 +181,11 @@ class MarkersChangeListener implements IResourceChangeListener {
 	}
 
 	/**
-	 * Handle changes incrementally.
-	 * The following performs incremental updation
-	 * of the markers that were gathered initially, and keeps them synched at
-	 * any point with the markers of interest in Workspace. Unfortunately marker
-	 * operations cannot be locked so locking between gathering of markers and
-	 * marker deltas is not possible.
-	 *
-	 * Note : this method of updating is NOT used and tested yet and has holes
-	 * but left out SOLELY for further investigation(*).
+	 * Handle changes incrementally. The marker deltas are queued for the
+	 * update job, which applies them to the markers that were gathered
+	 * initially and keeps them synched with the markers of interest in the
+	 * workspace. Removed and changed markers are recorded with their state
+	 * before the change, as the marker itself no longer has it.
 	 *
 	 * @param event
 	 */
@@ -193,7 +194,7 @@ class MarkersChangeListener implements IResourceChangeListener {
 		if (markerDeltas.length == 0) {
 			return;
 		}
-		Collection<MarkerEntry> removed = new LinkedList<>(), added = new LinkedList<>(), changed = new LinkedList<>();
+		Collection<MarkerEntry> removed = new ArrayList<>(), added = new ArrayList<>(), changed = new ArrayList<>();
 		String[] types = listeningTypes;
 		for (IMarkerDelta markerDelta : markerDeltas) {
 			try {
@@ -201,19 +202,17 @@ class MarkersChangeListener implements IResourceChangeListener {
 				if (!isApplicableType(types, typeId)) {
 					continue;
 				}
-				IMarker marker = markerDelta.getMarker();
-				MarkerEntry markerEntry = new MarkerEntry(marker);
 				switch (markerDelta.getKind()) {
 				case IResourceDelta.REMOVED: {
-					removed.add(markerEntry);
+					removed.add(new DeltaMarkerEntry(markerDelta));
 					break;
 				}
 				case IResourceDelta.ADDED: {
-					added.add(markerEntry);
+					added.add(new MarkerEntry(markerDelta.getMarker()));
 					break;
 				}
 				case IResourceDelta.CHANGED: {
-					changed.add(markerEntry);
+					changed.add(new DeltaMarkerEntry(markerDelta));
 					break;
 				}
 				default:{
@@ -235,6 +234,23 @@ class MarkersChangeListener implements IResourceChangeListener {
 		return;
 	}
 
+	/**
+	 * @param event
+	 * @return true if a project was opened or closed
+	 */
+	private boolean hasProjectOpenChange(IResourceChangeEvent event) {
+		IResourceDelta delta = event.getDelta();
+		if (delta == null) {
+			return false;
+		}
+		for (IResourceDelta projectDelta : delta.getAffectedChildren(IResourceDelta.CHANGED)) {
+			if ((projectDelta.getFlags() & IResourceDelta.OPEN) != 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	/**
 	 * @param event
 	 * @return true if the marker delta has a change in an applicable marker
@@ -450,7 +466,9 @@ class MarkersChangeListener implements IResourceChangeListener {
 ///////////helpers/////////////
 
 /**
- * For Incremental updating
+ * For Incremental updating. The removed and changed entries hold the state of
+ * the markers before the change.
+ *
  * @since 3.6
  */
 class MarkerUpdate {
@@ -530,6 +548,17 @@ class MarkerUpdateScheduler {
 	 * Schedule marker update.
 	 */
 	void scheduleUpdate(long delay, boolean cancelPrevious) {
+		scheduleUpdate(delay, cancelPrevious, true);
+	}
+
+	/**
+	 * Schedule marker update.
+	 *
+	 * @param clean
+	 *            <code>true</code> to gather the markers again,
+	 *            <code>false</code> if only marker changes have to be applied
+	 */
+	private void scheduleUpdate(long delay, boolean cancelPrevious, boolean clean) {
 		//we do not need to make this atomic (?)
 		builder.setBuilding(true);
 		if (cancelPrevious) {
@@ -537,7 +566,7 @@ class MarkerUpdateScheduler {
 			cancelUpdate();
 		}
 		// indicateStatus(MarkerMessages.MarkerView_queueing_updates, true);
-		updateJob = builder.scheduleUpdateJob(delay, true);
+		updateJob = builder.scheduleUpdateJob(delay, clean);
 		// updateTimer.reset();
 	}
 
@@ -804,7 +833,8 @@ class MarkerUpdateScheduler {
 
 		private void go(long delay, boolean cancelPrevious) {
 			timeB4Update = System.currentTimeMillis() + delay;
-			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious);
+			// marker changes are queued for an incremental builder
+			scheduleUpdate(delay + AFTER_MARGIN, cancelPrevious, !builder.isIncremental());
 		}
 	}
 }
@@ -0,0 +1,194 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.eclipse.ui.monitoring.LatencyHistogram;
+
+/**
+ * Records the dispatch latencies of SWT events in one {@link LatencyHistogram} per event type.
+ * The histograms are only created by the UI thread and live as long as the plug-in, so that they
+ * survive restarts of the {@link EventLoopMonitorThread}.
+ */
+public class EventLatencyRecorder implements EventLoopLatencyMXBean {
+	static final String OBJECT_NAME = "org.eclipse.ui.monitoring:type=EventLoopLatency"; //$NON-NLS-1$
+	private static final EventLatencyRecorder instance = new EventLatencyRecorder();
+
+	// Indexed by event type. Replaced, never modified in place, when a larger type is recorded.
+	private volatile LatencyHistogram[] histograms = new LatencyHistogram[64];
+	private boolean registered;
+	private ObjectName registeredName;
+
+	private EventLatencyRecorder() {
+	}
+
+	/**
+	 * Returns the recorder of the event loop of the workbench.
+	 */
+	public static EventLatencyRecorder getDefault() {
+		return instance;
+	}
+
+	/**
+	 * Records the latency of an event. Called on the UI thread only.
+	 *
+	 * @param eventType the SWT event type
+	 * @param latencyMicros the time spent dispatching the event in microseconds
+	 */
+	void record(int eventType, long latencyMicros) {
+		if (eventType < 0) {
+			return;
+		}
+		LatencyHistogram[] array = histograms;
+		if (eventType >= array.length) {
+			array = Arrays.copyOf(array, Math.max(eventType + 1, array.length * 2));
+		}
+		LatencyHistogram histogram = array[eventType];
+		if (histogram == null) {
+			if (array == histograms) {
+				array = array.clone();
+			}
+			histogram = new LatencyHistogram();
+			array[eventType] = histogram;
+			histograms = array;
+		}
+		histogram.recordValue(latencyMicros);
+	}
+
+	/**
+	 * Returns the event types with recorded latencies in ascending order.
+	 */
+	public int[] getEventTypes() {
+		LatencyHistogram[] array = histograms;
+		int[] types = new int[array.length];
+		int count = 0;
+		for (int i = 0; i < array.length; i++) {
+			if (array[i] != null) {
+				types[count++] = i;
+			}
+		}
+		return Arrays.copyOf(types, count);
+	}
+
+	/**
+	 * Returns a copy of the histogram of the given event type, or {@code null} if no event of the
+	 * type has been recorded.
+	 */
+	public LatencyHistogram getHistogram(int eventType) {
+		LatencyHistogram[] array = histograms;
+		if (eventType < 0 || eventType >= array.length || array[eventType] == null) {
+			return null;
+		}
+		return array[eventType].copy();
+	}
+
+	@Override
+	public EventLatencyStatistics[] getEventLatencies() {
+		List<EventLatencyStatistics> result = new ArrayList<>();
+		for (int eventType : getEventTypes()) {
+			result.add(new EventLatencyStatistics(eventType, getHistogram(eventType)));
+		}
+		return result.toArray(new EventLatencyStatistics[result.size()]);
+	}
+
+	@Override
+	public void reset() {
+		for (LatencyHistogram histogram : histograms) {
+			if (histogram != null) {
+				histogram.reset();
+			}
+		}
+	}
+
+	/**
+	 * Registers the recorder with the platform MBean server unless it has been registered before.
+	 */
+	synchronized void registerMBean() {
+		if (registered) {
+			return;
+		}
+		registered = true;
+		try {
+			MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+			ObjectName name = new ObjectName(OBJECT_NAME);
+			if (!server.isRegistered(name)) {
+				server.registerMBean(this, name);
+				registeredName = name;
+			}
+		} catch (JMException | SecurityException e) {
+			MonitoringPlugin.logError(Messages.EventLatencyRecorder_mbean_registration_error, e);
+		}
+	}
+
+	/**
+	 * Unregisters the recorder from the platform MBean server if it has registered itself there.
+	 */
+	synchronized void unregisterMBean() {
+		registered = false;
+		if (registeredName == null) {
+			return;
+		}
+		try {
+			ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+		} catch (JMException | SecurityException e) {
+			MonitoringPlugin.logError(Messages.EventLatencyRecorder_mbean_unregistration_error, e);
+		} finally {
+			registeredName = null;
+		}
+	}
+
+	/**
+	 * Replaces the given file with the current latency statistics as comma separated values.
+	 *
+	 * @param file the file to write
+	 * @throws IOException if writing the file fails
+	 */
+	void writeSnapshot(Path file) throws IOException {
+		Path directory = file.toAbsolutePath().getParent();
+		Files.createDirectories(directory);
+		Path temporaryFile = Files.createTempFile(directory, file.getFileName().toString(), ".tmp"); //$NON-NLS-1$
+		try {
+			try (Writer writer = Files.newBufferedWriter(temporaryFile, StandardCharsets.UTF_8)) {
+				writer.write("timestamp,event_type,count,p50_us,p99_us,max_us\n"); //$NON-NLS-1$
+				long timestamp = System.currentTimeMillis();
+				for (EventLatencyStatistics statistics : getEventLatencies()) {
+					writer.write(timestamp + "," + statistics.getEventType() + ',' + statistics.getCount() + ',' //$NON-NLS-1$
+							+ statistics.getP50() + ',' + statistics.getP99() + ',' + statistics.getMax() + '\n');
+				}
+			}
+			try {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+			} catch (AtomicMoveNotSupportedException e) {
+				Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING);
+			}
+		} finally {
+			Files.deleteIfExists(temporaryFile);
+		}
+	}
+}
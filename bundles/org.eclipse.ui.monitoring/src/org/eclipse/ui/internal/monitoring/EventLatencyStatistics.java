@@ -0,0 +1,61 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import org.eclipse.ui.monitoring.LatencyHistogram;
+
+/**
+ * Dispatch latencies of one SWT event type in microseconds, as reported by
+ * {@link EventLoopLatencyMXBean}.
+ */
+public class EventLatencyStatistics {
+	private final int eventType;
+	private final long count;
+	private final long p50;
+	private final long p99;
+	private final long max;
+
+	EventLatencyStatistics(int eventType, LatencyHistogram histogram) {
+		this.eventType = eventType;
+		count = histogram.getTotalCount();
+		p50 = histogram.getValueAtPercentile(50);
+		p99 = histogram.getValueAtPercentile(99);
+		max = histogram.getMaxValue();
+	}
+
+	/** Returns the SWT event type, see {@link org.eclipse.swt.widgets.Event#type}. */
+	public int getEventType() {
+		return eventType;
+	}
+
+	/** Returns the number of dispatched events. */
+	public long getCount() {
+		return count;
+	}
+
+	/** Returns the median latency. */
+	public long getP50() {
+		return p50;
+	}
+
+	/** Returns the 99th percentile of the latency. */
+	public long getP99() {
+		return p99;
+	}
+
+	/** Returns the maximum latency. */
+	public long getMax() {
+		return max;
+	}
+}
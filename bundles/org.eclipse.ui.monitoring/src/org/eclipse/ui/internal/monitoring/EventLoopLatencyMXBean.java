@@ -0,0 +1,30 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+/**
+ * Management interface of the event dispatch latencies, registered with the platform MBean server
+ * as {@value EventLatencyRecorder#OBJECT_NAME}.
+ */
+public interface EventLoopLatencyMXBean {
+	/**
+	 * Returns the latency statistics of every SWT event type dispatched so far.
+	 */
+	EventLatencyStatistics[] getEventLatencies();
+
+	/**
+	 * Removes all recorded latencies.
+	 */
+	void reset();
+}
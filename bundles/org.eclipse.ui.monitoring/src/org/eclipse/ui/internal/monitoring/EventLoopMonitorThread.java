@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2015 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,13 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.monitoring;
 
+import java.io.IOException;
 import java.lang.management.ManagementFactory;
 import java.lang.management.ThreadInfo;
 import java.lang.management.ThreadMXBean;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
@@ -45,7 +49,7 @@ import org.eclipse.ui.monitoring.UiFreezeEvent;
 /**
  * Event loop monitoring thread. Detects events that take long time to process, collects stack
  * traces of the UI thread during processing of those events, and logs the long events to the error
- * log.
+ * log. Also records the dispatch latency of every event in an {@link EventLatencyRecorder}.
  */
 public class EventLoopMonitorThread extends Thread {
 	private static final int EVENT_HISTORY_SIZE = 100;
@@ -80,6 +84,10 @@ public class EventLoopMonitorThread extends Thread {
 		public String uiThreadFilter;
 		/** @see org.eclipse.ui.monitoring.PreferenceConstants#NONINTERESTING_THREAD_FILTER */
 		public String noninterestingThreadFilter;
+		/** @see org.eclipse.ui.monitoring.PreferenceConstants#LATENCY_SNAPSHOT_FILE */
+		public String latencySnapshotFile;
+		/** @see org.eclipse.ui.monitoring.PreferenceConstants#LATENCY_SNAPSHOT_INTERVAL_MILLIS */
+		public long latencySnapshotInterval;
 
 		/**
 		 * Checks if the values of parameters for UI responsiveness monitoring are valid.
@@ -135,6 +143,14 @@ public class EventLoopMonitorThread extends Thread {
 		private int[] nestingLevelStack = new int[64];
 		private int nestingLevelStackSize;
 
+		/**
+		 * The {@link System#nanoTime()} of the {@link SWT#PreEvent PreEvent} of each event being
+		 * dispatched, innermost last. Unlike the nesting level it is not reset by external event
+		 * dispatches.
+		 */
+		private final long[] eventStartTimes = new long[64];
+		private int eventDepth;
+
 		@Override
 		public void handleEvent(Event event) {
 			/*
@@ -167,6 +183,10 @@ public class EventLoopMonitorThread extends Thread {
 					break;  // Ignore events that may be produced during a UI freeze.
 				}
 				nestingLevel++;
+				if (eventDepth < eventStartTimes.length) {
+					eventStartTimes[eventDepth] = System.nanoTime();
+				}
+				eventDepth++;
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -182,6 +202,11 @@ public class EventLoopMonitorThread extends Thread {
 					// started listening to SWT events.
 					nestingLevel = 0;
 				}
+				// Events whose PreEvent had occurred before we started listening are not recorded.
+				if (eventDepth > 0 && --eventDepth < eventStartTimes.length) {
+					latencyRecorder.record(event.detail,
+							(System.nanoTime() - eventStartTimes[eventDepth]) / 1000);
+				}
 				if (eventHistory != null) {
 					eventHistory.recordEvent(event.type, event.detail, nestingLevel);
 				}
@@ -341,6 +366,7 @@ public class EventLoopMonitorThread extends Thread {
 	private final AtomicBoolean cancelled = new AtomicBoolean(false);
 	private final AtomicReference<LongEventInfo> eventToPublish =
 			new AtomicReference<>(null);
+	private final EventLatencyRecorder latencyRecorder;
 
 	// Accessed only by the monitoring thread.
 	private final List<IUiFreezeEventLogger> externalLoggers =
@@ -358,6 +384,8 @@ public class EventLoopMonitorThread extends Thread {
 	private final long uiThreadId;
 	private final Object sleepMonitor;
 	private final boolean logToErrorLog;
+	private Path latencySnapshotFile;
+	private final long latencySnapshotInterval;
 	private EventHistory eventHistory;
 	private ThreadMXBean threadMXBean;
 	private boolean dumpLockedMonitors;
@@ -395,6 +423,16 @@ public class EventLoopMonitorThread extends Thread {
 		logToErrorLog = args.logToErrorLog;
 		uiThreadFilter = new FilterHandler(args.uiThreadFilter);
 		noninterestingThreadFilter = new FilterHandler(args.noninterestingThreadFilter);
+		latencyRecorder = EventLatencyRecorder.getDefault();
+		if (args.latencySnapshotFile != null && !args.latencySnapshotFile.isEmpty()) {
+			try {
+				latencySnapshotFile = Paths.get(args.latencySnapshotFile);
+			} catch (InvalidPathException e) {
+				MonitoringPlugin.logError(NLS.bind(Messages.EventLoopMonitorThread_latency_snapshot_error_1,
+						args.latencySnapshotFile), e);
+			}
+		}
+		latencySnapshotInterval = Math.max(args.latencySnapshotInterval, 1000);
 		sleepMonitor = new Object();
 	}
 
@@ -463,6 +501,7 @@ public class EventLoopMonitorThread extends Thread {
 		dumpLockedMonitors = threadMXBean.isObjectMonitorUsageSupported();
 		dumpLockedSynchronizers = threadMXBean.isSynchronizerUsageSupported();
 		boolean contentionMonitoringSupported = threadMXBean.isThreadContentionMonitoringSupported();
+		latencyRecorder.registerMBean();
 
 		/*
 		 * If this event loop starts in the middle of a UI freeze, it will succeed in capturing
@@ -492,6 +531,7 @@ public class EventLoopMonitorThread extends Thread {
 		display.asyncExec(this::registerDisplayListeners);
 
 		long currTime = getTimestamp();
+		long writeLatencySnapshotAt = currTime + latencySnapshotInterval;
 
 		while (!cancelled.get()) {
 			long sleepFor;
@@ -641,10 +681,25 @@ public class EventLoopMonitorThread extends Thread {
 				resetStalledEventState = true;
 			}
 
+			if (latencySnapshotFile != null && currTime >= writeLatencySnapshotAt) {
+				writeLatencySnapshot();
+				writeLatencySnapshotAt = currTime + latencySnapshotInterval;
+			}
+
 			lastEventStartOrResumeTime = currEventStartOrResumeTime;
 		}
 	}
 
+	private void writeLatencySnapshot() {
+		try {
+			latencyRecorder.writeSnapshot(latencySnapshotFile);
+		} catch (IOException | SecurityException e) {
+			MonitoringPlugin.logError(NLS.bind(Messages.EventLoopMonitorThread_latency_snapshot_error_1,
+					latencySnapshotFile), e);
+			latencySnapshotFile = null; // Don't fill the log with the same error.
+		}
+	}
+
 	private ThreadInfo[] captureThreadStacks(boolean dumpAllThreads) {
 		if (dumpAllThreads) {
 			ThreadInfo[] threadStacks =
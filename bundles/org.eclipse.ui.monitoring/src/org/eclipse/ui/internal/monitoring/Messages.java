@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014, 2015 Google, Inc and others.
+ * Copyright (c) 2014, 2023 Google, Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,8 @@ final class Messages extends NLS {
 	public static String DefaultUiFreezeEventLogger_ui_freeze_ongoing_header_2;
 	public static String DefaultUiFreezeEventLogger_waiting_for_1;
 	public static String DefaultUiFreezeEventLogger_waiting_for_with_lock_owner_3;
+	public static String EventLatencyRecorder_mbean_registration_error;
+	public static String EventLatencyRecorder_mbean_unregistration_error;
 	public static String EventLoopMonitorThread_deadlock_error_1;
 	public static String EventLoopMonitorThread_deadlock_threshold_too_low_error_2;
 	public static String EventLoopMonitorThread_display_was_null;
@@ -36,6 +38,7 @@ final class Messages extends NLS {
 	public static String EventLoopMonitorThread_external_exception_error_1;
 	public static String EventLoopMonitorThread_invalid_argument_error_1;
 	public static String EventLoopMonitorThread_invalid_logger_type_error_4;
+	public static String EventLoopMonitorThread_latency_snapshot_error_1;
 	public static String EventLoopMonitorThread_logging_disabled_error;
 	public static String EventLoopMonitorThread_warning_threshold_error_1;
 	public static String EventLoopMonitorThread_max_event_loop_depth_exceeded_1;
@@ -22,11 +22,13 @@ import org.eclipse.core.runtime.Status;
 import org.eclipse.jface.preference.IPreferenceStore;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.monitoring.PreferenceConstants;
+import org.osgi.framework.BundleActivator;
+import org.osgi.framework.BundleContext;
 
 /**
  * The activator class that controls the plug-in life cycle.
  */
-public class MonitoringPlugin {
+public class MonitoringPlugin implements BundleActivator {
 
 	private static ILog logger = ILog.of(MonitoringPlugin.class);
 	private static IPreferenceStore store;
@@ -39,6 +41,16 @@ public class MonitoringPlugin {
 		logger.log(new Status(IStatus.WARNING, PreferenceConstants.PLUGIN_ID, message));
 	}
 
+	@Override
+	public void start(BundleContext context) throws Exception {
+	}
+
+	@Override
+	public void stop(BundleContext context) throws Exception {
+		// The MBean would keep the classes of the stopped bundle alive.
+		EventLatencyRecorder.getDefault().unregisterMBean();
+	}
+
 
 
 	public static IPreferenceStore getPreferenceStore() {
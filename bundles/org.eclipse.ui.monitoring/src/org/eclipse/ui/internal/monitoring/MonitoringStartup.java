@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2019 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -29,6 +29,7 @@ import org.eclipse.ui.monitoring.PreferenceConstants;
  */
 public class MonitoringStartup implements IStartup {
 	private EventLoopMonitorThread monitoringThread;
+	private UiThreadProfiler profiler;
 
 	@Override
 	public void earlyStartup() {
@@ -39,9 +40,12 @@ public class MonitoringStartup implements IStartup {
 		IPreferenceStore preferences = MonitoringPlugin.getPreferenceStore();
 		if (preferences.getBoolean(PreferenceConstants.MONITORING_ENABLED) && !Platform.inDevelopmentMode()) {
 			monitoringThread = createAndStartMonitorThread();
+			if (preferences.getBoolean(PreferenceConstants.PROFILER_ENABLED)) {
+				profiler = createAndStartProfiler();
+			}
 		}
 
-		preferences.addPropertyChangeListener(new MonitoringPreferenceListener(monitoringThread));
+		preferences.addPropertyChangeListener(new MonitoringPreferenceListener(monitoringThread, profiler));
 	}
 
 	/**
@@ -70,6 +74,24 @@ public class MonitoringStartup implements IStartup {
 		return thread;
 	}
 
+	/**
+	 * Creates and starts a new UI thread profiler.
+	 */
+	public static UiThreadProfiler createAndStartProfiler() {
+		IPreferenceStore preferences = MonitoringPlugin.getPreferenceStore();
+		final Display display = PlatformUI.getWorkbench().getDisplay();
+		final UiThreadProfiler profiler = new UiThreadProfiler(display.getThread(),
+				preferences.getInt(PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS),
+				preferences.getInt(PreferenceConstants.PROFILER_MAX_CALL_TREE_NODES),
+				preferences.getInt(PreferenceConstants.PROFILER_MAX_RECENT_SAMPLES));
+		display.asyncExec(() -> {
+			display.disposeExec(profiler::shutdown);
+			profiler.start();
+		});
+
+		return profiler;
+	}
+
 	private static EventLoopMonitorThread.Parameters loadPreferences() {
 		IPreferenceStore preferences = MonitoringPlugin.getPreferenceStore();
 		EventLoopMonitorThread.Parameters args = new EventLoopMonitorThread.Parameters();
@@ -85,6 +107,9 @@ public class MonitoringStartup implements IStartup {
 		args.noninterestingThreadFilter =
 				preferences.getString(PreferenceConstants.NONINTERESTING_THREAD_FILTER);
 		args.logToErrorLog = preferences.getBoolean(PreferenceConstants.LOG_TO_ERROR_LOG);
+		args.latencySnapshotFile = preferences.getString(PreferenceConstants.LATENCY_SNAPSHOT_FILE);
+		args.latencySnapshotInterval =
+				preferences.getInt(PreferenceConstants.LATENCY_SNAPSHOT_INTERVAL_MILLIS);
 
 		return args;
 	}
@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Aggregated stack samples of the UI thread. Every sample is merged into a call tree of methods,
+ * and the most recent samples are kept in a ring buffer as well. Both can be exported in the
+ * collapsed stack format read by flame graph tools, where each line holds the methods of a call
+ * path from the outermost frame, separated by semicolons, and the number of samples ending there.
+ * <p>
+ * The memory use is bounded by the maximum numbers of call tree nodes and of buffered samples.
+ * When the call tree is full, a sample whose call path would need more nodes is attributed to the
+ * deepest existing node of that path.
+ */
+public class UiThreadProfile {
+	private static final int ROOT = 0;
+
+	private final int maxNodes;
+	private int nodeCount = 1;
+	private int[] parents = new int[1024];
+	private int[] frames = new int[1024];
+	private long[] counts = new long[1024];
+	// Child node by the parent node in the upper and the frame in the lower half of the key.
+	private final Map<Long, Integer> children = new HashMap<>();
+	private final List<String> frameNames = new ArrayList<>();
+	private final Map<String, Integer> frameIds = new HashMap<>();
+	private long sampleCount;
+	private long truncatedSampleCount;
+
+	// The ring buffer of the most recent samples.
+	private final long[] sampleTimes;
+	private final int[] sampleNodes;
+	private int sampleStart;
+	private int sampleSize;
+
+	/**
+	 * Creates an empty profile.
+	 *
+	 * @param maxNodes the maximum number of call tree nodes
+	 * @param maxSamples the maximum number of recent samples to keep
+	 */
+	public UiThreadProfile(int maxNodes, int maxSamples) {
+		this.maxNodes = Math.max(maxNodes, 1);
+		sampleTimes = new long[Math.max(maxSamples, 0)];
+		sampleNodes = new int[sampleTimes.length];
+		parents[ROOT] = -1;
+		frames[ROOT] = -1;
+	}
+
+	/**
+	 * Adds a stack sample.
+	 *
+	 * @param timestamp the time of the sample in milliseconds
+	 * @param stack the stack trace with the innermost frame first
+	 */
+	public synchronized void addSample(long timestamp, StackTraceElement[] stack) {
+		int node = ROOT;
+		for (int i = stack.length; --i >= 0;) {
+			int child = getChild(node, stack[i]);
+			if (child < 0) {
+				truncatedSampleCount++;
+				break;
+			}
+			node = child;
+		}
+		counts[node]++;
+		sampleCount++;
+
+		if (sampleTimes.length > 0) {
+			int j = (sampleStart + sampleSize) % sampleTimes.length;
+			sampleTimes[j] = timestamp;
+			sampleNodes[j] = node;
+			if (sampleSize < sampleTimes.length) {
+				sampleSize++;
+			} else if (++sampleStart >= sampleTimes.length) {
+				sampleStart = 0;
+			}
+		}
+	}
+
+	/**
+	 * Returns the child node for the given frame, or -1 if the call tree is full.
+	 */
+	private int getChild(int parent, StackTraceElement element) {
+		String name = element.getClassName() + '.' + element.getMethodName();
+		Integer frame = frameIds.get(name);
+		if (frame == null) {
+			if (nodeCount == maxNodes) {
+				return -1; // A new frame always needs a new node.
+			}
+			frame = frameNames.size();
+			frameNames.add(name);
+			frameIds.put(name, frame);
+		}
+		Long key = ((long) parent << 32) | frame;
+		Integer child = children.get(key);
+		if (child != null) {
+			return child;
+		}
+		if (nodeCount == maxNodes) {
+			return -1;
+		}
+		if (nodeCount == parents.length) {
+			int capacity = (int) Math.min((long) nodeCount * 2, maxNodes);
+			parents = Arrays.copyOf(parents, capacity);
+			frames = Arrays.copyOf(frames, capacity);
+			counts = Arrays.copyOf(counts, capacity);
+		}
+		int node = nodeCount++;
+		parents[node] = parent;
+		frames[node] = frame;
+		children.put(key, node);
+		return node;
+	}
+
+	/**
+	 * Returns the total number of samples added to the profile.
+	 */
+	public synchronized long getSampleCount() {
+		return sampleCount;
+	}
+
+	/**
+	 * Returns the number of samples that were attributed to an outer frame because the call tree
+	 * was full.
+	 */
+	public synchronized long getTruncatedSampleCount() {
+		return truncatedSampleCount;
+	}
+
+	/**
+	 * Returns the number of call tree nodes, including the root node.
+	 */
+	public synchronized int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Writes all samples added to the profile in the collapsed stack format.
+	 *
+	 * @param writer the writer to write to
+	 * @throws IOException if writing fails
+	 */
+	public void writeCollapsedStacks(Writer writer) throws IOException {
+		Snapshot snapshot;
+		synchronized (this) {
+			snapshot = new Snapshot(Arrays.copyOf(counts, nodeCount));
+		}
+		snapshot.write(writer);
+	}
+
+	/**
+	 * Writes the buffered samples taken at or after the given time in the collapsed stack format.
+	 *
+	 * @param writer the writer to write to
+	 * @param since the time in milliseconds of the oldest sample to write
+	 * @throws IOException if writing fails
+	 */
+	public void writeCollapsedStacks(Writer writer, long since) throws IOException {
+		Snapshot snapshot;
+		synchronized (this) {
+			long[] recentCounts = new long[nodeCount];
+			for (int i = 0; i < sampleSize; i++) {
+				int j = (sampleStart + i) % sampleTimes.length;
+				if (sampleTimes[j] >= since) {
+					recentCounts[sampleNodes[j]]++;
+				}
+			}
+			snapshot = new Snapshot(recentCounts);
+		}
+		snapshot.write(writer);
+	}
+
+	/**
+	 * Sample counts of the call tree at some point in time. Existing nodes never change, so the
+	 * call tree arrays can be shared with the profile.
+	 */
+	private class Snapshot {
+		private final long[] nodeCounts;
+		private final int[] nodeParents;
+		private final int[] nodeFrames;
+		private final String[] names;
+
+		// Called while holding the lock of the profile.
+		Snapshot(long[] nodeCounts) {
+			this.nodeCounts = nodeCounts;
+			nodeParents = parents;
+			nodeFrames = frames;
+			names = frameNames.toArray(new String[frameNames.size()]);
+		}
+
+		void write(Writer writer) throws IOException {
+			StringBuilder line = new StringBuilder();
+			List<String> path = new ArrayList<>();
+			for (int node = 0; node < nodeCounts.length; node++) {
+				if (nodeCounts[node] == 0) {
+					continue;
+				}
+				path.clear();
+				for (int n = node; n != ROOT; n = nodeParents[n]) {
+					path.add(names[nodeFrames[n]]);
+				}
+				line.setLength(0);
+				for (int i = path.size(); --i >= 0;) {
+					line.append(path.get(i));
+					if (i > 0) {
+						line.append(';');
+					}
+				}
+				if (path.isEmpty()) {
+					line.append("[unknown]"); //$NON-NLS-1$
+				}
+				line.append(' ').append(nodeCounts[node]).append('\n');
+				writer.write(line.toString());
+			}
+		}
+	}
+}
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+
+/**
+ * Sampling profiler of the UI thread. Unlike {@link EventLoopMonitorThread}, which only samples
+ * during UI freezes, it samples the UI thread at a fixed rate for as long as it runs and merges
+ * the samples into a {@link UiThreadProfile}. Samples taken while the UI thread waits for events
+ * in {@code Display.sleep} are skipped.
+ */
+public class UiThreadProfiler extends Thread {
+	private static final String IDLE_CLASS = "org.eclipse.swt.widgets.Display"; //$NON-NLS-1$
+	private static final String IDLE_METHOD = "sleep"; //$NON-NLS-1$
+
+	private static volatile UiThreadProfiler activeProfiler;
+
+	private final long uiThreadId;
+	private final long sampleInterval;
+	private final UiThreadProfile profile;
+	private volatile boolean cancelled;
+
+	/**
+	 * Creates a profiler thread.
+	 *
+	 * @param uiThread the thread to sample
+	 * @param sampleInterval the time between two samples in milliseconds
+	 * @param maxNodes the maximum number of call tree nodes of the profile
+	 * @param maxSamples the maximum number of recent samples kept by the profile
+	 */
+	public UiThreadProfiler(Thread uiThread, long sampleInterval, int maxNodes, int maxSamples) {
+		super("UI Thread Profiler"); //$NON-NLS-1$
+		setDaemon(true);
+		setPriority(NORM_PRIORITY + 1);
+		uiThreadId = uiThread.getId();
+		this.sampleInterval = Math.max(sampleInterval, 1);
+		profile = new UiThreadProfile(maxNodes, maxSamples);
+	}
+
+	/**
+	 * Returns the profile of the running profiler, or {@code null} if no profiler is running.
+	 */
+	public static UiThreadProfile getActiveProfile() {
+		UiThreadProfiler profiler = activeProfiler;
+		return profiler == null ? null : profiler.profile;
+	}
+
+	/**
+	 * Returns the profile collected by this profiler.
+	 */
+	public UiThreadProfile getProfile() {
+		return profile;
+	}
+
+	/**
+	 * Stops sampling.
+	 */
+	public void shutdown() {
+		cancelled = true;
+		interrupt();
+	}
+
+	@Override
+	public void run() {
+		activeProfiler = this;
+		try {
+			ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+			long nextSampleAt = System.currentTimeMillis();
+			while (!cancelled) {
+				ThreadInfo threadInfo = threadMXBean.getThreadInfo(uiThreadId, Integer.MAX_VALUE);
+				if (threadInfo == null) {
+					break; // The UI thread is gone.
+				}
+				StackTraceElement[] stack = threadInfo.getStackTrace();
+				if (!isIdle(stack)) {
+					profile.addSample(System.currentTimeMillis(), stack);
+				}
+
+				// Keep a fixed rate, but don't catch up on samples missed while starved.
+				nextSampleAt = Math.max(nextSampleAt + sampleInterval, System.currentTimeMillis());
+				long sleepFor = nextSampleAt - System.currentTimeMillis();
+				if (sleepFor > 0) {
+					try {
+						Thread.sleep(sleepFor);
+					} catch (InterruptedException e) {
+						// Check for shutdown.
+					}
+				}
+			}
+		} finally {
+			if (activeProfiler == this) {
+				activeProfiler = null;
+			}
+		}
+	}
+
+	private static boolean isIdle(StackTraceElement[] stack) {
+		for (StackTraceElement element : stack) {
+			if (element.getMethodName().equals(IDLE_METHOD) && element.getClassName().equals(IDLE_CLASS)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
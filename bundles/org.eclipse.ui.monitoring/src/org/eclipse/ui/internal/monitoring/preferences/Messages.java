@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2014 Google, Inc and others.
+ * Copyright (c) 2014, 2023 Google, Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,9 +33,15 @@ public final class Messages extends NLS {
 	public static String MonitoringPreferencePage_enable_monitoring_label;
 	public static String MonitoringPreferencePage_error_threshold_label;
 	public static String MonitoringPreferencePage_error_threshold_too_low_error;
+	public static String MonitoringPreferencePage_export_profile_button_label;
+	public static String MonitoringPreferencePage_export_profile_error;
+	public static String MonitoringPreferencePage_export_profile_title;
+	public static String MonitoringPreferencePage_export_recent_profile_button_label;
 	public static String MonitoringPreferencePage_log_freeze_events_label;
 	public static String MonitoringPreferencePage_max_stack_samples_label;
 	public static String MonitoringPreferencePage_noninteresting_thread_filter_label;
+	public static String MonitoringPreferencePage_profiler_enabled_label;
+	public static String MonitoringPreferencePage_profiler_sample_interval_label;
 	public static String MonitoringPreferencePage_remove_ui_thread_filter_button_label;
 	public static String MonitoringPreferencePage_remove_noninteresting_thread_filter_button_label;
 	public static String MonitoringPreferencePage_ui_thread_filter_label;
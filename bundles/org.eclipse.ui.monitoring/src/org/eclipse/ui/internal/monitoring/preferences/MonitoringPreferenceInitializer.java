@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -35,6 +35,12 @@ public class MonitoringPreferenceInitializer extends AbstractPreferenceInitializ
 		store.setDefault(PreferenceConstants.DEADLOCK_REPORTING_THRESHOLD_MILLIS,
 				5 * 60 * 1000); // 5 min
 		store.setDefault(PreferenceConstants.LOG_TO_ERROR_LOG, true);
+		store.setDefault(PreferenceConstants.PROFILER_ENABLED, false);
+		store.setDefault(PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS, 20);
+		store.setDefault(PreferenceConstants.PROFILER_MAX_CALL_TREE_NODES, 200000);
+		store.setDefault(PreferenceConstants.PROFILER_MAX_RECENT_SAMPLES, 180000); // 1 hour
+		store.setDefault(PreferenceConstants.LATENCY_SNAPSHOT_FILE, ""); //$NON-NLS-1$
+		store.setDefault(PreferenceConstants.LATENCY_SNAPSHOT_INTERVAL_MILLIS, 60 * 1000); // 1 min
 		store.setDefault(PreferenceConstants.UI_THREAD_FILTER, ""); //$NON-NLS-1$
 		store.setDefault(PreferenceConstants.NONINTERESTING_THREAD_FILTER,
 				"java.*" //$NON-NLS-1$
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2019 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -24,6 +24,7 @@ import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.monitoring.EventLoopMonitorThread;
 import org.eclipse.ui.internal.monitoring.MonitoringPlugin;
 import org.eclipse.ui.internal.monitoring.MonitoringStartup;
+import org.eclipse.ui.internal.monitoring.UiThreadProfiler;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 
 /**
@@ -31,6 +32,7 @@ import org.eclipse.ui.monitoring.PreferenceConstants;
  */
 public class MonitoringPreferenceListener implements IPropertyChangeListener {
 	private EventLoopMonitorThread monitoringThread;
+	private UiThreadProfiler profiler;
 	/**
 	 * A flag to handle the resetting of the {@link EventLoopMonitorThread}. The method
 	 * {@link #refreshMonitoringThread()} can be called multiple times if multiple preferences are
@@ -40,9 +42,15 @@ public class MonitoringPreferenceListener implements IPropertyChangeListener {
 	 * the flag is reset.
 	 */
 	private boolean monitorThreadRestartInProgress;
+	/**
+	 * Set if the scheduled reset restarts the {@link UiThreadProfiler} as well. The profiler is
+	 * only restarted for preferences affecting it, since restarting discards its profile.
+	 */
+	private boolean profilerRestartRequested;
 
-	public MonitoringPreferenceListener(EventLoopMonitorThread thread) {
+	public MonitoringPreferenceListener(EventLoopMonitorThread thread, UiThreadProfiler profiler) {
 		monitoringThread = thread;
+		this.profiler = profiler;
 	}
 
 	@Override
@@ -55,11 +63,17 @@ public class MonitoringPreferenceListener implements IPropertyChangeListener {
 				&& !property.equals(PreferenceConstants.LOG_TO_ERROR_LOG)
 				&& !property.equals(PreferenceConstants.MAX_STACK_SAMPLES)
 				&& !property.equals(PreferenceConstants.UI_THREAD_FILTER)
-				&& !property.equals(PreferenceConstants.NONINTERESTING_THREAD_FILTER)) {
+				&& !property.equals(PreferenceConstants.NONINTERESTING_THREAD_FILTER)
+				&& !property.equals(PreferenceConstants.LATENCY_SNAPSHOT_FILE)
+				&& !property.equals(PreferenceConstants.LATENCY_SNAPSHOT_INTERVAL_MILLIS)
+				&& !isProfilerProperty(property)) {
 			return;
 		}
 
 		synchronized (this) {
+			if (property.equals(PreferenceConstants.MONITORING_ENABLED) || isProfilerProperty(property)) {
+				profilerRestartRequested = true;
+			}
 			if (monitorThreadRestartInProgress) {
 				return;
 			}
@@ -73,6 +87,13 @@ public class MonitoringPreferenceListener implements IPropertyChangeListener {
 		}
 	}
 
+	private static boolean isProfilerProperty(String property) {
+		return property.equals(PreferenceConstants.PROFILER_ENABLED)
+				|| property.equals(PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS)
+				|| property.equals(PreferenceConstants.PROFILER_MAX_CALL_TREE_NODES)
+				|| property.equals(PreferenceConstants.PROFILER_MAX_RECENT_SAMPLES);
+	}
+
 	private synchronized void refreshMonitoringThread() {
 		if (monitoringThread != null) {
 			monitoringThread.shutdown();
@@ -81,6 +102,18 @@ public class MonitoringPreferenceListener implements IPropertyChangeListener {
 		monitorThreadRestartInProgress = false;
 
 		IPreferenceStore preferences = MonitoringPlugin.getPreferenceStore();
+		if (profilerRestartRequested) {
+			profilerRestartRequested = false;
+			if (profiler != null) {
+				profiler.shutdown();
+				profiler = null;
+			}
+			if (preferences.getBoolean(PreferenceConstants.MONITORING_ENABLED)
+					&& preferences.getBoolean(PreferenceConstants.PROFILER_ENABLED)) {
+				profiler = MonitoringStartup.createAndStartProfiler();
+			}
+		}
+
 		if (preferences.getBoolean(PreferenceConstants.MONITORING_ENABLED)) {
 			EventLoopMonitorThread thread = MonitoringStartup.createAndStartMonitorThread();
 			// If thread is null, the newly-defined preferences are invalid.
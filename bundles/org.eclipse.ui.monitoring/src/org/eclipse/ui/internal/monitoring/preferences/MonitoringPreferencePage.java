@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2019 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,9 +15,15 @@
  *******************************************************************************/
 package org.eclipse.ui.internal.monitoring.preferences;
 
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.eclipse.jface.dialogs.MessageDialog;
 import org.eclipse.jface.layout.GridDataFactory;
 import org.eclipse.jface.layout.GridLayoutFactory;
 import org.eclipse.jface.layout.LayoutConstants;
@@ -27,13 +33,19 @@ import org.eclipse.jface.preference.FieldEditor;
 import org.eclipse.jface.preference.FieldEditorPreferencePage;
 import org.eclipse.jface.preference.IntegerFieldEditor;
 import org.eclipse.jface.util.PropertyChangeEvent;
+import org.eclipse.osgi.util.NLS;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.SelectionListener;
+import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.FileDialog;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.ui.IWorkbench;
 import org.eclipse.ui.IWorkbenchPreferencePage;
 import org.eclipse.ui.internal.monitoring.MonitoringPlugin;
+import org.eclipse.ui.internal.monitoring.UiThreadProfile;
+import org.eclipse.ui.internal.monitoring.UiThreadProfiler;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 
 /**
@@ -146,6 +158,15 @@ public class MonitoringPreferencePage extends FieldEditorPreferencePage
 		createIntegerEditor(
 				PreferenceConstants.MAX_STACK_SAMPLES,
 				Messages.MonitoringPreferencePage_max_stack_samples_label, block, 0, 100);
+		createBooleanEditor(PreferenceConstants.PROFILER_ENABLED,
+				Messages.MonitoringPreferencePage_profiler_enabled_label, block);
+		createIntegerEditor(
+				PreferenceConstants.PROFILER_SAMPLE_INTERVAL_MILLIS,
+				Messages.MonitoringPreferencePage_profiler_sample_interval_label, block, 1, 10000);
+		createExportProfileButton(block, Messages.MonitoringPreferencePage_export_profile_button_label,
+				false);
+		createExportProfileButton(block, Messages.MonitoringPreferencePage_export_recent_profile_button_label,
+				true);
 		GridLayoutFactory.fillDefaults()
 				.numColumns(2)
 				.spacing(LayoutConstants.getSpacing())
@@ -153,6 +174,48 @@ public class MonitoringPreferencePage extends FieldEditorPreferencePage
 		return block;
 	}
 
+	private void createExportProfileButton(Composite parent, String label, boolean lastMinuteOnly) {
+		Button button = new Button(parent, SWT.PUSH);
+		button.setText(label);
+		button.setEnabled(UiThreadProfiler.getActiveProfile() != null);
+		button.addSelectionListener(
+				SelectionListener.widgetSelectedAdapter(e -> exportProfile(lastMinuteOnly)));
+		GridDataFactory.defaultsFor(button).applyTo(button);
+	}
+
+	/**
+	 * Writes the profile of the UI thread to a file chosen by the user.
+	 *
+	 * @param lastMinuteOnly whether to export only the recent samples of the last minute instead
+	 *     of all samples since the profiler was started
+	 */
+	private void exportProfile(boolean lastMinuteOnly) {
+		UiThreadProfile profile = UiThreadProfiler.getActiveProfile();
+		if (profile == null) {
+			return;
+		}
+		// The last minute ends when the export was requested, not when the file has been chosen.
+		long since = System.currentTimeMillis() - 60000;
+		FileDialog dialog = new FileDialog(getShell(), SWT.SAVE);
+		dialog.setText(Messages.MonitoringPreferencePage_export_profile_title);
+		dialog.setFileName("ui_thread_profile.collapsed"); //$NON-NLS-1$
+		dialog.setOverwrite(true);
+		String fileName = dialog.open();
+		if (fileName == null) {
+			return;
+		}
+		try (Writer writer = Files.newBufferedWriter(Paths.get(fileName), StandardCharsets.UTF_8)) {
+			if (lastMinuteOnly) {
+				profile.writeCollapsedStacks(writer, since);
+			} else {
+				profile.writeCollapsedStacks(writer);
+			}
+		} catch (IOException e) {
+			MessageDialog.openError(getShell(), Messages.MonitoringPreferencePage_export_profile_title,
+					NLS.bind(Messages.MonitoringPreferencePage_export_profile_error, e.getMessage()));
+		}
+	}
+
 	private Composite createBottomBlock(Composite container, PixelConverter pixelConverter) {
 		Composite block = new Composite(container, SWT.NONE);
 
@@ -0,0 +1,59 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+import org.eclipse.ui.internal.monitoring.EventLatencyRecorder;
+
+/**
+ * Dispatch latencies of the SWT events of the workbench display. While UI monitoring is enabled,
+ * the time from the start to the end of the dispatch of every event, including nested events, is
+ * recorded in microseconds in a {@link LatencyHistogram} per event type.
+ * <p>
+ * The same statistics are available through JMX as the MXBean
+ * {@code org.eclipse.ui.monitoring:type=EventLoopLatency}, and can be written to a file
+ * periodically, see {@link PreferenceConstants#LATENCY_SNAPSHOT_FILE}.
+ *
+ * @since 1.4
+ */
+public final class EventLoopLatencies {
+
+	/**
+	 * Returns the SWT event types with recorded latencies in ascending order.
+	 *
+	 * @return the event types, see {@link org.eclipse.swt.widgets.Event#type}
+	 */
+	public static int[] getEventTypes() {
+		return EventLatencyRecorder.getDefault().getEventTypes();
+	}
+
+	/**
+	 * Returns a snapshot of the latencies of the given event type.
+	 *
+	 * @param eventType the SWT event type
+	 * @return a copy of the histogram of the latencies in microseconds, or {@code null} if no
+	 *     event of the type has been recorded
+	 */
+	public static LatencyHistogram getHistogram(int eventType) {
+		return EventLatencyRecorder.getDefault().getHistogram(eventType);
+	}
+
+	/**
+	 * Removes all recorded latencies.
+	 */
+	public static void reset() {
+		EventLatencyRecorder.getDefault().reset();
+	}
+
+	private EventLoopLatencies() {}
+}
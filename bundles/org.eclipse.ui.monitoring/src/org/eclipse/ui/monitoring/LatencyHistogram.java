@@ -0,0 +1,128 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.monitoring;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of non-negative values with logarithmic buckets and a fixed memory footprint. Values
+ * below 8 are counted exactly, every higher power of two range is divided into 8 buckets of equal
+ * width. A percentile is therefore reported with a relative error of at most 12.5%, while the
+ * maximum is exact.
+ * <p>
+ * This class is thread safe.
+ *
+ * @since 1.4
+ */
+public final class LatencyHistogram {
+	private static final int SUB_BUCKET_BITS = 3;
+	private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+	private static final int BUCKET_COUNT = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+	private final long[] counts = new long[BUCKET_COUNT];
+	private long totalCount;
+	private long maxValue;
+
+	/**
+	 * Records a value. Negative values are recorded as zero.
+	 *
+	 * @param value the value to record
+	 */
+	public synchronized void recordValue(long value) {
+		if (value < 0) {
+			value = 0;
+		}
+		counts[getBucket(value)]++;
+		totalCount++;
+		if (value > maxValue) {
+			maxValue = value;
+		}
+	}
+
+	/**
+	 * Returns the number of recorded values.
+	 */
+	public synchronized long getTotalCount() {
+		return totalCount;
+	}
+
+	/**
+	 * Returns the largest recorded value, or zero if no value has been recorded.
+	 */
+	public synchronized long getMaxValue() {
+		return maxValue;
+	}
+
+	/**
+	 * Returns the value at the given percentile, rounded up to the upper bound of its bucket but
+	 * not beyond the maximum.
+	 *
+	 * @param percentile the percentile between 0 and 100
+	 * @return the value at the percentile, or zero if no value has been recorded
+	 */
+	public synchronized long getValueAtPercentile(double percentile) {
+		if (totalCount == 0) {
+			return 0;
+		}
+		double fraction = Math.min(Math.max(percentile, 0), 100) / 100;
+		long rank = Math.max(1, (long) Math.ceil(fraction * totalCount));
+		long count = 0;
+		for (int i = 0; i < BUCKET_COUNT; i++) {
+			count += counts[i];
+			if (count >= rank) {
+				return Math.min(getUpperBound(i), maxValue);
+			}
+		}
+		return maxValue;
+	}
+
+	/**
+	 * Returns a copy of this histogram.
+	 */
+	public synchronized LatencyHistogram copy() {
+		LatencyHistogram copy = new LatencyHistogram();
+		System.arraycopy(counts, 0, copy.counts, 0, BUCKET_COUNT);
+		copy.totalCount = totalCount;
+		copy.maxValue = maxValue;
+		return copy;
+	}
+
+	/**
+	 * Removes all recorded values.
+	 */
+	public synchronized void reset() {
+		Arrays.fill(counts, 0);
+		totalCount = 0;
+		maxValue = 0;
+	}
+
+	private static int getBucket(long value) {
+		if (value < SUB_BUCKETS) {
+			return (int) value;
+		}
+		int exponent = Long.SIZE - 1 - Long.numberOfLeadingZeros(value);
+		int shift = exponent - SUB_BUCKET_BITS;
+		int subBucket = (int) (value >>> shift) & (SUB_BUCKETS - 1);
+		return (shift + 1) * SUB_BUCKETS + subBucket;
+	}
+
+	private static long getUpperBound(int bucket) {
+		if (bucket < SUB_BUCKETS) {
+			return bucket;
+		}
+		int shift = bucket / SUB_BUCKETS - 1;
+		long lowerBound = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << shift;
+		return lowerBound + (1L << shift) - 1;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -58,6 +58,45 @@ public class PreferenceConstants {
 	 * message if all stack frames of the thread match the filter.
 	 */
 	public static final String NONINTERESTING_THREAD_FILTER = "noninteresting_thread_filter"; //$NON-NLS-1$
+	/**
+	 * If true and monitoring is enabled, the UI thread is sampled continuously and the samples
+	 * are aggregated into a call tree that can be exported for flame graph tools.
+	 *
+	 * @since 1.4
+	 */
+	public static final String PROFILER_ENABLED = "profiler_enabled"; //$NON-NLS-1$
+	/**
+	 * Time between two samples of the UI thread profiler in milliseconds.
+	 *
+	 * @since 1.4
+	 */
+	public static final String PROFILER_SAMPLE_INTERVAL_MILLIS = "profiler_sample_interval"; //$NON-NLS-1$
+	/**
+	 * Maximum number of call tree nodes of the UI thread profile, which bounds its memory use.
+	 *
+	 * @since 1.4
+	 */
+	public static final String PROFILER_MAX_CALL_TREE_NODES = "profiler_max_call_tree_nodes"; //$NON-NLS-1$
+	/**
+	 * Number of most recent samples kept by the UI thread profiler, which can be exported
+	 * separately from the aggregated samples.
+	 *
+	 * @since 1.4
+	 */
+	public static final String PROFILER_MAX_RECENT_SAMPLES = "profiler_max_recent_samples"; //$NON-NLS-1$
+	/**
+	 * Path of a file the event dispatch latencies are periodically written to while monitoring is
+	 * enabled, see {@link EventLoopLatencies}. No file is written if the path is empty.
+	 *
+	 * @since 1.4
+	 */
+	public static final String LATENCY_SNAPSHOT_FILE = "latency_snapshot_file"; //$NON-NLS-1$
+	/**
+	 * Time between two writes of {@link #LATENCY_SNAPSHOT_FILE} in milliseconds.
+	 *
+	 * @since 1.4
+	 */
+	public static final String LATENCY_SNAPSHOT_INTERVAL_MILLIS = "latency_snapshot_interval"; //$NON-NLS-1$
 
 	private PreferenceConstants() {}
 }
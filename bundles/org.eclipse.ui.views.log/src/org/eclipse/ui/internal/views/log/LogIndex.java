@@ -0,0 +1,338 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Index of the records of a log file. For every line starting with
+ * <code>!SESSION</code> or <code>!ENTRY</code> the index holds the byte
+ * offset, so that the entries of any part of the log can be read without
+ * reading the log from its start.
+ * <p>
+ * The log is read through a heap buffer which is reused by all updates. It is
+ * not memory mapped, because a mapping keeps the file from being deleted or
+ * renamed on Windows until it is garbage collected. After the first update,
+ * {@link #update()} only scans the bytes appended to the log since the last
+ * update. A log which got shorter or whose indexed records changed has been
+ * replaced and is indexed again.
+ * </p>
+ * <p>
+ * The index also keeps the text of complete session records, so that the
+ * sessions do not need to be read again on every refresh of the view.
+ * </p>
+ */
+final class LogIndex {
+
+	static final byte SESSION = 1;
+	static final byte ENTRY = 2;
+
+	private static final byte[] SESSION_TAG = LogSession.SESSION.getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] ENTRY_TAG = "!ENTRY".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+
+	/**
+	 * Size of the buffer the log is read into.
+	 */
+	private static final int BUFFER_SIZE = 256 * 1024;
+
+	private final File file;
+
+	private long[] offsets = new long[64];
+	private byte[] kinds = new byte[64];
+	private int size;
+
+	// the indexes of the session records
+	private int[] sessions = new int[8];
+	private int sessionCount;
+	// the text of the session records, or null if not read yet
+	private String[] sessionTexts = new String[8];
+
+	private ByteBuffer buffer;
+
+	/**
+	 * Number of bytes indexed, always behind a line break.
+	 */
+	private long length;
+
+	/**
+	 * Creates an empty index for the given log file.
+	 *
+	 * @param file the log file
+	 */
+	LogIndex(File file) {
+		this.file = file;
+	}
+
+	File getFile() {
+		return file;
+	}
+
+	/**
+	 * Indexes the records appended to the log since the last update, or the
+	 * whole log if it has been replaced.
+	 *
+	 * @throws IOException if the log cannot be read
+	 */
+	synchronized void update() throws IOException {
+		if (!file.exists()) {
+			clear();
+			return;
+		}
+		try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+			long fileLength = channel.size();
+			if (fileLength < length || !isValid(channel)) {
+				clear();
+			}
+			long end = findLineEnd(channel, length, fileLength);
+			if (end <= length) {
+				return;
+			}
+			try {
+				scan(channel, length, end);
+			} catch (IOException e) {
+				clear();
+				throw e;
+			}
+			length = end;
+		}
+	}
+
+	private void clear() {
+		size = 0;
+		sessionCount = 0;
+		Arrays.fill(sessionTexts, null);
+		length = 0;
+	}
+
+	/**
+	 * Checks whether the last indexed record is still in place.
+	 */
+	private boolean isValid(FileChannel channel) throws IOException {
+		if (size == 0) {
+			return true;
+		}
+		byte[] tag = kinds[size - 1] == SESSION ? SESSION_TAG : ENTRY_TAG;
+		ByteBuffer bytes = ByteBuffer.allocate(tag.length);
+		long position = offsets[size - 1];
+		while (bytes.hasRemaining()) {
+			if (channel.read(bytes, position + bytes.position()) < 0) {
+				return false;
+			}
+		}
+		return Arrays.equals(bytes.array(), tag);
+	}
+
+	/**
+	 * Returns the offset behind the last line break between start and end, or
+	 * start if there is none.
+	 */
+	private static long findLineEnd(FileChannel channel, long start, long end) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(8192);
+		long position = end;
+		while (position > start) {
+			int count = (int) Math.min(buffer.capacity(), position - start);
+			buffer.clear();
+			buffer.limit(count);
+			long from = position - count;
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, from + buffer.position()) < 0) {
+					return start;
+				}
+			}
+			for (int i = count - 1; i >= 0; i--) {
+				if (buffer.get(i) == '\n') {
+					return from + i + 1;
+				}
+			}
+			position = from;
+		}
+		return start;
+	}
+
+	/**
+	 * Indexes the records starting between start and end. Start is always at
+	 * the start of a line.
+	 */
+	private void scan(FileChannel channel, long start, long end) throws IOException {
+		if (buffer == null) {
+			buffer = ByteBuffer.allocate(BUFFER_SIZE);
+		}
+		buffer.clear();
+		// the file offset of the first byte in the buffer
+		long bufferStart = start;
+		long position = start;
+		boolean lineStart = true;
+		boolean last = false;
+		while (!last) {
+			while (buffer.hasRemaining() && position < end) {
+				buffer.limit(buffer.position() + (int) Math.min(buffer.remaining(), end - position));
+				int count = channel.read(buffer, position);
+				buffer.limit(buffer.capacity());
+				if (count < 0) {
+					throw new EOFException("Log truncated while indexing: " + file); //$NON-NLS-1$
+				}
+				position += count;
+			}
+			buffer.flip();
+			last = position >= end;
+			int limit = buffer.limit();
+			// keep enough bytes to match a tag starting at the end of the buffer
+			int scanLimit = last ? limit : limit - SESSION_TAG.length;
+			for (int i = 0; i < scanLimit; i++) {
+				byte b = buffer.get(i);
+				if (lineStart && b == '!') {
+					if (matches(buffer, i, ENTRY_TAG)) {
+						add(bufferStart + i, ENTRY);
+					} else if (matches(buffer, i, SESSION_TAG)) {
+						add(bufferStart + i, SESSION);
+					}
+				}
+				lineStart = b == '\n';
+			}
+			buffer.position(scanLimit);
+			buffer.compact();
+			bufferStart += scanLimit;
+		}
+	}
+
+	private static boolean matches(ByteBuffer buffer, int index, byte[] tag) {
+		if (index + tag.length > buffer.limit()) {
+			return false;
+		}
+		for (int i = 1; i < tag.length; i++) {
+			if (buffer.get(index + i) != tag[i]) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private void add(long offset, byte kind) {
+		if (size == offsets.length) {
+			offsets = Arrays.copyOf(offsets, size * 2);
+			kinds = Arrays.copyOf(kinds, size * 2);
+		}
+		if (kind == SESSION) {
+			if (sessionCount == sessions.length) {
+				sessions = Arrays.copyOf(sessions, sessionCount * 2);
+				sessionTexts = Arrays.copyOf(sessionTexts, sessionCount * 2);
+			}
+			sessions[sessionCount++] = size;
+		}
+		offsets[size] = offset;
+		kinds[size] = kind;
+		size++;
+	}
+
+	/**
+	 * @return the number of indexed records
+	 */
+	synchronized int size() {
+		return size;
+	}
+
+	/**
+	 * @return the number of indexed bytes, the log may have more bytes which
+	 *         do not end with a line break yet
+	 */
+	synchronized long getLength() {
+		return length;
+	}
+
+	/**
+	 * @param record the record index
+	 * @return the byte offset of the record
+	 */
+	synchronized long getOffset(int record) {
+		return offsets[record];
+	}
+
+	/**
+	 * @param record the record index
+	 * @return the byte offset behind the record
+	 */
+	synchronized long getEndOffset(int record) {
+		return record + 1 < size ? offsets[record + 1] : length;
+	}
+
+	/**
+	 * @param record the record index
+	 * @return {@link #SESSION} or {@link #ENTRY}
+	 */
+	synchronized byte getKind(int record) {
+		return kinds[record];
+	}
+
+	/**
+	 * @param offset a byte offset in the log
+	 * @return the index of the first record starting at or behind the offset,
+	 *         or the number of records if there is none
+	 */
+	synchronized int findRecord(long offset) {
+		int index = Arrays.binarySearch(offsets, 0, size, offset);
+		return index >= 0 ? index : -index - 1;
+	}
+
+	/**
+	 * @return the indexes of the session records in ascending order
+	 */
+	synchronized int[] getSessions() {
+		return Arrays.copyOf(sessions, sessionCount);
+	}
+
+	/**
+	 * @param record the record index
+	 * @return the index of the last session record at or before the record, or
+	 *         <code>-1</code> if there is none
+	 */
+	synchronized int findSession(int record) {
+		int index = Arrays.binarySearch(sessions, 0, sessionCount, record);
+		if (index >= 0) {
+			return record;
+		}
+		int before = -index - 2;
+		return before >= 0 ? sessions[before] : -1;
+	}
+
+	/**
+	 * @param record the index of a session record
+	 * @return the text of the session record set by
+	 *         {@link #setSessionText(int, String)}, or <code>null</code>
+	 */
+	synchronized String getSessionText(int record) {
+		int index = Arrays.binarySearch(sessions, 0, sessionCount, record);
+		return index >= 0 ? sessionTexts[index] : null;
+	}
+
+	/**
+	 * Remembers the text of a session record. The text of the last record is
+	 * not kept, because lines may still be appended to it.
+	 *
+	 * @param record the index of a session record
+	 * @param text   the text of the record
+	 */
+	synchronized void setSessionText(int record, String text) {
+		int index = Arrays.binarySearch(sessions, 0, sessionCount, record);
+		if (index >= 0 && record + 1 < size) {
+			sessionTexts[index] = text;
+		}
+	}
+}
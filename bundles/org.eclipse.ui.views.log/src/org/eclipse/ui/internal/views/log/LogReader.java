@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2018 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,7 +17,10 @@
 package org.eclipse.ui.internal.views.log;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
 import java.text.ParseException;
 import java.util.*;
 import org.eclipse.core.runtime.IStatus;
@@ -36,6 +39,16 @@ class LogReader {
 	private static final int TEXT_STATE = 60;
 	private static final int UNKNOWN_STATE = 70;
 
+	/**
+	 * Number of records parsed by one task when reading a log backwards.
+	 */
+	private static final int RECORDS_PER_TASK = 256;
+	/**
+	 * Session records up to this size are kept by the index.
+	 */
+	private static final int MAX_SESSION_TEXT_LENGTH = 64 * 1024;
+	private static final int PARALLEL_TASKS = Math.max(1, Runtime.getRuntime().availableProcessors());
+
 	public static LogSession parseLogFile(File file, long maxLogTailSizeInMegaByte, List<LogEntry> entries,
 			IMemento memento) {
 		if (!file.exists())
@@ -45,18 +58,319 @@ class LogReader {
 				&& memento.getInteger(LogView.P_LOG_LIMIT).intValue() == 0)
 			return null;
 
-		ArrayList<LogEntry> parents = new ArrayList<>();
-		LogEntry current = null;
-		LogSession session = null;
-		int writerState = UNKNOWN_STATE;
-		StringWriter swriter = null;
-		PrintWriter writer = null;
-		int state = UNKNOWN_STATE;
-		LogSession currentSession = null;
+		LogParser parser = new LogParser(entries, memento, true);
 		long maxTailSizeInBytes = maxLogTailSizeInMegaByte > 0 ? maxLogTailSizeInMegaByte * ONE_MEGA_BYTE_IN_BYTES
 				: ONE_MEGA_BYTE_IN_BYTES;
 		try (BufferedReader reader = new BufferedReader(
 				new InputStreamReader(new TailInputStream(file, maxTailSizeInBytes), StandardCharsets.UTF_8))) {
+			parser.parse(reader);
+			parser.finishStack();
+		} catch (IOException e) { // do nothing
+		} finally {
+			addNoEntryWarning(file, maxLogTailSizeInMegaByte, entries, parser.currentSession);
+			parser.flush();
+		}
+
+		return parser.currentSession;
+	}
+
+	public static LogSession parseLogFile(File file, List<LogEntry> entries, IMemento memento) {
+		return parseLogFile(file, ONE_MEGA_BYTE_IN_BYTES, entries, memento);
+	}
+
+	/**
+	 * Parses the tail of the log of the index, which is updated first. If the
+	 * number of entries is limited, the tail is read backwards from its end in
+	 * parallel until enough entries pass the filters. Otherwise the tail is read
+	 * from the first record in it.
+	 */
+	static LogSession parseLogFile(LogIndex index, long maxLogTailSizeInMegaByte, List<LogEntry> entries,
+			IMemento memento) {
+		File file = index.getFile();
+		if (!file.exists())
+			return null;
+
+		boolean useLimit = memento.getString(LogView.P_USE_LIMIT).equals("true"); //$NON-NLS-1$
+		int limit = useLimit ? memento.getInteger(LogView.P_LOG_LIMIT).intValue() : Integer.MAX_VALUE;
+		if (limit == 0)
+			return null;
+
+		try {
+			index.update();
+			try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+				if (useLimit) {
+					return parseBackwards(index, channel, maxLogTailSizeInMegaByte, limit, entries, memento);
+				}
+				return parseTail(index, channel, maxLogTailSizeInMegaByte, entries, memento);
+			}
+		} catch (IOException e) {
+			entries.clear();
+			return parseLogFile(file, maxLogTailSizeInMegaByte, entries, memento);
+		}
+	}
+
+	private static LogSession parseTail(LogIndex index, FileChannel channel, long maxLogTailSizeInMegaByte,
+			List<LogEntry> entries, IMemento memento) throws IOException {
+		long length = index.getLength();
+		int first = findFirstTailRecord(index, maxLogTailSizeInMegaByte);
+		LogParser parser = new LogParser(entries, memento, true);
+		if (first > 0) {
+			// continue with the sessions the tail starts in
+			int record = index.findSession(first - 1);
+			if (record >= 0) {
+				SessionTable sessions = new SessionTable(index, channel, record + 1, memento);
+				parser.session = sessions.get(record);
+				parser.currentSession = sessions.getCurrent(record);
+			}
+		}
+		long start = first < index.size() ? index.getOffset(first) : length;
+		try (BufferedReader reader = openReader(channel, start, length)) {
+			parser.parse(reader);
+			parser.finishStack();
+		} finally {
+			addNoEntryWarning(index.getFile(), maxLogTailSizeInMegaByte, entries, parser.currentSession);
+			parser.flush();
+		}
+		return parser.currentSession;
+	}
+
+	/**
+	 * Returns the first record which starts within the maximum tail size from
+	 * the end of the indexed log.
+	 */
+	private static int findFirstTailRecord(LogIndex index, long maxLogTailSizeInMegaByte) {
+		long maxTailSizeInBytes = maxLogTailSizeInMegaByte > 0 ? maxLogTailSizeInMegaByte * ONE_MEGA_BYTE_IN_BYTES
+				: ONE_MEGA_BYTE_IN_BYTES;
+		return index.findRecord(Math.max(0, index.getLength() - maxTailSizeInBytes));
+	}
+
+	/**
+	 * Reads the records of the tail of the log backwards until there are
+	 * enough entries. Every round parses a number of ranges of records in
+	 * parallel. A range does not span sessions, so the sessions of its entries
+	 * are known before parsing it.
+	 */
+	private static LogSession parseBackwards(LogIndex index, FileChannel channel, long maxLogTailSizeInMegaByte,
+			int limit, List<LogEntry> entries, IMemento memento) throws IOException {
+		SessionTable sessions = new SessionTable(index, channel, index.size(), memento);
+		// older entries are dropped when a session becomes the current one
+		int stop = memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true") ? 0 : sessions.getLastCurrent(); //$NON-NLS-1$
+		stop = Math.max(stop, findFirstTailRecord(index, maxLogTailSizeInMegaByte));
+
+		List<List<LogEntry>> found = new ArrayList<>();
+		int count = 0;
+		int hi = index.size();
+		while (hi > stop && count < limit) {
+			List<int[]> ranges = new ArrayList<>();
+			while (hi > stop && ranges.size() < PARALLEL_TASKS) {
+				int session = index.findSession(hi - 1);
+				int lo = Math.max(Math.max(stop, hi - RECORDS_PER_TASK), session + 1);
+				if (lo < hi) {
+					ranges.add(new int[] { session, lo, hi });
+				}
+				hi = session >= 0 && lo == session + 1 ? session : lo;
+			}
+			List<List<LogEntry>> results;
+			try {
+				results = ranges.parallelStream().map(range -> {
+					try {
+						return parseRecords(index, channel, range[1], range[2], sessions.get(range[0]),
+								sessions.getCurrent(range[0]), memento);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}).toList();
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			for (List<LogEntry> result : results) {
+				found.add(result);
+				count += result.size();
+			}
+		}
+
+		List<LogEntry> all = new ArrayList<>(count);
+		for (int i = found.size() - 1; i >= 0; i--) {
+			all.addAll(found.get(i));
+		}
+		entries.addAll(all.subList(Math.max(0, all.size() - limit), all.size()));
+		LogSession currentSession = index.size() > 0 ? sessions.getCurrent(index.size() - 1) : null;
+		addNoEntryWarning(index.getFile(), maxLogTailSizeInMegaByte, entries, currentSession);
+		return currentSession;
+	}
+
+	/**
+	 * Parses the entries of the given records, which follow the given session
+	 * record. The entries are filtered, but not limited.
+	 */
+	private static List<LogEntry> parseRecords(LogIndex index, FileChannel channel, int from, int to,
+			LogSession session, LogSession currentSession, IMemento memento) throws IOException {
+		List<LogEntry> result = new ArrayList<>();
+		LogParser parser = new LogParser(result, memento, false);
+		parser.session = session;
+		parser.currentSession = currentSession;
+		try (BufferedReader reader = openReader(channel, index.getOffset(from), index.getEndOffset(to - 1))) {
+			parser.parse(reader);
+			parser.finishStack();
+		}
+		parser.flush();
+		return result;
+	}
+
+	/**
+	 * Parses a session record. Its text is taken from the index if the record
+	 * has been read before.
+	 */
+	private static LogSession readSession(LogIndex index, FileChannel channel, int record, IMemento memento)
+			throws IOException {
+		LogParser parser = new LogParser(new ArrayList<>(), memento, false);
+		try (BufferedReader reader = openSessionReader(index, channel, record)) {
+			parser.parse(reader);
+		}
+		parser.flush();
+		return parser.session;
+	}
+
+	private static BufferedReader openSessionReader(LogIndex index, FileChannel channel, int record)
+			throws IOException {
+		String text = index.getSessionText(record);
+		if (text == null) {
+			long start = index.getOffset(record);
+			long end = index.getEndOffset(record);
+			if (end - start > MAX_SESSION_TEXT_LENGTH) {
+				return openReader(channel, start, end);
+			}
+			ByteBuffer buffer = ByteBuffer.allocate((int) (end - start));
+			while (buffer.hasRemaining()) {
+				if (channel.read(buffer, start + buffer.position()) < 0) {
+					throw new EOFException();
+				}
+			}
+			text = new String(buffer.array(), StandardCharsets.UTF_8);
+			index.setSessionText(record, text);
+		}
+		return new BufferedReader(new StringReader(text));
+	}
+
+	private static BufferedReader openReader(FileChannel channel, long start, long end) {
+		return new BufferedReader(new InputStreamReader(new RangeInputStream(channel, start, end),
+				StandardCharsets.UTF_8));
+	}
+
+	private static void addNoEntryWarning(File file, long maxLogTailSizeInMegaByte, List<LogEntry> entries,
+			LogSession currentSession) {
+		if (file.length() > maxLogTailSizeInMegaByte && entries.isEmpty()) {
+			LogEntry entry = new LogEntry(new Status(IStatus.WARNING, Activator.PLUGIN_ID, NLS.bind(
+					Messages.LogReader_warn_noEntryWithinMaxLogTailSize, Long.valueOf(maxLogTailSizeInMegaByte))));
+			entry.setSession(currentSession == null ? new LogSession() : currentSession);
+			entries.add(entry);
+		}
+	}
+
+	/**
+	 * The sessions of the first records of a log. Like when parsing the log
+	 * sequentially, the current session of a record is the most recent session
+	 * up to it, which entries get assigned.
+	 */
+	private static class SessionTable {
+		private final int[] records;
+		private final LogSession[] sessions;
+		private final LogSession[] currentSessions;
+		// the current session of the records before the first session
+		private final LogSession noSession;
+		private int lastCurrent;
+
+		SessionTable(LogIndex index, FileChannel channel, int end, IMemento memento) throws IOException {
+			int[] all = index.getSessions();
+			int count = 0;
+			while (count < all.length && all[count] < end) {
+				count++;
+			}
+			records = Arrays.copyOf(all, count);
+			try {
+				sessions = Arrays.stream(records).parallel().mapToObj(record -> {
+					try {
+						return readSession(index, channel, record, memento);
+					} catch (IOException e) {
+						throw new UncheckedIOException(e);
+					}
+				}).toArray(LogSession[]::new);
+			} catch (UncheckedIOException e) {
+				throw e.getCause();
+			}
+			noSession = count == 0 || records[0] > 0 ? new LogSession() : null;
+			currentSessions = new LogSession[count];
+			LogSession currentSession = noSession;
+			for (int i = 0; i < count; i++) {
+				if (sessions[i] == null) {
+					// a session record without session line cannot be parsed
+					sessions[i] = new LogSession();
+				}
+				currentSession = updateCurrentSession(currentSession, sessions[i]);
+				currentSessions[i] = currentSession;
+				if (currentSession == sessions[i]) {
+					lastCurrent = records[i];
+				}
+			}
+		}
+
+		/**
+		 * @return the session parsed from the given session record, or
+		 *         <code>null</code> for <code>-1</code>
+		 */
+		LogSession get(int record) {
+			return record < 0 ? null : sessions[Arrays.binarySearch(records, record)];
+		}
+
+		/**
+		 * @return the current session of the records after the given session
+		 *         record, or of the records before the first session for
+		 *         <code>-1</code>
+		 */
+		LogSession getCurrent(int record) {
+			int i = Arrays.binarySearch(records, record);
+			if (i < 0) {
+				// the last session at or before the record
+				i = -i - 2;
+			}
+			return i >= 0 ? currentSessions[i] : noSession;
+		}
+
+		/**
+		 * @return the last session record which changed the current session
+		 */
+		int getLastCurrent() {
+			return lastCurrent;
+		}
+	}
+
+	/**
+	 * Parses the lines of a log into entries and sessions.
+	 */
+	static class LogParser {
+		private final List<LogEntry> entries;
+		private final IMemento memento;
+		private final boolean limitEntries;
+		private final ArrayList<LogEntry> parents = new ArrayList<>();
+		private LogEntry current;
+		LogSession session;
+		LogSession currentSession;
+		private int writerState = UNKNOWN_STATE;
+		private StringWriter swriter;
+		private PrintWriter writer;
+
+		/**
+		 * @param limitEntries whether to drop the oldest entries above the limit
+		 *                     and the entries of older sessions as configured
+		 */
+		LogParser(List<LogEntry> entries, IMemento memento, boolean limitEntries) {
+			this.entries = entries;
+			this.memento = memento;
+			this.limitEntries = limitEntries;
+		}
+
+		void parse(BufferedReader reader) throws IOException {
+			int state;
 			for (;;) {
 				String line0 = reader.readLine();
 				if (line0 == null)
@@ -107,7 +421,7 @@ class LogReader {
 					writerState = SESSION_STATE;
 					currentSession = updateCurrentSession(currentSession, session);
 					// if current session is most recent and not showing all sessions
-					if (currentSession.equals(session) && !memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true")) //$NON-NLS-1$
+					if (limitEntries && currentSession.equals(session) && !memento.getString(LogView.P_SHOW_ALL_SESSIONS).equals("true")) //$NON-NLS-1$
 						entries.clear();
 					break;
 				case ENTRY_STATE:
@@ -120,7 +434,7 @@ class LogReader {
 						entry.processEntry(line);
 						setNewParent(parents, entry, 0);
 						current = entry;
-						addEntry(current, entries, memento);
+						addEntry(current, entries, memento, limitEntries);
 					} catch (ParseException pe) {
 						//do nothing, just toss the entry
 					}
@@ -154,30 +468,64 @@ class LogReader {
 					break;
 				}
 			}
+		}
 
+		/**
+		 * Assigns a stack trace at the end of the log to the last entry.
+		 */
+		void finishStack() {
 			if (swriter != null && current != null && writerState == STACK_STATE) {
 				writerState = UNKNOWN_STATE;
 				current.setStack(swriter.toString());
 			}
-		} catch (IOException e) { // do nothing
-		} finally {
-			if (file.length() > maxLogTailSizeInMegaByte && entries.isEmpty()) {
-				LogEntry entry = new LogEntry(new Status(IStatus.WARNING, Activator.PLUGIN_ID, NLS.bind(
-						Messages.LogReader_warn_noEntryWithinMaxLogTailSize, Long.valueOf(maxLogTailSizeInMegaByte))));
-				entry.setSession(currentSession == null ? new LogSession() : currentSession);
-				entries.add(entry);
-			}
+		}
+
+		/**
+		 * Assigns pending data to the last entry or session.
+		 */
+		void flush() {
 			if (writer != null) {
 				setData(current, session, writerState, swriter);
 				writer.close();
+				writer = null;
 			}
 		}
-
-		return currentSession;
 	}
 
-	public static LogSession parseLogFile(File file, List<LogEntry> entries, IMemento memento) {
-		return parseLogFile(file, ONE_MEGA_BYTE_IN_BYTES, entries, memento);
+	/**
+	 * Reads a range of bytes of a file channel, without changing its position
+	 * so that ranges can be read concurrently.
+	 */
+	private static class RangeInputStream extends InputStream {
+		private final FileChannel channel;
+		private long position;
+		private final long end;
+
+		RangeInputStream(FileChannel channel, long start, long end) {
+			this.channel = channel;
+			this.position = start;
+			this.end = end;
+		}
+
+		@Override
+		public int read() throws IOException {
+			byte[] b = new byte[1];
+			int len = read(b, 0, 1);
+			return len < 0 ? -1 : b[0] & 0xff;
+		}
+
+		@Override
+		public int read(byte[] b, int off, int len) throws IOException {
+			if (position >= end) {
+				return -1;
+			}
+			int count = (int) Math.min(len, end - position);
+			int read = channel.read(ByteBuffer.wrap(b, off, count), position);
+			if (read > 0) {
+				position += read;
+			}
+			return read;
+		}
 	}
 
 	/**
@@ -220,12 +568,12 @@ class LogReader {
 	/**
 	 * Adds entry to the list if it's not filtered. Removes entries exceeding the count limit.
 	 */
-	private static void addEntry(LogEntry entry, List<LogEntry> entries, IMemento memento) {
+	private static void addEntry(LogEntry entry, List<LogEntry> entries, IMemento memento, boolean limitEntries) {
 
 		if (isLogged(entry, memento)) {
 			entries.add(entry);
 
-			if (memento.getString(LogView.P_USE_LIMIT).equals("true")) {//$NON-NLS-1$
+			if (limitEntries && memento.getString(LogView.P_USE_LIMIT).equals("true")) {//$NON-NLS-1$
 				int limit = memento.getInteger(LogView.P_LOG_LIMIT).intValue();
 				if (entries.size() > limit) {
 					entries.remove(0);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -123,6 +123,8 @@ public class LogView extends ViewPart implements LogListener {
 	private IMemento fMemento;
 	private File fInputFile;
 	private String fDirectory;
+	// index of the input file, kept between reads to only index appended records
+	private LogIndex fLogIndex;
 
 	private Comparator<?> fComparator;
 
@@ -878,7 +880,7 @@ public class LogView extends ViewPart implements LogListener {
 	private CompletableFuture<List<LogEntry>> fetchLogEntries() {
 		return CompletableFuture.supplyAsync(() -> {
 			List<LogEntry> result = new ArrayList<>();
-			LogSession lastLogSession = LogReader.parseLogFile(this.fInputFile, getLogMaxTailSize(), result,
+			LogSession lastLogSession = LogReader.parseLogFile(getLogIndex(), getLogMaxTailSize(), result,
 					this.fMemento);
 			if (lastLogSession != null
 					&& (lastLogSession.getDate() == null || isEclipseStartTime(lastLogSession.getDate()))) {
@@ -890,6 +892,14 @@ public class LogView extends ViewPart implements LogListener {
 		});
 	}
 
+	private synchronized LogIndex getLogIndex() {
+		File file = fInputFile;
+		if (fLogIndex == null || !fLogIndex.getFile().equals(file)) {
+			fLogIndex = new LogIndex(file);
+		}
+		return fLogIndex;
+	}
+
 	private void updateLogViewer(List<LogEntry> entries) {
 		synchronized (elements) {
 			elements.clear();
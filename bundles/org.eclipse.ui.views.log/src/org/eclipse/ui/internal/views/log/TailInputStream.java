@@ -1,5 +1,5 @@
 /*******************************************************************************
- *  Copyright (c) 2005, 2014 IBM Corporation and others.
+ *  Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  *  This program and the accompanying materials
  *  are made available under the terms of the Eclipse Public License 2.0
@@ -42,12 +42,7 @@ public class TailInputStream extends InputStream {
 
 	@Override
 	public int read() throws IOException {
-		byte[] b = new byte[1];
-		int len = fRaf.read(b, 0, 1);
-		if (len < 0) {
-			return len;
-		}
-		return b[0];
+		return fRaf.read();
 	}
 
 	@Override
@@ -169,6 +169,18 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 	 * @since 3.2
 	 */
 	private DocumentEquivalenceClass fRightEquivalent;
+	/**
+	 * The equivalence class of the right document at the time the differ last left the
+	 * synchronized state, kept so that the next initialization can reuse its line hashes.
+	 * @since 3.18
+	 */
+	private DocumentEquivalenceClass fRightHashCache;
+	/**
+	 * The modification stamp of the right document for which <code>fRightHashCache</code> is
+	 * valid.
+	 * @since 3.18
+	 */
+	private long fRightHashCacheStamp= IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP;
 	/**
 	 * Flag to indicate whether a change has been made to the line table and any clients should
 	 * update their presentation.
@@ -485,6 +497,8 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 	 * @since 3.2 protected for testing reasons, package visible before
 	 */
 	protected synchronized void initialize() {
+		rememberRightHashes();
+
 		// make new incoming changes go into the queue of stored events, plus signal we can't restore.
 		fState= INITIALIZING;
 
@@ -544,9 +558,10 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 							return Status.CANCEL_STATUS;
 
 						clearModel();
-						fireModelChanged();
-						return e.getStatus();
 					}
+					// notify outside of the lock, listeners may access the documents
+					fireModelChanged();
+					return e.getStatus();
 				} catch (OperationCanceledException e) {
 					return Status.CANCEL_STATUS;
 				}
@@ -559,6 +574,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 				IDocument right= fRightDocument; // fRightDocument, but not subject to change
 				IDocument actual= null; // the copy of the actual (right) document
 				IDocument reference= null; // the copy of the reference (left) document
+				DocumentEquivalenceClass rightHashCache= null; // hashes known to match the actual copy
 
 				synchronized (DocumentLineDiffer.this) {
 					// 4: take an early exit if the documents are not valid
@@ -567,14 +583,18 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 							return Status.CANCEL_STATUS;
 
 						clearModel();
-						fireModelChanged();
-						return Status.OK_STATUS;
+					} else {
+						// set the reference document
+						fLeftDocument= left;
+						// start listening to document events.
+						fIgnoreDocumentEvents= false;
 					}
+				}
 
-					// set the reference document
-					fLeftDocument= left;
-					// start listening to document events.
-					fIgnoreDocumentEvents= false;
+				// notify outside of the lock, listeners may access the documents
+				if (left == null || right == null) {
+					fireModelChanged();
+					return Status.OK_STATUS;
 				}
 
 				// accessing the reference document from a different thread - reference providers need
@@ -602,6 +622,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 								return Status.CANCEL_STATUS;
 							fStoredEvents.clear();
 							actual= createUnprotectedCopy(right);
+							rightHashCache= getRightHashCache(right);
 						}
 					}
 				} else {
@@ -622,6 +643,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 								return Status.CANCEL_STATUS;
 
 							fStoredEvents.clear();
+							rightHashCache= getRightHashCache(right);
 						}
 
 						// access documents non synchronized:
@@ -640,12 +662,11 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 				IHashFunction hash= new DJBHashFunction();
 				DocumentEquivalenceClass leftEquivalent= new DocumentEquivalenceClass(reference, hash);
 				fLeftEquivalent= leftEquivalent;
-				IRangeComparator ref= new DocEquivalenceComparator(leftEquivalent, null);
 
-				DocumentEquivalenceClass rightEquivalent= new DocumentEquivalenceClass(actual, hash);
+				// reuse the line hashes of the actual document if it has not changed since the last run
+				DocumentEquivalenceClass rightEquivalent= new DocumentEquivalenceClass(actual, hash, rightHashCache);
 				fRightEquivalent= rightEquivalent;
-				IRangeComparator act= new DocEquivalenceComparator(rightEquivalent, null);
-				ArrayList<QuickDiffRangeDifference> diffs= asQuickDiffRangeDifference(RangeDifferencer.findRanges(fRangeDiffFactory, monitor, ref, act));
+				ArrayList<QuickDiffRangeDifference> diffs= findDifferences(monitor, leftEquivalent, rightEquivalent);
 				// 7:	Reset the model to the just gotten differences
 				// 		re-inject stored events to get up to date.
 				synchronized (DocumentLineDiffer.this) {
@@ -669,6 +690,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 								fInitializationJob= null;
 								fState= SYNCHRONIZED;
 								fLastDifference= null;
+								fRightHashCache= null;
 
 								// replace the private documents with the actual
 								leftEquivalent.setDocument(left);
@@ -762,6 +784,92 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 		fInitializationJob.schedule(INITIALIZE_DELAY);
 	}
 
+	/**
+	 * Remembers the line hashes of the right document if the differ is currently synchronized, so
+	 * that they can be reused by the next initialization as long as the document does not change
+	 * in the meantime.
+	 *
+	 * @since 3.18
+	 */
+	private void rememberRightHashes() {
+		if (isInitialized() && fRightEquivalent != null && fRightDocument instanceof IDocumentExtension4) {
+			fRightHashCache= fRightEquivalent;
+			fRightHashCacheStamp= ((IDocumentExtension4) fRightDocument).getModificationStamp();
+		}
+	}
+
+	/**
+	 * Returns the remembered line hashes if they are still valid for <code>document</code>. Must
+	 * be called while holding the lock on this differ and before <code>document</code> is copied.
+	 *
+	 * @param document the right document
+	 * @return the remembered equivalence class, or <code>null</code> if there is none or it is out
+	 *         of date
+	 * @since 3.18
+	 */
+	private DocumentEquivalenceClass getRightHashCache(IDocument document) {
+		if (fRightHashCache == null || !(document instanceof IDocumentExtension4))
+			return null;
+		long stamp= ((IDocumentExtension4) document).getModificationStamp();
+		if (stamp == IDocumentExtension4.UNKNOWN_MODIFICATION_STAMP || stamp != fRightHashCacheStamp)
+			return null;
+		return fRightHashCache;
+	}
+
+	/**
+	 * Computes the differences between the complete left and right documents. Lines common to
+	 * the start and to the end of both documents are matched by their hashes first, so that the
+	 * range differencer only runs on the window in between. For the typical case of a few local
+	 * edits in a large document, this turns the diff into a linear scan.
+	 *
+	 * @param monitor the progress monitor, may be <code>null</code>
+	 * @param leftEquivalent the equivalence class of the left document
+	 * @param rightEquivalent the equivalence class of the right document
+	 * @return the differences covering both documents
+	 * @since 3.18
+	 */
+	private ArrayList<QuickDiffRangeDifference> findDifferences(IProgressMonitor monitor, DocumentEquivalenceClass leftEquivalent, DocumentEquivalenceClass rightEquivalent) {
+		int leftCount= leftEquivalent.getCount();
+		int rightCount= rightEquivalent.getCount();
+		int common= Math.min(leftCount, rightCount);
+
+		int prefix= 0;
+		while (prefix < common && leftEquivalent.getHash(prefix).equals(rightEquivalent.getHash(prefix)))
+			prefix++;
+
+		int suffix= 0;
+		while (suffix < common - prefix && leftEquivalent.getHash(leftCount - suffix - 1).equals(rightEquivalent.getHash(rightCount - suffix - 1)))
+			suffix++;
+
+		IRangeComparator ref= new DocEquivalenceComparator(leftEquivalent, new LineRange(prefix, leftCount - prefix - suffix));
+		IRangeComparator act= new DocEquivalenceComparator(rightEquivalent, new LineRange(prefix, rightCount - prefix - suffix));
+		ArrayList<QuickDiffRangeDifference> diffs= asQuickDiffRangeDifference(RangeDifferencer.findRanges(fRangeDiffFactory, monitor, ref, act));
+
+		// shift the window diffs to the absolute document positions
+		for (QuickDiffRangeDifference d : diffs) {
+			d.shiftLeft(prefix);
+			d.shiftRight(prefix);
+		}
+
+		// add the unchanged start and end of the documents
+		if (prefix > 0) {
+			QuickDiffRangeDifference first= diffs.isEmpty() ? null : diffs.get(0);
+			if (first != null && first.kind() == RangeDifference.NOCHANGE)
+				first.extendStart(-prefix);
+			else
+				diffs.add(0, new QuickDiffRangeDifference(RangeDifference.NOCHANGE, 0, prefix, 0, prefix));
+		}
+		if (suffix > 0) {
+			QuickDiffRangeDifference last= diffs.get(diffs.size() - 1);
+			if (last.kind() == RangeDifference.NOCHANGE)
+				last.extendEnd(suffix);
+			else
+				diffs.add(new QuickDiffRangeDifference(RangeDifference.NOCHANGE, rightCount - suffix, suffix, leftCount - suffix, suffix));
+		}
+
+		return diffs;
+	}
+
 	/* IDocumentListener implementation */
 
 	@Override
@@ -1454,6 +1562,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 			}
 			fRightDocument= null;
 			fRightEquivalent= null;
+			fRightHashCache= null;
 
 			fDifferences.clear();
 		}
@@ -1551,6 +1660,7 @@ public class DocumentLineDiffer implements ILineDiffer, IDocumentListener, IAnno
 			job.cancel();
 
 		synchronized (this) {
+			rememberRightHashes();
 			fInitializationJob= null;
 			if (fRightDocument != null)
 				fRightDocument.removeDocumentListener(this);
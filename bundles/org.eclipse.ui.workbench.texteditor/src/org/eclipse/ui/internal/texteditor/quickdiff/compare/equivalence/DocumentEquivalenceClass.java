@@ -50,6 +50,23 @@ public final class DocumentEquivalenceClass {
 		fHashFunction= hashFunction;
 	}
 
+	/**
+	 * Creates a new equivalence class for <code>document</code> which takes over the hashes
+	 * already computed by <code>cache</code>. The caller must guarantee that <code>cache</code>
+	 * describes the same content as <code>document</code>; if the line counts or hash functions
+	 * differ, the cache is ignored.
+	 *
+	 * @param document the document
+	 * @param hashFunction the hash function
+	 * @param cache the equivalence class to take the hashes from, may be <code>null</code>
+	 * @since 3.18
+	 */
+	public DocumentEquivalenceClass(IDocument document, IHashFunction hashFunction, DocumentEquivalenceClass cache) {
+		this(document, hashFunction);
+		if (cache != null && cache.getCount() == getCount() && cache.fHashFunction.getClass() == fHashFunction.getClass())
+			Collections.copy(fHashes, cache.fHashes);
+	}
+
 	/**
 	 * Returns the equivalence hash for line <code>line</code>.
 	 *
@@ -0,0 +1,287 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.texteditor.spelling;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.DocumentEvent;
+import org.eclipse.jface.text.DocumentPartitioningChangedEvent;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IDocumentListener;
+import org.eclipse.jface.text.IDocumentPartitioningListener;
+import org.eclipse.jface.text.IDocumentPartitioningListenerExtension2;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+/**
+ * Remembers which parts of a document changed since they were last handed out, so that a spell
+ * checker only needs to look at the lines that were touched.
+ * <p>
+ * Changed ranges are kept sorted and disjoint and are shifted along with later document changes.
+ * Ranges whose partitioning changed are treated like edited text, since the partition type decides
+ * which text an engine checks at all.
+ * </p>
+ * <p>
+ * This class is thread safe: the document notifies it in the UI thread while the ranges are taken
+ * in the reconciler thread. The document is never called while the monitor of this tracker is
+ * held, since the document may notify the tracker while holding its own lock.
+ * </p>
+ *
+ * @since 3.18
+ */
+public class ChangedLinesTracker implements IDocumentListener, IDocumentPartitioningListener, IDocumentPartitioningListenerExtension2 {
+
+	/** The tracked document, <code>null</code> if not installed. */
+	private IDocument fDocument;
+
+	/** Sorted, disjoint <code>{start, end}</code> pairs of changed text. */
+	private final List<int[]> fRanges= new ArrayList<>();
+
+	/**
+	 * Partitioning changes reported during the current document change. They are already in
+	 * post-change coordinates and are added once the existing ranges have been shifted.
+	 */
+	private final List<int[]> fPendingRanges= new ArrayList<>();
+
+	/** Whether a document change is in progress. */
+	private boolean fChanging;
+
+	/**
+	 * Starts tracking the given document. Initially the whole document is considered changed.
+	 *
+	 * @param document the document to track
+	 */
+	public void install(IDocument document) {
+		uninstall();
+		synchronized (this) {
+			fDocument= document;
+		}
+		document.addDocumentListener(this);
+		document.addDocumentPartitioningListener(this);
+		markAll();
+	}
+
+	/**
+	 * Stops tracking the current document, if any, and forgets all changes.
+	 */
+	public void uninstall() {
+		IDocument document;
+		synchronized (this) {
+			document= fDocument;
+			fDocument= null;
+			fRanges.clear();
+			fPendingRanges.clear();
+			fChanging= false;
+		}
+		if (document != null) {
+			document.removeDocumentListener(this);
+			document.removeDocumentPartitioningListener(this);
+		}
+	}
+
+	/**
+	 * Marks the whole document as changed.
+	 */
+	public void markAll() {
+		IDocument document= getDocument();
+		if (document == null)
+			return;
+		int length= document.getLength();
+		synchronized (this) {
+			if (fDocument == document) {
+				fRanges.clear();
+				fRanges.add(new int[] { 0, length });
+			}
+		}
+	}
+
+	/**
+	 * Marks the given regions as changed again, for example because checking them was canceled.
+	 * Parts outside the document are ignored.
+	 *
+	 * @param regions the regions to mark
+	 */
+	public void mark(IRegion[] regions) {
+		IDocument document= getDocument();
+		if (document == null)
+			return;
+		int length= document.getLength();
+		synchronized (this) {
+			if (fDocument != document)
+				return;
+			for (IRegion region : regions) {
+				int start= Math.min(region.getOffset(), length);
+				int end= Math.min(region.getOffset() + region.getLength(), length);
+				add(fRanges, start, end);
+			}
+		}
+	}
+
+	/**
+	 * Forgets all changes recorded so far, for example because they were checked by other means.
+	 */
+	public synchronized void reset() {
+		fRanges.clear();
+	}
+
+	/**
+	 * Returns whether there are changes that have not been taken yet.
+	 *
+	 * @return <code>true</code> if there are pending changes
+	 */
+	public synchronized boolean hasChanges() {
+		return !fRanges.isEmpty();
+	}
+
+	/**
+	 * Returns the lines touched since the last call and forgets them. Adjacent lines are merged
+	 * into a single region which spans from the start of its first line to the end of its last
+	 * line, excluding the trailing line delimiter.
+	 * <p>
+	 * The document is queried after the monitor of this tracker has been released: a
+	 * synchronizable document takes its lock object for queries and notifies this tracker while
+	 * holding it. Changes that happen in between are recorded again and returned by the next
+	 * call.
+	 * </p>
+	 *
+	 * @return the changed lines in ascending order, never <code>null</code>
+	 */
+	public IRegion[] takeChangedLines() {
+		IDocument document;
+		int[][] ranges;
+		synchronized (this) {
+			if (fDocument == null || fRanges.isEmpty())
+				return new IRegion[0];
+			document= fDocument;
+			ranges= new int[fRanges.size()][];
+			for (int i= 0; i < ranges.length; i++)
+				ranges[i]= fRanges.get(i).clone();
+			fRanges.clear();
+		}
+
+		List<IRegion> lines= new ArrayList<>(ranges.length);
+		try {
+			int length= document.getLength();
+			int lastEnd= -1;
+			for (int[] range : ranges) {
+				IRegion first= document.getLineInformationOfOffset(Math.min(range[0], length));
+				IRegion last= document.getLineInformationOfOffset(Math.min(range[1], length));
+				int start= first.getOffset();
+				int end= last.getOffset() + last.getLength();
+				if (lastEnd >= 0 && start <= lastEnd + getLineDelimiterLength(document, lastEnd)) {
+					IRegion previous= lines.remove(lines.size() - 1);
+					start= previous.getOffset();
+				}
+				lines.add(new Region(start, end - start));
+				lastEnd= end;
+			}
+		} catch (BadLocationException e) {
+			lines.clear();
+			lines.add(new Region(0, document.getLength()));
+		}
+		return lines.toArray(new IRegion[lines.size()]);
+	}
+
+	/**
+	 * Returns the tracked document.
+	 *
+	 * @return the document or <code>null</code> if not installed
+	 */
+	private synchronized IDocument getDocument() {
+		return fDocument;
+	}
+
+	/**
+	 * Returns the length of the line delimiter that starts at the given offset.
+	 *
+	 * @param document the document
+	 * @param offset the end offset of a line
+	 * @return the length of the delimiter or <code>0</code> for the last line
+	 * @throws BadLocationException if the offset is invalid
+	 */
+	private static int getLineDelimiterLength(IDocument document, int offset) throws BadLocationException {
+		String delimiter= document.getLineDelimiter(document.getLineOfOffset(offset));
+		return delimiter == null ? 0 : delimiter.length();
+	}
+
+	@Override
+	public synchronized void documentAboutToBeChanged(DocumentEvent event) {
+		fChanging= true;
+	}
+
+	@Override
+	public synchronized void documentChanged(DocumentEvent event) {
+		int offset= event.getOffset();
+		int oldEnd= offset + event.getLength();
+		int newEnd= offset + (event.getText() == null ? 0 : event.getText().length());
+		int delta= newEnd - oldEnd;
+
+		List<int[]> shifted= new ArrayList<>(fRanges.size() + 1);
+		for (int[] range : fRanges) {
+			if (range[1] < offset) {
+				shifted.add(range);
+			} else if (range[0] > oldEnd) {
+				range[0]+= delta;
+				range[1]+= delta;
+				shifted.add(range);
+			} else {
+				int start= Math.min(range[0], offset);
+				int end= range[1] > oldEnd ? range[1] + delta : newEnd;
+				add(shifted, start, end);
+			}
+		}
+		add(shifted, offset, newEnd);
+		for (int[] range : fPendingRanges)
+			add(shifted, range[0], range[1]);
+		fPendingRanges.clear();
+		fChanging= false;
+
+		fRanges.clear();
+		fRanges.addAll(shifted);
+	}
+
+	@Override
+	public void documentPartitioningChanged(IDocument document) {
+		// superseded by documentPartitioningChanged(DocumentPartitioningChangedEvent)
+	}
+
+	@Override
+	public synchronized void documentPartitioningChanged(DocumentPartitioningChangedEvent event) {
+		IRegion coverage= event.getCoverage();
+		if (coverage != null)
+			add(fChanging ? fPendingRanges : fRanges, coverage.getOffset(), coverage.getOffset() + coverage.getLength());
+	}
+
+	/**
+	 * Adds the range <code>[start, end]</code> to the given sorted, disjoint list, merging it with
+	 * all ranges it overlaps or touches.
+	 *
+	 * @param ranges the list of ranges
+	 * @param start the start offset
+	 * @param end the end offset
+	 */
+	private static void add(List<int[]> ranges, int start, int end) {
+		int index= 0;
+		while (index < ranges.size() && ranges.get(index)[1] < start)
+			index++;
+		while (index < ranges.size() && ranges.get(index)[0] <= end) {
+			int[] range= ranges.remove(index);
+			start= Math.min(start, range[0]);
+			end= Math.max(end, range[1]);
+		}
+		ranges.add(index, new int[] { start, end });
+	}
+}
@@ -126,6 +126,8 @@ final class EditorMessages extends NLS {
 	public static String FindReplace_Status_selection_label;
 	public static String FindReplace_Status_selections_label;
 	public static String FindReplace_Status_wrapped_label;
+	public static String FindReplace_Status_replaceAllCanceled_label;
+	public static String FindReplace_ReplaceAll_taskName;
 	public static String FindNext_Status_noMatch_label;
 	public static String AbstractDocumentProvider_ok;
 	public static String AbstractDocumentProvider_error;
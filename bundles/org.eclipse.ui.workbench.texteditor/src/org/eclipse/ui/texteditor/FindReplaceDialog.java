@@ -15,6 +15,7 @@
  *******************************************************************************/
 package org.eclipse.ui.texteditor;
 
+import java.lang.reflect.InvocationTargetException;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.HashMap;
@@ -45,14 +46,20 @@ import org.eclipse.swt.widgets.Button;
 import org.eclipse.swt.widgets.Combo;
 import org.eclipse.swt.widgets.Composite;
 import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Group;
 import org.eclipse.swt.widgets.Label;
 import org.eclipse.swt.widgets.Shell;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.ProgressMonitorWrapper;
+
 import org.eclipse.jface.action.LegacyActionTools;
 import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.IDialogSettings;
+import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.jface.fieldassist.ComboContentAdapter;
 import org.eclipse.jface.fieldassist.FieldDecoration;
 import org.eclipse.jface.fieldassist.FieldDecorationRegistry;
@@ -65,6 +72,7 @@ import org.eclipse.jface.text.IFindReplaceTarget;
 import org.eclipse.jface.text.IFindReplaceTargetExtension;
 import org.eclipse.jface.text.IFindReplaceTargetExtension3;
 import org.eclipse.jface.text.IFindReplaceTargetExtension4;
+import org.eclipse.jface.text.IFindReplaceTargetExtension5;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.TextUtilities;
@@ -1381,9 +1389,16 @@ class FindReplaceDialog extends Dialog {
 			}
 
 			try {
-				ReplaceAllRunnable runnable= new ReplaceAllRunnable();
-				BusyIndicator.showWhile(fActiveShell.getDisplay(), runnable);
-				replaceCount= runnable.numberOfOccurrences;
+				replaceCount= -1;
+				if (fTarget instanceof IFindReplaceTargetExtension5)
+					replaceCount= replaceAllInOneChange(findString, replaceString == null ? "" : replaceString, //$NON-NLS-1$
+							isCaseSensitiveSearch(), isWholeWordSearch(), isRegExSearchAvailableAndChecked());
+
+				if (replaceCount == -1) {
+					ReplaceAllRunnable runnable= new ReplaceAllRunnable();
+					BusyIndicator.showWhile(fActiveShell.getDisplay(), runnable);
+					replaceCount= runnable.numberOfOccurrences;
+				}
 
 				if (replaceCount != 0) {
 					if (replaceCount == 1) { // not plural
@@ -1397,6 +1412,8 @@ class FindReplaceDialog extends Dialog {
 					String msg= NLSUtility.format(EditorMessages.FindReplace_Status_noMatchWithValue_label, findString);
 					statusMessage(false, EditorMessages.FindReplace_Status_noMatch_label, msg);
 				}
+			} catch (OperationCanceledException ex) {
+				statusMessage(EditorMessages.FindReplace_Status_replaceAllCanceled_label);
 			} catch (PatternSyntaxException ex) {
 				statusError(ex.getLocalizedMessage());
 			} catch (IllegalStateException ex) {
@@ -1407,6 +1424,95 @@ class FindReplaceDialog extends Dialog {
 		updateButtonState();
 	}
 
+	/**
+	 * Replaces all occurrences of the user's findString with the replace string
+	 * as a single change of the target. A progress dialog allowing to cancel the
+	 * operation is shown if the replacement takes a while.
+	 *
+	 * @param findString the string to search for
+	 * @param replaceString the replacement string
+	 * @param caseSensitive should the search be case sensitive
+	 * @param wholeWord does the search string represent a complete word
+	 * @param regExSearch if <code>true</code> findString represents a regular expression
+	 * @return the number of occurrences, or -1 if the target cannot replace all
+	 *         occurrences in one change
+	 * @throws OperationCanceledException if the user canceled the operation
+	 */
+	private int replaceAllInOneChange(String findString, String replaceString, boolean caseSensitive, boolean wholeWord,
+			boolean regExSearch) {
+
+		if (!validateTargetState())
+			return 0;
+
+		IFindReplaceTargetExtension5 target= (IFindReplaceTargetExtension5) fTarget;
+		ProgressMonitorDialog dialog= new ProgressMonitorDialog(fActiveShell);
+		dialog.setOpenOnRun(false);
+		int[] replaceCount= new int[1];
+		try {
+			dialog.run(false, true, monitor -> {
+				try {
+					replaceCount[0]= target.replaceAll(findString, replaceString, caseSensitive, wholeWord, regExSearch,
+							new DelayedProgressMonitor(monitor, dialog));
+				} catch (OperationCanceledException e) {
+					throw new InterruptedException();
+				}
+			});
+		} catch (InvocationTargetException e) {
+			if (e.getCause() instanceof RuntimeException)
+				throw (RuntimeException) e.getCause();
+			throw new IllegalStateException(e.getCause());
+		} catch (InterruptedException e) {
+			throw new OperationCanceledException();
+		}
+		return replaceCount[0];
+	}
+
+	/**
+	 * Progress monitor for operations running in the UI thread of a progress
+	 * dialog that is not opened on run. Opens the dialog if the operation takes
+	 * longer than a short delay and from then on dispatches pending events from
+	 * time to time, so that the operation can be canceled.
+	 */
+	private static class DelayedProgressMonitor extends ProgressMonitorWrapper {
+
+		/** The delay after which the progress dialog is opened, in milliseconds. */
+		private static final long OPEN_DELAY= 500;
+		/** The interval in which events are dispatched, in milliseconds. */
+		private static final long DISPATCH_INTERVAL= 100;
+
+		private final ProgressMonitorDialog fDialog;
+		private final long fStartTime= System.currentTimeMillis();
+		private long fLastDispatchTime= fStartTime;
+
+		DelayedProgressMonitor(IProgressMonitor monitor, ProgressMonitorDialog dialog) {
+			super(monitor);
+			fDialog= dialog;
+		}
+
+		@Override
+		public void beginTask(String name, int totalWork) {
+			super.beginTask(EditorMessages.FindReplace_ReplaceAll_taskName, totalWork);
+		}
+
+		@Override
+		public boolean isCanceled() {
+			long now= System.currentTimeMillis();
+			if (now - fLastDispatchTime >= DISPATCH_INTERVAL) {
+				fLastDispatchTime= now;
+				if (fDialog.getShell() == null && now - fStartTime >= OPEN_DELAY)
+					fDialog.open();
+				// only run the event loop while the modal progress dialog blocks the other shells
+				if (fDialog.getShell() != null) {
+					Display display= fDialog.getShell().getDisplay();
+					while (display.readAndDispatch()) {
+						// dispatch all pending events
+					}
+				}
+			}
+			return super.isCanceled();
+		}
+	}
+
 	/**
 	 * Replaces all occurrences of the user's findString with the replace string.
 	 * Indicate to the user the number of replacements that occur.
@@ -16,10 +16,13 @@ package org.eclipse.ui.texteditor;
 import org.eclipse.swt.graphics.Color;
 import org.eclipse.swt.graphics.Point;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import org.eclipse.jface.text.IFindReplaceTarget;
 import org.eclipse.jface.text.IFindReplaceTargetExtension;
 import org.eclipse.jface.text.IFindReplaceTargetExtension3;
 import org.eclipse.jface.text.IFindReplaceTargetExtension4;
+import org.eclipse.jface.text.IFindReplaceTargetExtension5;
 import org.eclipse.jface.text.IRegion;
 
 
@@ -28,7 +31,7 @@ import org.eclipse.jface.text.IRegion;
  * @since 2.1
  */
 class FindReplaceTarget implements IFindReplaceTarget, IFindReplaceTargetExtension, IFindReplaceTargetExtension2,
-		IFindReplaceTargetExtension3, IFindReplaceTargetExtension4 {
+		IFindReplaceTargetExtension3, IFindReplaceTargetExtension4, IFindReplaceTargetExtension5 {
 
 	/** The editor */
 	private AbstractTextEditor fEditor;
@@ -92,6 +95,13 @@ class FindReplaceTarget implements IFindReplaceTarget, IFindReplaceTargetExtensi
 		return -1;
 	}
 
+	@Override
+	public int replaceAll(String findString, String replaceString, boolean caseSensitive, boolean wholeWord, boolean regExSearch, IProgressMonitor monitor) {
+		if (getTarget() instanceof IFindReplaceTargetExtension5)
+			return ((IFindReplaceTargetExtension5)getTarget()).replaceAll(findString, replaceString, caseSensitive, wholeWord, regExSearch, monitor);
+		return -1;
+	}
+
 	@Override
 	public Point getSelection() {
 		if (getTarget() != null)
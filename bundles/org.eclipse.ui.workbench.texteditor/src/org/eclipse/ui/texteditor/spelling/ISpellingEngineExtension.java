@@ -0,0 +1,43 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.texteditor.spelling;
+
+/**
+ * Extension interface for {@link ISpellingEngine}.
+ * <p>
+ * Allows a spelling engine to declare that several regions of a document may be checked
+ * concurrently.
+ * </p>
+ * <p>
+ * This interface is intended to be implemented by clients.
+ * </p>
+ *
+ * @since 3.18
+ */
+public interface ISpellingEngineExtension {
+
+	/**
+	 * Tells whether {@link ISpellingEngine#check(org.eclipse.jface.text.IDocument,
+	 * org.eclipse.jface.text.IRegion[], SpellingContext, ISpellingProblemCollector,
+	 * org.eclipse.core.runtime.IProgressMonitor) check} may be called by several threads at the
+	 * same time, on different instances of this engine, with the same document and context.
+	 * The collector passed to concurrent calls is thread-safe.
+	 * <p>
+	 * Engines that do not implement this interface are only called by one thread at a time.
+	 * </p>
+	 *
+	 * @return <code>true</code> if this engine can check regions concurrently
+	 */
+	boolean isThreadSafe();
+}
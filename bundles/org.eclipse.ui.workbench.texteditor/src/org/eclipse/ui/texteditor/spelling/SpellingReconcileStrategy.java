@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2008 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,11 +14,20 @@
 package org.eclipse.ui.texteditor.spelling;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import org.eclipse.core.runtime.Assert;
 import org.eclipse.core.runtime.IProgressMonitor;
@@ -30,6 +39,8 @@ import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ISynchronizable;
+import org.eclipse.jface.text.ITextViewer;
+import org.eclipse.jface.text.ITextViewerLifecycle;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
 import org.eclipse.jface.text.reconciler.DirtyRegion;
@@ -38,15 +49,25 @@ import org.eclipse.jface.text.reconciler.IReconcilingStrategyExtension;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
 import org.eclipse.jface.text.source.IAnnotationModelExtension;
+import org.eclipse.jface.text.source.IAnnotationModelExtension2;
 import org.eclipse.jface.text.source.ISourceViewer;
 
+import org.eclipse.ui.internal.texteditor.spelling.ChangedLinesTracker;
+
 
 /**
  * Reconcile strategy used for spell checking.
+ * <p>
+ * When the whole document is reconciled because it was edited, only the lines changed since the
+ * previous pass are checked again. A whole document pass without edits, e.g. a forced recheck
+ * after the dictionary changed, checks the whole document. If the spelling engine is
+ * {@link ISpellingEngineExtension#isThreadSafe() thread-safe}, large amounts of text are split
+ * into chunks at line boundaries which are checked in parallel.
+ * </p>
  *
  * @since 3.3
  */
-public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension {
+public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconcilingStrategyExtension, ITextViewerLifecycle {
 
 
 	/**
@@ -63,6 +84,12 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 		/** Lock object for modifying the annotations. */
 		private Object fLockObject;
 
+		/**
+		 * The regions whose spelling annotations are replaced, or <code>null</code> to replace all
+		 * spelling annotations.
+		 */
+		private IRegion[] fCheckedRegions;
+
 		/**
 		 * Initializes this collector with the given annotation model.
 		 *
@@ -87,17 +114,34 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 			fAddAnnotations= new HashMap<>();
 		}
 
+		/**
+		 * Restricts the next collecting pass to replace only the spelling annotations overlapping
+		 * the given regions.
+		 *
+		 * @param regions the checked regions or <code>null</code> to replace all spelling
+		 *            annotations
+		 */
+		public void setCheckedRegions(IRegion[] regions) {
+			fCheckedRegions= regions;
+		}
+
 		@Override
 		public void endCollecting() {
 
-			List<Annotation> toRemove= new ArrayList<>();
+			Collection<Annotation> toRemove= fCheckedRegions == null ? new ArrayList<>() : new LinkedHashSet<>();
 
 			synchronized (fLockObject) {
-				Iterator<Annotation> iter= fAnnotationModel.getAnnotationIterator();
-				while (iter.hasNext()) {
-					Annotation annotation= iter.next();
-					if (SpellingAnnotation.TYPE.equals(annotation.getType()))
-						toRemove.add(annotation);
+				if (fCheckedRegions == null) {
+					collectSpellingAnnotations(fAnnotationModel.getAnnotationIterator(), toRemove);
+				} else {
+					for (IRegion region : fCheckedRegions) {
+						Iterator<Annotation> iter;
+						if (fAnnotationModel instanceof IAnnotationModelExtension2)
+							iter= ((IAnnotationModelExtension2)fAnnotationModel).getAnnotationIterator(region.getOffset(), region.getLength(), true, true);
+						else
+							iter= new RegionFilter(fAnnotationModel, region);
+						collectSpellingAnnotations(iter, toRemove);
+					}
 				}
 				Annotation[] annotationsToRemove= toRemove.toArray(new Annotation[toRemove.size()]);
 
@@ -114,9 +158,91 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 			}
 
 			fAddAnnotations= null;
+			fCheckedRegions= null;
+		}
+
+		/**
+		 * Adds the spelling annotations returned by the given iterator to the given collection.
+		 *
+		 * @param iter the annotation iterator
+		 * @param annotations the collection to add to
+		 */
+		private static void collectSpellingAnnotations(Iterator<Annotation> iter, Collection<Annotation> annotations) {
+			while (iter.hasNext()) {
+				Annotation annotation= iter.next();
+				if (SpellingAnnotation.TYPE.equals(annotation.getType()))
+					annotations.add(annotation);
+			}
 		}
 	}
 
+	/**
+	 * Iterator over the annotations of a model that overlap a region, used for models that do
+	 * not implement {@link IAnnotationModelExtension2}.
+	 */
+	private static class RegionFilter implements Iterator<Annotation> {
+
+		private final IAnnotationModel fModel;
+		private final Iterator<Annotation> fIterator;
+		private final Position fRegion;
+		private Annotation fNext;
+
+		public RegionFilter(IAnnotationModel model, IRegion region) {
+			fModel= model;
+			fIterator= model.getAnnotationIterator();
+			fRegion= new Position(region.getOffset(), region.getLength());
+			fNext= findNext();
+		}
+
+		@Override
+		public boolean hasNext() {
+			return fNext != null;
+		}
+
+		@Override
+		public Annotation next() {
+			Annotation next= fNext;
+			fNext= findNext();
+			return next;
+		}
+
+		private Annotation findNext() {
+			while (fIterator.hasNext()) {
+				Annotation annotation= fIterator.next();
+				Position position= fModel.getPosition(annotation);
+				if (position != null && fRegion.overlapsWith(position.getOffset(), position.getLength()))
+					return annotation;
+			}
+			return null;
+		}
+	}
+
+
+	/**
+	 * Number of characters above which changed text is split into chunks that are checked in
+	 * parallel.
+	 */
+	private static final int CHUNK_SIZE= 16 * 1024;
+
+	/**
+	 * Maximum number of threads checking chunks besides the reconciler threads.
+	 */
+	private static final int MAX_CHECKER_THREADS= Math.max(1, Math.min(3, Runtime.getRuntime().availableProcessors() - 1));
+
+	/**
+	 * The threads checking chunks in parallel, shared by all strategies. Its threads end when
+	 * they have been idle for a while.
+	 */
+	private static final ThreadPoolExecutor CHECKER_EXECUTOR;
+
+	static {
+		CHECKER_EXECUTOR= new ThreadPoolExecutor(MAX_CHECKER_THREADS, MAX_CHECKER_THREADS, 10, TimeUnit.SECONDS, new LinkedBlockingQueue<>(), runnable -> {
+			Thread thread= new Thread(runnable, "Spelling Checker"); //$NON-NLS-1$
+			thread.setDaemon(true);
+			return thread;
+		});
+		CHECKER_EXECUTOR.allowCoreThreadTimeOut(true);
+	}
 
 	/** Text content type */
 	private static final IContentType TEXT_CONTENT_TYPE= Platform.getContentTypeManager().getContentType(IContentTypeManager.CT_TEXT);
@@ -143,6 +269,12 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 	 */
 	private IRegion[] fRegions= new IRegion[1];
 
+	/**
+	 * Tracks the lines changed since the last reconcile pass.
+	 * @since 3.18
+	 */
+	private final ChangedLinesTracker fChangedLines= new ChangedLinesTracker();
+
 
 	/**
 	 * Creates a new comment reconcile strategy.
@@ -162,6 +294,7 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 
 	@Override
 	public void initialReconcile() {
+		fChangedLines.markAll();
 		reconcile(new Region(0, fDocument.getLength()));
 	}
 
@@ -178,6 +311,8 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 		} catch (BadLocationException e) {
 			subRegion= new Region(0, fDocument.getLength());
 		}
+		// an incremental reconciler reports every change as a dirty region
+		fChangedLines.reset();
 		reconcile(subRegion);
 	}
 
@@ -186,8 +321,149 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 		if (getAnnotationModel() == null || fSpellingProblemCollector == null)
 			return;
 
-		fRegions[0]= region;
-		fSpellingService.check(fDocument, fRegions, fSpellingContext, fSpellingProblemCollector, fProgressMonitor);
+		if (!(fSpellingProblemCollector instanceof SpellingProblemCollector collector)) {
+			fRegions[0]= region;
+			fSpellingService.check(fDocument, fRegions, fSpellingContext, fSpellingProblemCollector, fProgressMonitor);
+			return;
+		}
+
+		IRegion[] regions;
+		if (region.getOffset() == 0 && region.getLength() == fDocument.getLength() && fChangedLines.hasChanges()) {
+			// the document was edited since the previous pass
+			regions= fChangedLines.takeChangedLines();
+		} else {
+			regions= new IRegion[] { region };
+		}
+		if (regions.length == 0)
+			return;
+
+		Queue<SpellingProblem> problems= new ConcurrentLinkedQueue<>();
+		ISpellingProblemCollector chunkCollector= new ISpellingProblemCollector() {
+			@Override
+			public void accept(SpellingProblem problem) {
+				problems.add(problem);
+			}
+			@Override
+			public void beginCollecting() {
+			}
+			@Override
+			public void endCollecting() {
+			}
+		};
+		boolean completed;
+		if (fSpellingService.isThreadSafe())
+			completed= check(createChunks(regions), chunkCollector);
+		else {
+			fSpellingService.check(fDocument, regions, fSpellingContext, chunkCollector, fProgressMonitor);
+			completed= true;
+		}
+
+		if (!completed || fProgressMonitor != null && fProgressMonitor.isCanceled()) {
+			fChangedLines.mark(regions);
+			return;
+		}
+
+		collector.setCheckedRegions(regions);
+		collector.beginCollecting();
+		for (SpellingProblem problem : problems)
+			collector.accept(problem);
+		collector.endCollecting();
+	}
+
+	/**
+	 * Checks the given chunks. The first chunk is checked in the calling thread while the others
+	 * are checked by the shared checker threads. Chunks which no checker thread has started yet
+	 * are checked in the calling thread as well.
+	 *
+	 * @param chunks the chunks to check
+	 * @param collector the collector for the problems of all chunks
+	 * @return <code>false</code> if the calling thread was interrupted while waiting for the
+	 *         other chunks
+	 */
+	private boolean check(List<IRegion[]> chunks, ISpellingProblemCollector collector) {
+		List<FutureTask<?>> tasks= new ArrayList<>(chunks.size());
+		for (IRegion[] chunk : chunks.subList(1, chunks.size())) {
+			FutureTask<?> task= new FutureTask<>(() -> fSpellingService.check(fDocument, chunk, fSpellingContext, collector, fProgressMonitor), null);
+			CHECKER_EXECUTOR.execute(task);
+			tasks.add(task);
+		}
+		try {
+			fSpellingService.check(fDocument, chunks.get(0), fSpellingContext, collector, fProgressMonitor);
+			for (FutureTask<?> task : tasks) {
+				if (CHECKER_EXECUTOR.remove(task))
+					task.run();
+				try {
+					task.get();
+				} catch (ExecutionException e) {
+					if (e.getCause() instanceof RuntimeException)
+						throw (RuntimeException) e.getCause();
+					throw new IllegalStateException(e.getCause());
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					return false;
+				}
+			}
+		} finally {
+			for (FutureTask<?> task : tasks) {
+				if (CHECKER_EXECUTOR.remove(task))
+					task.cancel(false);
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Groups the given regions into chunks of about {@link #CHUNK_SIZE} characters. Larger
+	 * regions are split at line boundaries.
+	 *
+	 * @param regions the regions to check, in ascending order
+	 * @return the chunks
+	 */
+	private List<IRegion[]> createChunks(IRegion[] regions) {
+		List<IRegion[]> chunks= new ArrayList<>();
+		List<IRegion> chunk= new ArrayList<>();
+		int chunkLength= 0;
+		for (IRegion region : regions) {
+			for (IRegion piece : splitAtLines(region)) {
+				if (!chunk.isEmpty() && chunkLength + piece.getLength() > CHUNK_SIZE) {
+					chunks.add(chunk.toArray(new IRegion[chunk.size()]));
+					chunk.clear();
+					chunkLength= 0;
+				}
+				chunk.add(piece);
+				chunkLength+= piece.getLength();
+			}
+		}
+		if (!chunk.isEmpty())
+			chunks.add(chunk.toArray(new IRegion[chunk.size()]));
+		return chunks;
+	}
+
+	/**
+	 * Splits the given region at line boundaries into pieces of at most {@link #CHUNK_SIZE}
+	 * characters, unless a single line is longer.
+	 *
+	 * @param region the region
+	 * @return the pieces
+	 */
+	private List<IRegion> splitAtLines(IRegion region) {
+		List<IRegion> pieces= new ArrayList<>();
+		int offset= region.getOffset();
+		int end= offset + region.getLength();
+		try {
+			while (end - offset > CHUNK_SIZE) {
+				IRegion line= fDocument.getLineInformationOfOffset(offset + CHUNK_SIZE);
+				int split= line.getOffset() > offset ? line.getOffset() : line.getOffset() + line.getLength();
+				if (split >= end)
+					break;
+				pieces.add(new Region(offset, split - offset));
+				offset= split;
+			}
+		} catch (BadLocationException e) {
+			// check the remainder in one piece
+		}
+		pieces.add(new Region(offset, end - offset));
+		return pieces;
 	}
 
 	/**
@@ -212,9 +488,32 @@ public class SpellingReconcileStrategy implements IReconcilingStrategy, IReconci
 	@Override
 	public void setDocument(IDocument document) {
 		fDocument= document;
+		if (document != null)
+			fChangedLines.install(document);
+		else
+			fChangedLines.uninstall();
 		fSpellingProblemCollector= createSpellingProblemCollector();
 	}
 
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.18
+	 */
+	@Override
+	public void install(ITextViewer textViewer) {
+	}
+
+	/**
+	 * {@inheritDoc}
+	 *
+	 * @since 3.18
+	 */
+	@Override
+	public void uninstall() {
+		fChangedLines.uninstall();
+	}
+
 	/**
 	 * Creates a new spelling problem collector.
 	 *
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2008 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -121,6 +121,25 @@ public class SpellingService {
 		}
 	}
 
+	/**
+	 * Tells whether the active spelling engine may check several regions concurrently.
+	 *
+	 * @return <code>true</code> if spell checking is enabled and the active spelling engine
+	 *         declares itself thread-safe
+	 * @see ISpellingEngineExtension#isThreadSafe()
+	 */
+	boolean isThreadSafe() {
+		if (!fPreferences.getBoolean(PREFERENCE_SPELLING_ENABLED))
+			return false;
+		try {
+			ISpellingEngine engine= createEngine(fPreferences);
+			return engine instanceof ISpellingEngineExtension && ((ISpellingEngineExtension)engine).isThreadSafe();
+		} catch (CoreException x) {
+			TextEditorPlugin.getDefault().getLog().log(x.getStatus());
+			return false;
+		}
+	}
+
 	/**
 	 * Returns all spelling engine descriptors from extensions to the
 	 * spelling engine extension point.
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2019 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -38,6 +38,8 @@ import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.eclipse.core.commands.AbstractHandler;
 import org.eclipse.core.commands.ExecutionEvent;
 import org.eclipse.core.commands.IHandler;
@@ -217,6 +219,14 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private ItemsFilter lastCompletedFilter;
 
+	/**
+	 * Result of the last filtering in the cache, used instead of
+	 * <code>lastCompletedResult</code> if the filter narrows down further.
+	 */
+	private List<Object> lastNarrowedResult;
+
+	private ItemsFilter lastNarrowedFilter;
+
 	private String initialPatternText;
 
 	private int selectionMode;
@@ -225,6 +235,22 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 	private static final String EMPTY_STRING = ""; //$NON-NLS-1$
 
+	/**
+	 * Minimal number of cached items to match them in parallel.
+	 */
+	private static final int PARALLEL_MATCHING_THRESHOLD = 10000;
+
+	/**
+	 * Number of items matched by one parallel task.
+	 */
+	private static final int PARALLEL_MATCHING_CHUNK_SIZE = 2048;
+
+	/**
+	 * Delay in milliseconds between refreshes showing the items found so far
+	 * while a full search is running.
+	 */
+	private static final long STREAMING_REFRESH_DELAY = 200;
+
 	private boolean refreshWithLastSelection = false;
 
 	private IHandlerActivation showViewHandler;
@@ -1935,30 +1961,55 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 			if (lastCompletedFilter != null && lastCompletedFilter.isSubFilter(this.itemsFilter)) {
 
-				int length = lastCompletedResult.size() / 500;
-				monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName, length);
+				// typing more characters narrows down the previous result
+				// further
+				List<Object> cachedItems = lastCompletedResult;
+				if (lastNarrowedFilter != null && lastNarrowedFilter.isSubFilter(this.itemsFilter)) {
+					cachedItems = lastNarrowedResult;
+				}
+
+				if (cachedItems.size() >= PARALLEL_MATCHING_THRESHOLD && itemsFilter.isParallelMatchingSupported()) {
+					monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName, 1);
+					contentProvider.addAll(cachedItems, itemsFilter, monitor);
+					monitor.worked(1);
+				} else {
+					int length = cachedItems.size() / 500;
+					monitor.beginTask(WorkbenchMessages.FilteredItemsSelectionDialog_cacheSearchJob_taskName,
+							length);
 
-				for (int pos = 0; pos < lastCompletedResult.size(); pos++) {
+					for (int pos = 0; pos < cachedItems.size(); pos++) {
 
-					Object item = lastCompletedResult.get(pos);
-					if (monitor.isCanceled())
-						break;
-					contentProvider.add(item, itemsFilter);
+						Object item = cachedItems.get(pos);
+						if (monitor.isCanceled())
+							break;
+						contentProvider.add(item, itemsFilter);
 
-					if ((pos % 500) == 0) {
-						monitor.worked(1);
+						if ((pos % 500) == 0) {
+							monitor.worked(1);
+						}
 					}
 				}
 
+				if (!monitor.isCanceled()) {
+					contentProvider.rememberNarrowedResult(itemsFilter);
+				}
+
 			} else {
 
 				lastCompletedFilter = null;
 				lastCompletedResult = null;
+				lastNarrowedFilter = null;
+				lastNarrowedResult = null;
 
 				SubMonitor subMonitor = SubMonitor.convert(monitor,
 						WorkbenchMessages.FilteredItemsSelectionDialog_searchJob_taskName, 100);
 
-				fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				contentProvider.startStreaming();
+				try {
+					fillContentProvider(contentProvider, itemsFilter, subMonitor.split(95));
+				} finally {
+					contentProvider.stopStreaming();
+				}
 
 				if (monitor != null && !monitor.isCanceled()) {
 					subMonitor.worked(2);
@@ -2286,6 +2337,20 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		public abstract boolean matchItem(Object item);
 
+		/**
+		 * Returns whether {@link #matchItem(Object)} can be called from several
+		 * threads at the same time. If so, large numbers of cached items are matched
+		 * in parallel when the filter narrows down the previous result. The default
+		 * implementation returns <code>false</code>.
+		 *
+		 * @return <code>true</code> if this filter is thread safe,
+		 *         <code>false</code> otherwise
+		 * @since 3.131
+		 */
+		public boolean isParallelMatchingSupported() {
+			return false;
+		}
+
 		/**
 		 * Checks consistency of an item. Item is inconsistent if was changed or
 		 * removed.
@@ -2379,6 +2444,12 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 		 */
 		private boolean reset;
 
+		/**
+		 * Time at which the items found so far are shown next, or <code>0</code>
+		 * if no full search is running.
+		 */
+		private volatile long nextStreamingRefresh;
+
 		/**
 		 * Creates new instance of <code>ContentProvider</code>.
 		 */
@@ -2438,9 +2509,59 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 				} else {
 					this.items.add(item);
 				}
+				long streamingRefresh = nextStreamingRefresh;
+				if (streamingRefresh != 0 && System.currentTimeMillis() >= streamingRefresh) {
+					nextStreamingRefresh = System.currentTimeMillis() + STREAMING_REFRESH_DELAY;
+					scheduleRefresh();
+				}
 			}
 		}
 
+		/**
+		 * Matches the given items in parallel and adds the matching ones. The
+		 * filter must support parallel matching.
+		 *
+		 * @param candidates  the items to match
+		 * @param itemsFilter the filter to match
+		 * @param monitor     progress monitor, checked for cancellation
+		 */
+		public void addAll(List<Object> candidates, ItemsFilter itemsFilter, IProgressMonitor monitor) {
+			if (itemsFilter != filter) {
+				return;
+			}
+			Object[] array = candidates.toArray();
+			int chunkCount = (array.length + PARALLEL_MATCHING_CHUNK_SIZE - 1) / PARALLEL_MATCHING_CHUNK_SIZE;
+			List<Object> matches = IntStream.range(0, chunkCount).parallel().mapToObj(chunk -> {
+				List<Object> chunkMatches = new ArrayList<>();
+				int end = Math.min(array.length, (chunk + 1) * PARALLEL_MATCHING_CHUNK_SIZE);
+				for (int i = chunk * PARALLEL_MATCHING_CHUNK_SIZE; i < end && !monitor.isCanceled(); i++) {
+					if (itemsFilter.matchItem(array[i])) {
+						chunkMatches.add(array[i]);
+					}
+				}
+				return chunkMatches;
+			}).flatMap(List::stream).collect(Collectors.toList());
+			if (itemsFilter == filter && !monitor.isCanceled()) {
+				this.items.addAll(matches);
+			}
+		}
+
+		/**
+		 * Shows the items found so far in regular intervals until
+		 * {@link #stopStreaming()} is called, so that the first results of a long
+		 * search appear early.
+		 */
+		public void startStreaming() {
+			nextStreamingRefresh = System.currentTimeMillis() + STREAMING_REFRESH_DELAY;
+		}
+
+		/**
+		 * Stops showing intermediate results.
+		 */
+		public void stopStreaming() {
+			nextStreamingRefresh = 0;
+		}
+
 		/**
 		 * Add all history items to <code>contentProvider</code>.
 		 *
@@ -2603,6 +2724,20 @@ public abstract class FilteredItemsSelectionDialog extends SelectionStatusDialog
 
 		}
 
+		/**
+		 * Remembers the result of filtering the cached items, so that a filter
+		 * narrowing down further only needs to match these items.
+		 *
+		 * @param itemsFilter the filter
+		 */
+		public void rememberNarrowedResult(ItemsFilter itemsFilter) {
+			List<Object> itemsList = Arrays.asList(items.toArray());
+			if (itemsFilter == filter) {
+				lastNarrowedFilter = itemsFilter;
+				lastNarrowedResult = itemsList;
+			}
+		}
+
 		@Override
 		public Object[] getElements(Object inputElement) {
 			return lastFilteredItems.toArray();
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -325,4 +325,16 @@ public interface IPreferenceConstants {
 	 */
 	String SHOW_KEYS_TIME_TO_CLOSE = "showCommandKeys_timeToClose"; //$NON-NLS-1$
 
+	/**
+	 * Preference for whether decoded images are kept in the workspace metadata,
+	 * so that they do not need to be decoded again on the next start. The
+	 * preference is read once when the workbench starts.
+	 * <p>
+	 * The boolean default value for this preference is: <code>false</code>.
+	 * </p>
+	 *
+	 * @since 3.131
+	 */
+	String IMAGE_DATA_CACHE = "IMAGE_DATA_CACHE"; //$NON-NLS-1$
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2021 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,12 +14,14 @@
 
 package org.eclipse.ui.internal;
 
+import org.eclipse.core.runtime.IPath;
 import org.eclipse.core.runtime.IStatus;
 import org.eclipse.core.runtime.Platform;
 import org.eclipse.core.runtime.SafeRunner;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences;
 import org.eclipse.core.runtime.preferences.IEclipsePreferences.NodeChangeEvent;
 import org.eclipse.core.runtime.preferences.InstanceScope;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.internal.InternalPolicy;
 import org.eclipse.jface.preference.JFacePreferences;
 import org.eclipse.jface.util.Policy;
@@ -123,4 +125,20 @@ final class JFaceUtil {
 
 		JFacePreferences.setPreferenceStore(WorkbenchPlugin.getDefault().getPreferenceStore());
 	}
+
+	/**
+	 * Lets JFace keep decoded images in the state location of the workbench, so
+	 * that they do not need to be decoded again on the next start. Nothing is
+	 * done unless {@link IPreferenceConstants#IMAGE_DATA_CACHE} is set. This must
+	 * not be called before the workspace has been chosen.
+	 */
+	public static void initializeImageDataCache() {
+		if (!WorkbenchPlugin.getDefault().getPreferenceStore().getBoolean(IPreferenceConstants.IMAGE_DATA_CACHE)) {
+			return;
+		}
+		IPath location = WorkbenchPlugin.getDefault().getDataLocation();
+		if (location != null) {
+			ImageDataCache.getInstance().setDirectory(location.append("imageCache").toPath()); //$NON-NLS-1$
+		}
+	}
 }
@@ -1648,6 +1648,7 @@ public final class Workbench extends EventManager implements IWorkbench, org.ecl
 
 		// Set up the JFace preference store
 		JFaceUtil.initializeJFacePreferences();
+		JFaceUtil.initializeImageDataCache();
 
 		// TODO Correctly order service initialization
 		// there needs to be some serious consideration given to
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2020 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -87,6 +87,7 @@ public class WorkbenchPreferenceInitializer extends AbstractPreferenceInitialize
 		node.putInt(IPreferenceConstants.KEYS_PREFERENCE_SELECTED_TAB, 0);
 		node.putBoolean(IPreferenceConstants.MULTI_KEY_ASSIST, true);
 		node.putInt(IPreferenceConstants.MULTI_KEY_ASSIST_TIME, 1000);
+		node.putBoolean(IPreferenceConstants.IMAGE_DATA_CACHE, false);
 
 		// Temporary option to enable wizard for project capability
 		node.putBoolean("ENABLE_CONFIGURABLE_PROJECT_WIZARD", false); //$NON-NLS-1$
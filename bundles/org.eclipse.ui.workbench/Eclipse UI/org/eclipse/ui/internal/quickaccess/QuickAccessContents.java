@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2005, 2020 IBM Corporation and others.
+ * Copyright (c) 2005, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -387,14 +387,14 @@ public abstract class QuickAccessContents {
 				continue;
 			}
 			if (!filter.isEmpty() || isPreviousPickProvider || showAllMatches) {
-				AtomicReference<List<QuickAccessElement>> sortedElementRef = new AtomicReference<>();
+				AtomicReference<QuickAccessElement[]> sortedElementRef = new AtomicReference<>();
 				if (provider.requiresUiAccess()) {
 					UIJob job = new UIJob(
 							NLS.bind(QuickAccessMessages.QuickAccessContents_processingProviderInUI,
 									provider.getName())) {
 						@Override
 						public IStatus runInUIThread(IProgressMonitor monitor) {
-							sortedElementRef.set(Arrays.asList(provider.getElementsSorted(finalFilter, monitor)));
+							sortedElementRef.set(provider.getElementsSorted(finalFilter, monitor));
 							return Status.OK_STATUS;
 						}
 					};
@@ -406,19 +406,19 @@ public abstract class QuickAccessContents {
 						WorkbenchPlugin.log(e);
 					}
 				} else {
-					sortedElementRef.set(Arrays.asList(provider.getElementsSorted(filter, aMonitor)));
-				}
-				List<QuickAccessElement> sortedElements = sortedElementRef.get();
-				if (sortedElements == null) {
-					sortedElements = Collections.emptyList();
+					sortedElementRef.set(provider.getElementsSorted(filter, aMonitor));
 				}
+				QuickAccessElement[] sortedArray = sortedElementRef.get();
+				List<QuickAccessElement> sortedElements = sortedArray == null ? Collections.emptyList()
+						: Arrays.asList(sortedArray);
 				if (!(provider instanceof PreviousPicksProvider)) {
 					for (QuickAccessElement element : sortedElements) {
 						elementsToProviders.put(element, provider);
 					}
 				}
 				if (!filter.isEmpty() && !sortedElements.isEmpty()) {
-					sortedElements = putPrefixMatchFirst(sortedElements, filter);
+					// skip elements which cannot match, prefix matches first
+					sortedElements = provider.getIndex(sortedArray).getCandidates(filter);
 				}
 				elementsForProviders.put(provider, new ArrayList<>(sortedElements));
 			}
@@ -533,34 +533,6 @@ public abstract class QuickAccessContents {
 		return (List<QuickAccessEntry>[]) res.toArray(new List<?>[res.size()]);
 	}
 
-	/*
-	 * Consider whether we could directly check the "matchQuality" here, but it
-	 * seems to be a more expensive operation
-	 */
-	private static List<QuickAccessElement> putPrefixMatchFirst(List<QuickAccessElement> elements, String prefix) {
-		List<QuickAccessElement> res = new ArrayList<>(elements);
-		List<Integer> matchingIndexes = new ArrayList<>();
-		for (int i = 0; i < elements.size(); i++) {
-			if (elements.get(i).getLabel().toLowerCase().startsWith(prefix.toLowerCase())) {
-				matchingIndexes.add(Integer.valueOf(i));
-			}
-		}
-		int currentMatchIndex = 0;
-		int currentNonMatchIndex = matchingIndexes.size();
-		for (int i = 0; i < res.size(); i++) {
-			boolean isMatch = !matchingIndexes.isEmpty() && matchingIndexes.iterator().next().intValue() == i;
-			if (isMatch) {
-				matchingIndexes.remove(0);
-				res.set(currentMatchIndex, elements.get(i));
-				currentMatchIndex++;
-			} else {
-				res.set(currentNonMatchIndex, elements.get(i));
-				currentNonMatchIndex++;
-			}
-		}
-		return res;
-	}
-
 	Pattern categoryPattern;
 
 	/**
@@ -0,0 +1,136 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.internal.quickaccess;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+
+/**
+ * Precomputed data of the sorted elements of a {@link QuickAccessProvider}, so
+ * that the elements worth to be passed to {@link QuickAccessMatcher} can be
+ * found quickly for every keystroke.
+ * <p>
+ * For every element the index holds its lowercase label and a signature: a
+ * bit set of the letters and digits occurring in its label, match label and
+ * provider name. An element can only match a filter if its signature
+ * contains all letters and digits of the filter, which is checked without
+ * touching any string.
+ * </p>
+ *
+ * @noreference This class is not intended to be referenced by clients.
+ */
+public final class QuickAccessIndex {
+
+	/**
+	 * Characters which give a filter a regular expression meaning that
+	 * {@link QuickAccessMatcher} does not escape, so that a match does not need
+	 * to contain all characters of the filter.
+	 */
+	private static final String UNSAFE_CHARS = "|[]{}\\+^$"; //$NON-NLS-1$
+
+	private final QuickAccessElement[] elements;
+
+	private final String[] lowerCaseLabels;
+
+	private final long[] signatures;
+
+	/**
+	 * Creates an index for the given elements.
+	 *
+	 * @param provider       the provider of the elements
+	 * @param sortedElements the elements in the order they should be shown
+	 */
+	public QuickAccessIndex(QuickAccessProvider provider, QuickAccessElement[] sortedElements) {
+		this.elements = sortedElements;
+		this.lowerCaseLabels = new String[sortedElements.length];
+		this.signatures = new long[sortedElements.length];
+		String providerName = provider.getName();
+		long providerSignature = providerName == null ? 0 : getSignature(providerName);
+		for (int i = 0; i < sortedElements.length; i++) {
+			QuickAccessElement element = sortedElements[i];
+			String label = element.getLabel();
+			String matchLabel = element.getMatchLabel();
+			lowerCaseLabels[i] = label.toLowerCase();
+			signatures[i] = providerSignature | getSignature(label) | getSignature(lowerCaseLabels[i])
+					| getSignature(matchLabel) | getSignature(matchLabel.toLowerCase());
+		}
+	}
+
+	/**
+	 * @return the number of elements in the index
+	 */
+	public int size() {
+		return elements.length;
+	}
+
+	/**
+	 * Returns the elements which may match the given filter, in the order of the
+	 * index. Elements whose label starts with the filter come first.
+	 *
+	 * @param filter the filter text in lower case
+	 * @return the candidates for matching
+	 */
+	public List<QuickAccessElement> getCandidates(String filter) {
+		long required = getRequiredSignature(filter);
+		String prefix = filter.toLowerCase();
+		List<QuickAccessElement> prefixMatches = new ArrayList<>();
+		List<QuickAccessElement> others = new ArrayList<>();
+		for (int i = 0; i < elements.length; i++) {
+			if ((signatures[i] & required) != required) {
+				continue;
+			}
+			if (lowerCaseLabels[i].startsWith(prefix)) {
+				prefixMatches.add(elements[i]);
+			} else {
+				others.add(elements[i]);
+			}
+		}
+		prefixMatches.addAll(others);
+		return prefixMatches;
+	}
+
+	/**
+	 * Returns the signature which the elements matching the given filter must
+	 * contain, or <code>0</code> if any element may match.
+	 */
+	private static long getRequiredSignature(String filter) {
+		for (int i = 0; i < filter.length(); i++) {
+			if (UNSAFE_CHARS.indexOf(filter.charAt(i)) != -1) {
+				return 0;
+			}
+		}
+		return getSignature(filter);
+	}
+
+	/**
+	 * Returns a bit set of the ASCII letters, case-insensitively, and digits in
+	 * the given string.
+	 */
+	static long getSignature(String s) {
+		long signature = 0;
+		for (int i = 0; i < s.length(); i++) {
+			char c = s.charAt(i);
+			if (c >= 'a' && c <= 'z') {
+				signature |= 1L << (c - 'a');
+			} else if (c >= 'A' && c <= 'Z') {
+				signature |= 1L << (c - 'A');
+			} else if (c >= '0' && c <= '9') {
+				signature |= 1L << (26 + c - '0');
+			}
+		}
+		return signature;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Red Hat Inc. and others.
+ * Copyright (c) 2019, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -42,9 +42,23 @@ public final class QuickAccessMatcher {
 	private static final String PAR_END = "\\)"; //$NON-NLS-1$
 	private static final String ONE_CHAR = ".?"; //$NON-NLS-1$
 
-	// whitespaces filter and patterns
-	private String wsFilter;
-	private Pattern wsPattern;
+	/**
+	 * A pattern together with the filter it was created for. A matcher is
+	 * created for every element, so the last patterns are shared by all
+	 * matchers instead of being compiled again for every element.
+	 */
+	private static final class CompiledFilter {
+		final String filter;
+		final Pattern pattern;
+
+		CompiledFilter(String filter, Pattern pattern) {
+			this.filter = filter;
+			this.pattern = pattern;
+		}
+	}
+
+	// whitespaces filter and pattern
+	private static volatile CompiledFilter wsFilter;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new one.
@@ -53,20 +67,20 @@ public final class QuickAccessMatcher {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWhitespacesPattern(String filter) {
-		if (wsPattern == null || !filter.equals(wsFilter)) {
-			wsFilter = filter;
+	private static Pattern getWhitespacesPattern(String filter) {
+		CompiledFilter compiled = wsFilter;
+		if (compiled == null || !filter.equals(compiled.filter)) {
 			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			sFilter = String.format(".*(%s).*", sFilter.replaceAll(ANY_WS, ").*(")); //$NON-NLS-1$//$NON-NLS-2$
-			wsPattern = safeCompile(sFilter);
+			compiled = new CompiledFilter(filter, safeCompile(sFilter));
+			wsFilter = compiled;
 		}
-		return wsPattern;
+		return compiled.pattern;
 	}
 
-	// wildcard filter and patterns
-	private String wcFilter;
-	private Pattern wcPattern;
+	// wildcard filter and pattern
+	private static volatile CompiledFilter wcFilter;
 
 	/**
 	 * Get the existing {@link Pattern} for the given filter, or create a new one.
@@ -75,11 +89,11 @@ public final class QuickAccessMatcher {
 	 * @param filter
 	 * @return
 	 */
-	private Pattern getWildcardsPattern(String filter) {
+	private static Pattern getWildcardsPattern(String filter) {
 		// squash consecutive **** into a single *
 		filter = filter.replaceAll("\\*+", "*"); //$NON-NLS-1$ //$NON-NLS-2$
-		if (wcPattern == null || !filter.equals(wcFilter)) {
-			wcFilter = filter;
+		CompiledFilter compiled = wcFilter;
+		if (compiled == null || !filter.equals(compiled.filter)) {
 			String sFilter = filter.replaceFirst(WS_WILD_START, EMPTY_STR).replaceFirst(WS_WILD_END, EMPTY_STR)
 					.replaceAll(PAR_START, ONE_CHAR).replaceAll(PAR_END, ONE_CHAR);
 			// replace '*' and '?' with their matchers ").*(" and ").?("
@@ -105,9 +119,10 @@ public final class QuickAccessMatcher {
 			// remove empty capturing groups
 			sFilter = sFilter.replace("()", EMPTY_STR); //$NON-NLS-1$
 			//
-			wcPattern = safeCompile(sFilter);
+			compiled = new CompiledFilter(filter, safeCompile(sFilter));
+			wcFilter = compiled;
 		}
-		return wcPattern;
+		return compiled.pattern;
 	}
 
 	/**
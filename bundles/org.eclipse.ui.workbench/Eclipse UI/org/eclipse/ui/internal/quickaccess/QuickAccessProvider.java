@@ -1,5 +1,5 @@
 /*******************************************************************************
-4 * Copyright (c) 2006, 2015 IBM Corporation and others.
+4 * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -33,6 +33,11 @@ public abstract class QuickAccessProvider {
 	 */
 	private QuickAccessElement[] cacheSortedElements;
 
+	/*
+	 * Index of the cached elements, built on first use
+	 */
+	private volatile QuickAccessIndex cacheIndex;
+
 	/**
 	 * Returns the unique ID of this provider.
 	 *
@@ -99,6 +104,26 @@ public abstract class QuickAccessProvider {
 		return res.toArray(new QuickAccessElement[res.size()]);
 	}
 
+	/**
+	 * Returns an index of the given elements, as returned by
+	 * {@link #getElementsSorted(String, IProgressMonitor)}. The index of the
+	 * cached elements is only built once, other elements are indexed again.
+	 *
+	 * @param sortedElements the sorted elements of this provider
+	 * @return the index of the elements
+	 */
+	public QuickAccessIndex getIndex(QuickAccessElement[] sortedElements) {
+		if (sortedElements != cacheSortedElements) {
+			return new QuickAccessIndex(this, sortedElements);
+		}
+		QuickAccessIndex index = cacheIndex;
+		if (index == null || index.size() != sortedElements.length) {
+			index = new QuickAccessIndex(this, sortedElements);
+			cacheIndex = index;
+		}
+		return index;
+	}
+
 	/**
 	 * Returns the element for the given ID if available, or null if no matching
 	 * element is available.
@@ -128,6 +153,7 @@ public abstract class QuickAccessProvider {
 	 */
 	public final void reset() {
 		cacheSortedElements = null;
+		cacheIndex = null;
 		doReset();
 	}
 
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,6 +16,7 @@ package org.eclipse.ui.internal.services;
 
 import static org.osgi.service.log.LogLevel.ERROR;
 
+import java.util.Map;
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.IEvaluationContext;
@@ -45,6 +46,8 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 	boolean participating = true;
 	boolean postingChanges = true;
 	boolean hasRun = false;
+	private int evaluationCount;
+	private long evaluationTime;
 	static LogThrottle logThrottle = new LogThrottle(THROTTLE_MAX, THROTTLE_VALUE);
 
 	public EvaluationReference(IEclipseContext context, Expression expression, IPropertyChangeListener listener,
@@ -72,21 +75,49 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 
 	@Override
 	public boolean evaluate(IEvaluationContext context) {
+		return compute(context) && cache;
+	}
+
+	/**
+	 * Computes the result of the expression.
+	 *
+	 * @return <code>false</code> if the evaluation failed and the result is
+	 *         unchanged
+	 */
+	private boolean compute(IEvaluationContext context) {
 		if (expression == null) {
 			cache = true;
-		} else {
-			try {
-				cache = expression.evaluate(context) != EvaluationResult.FALSE;
-			} catch (CoreException e) {
-				String message = "Failed to evaluate: " + expression; //$NON-NLS-1$
-				boolean logged = logThrottle.log(ERROR.ordinal(), message, e);
-				if (!logged && Policy.DEBUG_CMDS) {
-					Activator.trace(Policy.DEBUG_CMDS_FLAG, message, e);
-				}
-				return false;
+			return true;
+		}
+		long start = System.nanoTime();
+		try {
+			cache = expression.evaluate(context) != EvaluationResult.FALSE;
+			return true;
+		} catch (CoreException e) {
+			String message = "Failed to evaluate: " + expression; //$NON-NLS-1$
+			boolean logged = logThrottle.log(ERROR.ordinal(), message, e);
+			if (!logged && Policy.DEBUG_CMDS) {
+				Activator.trace(Policy.DEBUG_CMDS_FLAG, message, e);
 			}
+			return false;
+		} finally {
+			evaluationCount++;
+			evaluationTime += System.nanoTime() - start;
 		}
-		return cache;
+	}
+
+	/**
+	 * Returns how often the expression has been evaluated.
+	 */
+	public int getEvaluationCount() {
+		return evaluationCount;
+	}
+
+	/**
+	 * Returns the total time spent evaluating the expression in nanoseconds.
+	 */
+	public long getEvaluationTime() {
+		return evaluationTime;
 	}
 
 	@Override
@@ -105,8 +136,26 @@ public class EvaluationReference extends RunAndTrack implements IEvaluationRefer
 	}
 
 	public void evaluate() {
+		evaluateInBatch(null);
+	}
+
+	/**
+	 * Evaluates the expression and informs the listener about a changed result.
+	 * References evaluated in one batch see the same variables, so a result
+	 * computed for an equal expression of another reference in the batch is
+	 * reused.
+	 *
+	 * @param results the results of the batch by expression, or
+	 *                <code>null</code> to always compute the result
+	 */
+	void evaluateInBatch(Map<Expression, Boolean> results) {
 		boolean value = cache;
-		evaluate(new ExpressionContext(context));
+		Boolean result = results == null || expression == null ? null : results.get(expression);
+		if (result != null) {
+			cache = result.booleanValue();
+		} else if (compute(new ExpressionContext(context)) && results != null && expression != null) {
+			results.put(expression, Boolean.valueOf(cache));
+		}
 		if (!postingChanges) {
 			return;
 		}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2016 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -17,12 +17,18 @@ package org.eclipse.ui.internal.services;
 
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import org.eclipse.core.commands.util.Tracing;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.IEvaluationContext;
@@ -44,6 +50,7 @@ import org.eclipse.ui.ISourceProvider;
 import org.eclipse.ui.ISourceProviderListener;
 import org.eclipse.ui.ISources;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.misc.Policy;
 import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 
@@ -54,6 +61,8 @@ import org.eclipse.ui.services.IEvaluationService;
 public final class EvaluationService implements IEvaluationService {
 	public static final String DEFAULT_VAR = "org.eclipse.ui.internal.services.EvaluationService.default_var"; //$NON-NLS-1$
 	private static final String RE_EVAL = "org.eclipse.ui.internal.services.EvaluationService.evaluate"; //$NON-NLS-1$
+	private static final String TRACING_COMPONENT = "EVALUATIONS"; //$NON-NLS-1$
+	private static final long SLOW_EVALUATION_NANOS = 1_000_000;
 	private boolean evaluate = false;
 	private ExpressionContext legacyContext;
 	private IEclipseContext context;
@@ -66,25 +75,57 @@ public final class EvaluationService implements IEvaluationService {
 	private ISourceProviderListener contextUpdater;
 
 	private HashSet<String> ratVariables = new HashSet<>();
-	private RunAndTrack ratUpdater = new RunAndTrack() {
+	// The values last copied to the ratContext
+	private Map<String, Object> ratValues = new HashMap<>();
+
+	/*
+	 * The references whose expressions report all variables they read, by
+	 * variable name. They are not tracked by the ratContext, but re-evaluated
+	 * together after the variables they read have been copied to it.
+	 */
+	private Map<String, Set<EvaluationReference>> indexedRefs = new HashMap<>();
+
+	private final class ReferenceUpdater extends RunAndTrack {
 		@Override
 		public boolean changed(IEclipseContext context) {
 			context.get(RE_EVAL);
 			String[] vars = ratVariables.toArray(new String[ratVariables.size()]);
+			Set<EvaluationReference> affected = new LinkedHashSet<>();
 			for (String var : vars) {
 				Object value = context.getActive(var);
+				Object oldValue;
 				if (value == null) {
 					ratContext.remove(var);
+					oldValue = ratValues.remove(var);
 				} else {
 					ratContext.set(var, value);
+					oldValue = ratValues.put(var, value);
+				}
+				Set<EvaluationReference> dependents = indexedRefs.get(var);
+				if (value != oldValue && dependents != null) {
+					affected.addAll(dependents);
 				}
 			}
+			evaluate(affected);
 			// This ties tool item enablement to variable changes that can
 			// effect the enablement.
 			getEventBroker().send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
 			return true;
 		}
-	};
+
+		/**
+		 * Evaluates the references in one batch, without the context tracking the
+		 * variables they read.
+		 */
+		void evaluate(Collection<EvaluationReference> references) {
+			if (!references.isEmpty()) {
+				EvaluationReference[] array = references.toArray(new EvaluationReference[references.size()]);
+				runExternalCode(() -> evaluateBatch(array));
+			}
+		}
+	}
+
+	private ReferenceUpdater ratUpdater = new ReferenceUpdater();
 
 	private HashSet<String> variableFilter = new HashSet<>();
 	private IEventBroker eventBroker;
@@ -193,6 +234,7 @@ public final class EvaluationService implements IEvaluationService {
 			invalidate(ref, false);
 		}
 		refs.clear();
+		indexedRefs.clear();
 		serviceListeners.clear();
 	}
 
@@ -219,8 +261,9 @@ public final class EvaluationService implements IEvaluationService {
 		EvaluationReference eref = (EvaluationReference) ref;
 		refs.add(eref);
 		boolean changed = false;
+		ExpressionInfo info = null;
 		if (eref.getExpression() != null) {
-			ExpressionInfo info = new ExpressionInfo();
+			info = new ExpressionInfo();
 			eref.getExpression().collectExpressionInfo(info);
 			for (String varName : info.getAccessedVariableNames()) {
 				if (ratVariables.add(varName)) {
@@ -236,7 +279,20 @@ public final class EvaluationService implements IEvaluationService {
 			contextEvaluate();
 		}
 		eref.participating = true;
-		ratContext.runAndTrack(eref);
+		if (eref.context != ratContext || (info != null && info.getMisbehavingExpressionTypes() != null)) {
+			// We can't tell which variables are read, let the context track them
+			ratContext.runAndTrack(eref);
+			return;
+		}
+		if (info != null) {
+			for (String varName : info.getAccessedVariableNames()) {
+				indexedRefs.computeIfAbsent(varName, k -> new LinkedHashSet<>()).add(eref);
+			}
+			if (info.hasDefaultVariableAccess()) {
+				indexedRefs.computeIfAbsent(IServiceConstants.ACTIVE_SELECTION, k -> new LinkedHashSet<>()).add(eref);
+			}
+		}
+		ratUpdater.evaluate(Collections.singleton(eref));
 	}
 
 	private void invalidate(IEvaluationReference ref, boolean remove) {
@@ -244,6 +300,12 @@ public final class EvaluationService implements IEvaluationService {
 			refs.remove(ref);
 		}
 		EvaluationReference eref = (EvaluationReference) ref;
+		for (Iterator<Set<EvaluationReference>> i = indexedRefs.values().iterator(); i.hasNext();) {
+			Set<EvaluationReference> dependents = i.next();
+			if (dependents.remove(eref) && dependents.isEmpty()) {
+				i.remove();
+			}
+		}
 		eref.participating = false;
 		eref.evaluate();
 		eref.hasRun = false;
@@ -268,35 +330,57 @@ public final class EvaluationService implements IEvaluationService {
 		context.set(pokeVar, "link"); //$NON-NLS-1$
 
 		startSourceChange();
+		List<EvaluationReference> affected = new ArrayList<>();
 		for (EvaluationReference ref : refs) {
 			Expression expr = ref.getExpression();
 			if (expr != null) {
-				boolean evaluated = false;
 				ExpressionInfo info = expr.computeExpressionInfo();
-				String[] names = info.getAccessedPropertyNames();
-				for (String name : names) {
-					if (propertyName.equals(name)) {
-						evaluated = true;
-						ref.evaluate();
-						break;
-					}
-				}
-				if (!evaluated) {
-					names = info.getAccessedVariableNames();
-					for (String name : names) {
-						if (propertyName.equals(name)) {
-							evaluated = true;
-							ref.evaluate();
-							break;
-						}
-					}
+				if (Arrays.asList(info.getAccessedPropertyNames()).contains(propertyName)
+						|| Arrays.asList(info.getAccessedVariableNames()).contains(propertyName)) {
+					affected.add(ref);
 				}
 			}
 		}
+		evaluateBatch(affected.toArray(new EvaluationReference[affected.size()]));
 		endSourceChange();
 		eventBroker.send(UIEvents.REQUEST_ENABLEMENT_UPDATE_TOPIC, UIEvents.ALL_ELEMENT_ID);
 	}
 
+	/**
+	 * Evaluates the references, computing the result of equal expressions only
+	 * once.
+	 */
+	private void evaluateBatch(EvaluationReference[] references) {
+		long start = System.nanoTime();
+		Map<Expression, Boolean> results = new HashMap<>();
+		int evaluated = 0;
+		for (EvaluationReference ref : references) {
+			// A listener may have removed the reference in the meantime
+			if (!ref.participating) {
+				continue;
+			}
+			int count = ref.getEvaluationCount();
+			long time = ref.getEvaluationTime();
+			// Only references of this service are evaluated with the same variables
+			ref.evaluateInBatch(ref.context == ratContext ? results : null);
+			if (ref.getEvaluationCount() == count) {
+				continue;
+			}
+			evaluated++;
+			if (Policy.DEBUG_EVALUATIONS_PERFORMANCE && ref.getEvaluationTime() - time >= SLOW_EVALUATION_NANOS) {
+				Tracing.printTrace(TRACING_COMPONENT,
+						"slow evaluation of " + ref.getProperty() + " for " + ref.getListener() + ": " //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+								+ (ref.getEvaluationTime() - time) / 1_000_000 + "ms, " + ref.getEvaluationCount() //$NON-NLS-1$
+								+ " evaluations in " + ref.getEvaluationTime() / 1_000_000 + "ms in total, " //$NON-NLS-1$ //$NON-NLS-2$
+								+ ref.getExpression());
+			}
+		}
+		if (Policy.DEBUG_EVALUATIONS_PERFORMANCE) {
+			Tracing.printTrace(TRACING_COMPONENT, evaluated + " of " + references.length //$NON-NLS-1$
+					+ " references evaluated in " + (System.nanoTime() - start) / 1_000_000 + "ms"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
 	private void startSourceChange() {
 		notifying++;
 		if (notifying == 1) {
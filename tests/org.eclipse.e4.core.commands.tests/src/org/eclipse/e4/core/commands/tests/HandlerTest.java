@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2009, 2014 IBM Corporation and others.
+ * Copyright (c) 2009, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,7 +20,9 @@ import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertTrue;
 
+import java.util.Arrays;
 import java.util.Collections;
+import java.util.Map;
 
 import org.eclipse.core.commands.Category;
 import org.eclipse.core.commands.IParameter;
@@ -306,6 +308,40 @@ public class HandlerTest {
 		assertEquals(null, wHS.executeHandler(nonparameterizedCmd));
 	}
 
+	@Test
+	public void testCanExecuteCommands() {
+		ECommandService cs = workbenchContext.get(ECommandService.class);
+		EHandlerService wHS = workbenchContext.get(EHandlerService.class);
+		ParameterizedCommand cmd1 = cs.createCommand(TEST_ID1, null);
+		ParameterizedCommand cmd2 = cs.createCommand(TEST_ID2, null);
+		ParameterizedCommand cmd3 = cs.createCommand(TEST_ID3,
+				Collections.singletonMap(ACTIVE_INFO_ID, (Object) "param"));
+
+		CallHandler handler1 = new CallHandler();
+		wHS.activateHandler(TEST_ID1, handler1);
+		wHS.activateHandler(TEST_ID3, new HandlerWithParams());
+
+		Map<ParameterizedCommand, Boolean> result = wHS.canExecute(Arrays.asList(cmd1, cmd2, cmd3));
+		assertEquals(Arrays.asList(cmd1, cmd2, cmd3), Arrays.asList(result.keySet().toArray()));
+		assertEquals(Boolean.TRUE, result.get(cmd1));
+		assertEquals(Boolean.FALSE, result.get(cmd2));
+		assertEquals(Boolean.TRUE, result.get(cmd3));
+		assertTrue(handler1.q1);
+
+		wHS.deactivateHandler(TEST_ID1, handler1);
+		result = wHS.canExecute(Arrays.asList(cmd1, cmd2));
+		assertEquals(Boolean.FALSE, result.get(cmd1));
+		assertEquals(Boolean.FALSE, result.get(cmd2));
+
+		IEclipseContext c1 = workbenchContext.createChild("c1");
+		c1.get(EHandlerService.class).activateHandler(TEST_ID2, new CallHandler());
+		assertEquals(Boolean.FALSE, wHS.canExecute(Arrays.asList(cmd2)).get(cmd2));
+		c1.activate();
+		assertEquals(Boolean.TRUE, wHS.canExecute(Arrays.asList(cmd2)).get(cmd2));
+		c1.deactivate();
+		assertEquals(Boolean.FALSE, wHS.canExecute(Arrays.asList(cmd2)).get(cmd2));
+	}
+
 	private void defineCommands(IEclipseContext context) {
 		ECommandService cs = workbenchContext.get(ECommandService.class);
 		Category category = cs.defineCategory(TEST_CAT1, "CAT1", null);
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2004, 2016 IBM Corporation and others.
+ * Copyright (c) 2004, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,6 +14,7 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.images;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
@@ -366,6 +367,63 @@ public class LazyResourceManagerTest {
 		assertCached(expected2, mgr, tst, descriptor2); // 2 still cached, because recently used
 	}
 
+	/**
+	 * Caches resources bounded by their estimated size, only 2 of 3 fit.
+	 **/
+	@Test
+	public void testLazyResourceManagerBytes() {
+		TestResourceManager tst = new TestResourceManager();
+		LazyResourceManager mgr = new LazyResourceManager(10, 128, tst);
+
+		DeviceResourceDescriptor descriptor1 = new CachableTestDescriptor();
+		DeviceResourceDescriptor descriptor2 = new CachableTestDescriptor();
+		DeviceResourceDescriptor descriptor3 = new CachableTestDescriptor();
+		AtomicReference<DeviceResourceDescriptor> expected1 = (AtomicReference<DeviceResourceDescriptor>) mgr
+				.create(descriptor1);
+		mgr.destroy(descriptor1);
+		AtomicReference<DeviceResourceDescriptor> expected2 = (AtomicReference<DeviceResourceDescriptor>) mgr
+				.create(descriptor2);
+		mgr.destroy(descriptor2);
+		assertEquals(2, mgr.getCachedCount());
+		assertEquals(0, mgr.getEvictionCount());
+		long bytes = mgr.getCachedBytes();
+
+		AtomicReference<DeviceResourceDescriptor> expected3 = (AtomicReference<DeviceResourceDescriptor>) mgr
+				.create(descriptor3);
+		mgr.destroy(descriptor3);
+		assertDestroyed(expected1, mgr, tst, descriptor1); // size exceeded: not cached anymore
+		assertCached(expected2, mgr, tst, descriptor2);
+		assertCached(expected3, mgr, tst, descriptor3);
+		assertEquals(2, mgr.getCachedCount());
+		assertEquals(1, mgr.getEvictionCount());
+		assertEquals(bytes, mgr.getCachedBytes());
+	}
+
+	@Test
+	public void testLazyResourceManagerStatistics() {
+		TestResourceManager tst = new TestResourceManager();
+		LazyResourceManager mgr = new LazyResourceManager(1, tst);
+
+		DeviceResourceDescriptor descriptor1 = new CachableTestDescriptor();
+		DeviceResourceDescriptor descriptor2 = new CachableTestDescriptor();
+		mgr.create(descriptor1); // allocation
+		mgr.create(descriptor1); // second reference
+		mgr.destroy(descriptor1);
+		mgr.destroy(descriptor1);
+		mgr.create(descriptor1); // hit
+		mgr.destroy(descriptor1);
+		mgr.create(descriptor2); // allocation
+		mgr.destroy(descriptor2); // evicts descriptor1
+		mgr.create(descriptor1); // allocation
+		mgr.destroy(descriptor1); // evicts descriptor2
+
+		assertEquals(5, mgr.getRequestCount());
+		assertEquals(1, mgr.getHitCount());
+		assertEquals(3, mgr.getAllocationCount());
+		assertEquals(2, mgr.getEvictionCount());
+		assertEquals(1, mgr.getCachedCount());
+	}
+
 	@Test
 	public void testNullDescriptor() {
 		TestResourceManager tst = new TestResourceManager();
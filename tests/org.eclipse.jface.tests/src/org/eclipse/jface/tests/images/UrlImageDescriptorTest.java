@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2020, 2022 Christoph Läubrich and others.
+ * Copyright (c) 2020, 2023 Christoph Läubrich and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,24 +15,37 @@
  ******************************************************************************/
 package org.eclipse.jface.tests.images;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNotSame;
 import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
 
+import java.io.IOException;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.stream.Stream;
 
 import org.eclipse.core.runtime.Adapters;
 import org.eclipse.core.runtime.IPath;
+import org.eclipse.jface.internal.ImageDataCache;
 import org.eclipse.jface.resource.ImageDescriptor;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.graphics.ImageData;
 import org.eclipse.swt.graphics.ImageFileNameProvider;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class UrlImageDescriptorTest {
 
+	@Rule
+	public TemporaryFolder tempFolder = new TemporaryFolder();
+
 	/**
 	 * Test that individually created images of a given descriptor are not equal
 	 * (See issue #682).
@@ -140,4 +153,95 @@ public class UrlImageDescriptorTest {
 		assertEquals(imageDataOrig200.height, imageDataURL200.height);
 	}
 
+	@Test
+	public void testPreload() {
+		ImageDescriptor descriptor = ImageDescriptor
+				.createFromURL(FileImageDescriptorTest.class.getResource("/icons/imagetests/zoomIn.png"));
+		ImageData expected = descriptor.getImageData(200);
+		descriptor.preload(200).join();
+		ImageData preloaded = descriptor.getImageData(200);
+		assertNotNull("Preloaded image data not returned", preloaded);
+		assertEquals(expected.width, preloaded.width);
+		assertArrayEquals(expected.data, preloaded.data);
+		assertNotNull("Image data not available after the preloaded data was used", descriptor.getImageData(200));
+	}
+
+	@Test
+	public void testPersistentCache() throws Exception {
+		URL url = FileImageDescriptorTest.class.getResource("/icons/imagetests/zoomIn.png");
+		ImageData expected = ImageDescriptor.createFromURL(url).getImageData(100);
+		Path directory = tempFolder.newFolder().toPath();
+		ImageDataCache cache = ImageDataCache.getInstance();
+		cache.setDirectory(directory);
+		try {
+			ImageDescriptor.createFromURL(url).getImageData(100);
+			cache.flush().join();
+			assertEquals("Decoded image data was not stored", 1, countFiles(directory));
+
+			ImageData cached = ImageDescriptor.createFromURL(url).getImageData(100);
+			assertNotNull("Cached image data not returned", cached);
+			assertImageDataEquals(expected, cached);
+		} finally {
+			cache.setDirectory(null);
+		}
+	}
+
+	@Test
+	public void testPersistentCacheUsesZoomSpecificFiles() throws Exception {
+		URL url = FileImageDescriptorTest.class.getResource("/icons/imagetests/zoomIn.png");
+		ImageData expected100 = ImageDescriptor.createFromURL(url).getImageData(100);
+		ImageData expected200 = ImageDescriptor.createFromURL(url).getImageData(200);
+		assertEquals(expected100.width * 2, expected200.width);
+		Path directory = tempFolder.newFolder().toPath();
+		ImageDataCache cache = ImageDataCache.getInstance();
+		cache.setDirectory(directory);
+		try {
+			ImageDescriptor.createFromURL(url).getImageData(100);
+			ImageDescriptor.createFromURL(url).getImageData(200);
+			cache.flush().join();
+			assertEquals("Each zoom level needs its own entry", 2, countFiles(directory));
+
+			assertImageDataEquals(expected200, ImageDescriptor.createFromURL(url).getImageData(200));
+			assertImageDataEquals(expected100, ImageDescriptor.createFromURL(url).getImageData(100));
+			assertNull("Zoom without a matching file must not be served from the cache",
+					ImageDescriptor.createFromURL(url).getImageData(150));
+		} finally {
+			cache.setDirectory(null);
+		}
+	}
+
+	@Test
+	public void testPersistentCacheIsPruned() throws Exception {
+		Path directory = tempFolder.newFolder().toPath();
+		FileTime time = FileTime.fromMillis(System.currentTimeMillis() - 100000);
+		for (int i = 0; i < 8; i++) {
+			Path file = Files.write(directory.resolve(i + ".img"), new byte[1000]);
+			Files.setLastModifiedTime(file, FileTime.fromMillis(time.toMillis() + i * 1000));
+		}
+		ImageDataCache.prune(directory, 8000);
+		assertEquals("Cache below the limit was pruned", 8, countFiles(directory));
+
+		ImageDataCache.prune(directory, 4000);
+		assertEquals(3, countFiles(directory));
+		for (int i = 5; i < 8; i++) {
+			assertTrue("Newest entries must be kept", Files.exists(directory.resolve(i + ".img")));
+		}
+	}
+
+	private static void assertImageDataEquals(ImageData expected, ImageData actual) {
+		assertEquals(expected.width, actual.width);
+		assertEquals(expected.height, actual.height);
+		assertEquals(expected.depth, actual.depth);
+		assertEquals(expected.bytesPerLine, actual.bytesPerLine);
+		assertArrayEquals(expected.data, actual.data);
+		assertArrayEquals(expected.alphaData, actual.alphaData);
+		assertArrayEquals(expected.maskData, actual.maskData);
+	}
+
+	private static long countFiles(Path directory) throws IOException {
+		try (Stream<Path> files = Files.list(directory)) {
+			return files.filter(file -> file.toString().endsWith(".img")).count();
+		}
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2006 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -13,11 +13,26 @@
  *******************************************************************************/
 package org.eclipse.jface.tests.viewers;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import org.eclipse.jface.viewers.StructuredViewer;
 import org.eclipse.jface.viewers.TreeViewer;
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerFilter;
+import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
 import org.eclipse.swt.widgets.Tree;
 import org.eclipse.swt.widgets.TreeItem;
+import org.eclipse.ui.tests.harness.util.DisplayHelper;
+import org.junit.Test;
 
 public class TreeViewerTest extends AbstractTreeViewerTest {
 
@@ -50,4 +65,109 @@ public class TreeViewerTest extends AbstractTreeViewerTest {
 		return tree.getItems()[at].getText();
 	}
 
+	@Test
+	public void testExpandInBackground() {
+		fTreeViewer.setExpandInBackground(true);
+		TestElement first = fRootElement.getFirstChild();
+		for (int i = 0; i < 1000; i++) {
+			first.basicAddChild();
+		}
+		TreeItem item = (TreeItem) fViewer.testFindItem(first);
+		notifyTreeEvent(item, SWT.Expand);
+
+		DisplayHelper.waitAndAssertCondition(fShell.getDisplay(), () -> {
+			assertEquals(first.getChildCount(), item.getItemCount());
+		});
+		for (int i = 0; i < first.getChildCount(); i++) {
+			assertEquals(first.getChildAt(i), item.getItem(i).getData());
+		}
+	}
+
+	@Test
+	public void testCollapseCancelsBackgroundExpansion() {
+		fTreeViewer.setExpandInBackground(true);
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) fViewer.testFindItem(first);
+		notifyTreeEvent(item, SWT.Expand);
+		notifyTreeEvent(item, SWT.Collapse);
+		processEvents();
+
+		assertEquals(1, item.getItemCount());
+		assertNull(item.getItem(0).getData());
+
+		notifyTreeEvent(item, SWT.Expand);
+		DisplayHelper.waitAndAssertCondition(fShell.getDisplay(), () -> {
+			assertEquals(first.getChildCount(), item.getItemCount());
+		});
+	}
+
+	@Test
+	public void testExpandInBackgroundCompletedByExpandToLevel() {
+		fTreeViewer.setExpandInBackground(true);
+		TestElement first = fRootElement.getFirstChild();
+		TreeItem item = (TreeItem) fViewer.testFindItem(first);
+		notifyTreeEvent(item, SWT.Expand);
+		fTreeViewer.expandToLevel(first, 1);
+
+		assertEquals(first.getChildCount(), item.getItemCount());
+		processEvents();
+		assertEquals(first.getChildCount(), item.getItemCount());
+	}
+
+	@Test
+	public void testDisposeCancelsBackgroundExpansion() throws InterruptedException {
+		fTreeViewer.setExpandInBackground(true);
+		CountDownLatch started = new CountDownLatch(1);
+		CountDownLatch release = new CountDownLatch(1);
+		CountDownLatch returned = new CountDownLatch(1);
+		AtomicInteger laterFilterCalls = new AtomicInteger();
+		fTreeViewer.addFilter(new ViewerFilter() {
+			@Override
+			public Object[] filter(Viewer viewer, Object parent, Object[] elements) {
+				if (Display.getCurrent() == null) {
+					started.countDown();
+					try {
+						release.await(30, TimeUnit.SECONDS);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					} finally {
+						returned.countDown();
+					}
+				}
+				return elements;
+			}
+
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				return true;
+			}
+		});
+		fTreeViewer.addFilter(new ViewerFilter() {
+			@Override
+			public boolean select(Viewer viewer, Object parentElement, Object element) {
+				if (Display.getCurrent() == null) {
+					laterFilterCalls.incrementAndGet();
+				}
+				return true;
+			}
+		});
+		TreeItem item = (TreeItem) fViewer.testFindItem(fRootElement.getFirstChild());
+		notifyTreeEvent(item, SWT.Expand);
+		assertTrue(started.await(30, TimeUnit.SECONDS));
+
+		fTreeViewer.getControl().dispose();
+		release.countDown();
+		assertTrue(returned.await(30, TimeUnit.SECONDS));
+		DisplayHelper.sleep(fShell.getDisplay(), 100);
+
+		assertEquals(0, laterFilterCalls.get());
+	}
+
+	private static void notifyTreeEvent(TreeItem item, int type) {
+		item.setExpanded(type == SWT.Expand);
+		Event event = new Event();
+		event.item = item;
+		event.type = type;
+		item.getParent().notifyListeners(type, event);
+	}
 }
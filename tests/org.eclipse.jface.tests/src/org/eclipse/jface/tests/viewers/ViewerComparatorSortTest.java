@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+package org.eclipse.jface.tests.viewers;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.text.Collator;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.Random;
+
+import org.eclipse.jface.viewers.Viewer;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.junit.Test;
+
+/**
+ * Checks that {@link ViewerComparator#sort(Viewer, Object[])} orders elements
+ * exactly like sorting with {@link ViewerComparator#compare(Viewer, Object, Object)}.
+ */
+public class ViewerComparatorSortTest {
+
+	private static final String[] WORDS = { "apple", "Apple", "\u00e4pfel", "banana", "Banana", "cherry", "b", "B",
+			"", "zebra", "Zebra", "\u00e9clair", "eclair" };
+
+	/**
+	 * A comparator with categories that counts how often labels are computed.
+	 */
+	private static class CategoryComparator extends ViewerComparator {
+		int categoryCalls;
+
+		CategoryComparator(Comparator<? super String> comparator) {
+			super(comparator);
+		}
+
+		@Override
+		public int category(Object element) {
+			categoryCalls++;
+			return ((Item) element).category;
+		}
+	}
+
+	/**
+	 * The same comparator, but sorting through an overridden compare method.
+	 */
+	private static class ReferenceComparator extends CategoryComparator {
+		ReferenceComparator(Comparator<? super String> comparator) {
+			super(comparator);
+		}
+
+		@Override
+		public int compare(Viewer viewer, Object e1, Object e2) {
+			return super.compare(viewer, e1, e2);
+		}
+	}
+
+	private static class Item {
+		final String name;
+		final int category;
+
+		Item(String name, int category) {
+			this.name = name;
+			this.category = category;
+		}
+
+		@Override
+		public String toString() {
+			return name;
+		}
+	}
+
+	@Test
+	public void testDefaultComparator() {
+		assertSameOrder(null, 2000);
+	}
+
+	@Test
+	public void testCollator() {
+		assertSameOrder(Collator.getInstance(Locale.GERMAN), 2000);
+	}
+
+	@Test
+	public void testCollatorParallel() {
+		assertSameOrder(Collator.getInstance(Locale.ENGLISH), 50000);
+	}
+
+	@Test
+	public void testCategoryComputedOncePerElement() {
+		Object[] elements = createItems(1000, new Random(7));
+		CategoryComparator comparator = new CategoryComparator(null);
+		comparator.sort(null, elements);
+		assertEquals(elements.length, comparator.categoryCalls);
+	}
+
+	private void assertSameOrder(Comparator<? super String> stringComparator, int count) {
+		Object[] elements = createItems(count, new Random(count));
+		Object[] expected = elements.clone();
+		new ReferenceComparator(stringComparator).sort(null, expected);
+		new CategoryComparator(stringComparator).sort(null, elements);
+		assertArrayEquals(expected, elements);
+	}
+
+	private static Object[] createItems(int count, Random random) {
+		Object[] items = new Object[count];
+		for (int i = 0; i < count; i++) {
+			String name = WORDS[random.nextInt(WORDS.length)] + random.nextInt(count / 10 + 1);
+			items[i] = new Item(name, random.nextInt(3));
+		}
+		return items;
+	}
+}
@@ -24,7 +24,9 @@ import java.util.Arrays;
 import java.util.HashSet;
 import java.util.Set;
 
+import org.eclipse.jface.viewers.ArrayContentProvider;
 import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.LabelProvider;
 import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.jface.viewers.TableViewer;
 import org.eclipse.jface.viewers.ViewerFilter;
@@ -292,6 +294,54 @@ public class VirtualTableViewerTest extends TableViewerTest {
 		super.testSetSelection();
 	}
 
+	/**
+	 * Test removing several elements at once, including elements whose items
+	 * have not been created yet.
+	 */
+	@Test
+	public void testRemoveSeveral() {
+		TestElement[] children = fRootElement.getChildren();
+		TableViewer viewer = (TableViewer) fViewer;
+		Table table = viewer.getTable();
+		int count = table.getItemCount();
+		TestElement[] removed = Arrays.copyOfRange(children, 1, children.length - 1);
+		for (TestElement element : removed) {
+			fRootElement.basicDeleteChild(element);
+		}
+		viewer.remove(removed);
+		assertEquals(count - removed.length, table.getItemCount());
+		assertEquals(children[0], viewer.getElementAt(0));
+		assertEquals(children[children.length - 1], viewer.getElementAt(1));
+	}
+
+	/**
+	 * Test removing elements after the elements of the input array changed in
+	 * place and the viewer was refreshed.
+	 */
+	@Test
+	public void testRemoveAfterInPlaceChange() {
+		TableViewer viewer = (TableViewer) fViewer;
+		Table table = viewer.getTable();
+		String[] input = new String[100];
+		for (int i = 0; i < input.length; i++) {
+			input[i] = "element" + i;
+		}
+		viewer.setComparator(null);
+		viewer.setLabelProvider(new LabelProvider());
+		viewer.setContentProvider(ArrayContentProvider.getInstance());
+		viewer.setInput(input);
+		viewer.remove(new Object[] { "element1", "element2" });
+		assertEquals(98, table.getItemCount());
+
+		// the content provider returns the same array with other contents
+		input[50] = "changed";
+		viewer.refresh();
+		viewer.remove(new Object[] { "changed", "element51" });
+		assertEquals(98, table.getItemCount());
+		assertEquals("element49", viewer.getElementAt(49));
+		assertEquals("element52", viewer.getElementAt(50));
+	}
+
 	/**
 	 * Test selecting all elements.
 	 */
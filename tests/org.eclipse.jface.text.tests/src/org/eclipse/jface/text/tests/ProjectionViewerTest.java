@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2022 Red Hat, Inc. and others.
+ * Copyright (c) 2022, 2023 Red Hat, Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -11,6 +11,8 @@
 package org.eclipse.jface.text.tests;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
@@ -23,6 +25,7 @@ import org.eclipse.swt.widgets.Shell;
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.IFindReplaceTargetExtension5;
 import org.eclipse.jface.text.IRegion;
 import org.eclipse.jface.text.ITextOperationTarget;
 import org.eclipse.jface.text.ITextSelection;
@@ -75,4 +78,30 @@ public class ProjectionViewerTest {
 			shell.dispose();
 		}
 	}
+
+	@Test
+	public void testReplaceAllExpandsOnlyRegionsWithMatches() throws BadLocationException {
+		Shell shell= new Shell();
+		shell.setLayout(new FillLayout());
+		ProjectionViewer viewer= new ProjectionViewer(shell, null, null, false, SWT.NONE);
+		Document document= new Document("foo\nfirst {\n  bar\n}\nsecond {\n  foo\n}\nfoo\n");
+		viewer.setDocument(document, new AnnotationModel());
+		viewer.setEditable(true);
+		viewer.enableProjection();
+		ProjectionAnnotation first= new ProjectionAnnotation(true);
+		ProjectionAnnotation second= new ProjectionAnnotation(true);
+		viewer.getProjectionAnnotationModel().addAnnotation(first, new Position(document.getLineOffset(1), document.getLineOffset(4) - document.getLineOffset(1)));
+		viewer.getProjectionAnnotationModel().addAnnotation(second, new Position(document.getLineOffset(4), document.getLineOffset(7) - document.getLineOffset(4)));
+		shell.setVisible(true);
+		try {
+			int count= ((IFindReplaceTargetExtension5) viewer.getFindReplaceTarget()).replaceAll("foo", "baz", true, false, false, null);
+			assertEquals(3, count);
+			assertEquals("baz\nfirst {\n  bar\n}\nsecond {\n  baz\n}\nbaz\n", document.get());
+			assertTrue("A region without a match must stay collapsed", first.isCollapsed());
+			assertFalse("A region with a match must be expanded", second.isCollapsed());
+			assertEquals("baz\nfirst {\nsecond {\n  baz\n}\nbaz\n", viewer.getTextWidget().getText());
+		} finally {
+			shell.dispose();
+		}
+	}
 }
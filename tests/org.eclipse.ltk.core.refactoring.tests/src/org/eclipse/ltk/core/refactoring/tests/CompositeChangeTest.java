@@ -0,0 +1,258 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+import org.eclipse.core.runtime.Status;
+
+import org.eclipse.ltk.core.refactoring.Change;
+import org.eclipse.ltk.core.refactoring.CompositeChange;
+import org.eclipse.ltk.core.refactoring.RefactoringStatus;
+import org.eclipse.ltk.core.refactoring.RefactoringStatusEntry;
+
+public class CompositeChangeTest {
+
+	private static class TestChange extends Change {
+		private final String fName;
+		private final int fSeverity;
+		private CoreException fException;
+		private RuntimeException fInitializeException;
+		int fInitializeCalls;
+		Thread fValidationThread;
+
+		TestChange(String name, int severity) {
+			fName= name;
+			fSeverity= severity;
+		}
+
+		@Override
+		public String getName() {
+			return fName;
+		}
+
+		@Override
+		public void initializeValidationData(IProgressMonitor pm) {
+			synchronized (this) {
+				fInitializeCalls++;
+			}
+			if (fInitializeException != null)
+				throw fInitializeException;
+		}
+
+		@Override
+		public RefactoringStatus isValid(IProgressMonitor pm) throws CoreException {
+			fValidationThread= Thread.currentThread();
+			if (fException != null)
+				throw fException;
+			RefactoringStatus status= new RefactoringStatus();
+			if (fSeverity != RefactoringStatus.OK)
+				status.addEntry(new RefactoringStatusEntry(fSeverity, fName));
+			return status;
+		}
+
+		@Override
+		public Change perform(IProgressMonitor pm) throws CoreException {
+			return null;
+		}
+
+		@Override
+		public Object getModifiedElement() {
+			return null;
+		}
+	}
+
+	@Test
+	public void testParallelValidationMatchesSequential() throws Exception {
+		for (int seed= 0; seed < 20; seed++) {
+			List<TestChange> leaves= new ArrayList<>();
+			CompositeChange sequential= createTree(new Random(seed), leaves, new ArrayList<>());
+			CompositeChange parallel= createTree(new Random(seed), new ArrayList<>(), new ArrayList<>());
+			parallel.setParallelValidation(true);
+
+			sequential.initializeValidationData(new NullProgressMonitor());
+			parallel.initializeValidationData(new NullProgressMonitor());
+			assertEntries(sequential.isValid(new NullProgressMonitor()), parallel.isValid(new NullProgressMonitor()));
+		}
+	}
+
+	@Test
+	public void testInitializeValidationDataReachesAllLeaves() {
+		List<TestChange> leaves= new ArrayList<>();
+		CompositeChange change= createTree(new Random(1), leaves, new ArrayList<>());
+		change.setParallelValidation(true);
+		change.initializeValidationData(new NullProgressMonitor());
+		for (TestChange leaf : leaves) {
+			assertEquals(leaf.getName(), 1, leaf.fInitializeCalls);
+		}
+	}
+
+	@Test
+	public void testFirstExceptionIsThrown() {
+		CompositeChange change= new CompositeChange("root");
+		change.setParallelValidation(true);
+		CoreException first= null;
+		for (int i= 0; i < 200; i++) {
+			TestChange leaf= new TestChange("change" + i, RefactoringStatus.INFO);
+			if (i % 50 == 49) {
+				leaf.fException= new CoreException(Status.error(leaf.getName()));
+				if (first == null)
+					first= leaf.fException;
+			}
+			change.add(leaf);
+		}
+		try {
+			change.isValid(new NullProgressMonitor());
+			fail();
+		} catch (CoreException e) {
+			assertSame(first, e);
+		}
+	}
+
+	@Test
+	public void testIsValidInCallingThread() throws Exception {
+		List<TestChange> leaves= new ArrayList<>();
+		CompositeChange change= createTree(new Random(2), leaves, new ArrayList<>());
+		change.setParallelValidation(true);
+		change.initializeValidationData(new NullProgressMonitor());
+		change.isValid(new NullProgressMonitor());
+		for (TestChange leaf : leaves) {
+			if (leaf.fValidationThread != null)
+				assertSame(leaf.getName(), Thread.currentThread(), leaf.fValidationThread);
+		}
+	}
+
+	@Test
+	public void testFirstInitializeExceptionIsThrown() {
+		CompositeChange change= new CompositeChange("root");
+		change.setParallelValidation(true);
+		RuntimeException first= null;
+		for (int i= 0; i < 200; i++) {
+			TestChange leaf= new TestChange("change" + i, RefactoringStatus.OK);
+			if (i % 50 == 49) {
+				leaf.fInitializeException= new IllegalStateException(leaf.getName());
+				if (first == null)
+					first= leaf.fInitializeException;
+			}
+			change.add(leaf);
+		}
+		try {
+			change.initializeValidationData(new NullProgressMonitor());
+			fail();
+		} catch (IllegalStateException e) {
+			assertSame(first, e);
+		}
+	}
+
+	@Test(timeout= 60000)
+	public void testNestedParallelInitialization() {
+		// subclasses are not flattened, so every level uses the shared threads
+		List<TestChange> leaves= new ArrayList<>();
+		CompositeChange root= createNested(3, leaves);
+		root.initializeValidationData(new NullProgressMonitor());
+		for (TestChange leaf : leaves) {
+			assertEquals(leaf.getName(), 1, leaf.fInitializeCalls);
+		}
+	}
+
+	private static CompositeChange createNested(int depth, List<TestChange> leaves) {
+		CompositeChange composite= new CompositeChange("composite" + depth) {
+			// a subclass
+		};
+		composite.setParallelValidation(true);
+		for (int i= 0; i < 16; i++) {
+			if (depth > 0) {
+				composite.add(createNested(depth - 1, leaves));
+			} else {
+				TestChange leaf= new TestChange("change" + leaves.size(), RefactoringStatus.OK);
+				composite.add(leaf);
+				leaves.add(leaf);
+			}
+		}
+		return composite;
+	}
+
+	@Test
+	public void testCanceled() throws Exception {
+		CompositeChange change= new CompositeChange("root");
+		change.setParallelValidation(true);
+		for (int i= 0; i < 100; i++) {
+			change.add(new TestChange("change" + i, RefactoringStatus.OK));
+		}
+		NullProgressMonitor monitor= new NullProgressMonitor();
+		monitor.setCanceled(true);
+		try {
+			change.isValid(monitor);
+			fail();
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+	}
+
+	/**
+	 * Creates a tree of nested composite changes with some disabled changes and
+	 * a few fatal errors.
+	 */
+	private static CompositeChange createTree(Random random, List<TestChange> leaves, List<CompositeChange> composites) {
+		CompositeChange root= new CompositeChange("root");
+		composites.add(root);
+		for (int i= 0; i < 300; i++) {
+			CompositeChange parent= composites.get(random.nextInt(composites.size()));
+			if (random.nextInt(10) == 0) {
+				CompositeChange composite= new CompositeChange("composite" + i);
+				parent.add(composite);
+				composites.add(composite);
+			} else {
+				int severity;
+				int kind= random.nextInt(100);
+				if (kind < 2)
+					severity= RefactoringStatus.FATAL;
+				else if (kind < 10)
+					severity= RefactoringStatus.ERROR;
+				else if (kind < 30)
+					severity= RefactoringStatus.WARNING;
+				else
+					severity= RefactoringStatus.OK;
+				TestChange leaf= new TestChange("change" + i, severity);
+				leaf.setEnabled(random.nextInt(20) != 0);
+				parent.add(leaf);
+				leaves.add(leaf);
+			}
+		}
+		return root;
+	}
+
+	private static void assertEntries(RefactoringStatus expected, RefactoringStatus actual) {
+		assertEquals(expected.getSeverity(), actual.getSeverity());
+		RefactoringStatusEntry[] expectedEntries= expected.getEntries();
+		RefactoringStatusEntry[] actualEntries= actual.getEntries();
+		assertEquals(expectedEntries.length, actualEntries.length);
+		for (int i= 0; i < expectedEntries.length; i++) {
+			assertEquals(expectedEntries[i].getMessage(), actualEntries[i].getMessage());
+			assertEquals(expectedEntries[i].getSeverity(), actualEntries[i].getSeverity());
+		}
+	}
+}
@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ltk.core.refactoring.tests.history;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import org.eclipse.core.filesystem.EFS;
+import org.eclipse.core.filesystem.IFileInfo;
+import org.eclipse.core.filesystem.IFileStore;
+
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IPath;
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.core.runtime.NullProgressMonitor;
+
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptor;
+import org.eclipse.ltk.core.refactoring.RefactoringDescriptorProxy;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryIndex;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryManager;
+import org.eclipse.ltk.internal.core.refactoring.history.RefactoringHistoryService;
+
+public class RefactoringHistoryIndexTests {
+
+	private static final class Proxy extends RefactoringDescriptorProxy {
+		private final String fDescription;
+		private final long fStamp;
+
+		Proxy(String description, long stamp) {
+			fDescription= description;
+			fStamp= stamp;
+		}
+
+		@Override
+		public String getDescription() {
+			return fDescription;
+		}
+
+		@Override
+		public String getProject() {
+			return null;
+		}
+
+		@Override
+		public long getTimeStamp() {
+			return fStamp;
+		}
+
+		@Override
+		public RefactoringDescriptor requestDescriptor(IProgressMonitor monitor) {
+			return null;
+		}
+	}
+
+	/** Noon UTC on Monday, 2 January 2023, so that the next two days are in the same week */
+	private static final long START= 1672660800000L;
+
+	private static final long DAY= 24 * 60 * 60 * 1000L;
+
+	@Rule
+	public TemporaryFolder fFolder= new TemporaryFolder();
+
+	private IFileStore fStore;
+
+	private Path fLog;
+
+	private final Set<RefactoringDescriptorProxy> fExpected= new HashSet<>();
+
+	@Before
+	public void setUp() throws IOException {
+		fStore= EFS.getLocalFileSystem().fromLocalFile(fFolder.newFolder("history"));
+		fLog= fFolder.getRoot().toPath().resolve("logs").resolve("history.log");
+	}
+
+	@Test
+	public void testRangeReads() throws Exception {
+		for (int day= 0; day < 70; day+= 7) {
+			write(new Proxy("refactoring " + day, START + day * DAY), new Proxy("other " + day, START + day * DAY + 1));
+		}
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertRead(index, START + 10 * DAY, START + 20 * DAY);
+		assertRead(index, START + 14 * DAY + 1, START + 14 * DAY + 1);
+		assertRead(index, START + 100 * DAY, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testLogReplay() throws Exception {
+		write(new Proxy("first", START), new Proxy("second", START + DAY));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		add(index, new Proxy("third", START + 2 * DAY), new Proxy("fourth", START + 2 * DAY));
+		add(index, new Proxy("fifth", START + 20 * DAY));
+		remove(index, new Proxy("first", START));
+		assertRead(index, 0, Long.MAX_VALUE);
+
+		// a new session replays the log instead of rebuilding it, which would compact it
+		byte[] log= Files.readAllBytes(fLog);
+		index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertRead(index, START + DAY, START + 2 * DAY);
+		assertArrayEquals(log, Files.readAllBytes(fLog));
+	}
+
+	@Test
+	public void testTornRecords() throws Exception {
+		write(new Proxy("first", START));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		add(index, new Proxy("second", START + DAY));
+		long length= Files.size(fLog);
+
+		// the records of a change which has not been written completely
+		Files.write(fLog, new byte[] { 1, 0, 0, 0 }, StandardOpenOption.APPEND);
+		index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertEquals(length, Files.size(fLog));
+
+		// a change without its fingerprint is dropped, and the index rebuilt
+		add(index, new Proxy("third", START + 2 * DAY));
+		byte[] log= Files.readAllBytes(fLog);
+		Files.write(fLog, Arrays.copyOf(log, log.length - 5));
+		index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testCompaction() throws Exception {
+		write(new Proxy("first", START));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		String description= "x".repeat(1000);
+		for (int i= 0; i < 200; i++) {
+			Proxy proxy= new Proxy(description + i, START + DAY + i);
+			add(index, proxy);
+			remove(index, proxy);
+		}
+		assertTrue("The log should have been compacted", Files.size(fLog) < 80 * 1024);
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testFingerprintMismatch() throws Exception {
+		write(new Proxy("first", START));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+
+		// a change by a team provider, which is not reported to the index
+		write(new Proxy("first", START), new Proxy("external", START + DAY));
+		index.invalidate();
+		assertRead(index, 0, Long.MAX_VALUE);
+
+		write(new Proxy("first", START));
+		fExpected.remove(new Proxy("external", START + DAY));
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testRewriteWithSameSizeAndTime() throws Exception {
+		write(new Proxy("first", START), new Proxy("second", START));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+
+		// a rewrite within the resolution of the modification times
+		File file= getIndexFile(RefactoringHistoryManager.stampToPath(START)).toLocalFile(EFS.NONE, null);
+		long modified= file.lastModified();
+		fExpected.clear();
+		write(new Proxy("first", START), new Proxy("fourth", START));
+		assertTrue(file.setLastModified(modified));
+		index.invalidate();
+		assertRead(index, 0, Long.MAX_VALUE);
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+	}
+
+	@Test
+	public void testMigration() throws Exception {
+		// a history written before the index existed
+		write(new Proxy("first", START), new Proxy("second", START + 10 * DAY));
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+		assertTrue(Files.isRegularFile(fLog));
+
+		// a log of an earlier format
+		try (DataOutputStream output= new DataOutputStream(Files.newOutputStream(fLog))) {
+			output.writeInt(0x52484c47);
+			output.writeByte(1);
+			output.writeUTF(fStore.toURI().toString());
+			output.writeByte(3);
+			output.writeLong(0);
+		}
+		write(new Proxy("first", START), new Proxy("second", START + 10 * DAY), new Proxy("third", START + 11 * DAY));
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+		assertEquals(2, Files.readAllBytes(fLog)[4]);
+	}
+
+	@Test
+	public void testDeletedLog() throws Exception {
+		write(new Proxy("first", START));
+		RefactoringHistoryIndex index= createIndex();
+		assertRead(index, 0, Long.MAX_VALUE);
+		Files.delete(fLog);
+
+		add(index, new Proxy("second", START + DAY));
+		assertTrue("The log should have been written again", Files.isRegularFile(fLog));
+		byte[] log= Files.readAllBytes(fLog);
+		assertRead(createIndex(), 0, Long.MAX_VALUE);
+		assertArrayEquals(log, Files.readAllBytes(fLog));
+	}
+
+	private RefactoringHistoryIndex createIndex() {
+		return new RefactoringHistoryIndex(fStore, fLog);
+	}
+
+	private void assertRead(RefactoringHistoryIndex index, long start, long end) throws CoreException {
+		Set<RefactoringDescriptorProxy> expected= new HashSet<>();
+		for (RefactoringDescriptorProxy proxy : fExpected) {
+			if (proxy.getTimeStamp() >= start && proxy.getTimeStamp() <= end)
+				expected.add(proxy);
+		}
+		Set<RefactoringDescriptorProxy> actual= new HashSet<>();
+		index.readRefactoringDescriptorProxies(null, actual, start, end, new NullProgressMonitor());
+		assertEquals(expected, actual);
+	}
+
+	/**
+	 * Adds proxies of the same history folder like the history manager does.
+	 */
+	private void add(RefactoringHistoryIndex index, RefactoringDescriptorProxy... proxies) throws Exception {
+		IPath path= RefactoringHistoryManager.stampToPath(proxies[0].getTimeStamp());
+		IFileStore file= getIndexFile(path);
+		Set<RefactoringDescriptorProxy> content= read(file);
+		content.addAll(Arrays.asList(proxies));
+		IFileInfo previous= file.fetchInfo();
+		write(file, content);
+		fExpected.addAll(Arrays.asList(proxies));
+		index.added(proxies, path, previous, file.fetchInfo());
+	}
+
+	/**
+	 * Removes proxies of the same history folder like the history manager
+	 * does.
+	 */
+	private void remove(RefactoringHistoryIndex index, RefactoringDescriptorProxy... proxies) throws Exception {
+		IPath path= RefactoringHistoryManager.stampToPath(proxies[0].getTimeStamp());
+		IFileStore file= getIndexFile(path);
+		Set<RefactoringDescriptorProxy> content= read(file);
+		content.removeAll(Arrays.asList(proxies));
+		IFileInfo previous= file.fetchInfo();
+		if (content.isEmpty())
+			file.delete(EFS.NONE, null);
+		else
+			write(file, content);
+		fExpected.removeAll(Arrays.asList(proxies));
+		index.removed(proxies, path, previous, file.fetchInfo());
+	}
+
+	/**
+	 * Writes the index file of the history folder of the specified proxies
+	 * without reporting it to an index.
+	 */
+	private void write(RefactoringDescriptorProxy... proxies) throws Exception {
+		Set<RefactoringDescriptorProxy> content= new HashSet<>(Arrays.asList(proxies));
+		write(getIndexFile(RefactoringHistoryManager.stampToPath(proxies[0].getTimeStamp())), content);
+		fExpected.addAll(content);
+	}
+
+	private IFileStore getIndexFile(IPath path) {
+		return fStore.getFileStore(path).getChild(RefactoringHistoryService.NAME_INDEX_FILE);
+	}
+
+	private static Set<RefactoringDescriptorProxy> read(IFileStore file) throws Exception {
+		Set<RefactoringDescriptorProxy> content= new HashSet<>();
+		if (file.fetchInfo().exists()) {
+			try (InputStream stream= file.openInputStream(EFS.NONE, null)) {
+				content.addAll(Arrays.asList(RefactoringHistoryManager.readRefactoringDescriptorProxies(stream, null, 0, Long.MAX_VALUE)));
+			}
+		}
+		return content;
+	}
+
+	private static void write(IFileStore file, Set<RefactoringDescriptorProxy> content) throws Exception {
+		RefactoringDescriptorProxy[] proxies= content.toArray(new RefactoringDescriptorProxy[content.size()]);
+		RefactoringHistoryManager.sortRefactoringDescriptorsAscending(proxies);
+		file.getParent().mkdir(EFS.NONE, null);
+		try (OutputStream stream= file.openOutputStream(EFS.NONE, null)) {
+			RefactoringHistoryManager.writeRefactoringDescriptorProxies(stream, proxies);
+		}
+	}
+}
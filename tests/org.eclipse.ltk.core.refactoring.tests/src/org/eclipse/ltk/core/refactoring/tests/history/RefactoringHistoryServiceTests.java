@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2015 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -581,6 +581,16 @@ public class RefactoringHistoryServiceTests {
 		assertEquals("Refactoring history has wrong size", 0, proxies.length);
 	}
 
+	@Test
+	public void testReadProjectHistory7() throws Exception {
+		RefactoringHistory history= RefactoringHistoryService.getInstance().getProjectHistory(fProject.getProject(), null);
+		assertEquals("Refactoring history has wrong size", RefactoringHistoryServiceTests.TOTAL_PROJECT_NUMBER, history.getDescriptors().length);
+		IFolder folder= fProject.getProject().getFolder(RefactoringHistoryService.NAME_HISTORY_FOLDER);
+		folder.delete(true, null);
+		history= RefactoringHistoryService.getInstance().getProjectHistory(fProject.getProject(), null);
+		assertTrue("Refactoring history should be empty", history.isEmpty());
+	}
+
 	@Test
 	public void testReadRefactoringHistory0() throws Exception {
 		setUpWorkspaceRefactorings();
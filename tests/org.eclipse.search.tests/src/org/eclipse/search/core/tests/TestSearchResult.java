@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2005 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -154,6 +154,94 @@ public class TestSearchResult {
 
 	}
 
+	@Test
+	public void testGetMatchesInRange() {
+		ISearchQuery query= new NullQuery();
+		AbstractTextSearchResult result= (AbstractTextSearchResult) query.getSearchResult();
+
+		String object= "object"; //$NON-NLS-1$
+
+		Match match1= new Match(object, 10, 2);
+		Match match2= new Match(object, 0, 3);
+		Match match3= new Match(object, 5, 1);
+		Match match4= new Match(object, 5, 0);
+		result.addMatches(new Match[] { match1, match2, match3, match4 });
+
+		Match[] matches= result.getMatches(object, 4, 6);
+		assertEquals(2, matches.length);
+		assertSame("matches[0]", matches[0], match4);
+		assertSame("matches[1]", matches[1], match3);
+		assertEquals(0, result.getMatches(object, 1, 4).length);
+		assertEquals(4, result.getMatches(object, 0, 12).length);
+		assertEquals(0, result.getMatches("other", 0, 12).length); //$NON-NLS-1$
+	}
+
+	@Test
+	public void testMovedMatch() {
+		ISearchQuery query= new NullQuery();
+		AbstractTextSearchResult result= (AbstractTextSearchResult) query.getSearchResult();
+
+		String object= "object"; //$NON-NLS-1$
+
+		Match match1= new Match(object, 0, 1);
+		Match match2= new Match(object, 5, 1);
+		result.addMatches(new Match[] { match1, match2 });
+
+		match1.setOffset(10);
+		Match[] matches= result.getMatches(object);
+		assertSame("matches[0]", matches[0], match2);
+		assertSame("matches[1]", matches[1], match1);
+
+		result.removeMatch(match1);
+		assertEquals(1, result.getMatchCount());
+		assertSame(match2, result.getMatches(object)[0]);
+	}
+
+	@Test
+	public void testAddMovedMatch() {
+		ISearchQuery query= new NullQuery();
+		AbstractTextSearchResult result= (AbstractTextSearchResult) query.getSearchResult();
+
+		String object= "object"; //$NON-NLS-1$
+
+		Match match1= new Match(object, 0, 1);
+		Match match2= new Match(object, 5, 1);
+		result.addMatches(new Match[] { match1, match2 });
+
+		match1.setOffset(10);
+		result.addMatch(match1);
+		assertEquals(2, result.getMatchCount());
+		assertEquals(2, result.getMatches(object).length);
+
+		Match match3= new Match(object, 7, 1);
+		result.addMatches(new Match[] { match1, match3, match2, match3 });
+		assertEquals(3, result.getMatchCount());
+		Match[] matches= result.getMatches(object);
+		assertEquals(3, matches.length);
+		assertSame("matches[0]", matches[0], match2);
+		assertSame("matches[1]", matches[1], match3);
+		assertSame("matches[2]", matches[2], match1);
+	}
+
+	@Test(timeout= 10000)
+	public void testAddManySingleMatches() {
+		ISearchQuery query= new NullQuery();
+		AbstractTextSearchResult result= (AbstractTextSearchResult) query.getSearchResult();
+
+		String object= "object"; //$NON-NLS-1$
+
+		Match moved= new Match(object, 0, 1);
+		result.addMatch(moved);
+		moved.setOffset(Integer.MAX_VALUE);
+		int count= 300000;
+		for (int i= 1; i < count; i++) {
+			result.addMatch(new Match(object, i, 1));
+		}
+		result.addMatch(moved);
+		assertEquals(count, result.getMatchCount());
+		assertSame(moved, result.getMatches(object)[count - 1]);
+	}
+
 	@Test
 	public void testMatchEvent() {
 		final boolean [] wasAdded= { false };
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -16,8 +16,11 @@ package org.eclipse.search.tests.filesearch;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Set;
 
 import org.junit.After;
 import org.junit.Before;
@@ -26,8 +29,14 @@ import org.junit.Test;
 
 import org.eclipse.core.resources.IFile;
 import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IResource;
 
+import org.eclipse.swt.widgets.Display;
+
+import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.ITextOperationTarget;
+import org.eclipse.jface.text.ITextViewer;
 import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.source.Annotation;
 import org.eclipse.jface.text.source.IAnnotationModel;
@@ -205,4 +214,72 @@ public class AnnotationManagerTest {
 		}
 	}
 
+	@Test
+	public void testViewportScopedAnnotations() throws Exception {
+		int lines= 5000;
+		StringBuilder contents= new StringBuilder();
+		for (int i= 0; i < lines; i++) {
+			contents.append("Test ").append(i).append('\n');
+		}
+		IFile file= fgJUnitSource.getStandardProject().getFile("ManyMatches.txt");
+		file.create(new ByteArrayInputStream(contents.toString().getBytes(StandardCharsets.UTF_8)), true, null);
+		FileTextSearchScope scope= FileTextSearchScope.newSearchScope(new IResource[] { file }, new String[] { "*.txt" }, false);
+		FileSearchQuery query= new FileSearchQuery("Test", false, true, scope);
+		NewSearchUI.runQueryInForeground(null, query);
+		try {
+			ITextEditor editor= (ITextEditor)SearchTestPlugin.openTextEditor(SearchPlugin.getActivePage(), file);
+			ITextViewer viewer= (ITextViewer) editor.getAdapter(ITextOperationTarget.class);
+			IAnnotationModel annotationModel= editor.getDocumentProvider().getAnnotationModel(editor.getEditorInput());
+			IDocument document= editor.getDocumentProvider().getDocument(editor.getEditorInput());
+			processEvents();
+
+			Set<Position> positions= getSearchAnnotationPositions(annotationModel);
+			assertTrue("Only matches around the viewport are annotated", positions.size() < lines / 2);
+			assertVisibleMatchesAnnotated(viewer, document, positions);
+
+			viewer.setTopIndex(lines - 100);
+			processEvents();
+			positions= getSearchAnnotationPositions(annotationModel);
+			assertTrue(positions.size() < lines / 2);
+			assertVisibleMatchesAnnotated(viewer, document, positions);
+
+			// edits move the matches, they are still annotated after scrolling back
+			document.replace(0, 0, "inserted\n");
+			viewer.setTopIndex(0);
+			processEvents();
+			assertVisibleMatchesAnnotated(viewer, document, getSearchAnnotationPositions(annotationModel));
+		} finally {
+			SearchPlugin.getActivePage().closeAllEditors(false);
+			file.delete(true, null);
+		}
+	}
+
+	private Set<Position> getSearchAnnotationPositions(IAnnotationModel annotationModel) {
+		Set<Position> positions= new HashSet<>();
+		for (Iterator<Annotation> iter= annotationModel.getAnnotationIterator(); iter.hasNext();) {
+			Annotation annotation= iter.next();
+			if (annotation.getType().equals(fAnnotationTypeLookup.getAnnotationType(NewSearchUI.SEARCH_MARKER, IMarker.SEVERITY_INFO))) {
+				positions.add(annotationModel.getPosition(annotation));
+			}
+		}
+		return positions;
+	}
+
+	private static void assertVisibleMatchesAnnotated(ITextViewer viewer, IDocument document, Set<Position> positions) throws BadLocationException {
+		for (int line= viewer.getTopIndex(); line <= viewer.getBottomIndex(); line++) {
+			int offset= document.getLineOffset(line);
+			if (document.getLineLength(line) >= 4 && document.get(offset, 4).equals("Test")) {
+				assertTrue("match not annotated in line " + line, positions.contains(new Position(offset, 4)));
+			}
+		}
+	}
+
+	private static void processEvents() {
+		Display display= Display.getDefault();
+		for (int i= 0; i < 10; i++) {
+			while (display.readAndDispatch()) {
+				// process the pending updates of the annotations
+			}
+		}
+	}
 }
@@ -0,0 +1,98 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.search.tests.filesearch;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.Position;
+
+import org.eclipse.search2.internal.ui.text.DeferredPositions;
+import org.eclipse.search2.internal.ui.text.DeferredPositions.DeferredPosition;
+
+public class DeferredPositionsTest {
+
+	@Test
+	public void testInsertAndDelete() throws Exception {
+		IDocument doc= new Document("0123456789");
+		DeferredPositions positions= new DeferredPositions(doc);
+		try {
+			DeferredPosition position= positions.add(4, 2);
+			doc.replace(0, 0, "abc");
+			doc.replace(8, 0, "x"); // inside the position
+			positions.update(position);
+			assertEquals(7, position.getOffset());
+			assertEquals(3, position.getLength());
+
+			doc.replace(6, 5, "");
+			positions.update(position);
+			assertTrue(position.isDeleted());
+		} finally {
+			positions.dispose();
+		}
+	}
+
+	@Test
+	public void testSameAsDocumentPositions() throws Exception {
+		Random random= new Random(4711);
+		StringBuilder content= new StringBuilder();
+		for (int i= 0; i < 2000; i++) {
+			content.append((char) ('a' + random.nextInt(26)));
+		}
+		IDocument doc= new Document(content.toString());
+		DeferredPositions deferredPositions= new DeferredPositions(doc);
+		try {
+			int count= 100;
+			Position[] expected= new Position[count];
+			DeferredPosition[] actual= new DeferredPosition[count];
+			for (int i= 0; i < count; i++) {
+				int offset= random.nextInt(doc.getLength() - 10);
+				int length= random.nextInt(10);
+				expected[i]= new Position(offset, length);
+				doc.addPosition(expected[i]);
+				actual[i]= deferredPositions.add(offset, length);
+			}
+			// enough edits to replay the log on all positions in between
+			for (int edit= 0; edit < 5000; edit++) {
+				int offset= random.nextInt(doc.getLength() + 1);
+				int length= Math.min(random.nextInt(3), doc.getLength() - offset);
+				String text= random.nextBoolean() ? "" : "xyz".substring(random.nextInt(3));
+				doc.replace(offset, length, text);
+				if (edit % 997 == 0) {
+					int i= random.nextInt(count);
+					assertSamePosition(expected[i], deferredPositions.update(actual[i]));
+				}
+			}
+			for (int i= 0; i < count; i++) {
+				assertSamePosition(expected[i], deferredPositions.update(actual[i]));
+			}
+		} finally {
+			deferredPositions.dispose();
+		}
+	}
+
+	private static void assertSamePosition(Position expected, Position actual) {
+		assertEquals(expected.isDeleted(), actual.isDeleted());
+		if (!expected.isDeleted()) {
+			assertEquals(expected.getOffset(), actual.getOffset());
+			assertEquals(expected.getLength(), actual.getLength());
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -15,8 +15,12 @@ package org.eclipse.search.tests.filesearch;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 import static org.junit.Assume.assumeFalse;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
 import org.junit.Before;
 import org.junit.ClassRule;
 import org.junit.Test;
@@ -24,6 +28,7 @@ import org.junit.Test;
 import org.eclipse.core.runtime.jobs.Job;
 
 import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IResource;
 
 import org.eclipse.core.filebuffers.FileBuffers;
 import org.eclipse.core.filebuffers.ITextFileBuffer;
@@ -54,6 +59,9 @@ public class PositionTrackerTest {
 	@ClassRule
 	public static JUnitSourceSetup junitSource= new JUnitSourceSetup();
 
+	// more matches than the position tracker keeps in the document
+	private static final int MANY_MATCHES= 1500;
+
 	@Before
 	public void setUp() throws Exception {
 		String[] fileNamePatterns= { "*.java" };
@@ -147,4 +155,59 @@ public class PositionTrackerTest {
 		}
 	}
 
+	@Test
+	public void testDeferredTracking() throws Exception {
+		StringBuilder contents= new StringBuilder();
+		for (int i= 0; i < MANY_MATCHES; i++) {
+			contents.append("Test ").append(i).append('\n');
+		}
+		IFile file= junitSource.getStandardProject().getFile("DeferredTracking.txt");
+		file.create(new ByteArrayInputStream(contents.toString().getBytes(StandardCharsets.UTF_8)), true, null);
+		FileTextSearchScope scope= FileTextSearchScope.newSearchScope(new IResource[] { file }, new String[] { "*.txt" }, false);
+		FileSearchQuery query= new FileSearchQuery("Test", false, true, scope);
+		NewSearchUI.runQueryInForeground(null, query);
+		AbstractTextSearchResult result= (AbstractTextSearchResult) query.getSearchResult();
+		Match[] matches= result.getMatches(file);
+		assertEquals(MANY_MATCHES, matches.length);
+		int[] originalStarts= new int[matches.length];
+		for (int i= 0; i < originalStarts.length; i++) {
+			originalStarts[i]= matches[i].getOffset();
+		}
+		try {
+			SearchTestPlugin.openTextEditor(SearchPlugin.getActivePage(), file);
+			ITextFileBuffer fb= FileBuffers.getTextFileBufferManager().getTextFileBuffer(file.getFullPath(), LocationKind.IFILE);
+			Job.getJobManager().beginRule(file, null);
+			IDocument doc= fb.getDocument();
+			doc.replace(0, 0, "xx");
+			// deletes the first match
+			doc.replace(originalStarts[0] + 1, 6, "");
+			// extends the second match
+			doc.replace(originalStarts[1] - 4 + 1, 0, "Test");
+
+			Position first= InternalSearchUI.getInstance().getPositionTracker().getCurrentPosition(matches[0]);
+			assertTrue(first.isDeleted());
+			Position second= InternalSearchUI.getInstance().getPositionTracker().getCurrentPosition(matches[1]);
+			assertEquals(originalStarts[1] - 4, second.getOffset());
+			assertEquals(8, second.getLength());
+			for (int i= 2; i < matches.length; i++) {
+				Position currentPosition= InternalSearchUI.getInstance().getPositionTracker().getCurrentPosition(matches[i]);
+				assertNotNull(currentPosition);
+				assertEquals(originalStarts[i], currentPosition.getOffset());
+				assertEquals("Test", doc.get(currentPosition.getOffset(), currentPosition.getLength()));
+			}
+
+			// saving updates the matches and removes the deleted one
+			fb.commit(null, true);
+			assertEquals(MANY_MATCHES - 1, result.getMatchCount(file));
+			assertEquals(originalStarts[1] - 4, matches[1].getOffset());
+			assertEquals(8, matches[1].getLength());
+			for (int i= 2; i < matches.length; i++) {
+				assertEquals(originalStarts[i], matches[i].getOffset());
+			}
+		} finally {
+			Job.getJobManager().endRule(file);
+			SearchPlugin.getActivePage().closeAllEditors(false);
+			file.delete(true, null);
+		}
+	}
 }
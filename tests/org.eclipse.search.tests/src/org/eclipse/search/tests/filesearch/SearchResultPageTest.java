@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2000, 2016 IBM Corporation and others.
+ * Copyright (c) 2000, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -44,6 +44,8 @@ import org.eclipse.search.ui.text.AbstractTextSearchViewPage;
 import org.eclipse.search.ui.text.FileTextSearchScope;
 import org.eclipse.search.ui.text.Match;
 
+import org.eclipse.search2.internal.ui.InternalSearchUI;
+
 public class SearchResultPageTest {
 	FileSearchQuery fQuery1;
 
@@ -110,6 +112,31 @@ public class SearchResultPageTest {
 		//page.setUpdateTracing(false);
 	}
 
+	@Test
+	public void testTreeUpdatedWhileSearching() throws Exception {
+		NewSearchUI.runQueryInForeground(null, fQuery1);
+		ISearchResultViewPart view= NewSearchUI.getSearchResultView();
+		FileSearchPage page= (FileSearchPage) view.getActivePage();
+		page.setLayout(AbstractTextSearchViewPage.FLAG_LAYOUT_TREE);
+		consumeEvents(page);
+
+		// the matches of the second run are added to the tree in batches while the search runs
+		NewSearchUI.runQueryInBackground(fQuery1);
+		IJobManager manager= Job.getJobManager();
+		while (manager.find(InternalSearchUI.FAMILY_SEARCH).length > 0) {
+			Display.getDefault().readAndDispatch();
+		}
+		consumeEvents(page);
+
+		AbstractTreeViewer viewer= (AbstractTreeViewer) page.getViewer();
+		AbstractTextSearchResult result= (AbstractTextSearchResult) fQuery1.getSearchResult();
+		assertTrue(result.getMatchCount() > 0);
+		viewer.expandAll();
+		for (Object element : result.getElements()) {
+			assertTrue(viewer.testFindItem(element) instanceof Item);
+		}
+	}
+
 	private void consumeEvents(FileSearchPage page) {
 		IJobManager manager= Job.getJobManager();
 		while (manager.find(page).length > 0) {
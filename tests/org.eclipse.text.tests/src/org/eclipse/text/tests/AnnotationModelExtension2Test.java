@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2015 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -20,8 +20,10 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.Random;
 
 import org.junit.After;
+import org.junit.Assert;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -276,4 +278,146 @@ public class AnnotationModelExtension2Test {
 		assertPermutations(true, true, expected);
 	}
 
+	@Test
+	public void testWithoutDocument() throws Exception {
+		fAnnotationModel.disconnect(fDocument);
+		try {
+			assertPermutations(false, false, new Annotation[] { fInside, fInsideIn });
+			assertPermutations(true, false, new Annotation[] { fInside, fInsideIn, fBefore, fBeforeIn });
+			assertPermutations(false, true, new Annotation[] { fInside, fInsideIn, fAfter, fAfterIn });
+			assertPermutations(true, true, new Annotation[] { fInside, fInsideIn, fInsideOut, fAfter, fAfterIn, fBefore, fBeforeIn });
+		} finally {
+			fAnnotationModel.connect(fDocument);
+		}
+	}
+
+	@Test
+	public void testManyAnnotationsWithoutDocument() throws Exception {
+		AnnotationModel model= new AnnotationModel();
+		Random random= new Random(42);
+		ArrayList<Annotation> annotations= new ArrayList<>();
+		for (int i= 0; i < 2000; i++) {
+			Annotation annotation= new Annotation(false);
+			model.addAnnotation(annotation, new Position(random.nextInt(10000), random.nextInt(5) == 0 ? random.nextInt(500) : random.nextInt(10)));
+			annotations.add(annotation);
+		}
+
+		for (int round= 0; round < 20; round++) {
+			for (int i= 0; i < 50; i++) {
+				Annotation annotation= annotations.get(random.nextInt(annotations.size()));
+				if (random.nextBoolean()) {
+					model.modifyAnnotationPosition(annotation, new Position(random.nextInt(10000), random.nextInt(20)));
+				} else {
+					model.removeAnnotation(annotation);
+					annotations.remove(annotation);
+				}
+			}
+
+			for (int i= 0; i < 20; i++) {
+				assertRegionQueries(model, annotations, random.nextInt(10000), random.nextInt(300));
+			}
+		}
+	}
+
+	@Test
+	public void testQueriesBetweenChangesWithoutDocument() throws Exception {
+		AnnotationModel model= new AnnotationModel();
+		Random random= new Random(7);
+		ArrayList<Annotation> annotations= new ArrayList<>();
+		for (int i= 0; i < 500; i++) {
+			Annotation annotation= new Annotation(false);
+			model.addAnnotation(annotation, new Position(random.nextInt(5000), random.nextInt(50)));
+			annotations.add(annotation);
+		}
+
+		// single changes between the queries update the index instead of building it again
+		for (int step= 0; step < 1000; step++) {
+			int kind= random.nextInt(3);
+			if (kind == 0 || annotations.isEmpty()) {
+				Annotation annotation= new Annotation(false);
+				model.addAnnotation(annotation, new Position(random.nextInt(5000), random.nextInt(5) == 0 ? random.nextInt(1000) : random.nextInt(20)));
+				annotations.add(annotation);
+			} else if (kind == 1) {
+				Annotation annotation= annotations.get(random.nextInt(annotations.size()));
+				model.modifyAnnotationPosition(annotation, new Position(random.nextInt(5000), random.nextInt(20)));
+			} else {
+				Annotation annotation= annotations.remove(random.nextInt(annotations.size()));
+				model.removeAnnotation(annotation);
+			}
+			assertRegionQueries(model, annotations, random.nextInt(5000), random.nextInt(300));
+		}
+	}
+
+	@Test
+	public void testQueriesBetweenDocumentChanges() throws Exception {
+		Document document= new Document("0123456789\n".repeat(500));
+		AnnotationModel model= new AnnotationModel();
+		model.connect(document);
+		Random random= new Random(13);
+		ArrayList<Annotation> annotations= new ArrayList<>();
+		for (int i= 0; i < 500; i++) {
+			Annotation annotation= new Annotation(false);
+			model.addAnnotation(annotation, new Position(random.nextInt(5000), random.nextInt(5) == 0 ? random.nextInt(200) : random.nextInt(20)));
+			annotations.add(annotation);
+		}
+
+		// the positions are moved by the document, deleting text may delete some of them
+		for (int step= 0; step < 1000; step++) {
+			int length= document.getLength();
+			int kind= random.nextInt(4);
+			if (kind == 0) {
+				document.replace(random.nextInt(length + 1), 0, "typed");
+			} else if (kind == 1) {
+				int offset= random.nextInt(length);
+				document.replace(offset, Math.min(random.nextInt(3), length - offset), "");
+			} else if (kind == 2) {
+				int offset= random.nextInt(length);
+				document.replace(offset, Math.min(random.nextInt(100), length - offset), "x".repeat(random.nextInt(100)));
+			} else {
+				Annotation annotation= new Annotation(false);
+				int offset= random.nextInt(length);
+				model.addAnnotation(annotation, new Position(offset, Math.min(random.nextInt(20), length - offset)));
+				annotations.add(annotation);
+			}
+			annotations.removeIf(annotation -> model.getPosition(annotation).isDeleted());
+			int offset= random.nextInt(document.getLength() + 1);
+			assertRegionQueries(model, annotations, offset, random.nextInt(300));
+		}
+		model.disconnect(document);
+	}
+
+	private static void assertRegionQueries(AnnotationModel model, ArrayList<Annotation> annotations, int offset, int length) {
+		for (int mode= 0; mode < 4; mode++) {
+			boolean canStartBefore= (mode & 1) != 0;
+			boolean canEndAfter= (mode & 2) != 0;
+			HashSet<Annotation> expected= new HashSet<>();
+			for (Annotation annotation : annotations) {
+				Position position= model.getPosition(annotation);
+				if (isWithinRegion(position, offset, length, canStartBefore, canEndAfter))
+					expected.add(annotation);
+			}
+
+			HashSet<Annotation> actual= new HashSet<>();
+			Iterator<Annotation> iterator= model.getAnnotationIterator(offset, length, canStartBefore, canEndAfter);
+			while (iterator.hasNext()) {
+				actual.add(iterator.next());
+			}
+			Assert.assertEquals(expected, actual);
+		}
+	}
+
+	private static boolean isWithinRegion(Position position, int offset, int length, boolean canStartBefore, boolean canEndAfter) {
+		Position region= new Position(offset, length);
+		int start= position.getOffset();
+		int last= start + position.getLength() - (position.getLength() > 0 ? 1 : 0);
+		if (canStartBefore && canEndAfter)
+			return region.overlapsWith(start, position.getLength());
+		else if (canStartBefore)
+			return region.includes(last);
+		else if (canEndAfter)
+			return region.includes(start);
+		else
+			return region.includes(start) && region.includes(last);
+	}
+
 }
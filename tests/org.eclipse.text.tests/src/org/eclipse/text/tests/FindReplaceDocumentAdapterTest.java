@@ -27,10 +27,16 @@ import org.junit.Before;
 import org.junit.Ignore;
 import org.junit.Test;
 
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.core.runtime.OperationCanceledException;
+
 import org.eclipse.jface.text.BadLocationException;
 import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.DocumentEvent;
 import org.eclipse.jface.text.FindReplaceDocumentAdapter;
+import org.eclipse.jface.text.IDocumentListener;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
 import org.eclipse.jface.text.Region;
 
 /**
@@ -503,4 +509,94 @@ public class FindReplaceDocumentAdapterTest {
 		}
 		fail();
 	}
+
+	@Test
+	public void testReplaceAll() throws Exception {
+		FindReplaceDocumentAdapter adapter= new FindReplaceDocumentAdapter(fDocument);
+		String expected= fDocument.get().replace("comment", "remark");
+		int[] events= new int[1];
+		fDocument.addDocumentListener(new IDocumentListener() {
+			@Override
+			public void documentAboutToBeChanged(DocumentEvent event) {
+			}
+
+			@Override
+			public void documentChanged(DocumentEvent event) {
+				events[0]++;
+			}
+		});
+		Position position= new Position(fDocument.get().indexOf("method2"), 7);
+		fDocument.addPosition(position);
+
+		int count= adapter.replaceAll(0, fDocument.getLength(), "Comment", "remark", false, false, false, null);
+
+		assertEquals(3, count);
+		assertEquals(expected, fDocument.get());
+		assertEquals(1, events[0]);
+		assertEquals(new Position(expected.indexOf("method2"), 7), position);
+	}
+
+	@Test
+	public void testReplaceAllInRange() throws Exception {
+		FindReplaceDocumentAdapter adapter= new FindReplaceDocumentAdapter(fDocument);
+		String contents= fDocument.get();
+		int offset= contents.indexOf("// comment1");
+		int length= contents.indexOf("// comment2") + 4 - offset;
+
+		int count= adapter.replaceAll(offset, length, "comment", "remark", true, false, false, null);
+
+		assertEquals(1, count);
+		assertEquals(contents.replace("comment1", "remark1"), fDocument.get());
+	}
+
+	@Test
+	public void testRegexReplaceAll() throws Exception {
+		FindReplaceDocumentAdapter adapter= new FindReplaceDocumentAdapter(fDocument);
+		String expected= fDocument.get().replaceAll("void (method)(\\d)", "void $1_$2\\(int i\\)");
+
+		int count= adapter.replaceAll(0, fDocument.getLength(), "void (method)(\\d)", "void $1_$2\\(int i\\)", true, false, true, null);
+
+		assertEquals(2, count);
+		assertEquals(expected, fDocument.get());
+		assertEquals("void method_1(int i)() {", fDocument.get(fDocument.search(0, "void method_1", true, true, false), 24));
+	}
+
+	@Test
+	public void testReplaceAllMatchesSequentialReplace() throws Exception {
+		StringBuilder builder= new StringBuilder();
+		for (int i= 0; i < 1000; i++)
+			builder.append("line ").append(i).append(" Foo foo fOO\n");
+		Document sequential= new Document(builder.toString());
+		fDocument.set(builder.toString());
+
+		FindReplaceDocumentAdapter adapter= new FindReplaceDocumentAdapter(sequential);
+		int expectedCount= 0;
+		IRegion region= adapter.find(0, "(f)(o+)", true, false, false, true);
+		while (region != null) {
+			region= adapter.replace("\\C$2$1", true);
+			expectedCount++;
+			region= adapter.find(region.getOffset() + region.getLength(), "(f)(o+)", true, false, false, true);
+		}
+
+		int count= new FindReplaceDocumentAdapter(fDocument).replaceAll(0, fDocument.getLength(), "(f)(o+)", "\\C$2$1", false, false, true, null);
+
+		assertEquals(expectedCount, count);
+		assertEquals(sequential.get(), fDocument.get());
+	}
+
+	@Test
+	public void testReplaceAllCanceled() throws Exception {
+		FindReplaceDocumentAdapter adapter= new FindReplaceDocumentAdapter(fDocument);
+		String contents= fDocument.get();
+		NullProgressMonitor monitor= new NullProgressMonitor();
+		monitor.setCanceled(true);
+
+		try {
+			adapter.replaceAll(0, fDocument.getLength(), "comment", "remark", false, false, false, monitor);
+			fail();
+		} catch (OperationCanceledException e) {
+			// expected
+		}
+		assertEquals(contents, fDocument.get());
+	}
 }
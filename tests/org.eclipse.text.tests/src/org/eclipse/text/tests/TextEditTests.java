@@ -18,6 +18,7 @@ import static org.junit.Assert.*;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Random;
 
 import org.junit.After;
 import org.junit.Assert;
@@ -43,6 +44,7 @@ import org.eclipse.text.edits.UndoEdit;
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
 import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Position;
 
 public class TextEditTests {
 
@@ -1385,6 +1387,79 @@ public class TextEditTests {
 		assertEquals(result, 2, 1);
 	}
 
+	@Test
+	public void testBulkUpdate() throws Exception {
+		MultiTextEdit nested= new MultiTextEdit();
+		ReplaceEdit e1= new ReplaceEdit(2, 1, "xx");
+		nested.addChild(e1);
+		RangeMarker m1= new RangeMarker(4, 2);
+		DeleteEdit e2= new DeleteEdit(5, 1);
+		m1.addChild(e2);
+		nested.addChild(m1);
+		fRoot.addChild(new InsertEdit(0, "www."));
+		fRoot.addChild(new InsertEdit(0, "eclipse."));
+		fRoot.addChild(nested);
+		InsertEdit e3= new InsertEdit(10, "end");
+		fRoot.addChild(e3);
+		UndoEdit undo= fRoot.apply(fDocument, TextEdit.CREATE_UNDO | TextEdit.UPDATE_REGIONS | TextEdit.BULK_UPDATE);
+		Assert.assertEquals("Buffer content", "www.eclipse.01xx346789end", fDocument.get());
+		assertEquals(e1, 14, 2);
+		assertEquals(m1, 17, 1);
+		assertEquals(e2, 18, 0);
+		assertEquals(e3, 22, 3);
+		doUndoRedo(undo, "www.eclipse.01xx346789end");
+	}
+
+	@Test
+	public void testBulkUpdateMatchesSequentialUpdate() throws Exception {
+		Random random= new Random(4711);
+		StringBuilder contents= new StringBuilder();
+		for (int i= 0; i < 2000; i++)
+			contents.append((char) ('a' + random.nextInt(26)));
+		Document sequential= new Document(contents.toString());
+		Document bulk= new Document(contents.toString());
+		for (int i= 0; i < 500; i++) {
+			int offset= random.nextInt(contents.length());
+			int length= random.nextInt(Math.min(20, contents.length() - offset) + 1);
+			sequential.addPosition(new Position(offset, length));
+			bulk.addPosition(new Position(offset, length));
+		}
+
+		MultiTextEdit sequentialRoot= new MultiTextEdit();
+		int offset= 0;
+		while (offset < contents.length()) {
+			int length= random.nextInt(Math.min(4, contents.length() - offset) + 1);
+			switch (random.nextInt(3)) {
+				case 0:
+					sequentialRoot.addChild(new InsertEdit(offset, "ins"));
+					break;
+				case 1:
+					sequentialRoot.addChild(new DeleteEdit(offset, length));
+					break;
+				default:
+					sequentialRoot.addChild(new ReplaceEdit(offset, length, "rep"));
+			}
+			offset+= length + random.nextInt(10);
+		}
+		MultiTextEdit bulkRoot= (MultiTextEdit) sequentialRoot.copy();
+
+		UndoEdit sequentialUndo= sequentialRoot.apply(sequential, TextEdit.CREATE_UNDO | TextEdit.UPDATE_REGIONS);
+		UndoEdit bulkUndo= bulkRoot.apply(bulk, TextEdit.CREATE_UNDO | TextEdit.UPDATE_REGIONS | TextEdit.BULK_UPDATE);
+
+		Assert.assertEquals("Buffer content", sequential.get(), bulk.get());
+		Assert.assertArrayEquals("Positions", sequential.getPositions(IDocument.DEFAULT_CATEGORY), bulk.getPositions(IDocument.DEFAULT_CATEGORY));
+		TextEdit[] sequentialEdits= sequentialRoot.getChildren();
+		TextEdit[] bulkEdits= bulkRoot.getChildren();
+		for (int i= 0; i < sequentialEdits.length; i++) {
+			Assert.assertEquals("Offset", sequentialEdits[i].getOffset(), bulkEdits[i].getOffset());
+			Assert.assertEquals("Length", sequentialEdits[i].getLength(), bulkEdits[i].getLength());
+		}
+		Assert.assertEquals("Undo", sequentialUndo.toString(), bulkUndo.toString());
+
+		bulkUndo.apply(bulk);
+		Assert.assertEquals("Buffer content restored", contents.toString(), bulk.get());
+	}
+
 	private void doUndoRedo(UndoEdit undo, String redoResult) throws Exception {
 		UndoEdit redo= undo.apply(fDocument);
 		assertBufferContent();
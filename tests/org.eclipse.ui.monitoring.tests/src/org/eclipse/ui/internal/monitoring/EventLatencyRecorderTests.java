@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.stream.Stream;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Tests for the {@link EventLatencyRecorder} class.
+ */
+public class EventLatencyRecorderTests {
+	private static final int FIRST_TYPE = 60;
+	private static final int SECOND_TYPE = 61;
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private EventLatencyRecorder recorder;
+
+	@Before
+	public void setUp() {
+		recorder = EventLatencyRecorder.getDefault();
+		recorder.reset();
+	}
+
+	@After
+	public void tearDown() {
+		recorder.unregisterMBean();
+		recorder.reset();
+	}
+
+	@Test
+	public void testWriteSnapshot() throws IOException {
+		recorder.record(FIRST_TYPE, 100);
+		recorder.record(FIRST_TYPE, 300);
+		recorder.record(SECOND_TYPE, 5000);
+		Path file = folder.getRoot().toPath().resolve("latency").resolve("snapshot.csv");
+
+		recorder.writeSnapshot(file);
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertEquals("timestamp,event_type,count,p50_us,p99_us,max_us", lines.get(0));
+		String[] first = findRow(lines, FIRST_TYPE);
+		assertEquals("2", first[2]);
+		assertEquals("300", first[5]);
+		String[] second = findRow(lines, SECOND_TYPE);
+		assertEquals("1", second[2]);
+		assertEquals("5000", second[5]);
+		assertEquals("All rows of a snapshot share the timestamp", first[0], second[0]);
+	}
+
+	@Test
+	public void testWriteSnapshotReplacesFile() throws IOException {
+		Path file = folder.getRoot().toPath().resolve("snapshot.csv");
+		Files.write(file, "old content\nwhich is longer than the new snapshot\n".repeat(100)
+				.getBytes(StandardCharsets.UTF_8));
+		recorder.record(FIRST_TYPE, 100);
+
+		recorder.writeSnapshot(file);
+		recorder.record(FIRST_TYPE, 200);
+		recorder.writeSnapshot(file);
+
+		List<String> lines = Files.readAllLines(file, StandardCharsets.UTF_8);
+		assertFalse(lines.contains("old content"));
+		assertEquals("2", findRow(lines, FIRST_TYPE)[2]);
+		try (Stream<Path> files = Files.list(folder.getRoot().toPath())) {
+			assertEquals("Temporary files were left behind", List.of(file), files.toList());
+		}
+	}
+
+	@Test
+	public void testUnregisterMBean() throws Exception {
+		MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+		ObjectName name = new ObjectName(EventLatencyRecorder.OBJECT_NAME);
+		recorder.registerMBean();
+		assertTrue(server.isRegistered(name));
+
+		recorder.unregisterMBean();
+		assertFalse(server.isRegistered(name));
+
+		// A restarted bundle registers the recorder again.
+		recorder.registerMBean();
+		assertTrue(server.isRegistered(name));
+	}
+
+	private static String[] findRow(List<String> lines, int eventType) {
+		for (String line : lines.subList(1, lines.size())) {
+			String[] columns = line.split(",");
+			assertEquals(6, columns.length);
+			if (columns[1].equals(Integer.toString(eventType))) {
+				return columns;
+			}
+		}
+		fail("No row for event type " + eventType);
+		return null;
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (C) 2014, 2019 Google Inc and others.
+ * Copyright (C) 2014, 2023 Google Inc and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -26,6 +26,7 @@ import java.util.List;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.widgets.Event;
 import org.eclipse.ui.internal.monitoring.EventLoopMonitorThread.Parameters;
+import org.eclipse.ui.monitoring.LatencyHistogram;
 import org.eclipse.ui.monitoring.PreferenceConstants;
 import org.eclipse.ui.monitoring.StackSample;
 import org.eclipse.ui.monitoring.UiFreezeEvent;
@@ -175,6 +176,24 @@ public class EventLoopMonitorThreadTests {
 		monitorThreadControl.resumeThread();
 	}
 
+	/**
+	 * Passes an event to a monitoring thread that has not been started.
+	 */
+	private static void dispatch(EventLoopMonitorThread thread, int eventType, int detail) {
+		Event event = new Event();
+		event.type = eventType;
+		event.detail = detail;
+		thread.handleEvent(event);
+	}
+
+	/**
+	 * Returns the number of recorded latencies of the given event type.
+	 */
+	private static long getLatencyCount(int eventType) {
+		LatencyHistogram histogram = EventLatencyRecorder.getDefault().getHistogram(eventType);
+		return histogram == null ? 0 : histogram.getTotalCount();
+	}
+
 	/**
 	 * Returns relative times of the stack samples in a text form.
 	 */
@@ -552,4 +571,60 @@ public class EventLoopMonitorThreadTests {
 		assertEquals("A freeze event's duration is incorrect", eventDuration,
 				event.getTotalDuration());
 	}
+
+	@Test
+	public void testNestedEventLatencies() throws Exception {
+		EventLoopMonitorThread thread = createTestThread(FREEZE_THRESHOLD_MS);
+		EventLatencyRecorder recorder = EventLatencyRecorder.getDefault();
+		recorder.reset();
+
+		dispatch(thread, SWT.PreEvent, SWT.MouseDown);
+		dispatch(thread, SWT.PreEvent, SWT.Paint);
+		Thread.sleep(20);
+		dispatch(thread, SWT.PostEvent, SWT.Paint);
+		dispatch(thread, SWT.PreEvent, SWT.KeyDown);
+		// Events ignored by the monitoring must not disturb the pairing.
+		dispatch(thread, SWT.PreEvent, SWT.Skin);
+		dispatch(thread, SWT.PostEvent, SWT.Skin);
+		dispatch(thread, SWT.PostEvent, SWT.KeyDown);
+		dispatch(thread, SWT.PreExternalEventDispatch, 0);
+		dispatch(thread, SWT.PreEvent, SWT.Resize);
+		dispatch(thread, SWT.PostEvent, SWT.Resize);
+		dispatch(thread, SWT.PostExternalEventDispatch, 0);
+		Thread.sleep(10);
+		dispatch(thread, SWT.PostEvent, SWT.MouseDown);
+
+		assertEquals(1, getLatencyCount(SWT.MouseDown));
+		assertEquals(1, getLatencyCount(SWT.Paint));
+		assertEquals(1, getLatencyCount(SWT.KeyDown));
+		assertEquals(1, getLatencyCount(SWT.Resize));
+		assertEquals(0, getLatencyCount(SWT.Skin));
+		assertTrue("The nested event was not measured from its own PreEvent",
+				recorder.getHistogram(SWT.Paint).getMaxValue() >= 20000);
+		assertTrue("The outer event was not measured across the nested events",
+				recorder.getHistogram(SWT.MouseDown).getMaxValue() >= 30000);
+		assertTrue("The nested event includes the time of the outer event",
+				recorder.getHistogram(SWT.KeyDown).getMaxValue() < 20000);
+	}
+
+	@Test
+	public void testEventsStartedBeforeListening() throws Exception {
+		EventLoopMonitorThread thread = createTestThread(FREEZE_THRESHOLD_MS);
+		EventLatencyRecorder recorder = EventLatencyRecorder.getDefault();
+		recorder.reset();
+
+		// The PreEvents of KeyDown and MouseDown were sent before the listener was added.
+		dispatch(thread, SWT.PostEvent, SWT.KeyDown);
+		dispatch(thread, SWT.PreEvent, SWT.Paint);
+		dispatch(thread, SWT.PostEvent, SWT.Paint);
+		dispatch(thread, SWT.PostEvent, SWT.MouseDown);
+
+		assertEquals(0, getLatencyCount(SWT.KeyDown));
+		assertEquals(1, getLatencyCount(SWT.Paint));
+		assertEquals(0, getLatencyCount(SWT.MouseDown));
+
+		dispatch(thread, SWT.PreEvent, SWT.MouseDown);
+		dispatch(thread, SWT.PostEvent, SWT.MouseDown);
+		assertEquals(1, getLatencyCount(SWT.MouseDown));
+	}
 }
@@ -0,0 +1,89 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.eclipse.ui.monitoring.LatencyHistogram;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link LatencyHistogram} class.
+ */
+public class LatencyHistogramTests {
+
+	@Test
+	public void testEmpty() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(0, histogram.getMaxValue());
+		assertEquals(0, histogram.getValueAtPercentile(99));
+	}
+
+	@Test
+	public void testSmallValuesAreExact() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < 8; i++) {
+			histogram.recordValue(i);
+		}
+		assertEquals(8, histogram.getTotalCount());
+		assertEquals(3, histogram.getValueAtPercentile(50));
+		assertEquals(7, histogram.getValueAtPercentile(100));
+		assertEquals(7, histogram.getMaxValue());
+	}
+
+	@Test
+	public void testPercentileError() {
+		Random random = new Random(1);
+		long[] values = new long[10000];
+		LatencyHistogram histogram = new LatencyHistogram();
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (long) Math.exp(random.nextDouble() * 30);
+			histogram.recordValue(values[i]);
+		}
+		Arrays.sort(values);
+		for (double percentile : new double[] { 1, 10, 50, 90, 99, 99.9 }) {
+			long expected = values[(int) Math.ceil(percentile / 100 * values.length) - 1];
+			long actual = histogram.getValueAtPercentile(percentile);
+			assertTrue(percentile + ": " + actual + " < " + expected, actual >= expected);
+			assertTrue(percentile + ": " + actual + " > " + expected, actual <= expected + expected / 8);
+		}
+		assertEquals(values[values.length - 1], histogram.getMaxValue());
+		assertEquals(values[values.length - 1], histogram.getValueAtPercentile(100));
+	}
+
+	@Test
+	public void testLargeValues() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.recordValue(Long.MAX_VALUE);
+		histogram.recordValue(-1);
+		assertEquals(0, histogram.getValueAtPercentile(50));
+		assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(99));
+	}
+
+	@Test
+	public void testCopyAndReset() {
+		LatencyHistogram histogram = new LatencyHistogram();
+		histogram.recordValue(1000);
+		LatencyHistogram copy = histogram.copy();
+		histogram.reset();
+		assertEquals(0, histogram.getTotalCount());
+		assertEquals(1, copy.getTotalCount());
+		assertEquals(1000, copy.getMaxValue());
+	}
+}
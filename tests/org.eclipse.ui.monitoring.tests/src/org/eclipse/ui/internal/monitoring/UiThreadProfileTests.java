@@ -0,0 +1,102 @@
+/*******************************************************************************
+ * Copyright (C) 2023 Google Inc and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     Google Inc - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.monitoring;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.junit.Test;
+
+/**
+ * Tests for the {@link UiThreadProfile} class.
+ */
+public class UiThreadProfileTests {
+
+	/**
+	 * Creates a stack with the innermost frame first from the given methods, which are listed
+	 * from the outermost one.
+	 */
+	private static StackTraceElement[] stack(String... methods) {
+		StackTraceElement[] stack = new StackTraceElement[methods.length];
+		for (int i = 0; i < methods.length; i++) {
+			int dot = methods[i].lastIndexOf('.');
+			stack[methods.length - 1 - i] = new StackTraceElement(methods[i].substring(0, dot),
+					methods[i].substring(dot + 1), "Test.java", i);
+		}
+		return stack;
+	}
+
+	private static Set<String> collapsed(UiThreadProfile profile, long since) throws IOException {
+		StringWriter writer = new StringWriter();
+		if (since < 0) {
+			profile.writeCollapsedStacks(writer);
+		} else {
+			profile.writeCollapsedStacks(writer, since);
+		}
+		return new HashSet<>(Arrays.asList(writer.toString().split("\n")));
+	}
+
+	@Test
+	public void testCallTree() throws Exception {
+		UiThreadProfile profile = new UiThreadProfile(100, 100);
+		profile.addSample(1, stack("a.Main.run", "a.B.b", "a.C.c"));
+		profile.addSample(2, stack("a.Main.run", "a.B.b", "a.C.c"));
+		profile.addSample(3, stack("a.Main.run", "a.B.b"));
+		profile.addSample(4, stack("a.Main.run", "a.D.d", "a.C.c"));
+
+		assertEquals(4, profile.getSampleCount());
+		assertEquals(6, profile.getNodeCount());
+		assertEquals(new HashSet<>(Arrays.asList(
+				"a.Main.run;a.B.b;a.C.c 2",
+				"a.Main.run;a.B.b 1",
+				"a.Main.run;a.D.d;a.C.c 1")),
+				collapsed(profile, -1));
+	}
+
+	@Test
+	public void testRecentSamples() throws Exception {
+		UiThreadProfile profile = new UiThreadProfile(100, 3);
+		profile.addSample(1, stack("a.Main.run", "a.B.b"));
+		profile.addSample(2, stack("a.Main.run", "a.C.c"));
+		profile.addSample(3, stack("a.Main.run", "a.C.c"));
+		profile.addSample(4, stack("a.Main.run", "a.D.d"));
+
+		// The first sample has been dropped from the buffer.
+		assertEquals(new HashSet<>(Arrays.asList("a.Main.run;a.C.c 2", "a.Main.run;a.D.d 1")),
+				collapsed(profile, 0));
+		assertEquals(new HashSet<>(Arrays.asList("a.Main.run;a.C.c 1", "a.Main.run;a.D.d 1")),
+				collapsed(profile, 3));
+		// The call tree keeps all samples.
+		assertEquals(new HashSet<>(Arrays.asList("a.Main.run;a.B.b 1", "a.Main.run;a.C.c 2", "a.Main.run;a.D.d 1")),
+				collapsed(profile, -1));
+	}
+
+	@Test
+	public void testMaxNodes() throws Exception {
+		UiThreadProfile profile = new UiThreadProfile(4, 10);
+		profile.addSample(1, stack("a.Main.run", "a.B.b", "a.C.c"));
+		profile.addSample(2, stack("a.Main.run", "a.D.d", "a.E.e"));
+		profile.addSample(3, stack("a.Main.run", "a.B.b", "a.C.c", "a.F.f"));
+
+		assertEquals(4, profile.getNodeCount());
+		assertEquals(2, profile.getTruncatedSampleCount());
+		assertEquals(new HashSet<>(Arrays.asList("a.Main.run;a.B.b;a.C.c 2", "a.Main.run 1")),
+				collapsed(profile, -1));
+	}
+}
@@ -45,6 +45,7 @@ public class JFacePerformanceSuite extends FilteredTestSuite {
 		addTestSuite(ProgressMonitorDialogPerformanceTest.class);
 		addTestSuite(ShrinkingTreeTest.class);
 		addTestSuite(CollatorPerformanceTest.class);
+		addTestSuite(ViewerComparatorPerformanceTest.class);
 
 	}
 }
@@ -0,0 +1,111 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.jface.tests.performance;
+
+import java.text.Collator;
+import java.util.Random;
+
+import org.eclipse.jface.viewers.ContentViewer;
+import org.eclipse.jface.viewers.ISelection;
+import org.eclipse.jface.viewers.LabelProvider;
+import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.jface.viewers.ViewerComparator;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.ui.tests.performance.BasicPerformanceTest;
+
+/**
+ * Measures {@link ViewerComparator#sort(org.eclipse.jface.viewers.Viewer, Object[])}
+ * on a large number of elements whose labels come from a label provider.
+ */
+public class ViewerComparatorPerformanceTest extends BasicPerformanceTest {
+
+	private static final int ELEMENT_COUNT = 100000;
+
+	private static TestElement[] fElements;
+
+	/**
+	 * A viewer without a control, only used to provide the label provider.
+	 */
+	private static class LabelViewer extends ContentViewer {
+		LabelViewer() {
+			setLabelProvider(new LabelProvider() {
+				@Override
+				public String getText(Object element) {
+					return ((TestElement) element).getText();
+				}
+			});
+		}
+
+		@Override
+		public Control getControl() {
+			return null;
+		}
+
+		@Override
+		public ISelection getSelection() {
+			return StructuredSelection.EMPTY;
+		}
+
+		@Override
+		public void refresh() {
+		}
+
+		@Override
+		public void setSelection(ISelection selection, boolean reveal) {
+		}
+	}
+
+	public ViewerComparatorPerformanceTest(String testName) {
+		super(testName);
+		generateElements();
+	}
+
+	/**
+	 * Sorts with the default string comparator.
+	 */
+	public void testSortDefaultComparator() {
+		measureSort(new ViewerComparator());
+	}
+
+	/**
+	 * Sorts with a collator, which is what the IDE installs as the JFace
+	 * comparator.
+	 */
+	public void testSortCollator() {
+		measureSort(new ViewerComparator(Collator.getInstance()));
+	}
+
+	private void measureSort(ViewerComparator comparator) {
+		LabelViewer viewer = new LabelViewer();
+		for (int i = 0; i < 15; i++) {
+			Object[] elements = fElements.clone();
+			startMeasuring();
+			comparator.sort(viewer, elements);
+			stopMeasuring();
+		}
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static void generateElements() {
+		if (fElements == null) {
+			Random random = new Random(ELEMENT_COUNT);
+			fElements = new TestElement[ELEMENT_COUNT];
+			for (int i = 0; i < ELEMENT_COUNT; i++) {
+				fElements[i] = new TestElement(random.nextInt(ELEMENT_COUNT));
+			}
+		}
+	}
+}
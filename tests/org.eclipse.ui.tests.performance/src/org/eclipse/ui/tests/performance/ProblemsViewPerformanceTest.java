@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -19,6 +19,7 @@ import java.util.Map;
 
 import org.eclipse.core.resources.IMarker;
 import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.IWorkspace;
 import org.eclipse.core.resources.IWorkspaceRoot;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
@@ -26,6 +27,8 @@ import org.eclipse.test.performance.Dimension;
 import org.eclipse.ui.IWorkbenchPage;
 import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PartInitException;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
 import org.eclipse.ui.tests.performance.parts.PerformanceProblemsView;
 import org.eclipse.ui.texteditor.MarkerUtilities;
 
@@ -86,6 +89,62 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Test the incremental update of the problems view when many of its markers
+	 * change at once.
+	 */
+	public void testLargeDelta() throws CoreException {
+		// the view reads the preference when it is created
+		setPreference(IDEWorkbenchPlugin.getDefault().getPreferenceStore(),
+				IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES, true);
+		IWorkbenchWindow window = openTestWindow(EMPTY_PERSPECTIVE_ID);
+		final IWorkbenchPage page = window.getActivePage();
+
+		PerformanceProblemsView view;
+
+		try {
+			view = (PerformanceProblemsView) page.showView(PROBLEMS_VIEW_ID);
+		} catch (PartInitException e) {
+			e.printStackTrace();
+			fail();
+			return;
+		}
+
+		IWorkspace workspace = ResourcesPlugin.getWorkspace();
+		IMarker[][] markers = new IMarker[1][];
+		workspace.run(monitor -> markers[0] = createMarkers(10000), null);
+		while (view.getTreeWidget().getItemCount() == 0)
+			processEvents();
+
+		// every fifth marker becomes a warning, adding the warnings category
+		IMarker[] changed = new IMarker[markers[0].length / 5];
+		for (int i = 0; i < changed.length; i++) {
+			changed[i] = markers[0][i * 5];
+		}
+		for (int i = 0; i < 20; i++) {
+			startMeasuring();
+			workspace.run(monitor -> setSeverity(changed, IMarker.SEVERITY_WARNING), null);
+			while (view.getTreeWidget().getItemCount() < 2)
+				processEvents();
+			stopMeasuring();
+			workspace.run(monitor -> setSeverity(changed, IMarker.SEVERITY_ERROR), null);
+			while (view.getTreeWidget().getItemCount() > 1)
+				processEvents();
+		}
+		workspace.run(monitor -> removeMarkers(), null);
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	/**
+	 * Set the severity of the markers.
+	 */
+	private void setSeverity(IMarker[] markers, int severity) throws CoreException {
+		for (IMarker marker : markers) {
+			marker.setAttribute(IMarker.SEVERITY, severity);
+		}
+	}
+
 	/**
 	 * Remove the created markers
 	 */
@@ -128,4 +187,17 @@ public class ProblemsViewPerformanceTest extends BasicPerformanceTest {
 
 	}
 
+	/**
+	 * Create the given number of error markers.
+	 */
+	private IMarker[] createMarkers(int count) throws CoreException {
+		IWorkspaceRoot root = ResourcesPlugin.getWorkspace().getRoot();
+		IMarker[] markers = new IMarker[count];
+		for (int i = 0; i < count; i++) {
+			markers[i] = root.createMarker(IMarker.PROBLEM, Map.of(IMarker.SEVERITY,
+					Integer.valueOf(IMarker.SEVERITY_ERROR), IMarker.MESSAGE, "this is a test " + i));
+		}
+		return markers;
+	}
+
 }
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2016, 2019 Stefan Xenos and others.
+ * Copyright (c) 2016, 2023 Stefan Xenos and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -14,10 +14,21 @@
 package org.eclipse.ui.tests.performance;
 
 import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.atomic.AtomicInteger;
 
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.core.runtime.OperationCanceledException;
 import org.eclipse.core.runtime.SubMonitor;
 import org.eclipse.core.runtime.jobs.Job;
+import org.eclipse.e4.core.contexts.ContextInjectionFactory;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.e4.ui.model.application.MApplication;
+import org.eclipse.e4.ui.progress.IProgressService;
+import org.eclipse.e4.ui.progress.internal.JobInfo;
+import org.eclipse.e4.ui.progress.internal.ProgressManager;
+import org.eclipse.e4.ui.progress.internal.ProgressServiceImpl;
+import org.eclipse.e4.ui.progress.internal.Services;
+import org.eclipse.jface.dialogs.Dialog;
 import org.eclipse.jface.dialogs.ProgressMonitorDialog;
 import org.eclipse.swt.widgets.Display;
 import org.eclipse.test.performance.Dimension;
@@ -25,6 +36,7 @@ import org.eclipse.ui.IWorkbenchWindow;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.internal.IPreferenceConstants;
 import org.eclipse.ui.internal.WorkbenchPlugin;
+import org.eclipse.ui.internal.dialogs.WorkbenchDialogBlockedHandler;
 
 /**
  * Verifies the performance of progress reporting APIs in various contexts which
@@ -51,6 +63,17 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 	 */
 	public static final int VERY_SLOW_OPERATION_ITERATIONS = 100000;
 
+	/**
+	 * Number of jobs scheduled at once by {@link #testManyJobsReportingProgress}.
+	 */
+	public static final int JOB_COUNT = 10000;
+
+	/**
+	 * Number of progress updates reported by each of the {@link #JOB_COUNT}
+	 * jobs.
+	 */
+	public static final int JOB_UPDATES = 100;
+
 	/**
 	 * Maximum time to run each test. Increase to get better results during
 	 * profiling.
@@ -64,6 +87,7 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 	public static final int MAX_ITERATIONS = 100;
 	private volatile boolean isDone;
 	private Display display;
+	private IEclipseContext e4Context;
 
 	/**
 	 * Create a new instance of the receiver.
@@ -287,6 +311,108 @@ public class ProgressReportingTest extends BasicPerformanceTest {
 		});
 	}
 
+	/**
+	 * Test the cost of many concurrent jobs reporting progress, which all
+	 * compete for the progress manager and the UI refresh
+	 */
+	public void testManyJobsReportingProgress() throws Exception {
+		openTestWindow();
+		setRunInBackground(true);
+		runAsyncTest(this::scheduleManyJobs);
+	}
+
+	/**
+	 * Test the cost of many concurrent jobs reporting progress to the e4
+	 * progress manager
+	 */
+	public void testManyJobsReportingProgressE4() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		setRunInBackground(true);
+		installE4ProgressManager(window);
+		try {
+			runAsyncTest(this::scheduleManyJobs);
+		} finally {
+			uninstallE4ProgressManager();
+		}
+	}
+
+	/**
+	 * Verifies that a monitor of the e4 progress manager keeps reporting to the
+	 * info of its job after the info it started with was removed
+	 */
+	public void testE4MonitorAfterJobInfoRemoved() {
+		ProgressManager manager = installE4ProgressManager(openTestWindow());
+		try {
+			Job job = Job.create("Test Job", monitor -> {
+			});
+			IProgressMonitor monitor = manager.createMonitor(job);
+			manager.removeJob(job);
+
+			monitor.beginTask("Test Job", 10);
+			JobInfo info = null;
+			for (JobInfo each : manager.getJobInfos(true)) {
+				if (each.getJob() == job) {
+					info = each;
+				}
+			}
+			assertNotNull("The progress was reported to a removed job info", info);
+			info.cancel();
+			assertTrue(monitor.isCanceled());
+			monitor.done();
+		} finally {
+			uninstallE4ProgressManager();
+		}
+	}
+
+	/**
+	 * Schedules {@link #JOB_COUNT} jobs which report progress and ends the test
+	 * once all of them are done
+	 */
+	private void scheduleManyJobs() {
+		AtomicInteger remaining = new AtomicInteger(JOB_COUNT);
+		for (int j = 0; j < JOB_COUNT; j++) {
+			Job.create("Test Job " + j, monitor -> {
+				monitor.beginTask("Test Job", JOB_UPDATES);
+				int i = 0;
+				while (i < JOB_UPDATES) {
+					monitor.subTask(Integer.toString(i));
+					monitor.worked(1);
+					i++;
+				}
+				monitor.done();
+
+				if (remaining.decrementAndGet() == 0) {
+					endAsyncTest();
+				}
+			}).schedule();
+		}
+	}
+
+	/**
+	 * Replaces the workbench progress manager with the e4 one, created the way
+	 * the e4 progress view add-on does, until
+	 * {@link #uninstallE4ProgressManager()} is called.
+	 */
+	private ProgressManager installE4ProgressManager(IWorkbenchWindow window) {
+		e4Context = window.getService(IEclipseContext.class).createChild("e4 progress test");
+		e4Context.set(IProgressService.class, ContextInjectionFactory.make(ProgressServiceImpl.class, e4Context));
+		ContextInjectionFactory.make(Services.class, e4Context);
+		ProgressManager manager = ContextInjectionFactory.make(ProgressManager.class, e4Context);
+		e4Context.set(ProgressManager.class, manager);
+		return manager;
+	}
+
+	/**
+	 * Disposes the e4 progress manager and installs the workbench one again.
+	 */
+	private void uninstallE4ProgressManager() {
+		e4Context.get(MApplication.class).getContext().remove(Services.class);
+		e4Context.dispose();
+		e4Context = null;
+		Job.getJobManager().setProgressProvider(org.eclipse.ui.internal.progress.ProgressManager.getInstance());
+		Dialog.setBlockedHandler(new WorkbenchDialogBlockedHandler());
+	}
+
 	/**
 	 * Test the cost of monitor.subTask in the progress service
 	 */
@@ -0,0 +1,119 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+
+package org.eclipse.ui.tests.performance;
+
+import org.eclipse.core.runtime.IProgressMonitor;
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IDocument;
+import org.eclipse.ui.internal.texteditor.quickdiff.DocumentLineDiffer;
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.eclipse.ui.texteditor.quickdiff.IQuickDiffReferenceProvider;
+import org.junit.Test;
+
+/**
+ * Measures how long the quick diff needs to synchronize a large document with
+ * its reference, initially and after the reference changed (as on save).
+ */
+public class QuickDiffPerformanceTest extends BasicPerformanceTest {
+
+	private static final int LINES = 50000;
+
+	private static final class ReferenceProvider implements IQuickDiffReferenceProvider {
+
+		private final IDocument reference;
+
+		ReferenceProvider(IDocument reference) {
+			this.reference = reference;
+		}
+
+		@Override
+		public IDocument getReference(IProgressMonitor monitor) {
+			return reference;
+		}
+
+		@Override
+		public void dispose() {
+		}
+
+		@Override
+		public String getId() {
+			return ReferenceProvider.class.getName();
+		}
+
+		@Override
+		public void setActiveEditor(ITextEditor editor) {
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public void setId(String id) {
+		}
+	}
+
+	public QuickDiffPerformanceTest() {
+		super("Quick diff synchronization of " + LINES + " lines");
+	}
+
+	@Test
+	public void testSynchronizeAfterSave() throws Throwable {
+		StringBuilder builder = new StringBuilder();
+		for (int i = 0; i < LINES; i++) {
+			builder.append("\tint field").append(i).append(" = ").append(i).append(";\n");
+		}
+		String contents = builder.toString();
+
+		exercise(() -> {
+			Document reference = new Document(contents);
+			Document document = new Document(contents);
+			DocumentLineDiffer differ = new DocumentLineDiffer();
+			differ.setReferenceProvider(new ReferenceProvider(reference));
+			try {
+				for (int i = 1; i < 10; i++) {
+					document.replace(document.getLineOffset(i * LINES / 10), 0, "\t// changed\n");
+				}
+
+				startMeasuring();
+				differ.connect(document);
+				waitForSynchronized(differ);
+
+				// simulate a save: the reference takes over the current contents
+				reference.set(document.get());
+				waitForSynchronized(differ);
+				stopMeasuring();
+			} catch (BadLocationException | InterruptedException e) {
+				throw new RuntimeException(e);
+			} finally {
+				differ.disconnect(document);
+			}
+		});
+		commitMeasurements();
+		assertPerformance();
+	}
+
+	private static void waitForSynchronized(DocumentLineDiffer differ) throws InterruptedException {
+		long timeout = System.currentTimeMillis() + 60000;
+		while (!differ.isSynchronized()) {
+			if (System.currentTimeMillis() > timeout) {
+				throw new IllegalStateException("Quick diff did not synchronize");
+			}
+			Thread.sleep(5);
+		}
+	}
+}
@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2006, 2017 IBM Corporation and others.
+ * Copyright (c) 2006, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -28,8 +28,14 @@ import org.eclipse.core.commands.NotHandledException;
 import org.eclipse.core.commands.ParameterizedCommand;
 import org.eclipse.core.commands.common.NotDefinedException;
 import org.eclipse.core.commands.contexts.Context;
+import org.eclipse.core.expressions.EvaluationResult;
+import org.eclipse.core.expressions.Expression;
+import org.eclipse.core.expressions.ExpressionInfo;
 import org.eclipse.core.expressions.IEvaluationContext;
 import org.eclipse.e4.core.commands.internal.HandlerServiceImpl;
+import org.eclipse.e4.core.contexts.IEclipseContext;
+import org.eclipse.jface.viewers.IStructuredSelection;
+import org.eclipse.jface.viewers.StructuredSelection;
 import org.eclipse.ui.IPageLayout;
 import org.eclipse.ui.ISources;
 import org.eclipse.ui.IWorkbenchPart;
@@ -92,6 +98,29 @@ public class HandlerActivationTest extends UITestCase {
 		}
 	}
 
+	/**
+	 * Active when the current selection has the given number of elements.
+	 */
+	static class SelectionSizeExpression extends Expression {
+		private final int size;
+
+		SelectionSizeExpression(int size) {
+			this.size = size;
+		}
+
+		@Override
+		public void collectExpressionInfo(ExpressionInfo info) {
+			info.addVariableNameAccess(ISources.ACTIVE_CURRENT_SELECTION_NAME);
+		}
+
+		@Override
+		public EvaluationResult evaluate(IEvaluationContext context) {
+			Object selection = context.getVariable(ISources.ACTIVE_CURRENT_SELECTION_NAME);
+			return EvaluationResult.valueOf(
+					selection instanceof IStructuredSelection s && s.size() == size);
+		}
+	}
+
 	public static final String C_PREFIX = "org.eclipse.ui.tests.contexts.";
 
 	public static final String C1_ID = C_PREFIX + ISources.ACTIVE_CONTEXT_NAME;
@@ -464,4 +493,42 @@ public class HandlerActivationTest extends UITestCase {
 		assertTrue(cmd.isEnabled());
 		handlerService.executeCommandInContext(pcmd, null, outlineContext);
 	}
+
+	@Test
+	public void testSelectionChangesHandlerInSameLeaf() throws Exception {
+		ActTestHandler handler1 = new ActTestHandler(null);
+		ActTestHandler handler2 = new ActTestHandler(null);
+		testHandlers.put(H1, handler1);
+		testHandlers.put(H2, handler2);
+		testHandlerActivations.put(H1,
+				handlerService.activateHandler(CMD_ID, handler1, new SelectionSizeExpression(1)));
+		testHandlerActivations.put(H2,
+				handlerService.activateHandler(CMD_ID, handler2, new SelectionSizeExpression(2)));
+		Command cmd = commandService.getCommand(CMD_ID);
+
+		// The selection changes without a handler activation or a change of the active leaf.
+		IEclipseContext leaf = services.getService(IEclipseContext.class).getActiveLeaf();
+		Object oldSelection = leaf.getLocal(ISources.ACTIVE_CURRENT_SELECTION_NAME);
+		try {
+			leaf.set(ISources.ACTIVE_CURRENT_SELECTION_NAME, new StructuredSelection(new Object()));
+			assertHandlerIsExecuted(cmd, H1);
+
+			leaf.set(ISources.ACTIVE_CURRENT_SELECTION_NAME,
+					new StructuredSelection(new Object[] { new Object(), new Object() }));
+			assertSame(leaf, services.getService(IEclipseContext.class).getActiveLeaf());
+			assertHandlerIsExecuted(cmd, H2);
+
+			leaf.set(ISources.ACTIVE_CURRENT_SELECTION_NAME, StructuredSelection.EMPTY);
+			assertFalse("Should not be handled without a matching selection", cmd.isHandled());
+
+			leaf.set(ISources.ACTIVE_CURRENT_SELECTION_NAME, new StructuredSelection(new Object()));
+			assertHandlerIsExecuted(cmd, H1);
+		} finally {
+			if (oldSelection == null) {
+				leaf.remove(ISources.ACTIVE_CURRENT_SELECTION_NAME);
+			} else {
+				leaf.set(ISources.ACTIVE_CURRENT_SELECTION_NAME, oldSelection);
+			}
+		}
+	}
 }
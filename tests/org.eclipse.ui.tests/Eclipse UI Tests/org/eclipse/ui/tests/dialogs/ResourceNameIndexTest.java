@@ -0,0 +1,140 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.dialogs;
+
+import java.io.ByteArrayInputStream;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IFolder;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IResource;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.internal.ide.dialogs.ResourceNameIndex;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.junit.Assert;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that the {@link ResourceNameIndex} follows the changes of the
+ * workspace.
+ */
+@RunWith(JUnit4.class)
+public class ResourceNameIndexTest extends UITestCase {
+
+	private final String prefix = "rni" + System.currentTimeMillis();
+
+	private IProject project;
+
+	public ResourceNameIndexTest() {
+		super(ResourceNameIndexTest.class.getSimpleName());
+	}
+
+	@Override
+	public void doSetUp() throws Exception {
+		super.doSetUp();
+		ResourceNameIndex index = ResourceNameIndex.getInstance();
+		index.startup();
+		long end = System.currentTimeMillis() + 30000;
+		while (!index.isReady() && System.currentTimeMillis() < end) {
+			Thread.sleep(50);
+		}
+		Assert.assertTrue("The index was not built", index.isReady());
+		project = ResourcesPlugin.getWorkspace().getRoot().getProject(prefix + "Project");
+		project.create(null);
+		project.open(null);
+	}
+
+	@Override
+	public void doTearDown() throws Exception {
+		super.doTearDown();
+		project.delete(true, null);
+	}
+
+	@Test
+	public void testAddedAndRemoved() throws CoreException {
+		IFolder folder = project.getFolder(prefix + "Folder");
+		folder.create(true, true, null);
+		IFile file = createFile(folder, prefix + "File.txt");
+		assertIndexed(project, folder, file);
+
+		folder.delete(true, null);
+		assertIndexed(project);
+
+		IFile recreated = createFile(project.getFolder(prefix + "Folder"), prefix + "File.txt");
+		assertIndexed(project, recreated.getParent(), recreated);
+	}
+
+	@Test
+	public void testManyRemovals() throws CoreException {
+		IFolder folder = project.getFolder(prefix + "Folder");
+		folder.create(true, true, null);
+		Set<IResource> expected = new HashSet<>();
+		expected.add(project);
+		expected.add(folder);
+		for (int i = 0; i < 200; i++) {
+			IFile file = createFile(folder, prefix + i);
+			if (i % 3 != 0) {
+				expected.add(file);
+			}
+		}
+		int size = ResourceNameIndex.getInstance().size();
+		// removing one at a time frees nodes and compacts them now and then
+		for (int i = 0; i < 200; i += 3) {
+			folder.getFile(prefix + i).delete(true, null);
+		}
+		Assert.assertEquals(expected, find());
+		Assert.assertEquals(size - 67, ResourceNameIndex.getInstance().size());
+	}
+
+	@Test
+	public void testClosedAndOpenedProject() throws CoreException {
+		IFolder folder = project.getFolder(prefix + "Folder");
+		folder.create(true, true, null);
+		IFile file = createFile(folder, prefix + "File.txt");
+
+		project.close(null);
+		assertIndexed(project);
+
+		project.open(null);
+		assertIndexed(project, folder, file);
+	}
+
+	private IFile createFile(IFolder folder, String name) throws CoreException {
+		if (!folder.exists()) {
+			folder.create(true, true, null);
+		}
+		IFile file = folder.getFile(name);
+		file.create(new ByteArrayInputStream(new byte[0]), true, null);
+		return file;
+	}
+
+	private Set<IResource> find() {
+		List<IResource> found = ResourceNameIndex.getInstance().find(name -> name.startsWith(prefix),
+				new NullProgressMonitor());
+		Set<IResource> result = new HashSet<>(found);
+		Assert.assertEquals("Resources must be found once", found.size(), result.size());
+		return result;
+	}
+
+	private void assertIndexed(IResource... resources) {
+		Assert.assertEquals(Set.of(resources), find());
+	}
+}
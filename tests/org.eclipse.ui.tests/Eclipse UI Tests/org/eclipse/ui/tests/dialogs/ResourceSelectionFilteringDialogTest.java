@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2019 Red Hat Inc. and others.
+ * Copyright (c) 2019, 2023 Red Hat Inc. and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -12,6 +12,11 @@ package org.eclipse.ui.tests.dialogs;
 
 import java.io.ByteArrayInputStream;
 import java.io.File;
+import java.io.IOException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
 
 import org.eclipse.core.resources.IContainer;
 import org.eclipse.core.resources.IFile;
@@ -19,8 +24,13 @@ import org.eclipse.core.resources.IProject;
 import org.eclipse.core.resources.IResource;
 import org.eclipse.core.resources.ResourcesPlugin;
 import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.IProgressMonitor;
 import org.eclipse.jface.viewers.StructuredSelection;
+import org.eclipse.swt.widgets.Composite;
+import org.eclipse.swt.widgets.Control;
 import org.eclipse.swt.widgets.Shell;
+import org.eclipse.swt.widgets.Table;
+import org.eclipse.swt.widgets.Text;
 import org.eclipse.ui.PlatformUI;
 import org.eclipse.ui.dialogs.FilteredResourcesSelectionDialog;
 import org.eclipse.ui.tests.harness.util.DisplayHelper;
@@ -76,6 +86,65 @@ public class ResourceSelectionFilteringDialogTest extends UITestCase {
 		}
 	}
 
+	@Test
+	public void testParallelMatchingSupported() {
+		SeeThroughFilteredResourcesSelectionDialog dialog = createDialog();
+		try {
+			dialog.open();
+			Assert.assertTrue(dialog.isParallelMatchingSupported());
+			// subclasses may match items with code which is not thread safe
+			Assert.assertFalse(dialog.isParallelMatchingSupportedBySubclass());
+		} finally {
+			dialog.close();
+		}
+	}
+
+	@Test
+	public void testParallelNarrowing() throws CoreException, IOException {
+		File folder = new File(project.getLocation().toFile(), "many");
+		folder.mkdirs();
+		for (int i = 0; i < 10000; i++) {
+			new File(folder, "p" + i + ".txt").createNewFile();
+		}
+		project.refreshLocal(IResource.DEPTH_INFINITE, null);
+		ParallelFilteredResourcesSelectionDialog dialog = new ParallelFilteredResourcesSelectionDialog(
+				PlatformUI.getWorkbench().getActiveWorkbenchWindow().getShell(), project);
+		dialog.setBlockOnOpen(false);
+		try {
+			dialog.setInitialPattern("p");
+			dialog.open();
+			Assert.assertTrue(DisplayHelper.waitForCondition(dialog.getShell().getDisplay(), 30000,
+					() -> dialog.searched && getTable(dialog.getShell()).getItemCount() >= 10000));
+			DisplayHelper.sleep(dialog.getShell().getDisplay(), 500);
+			dialog.matchingThreads.clear();
+
+			// narrows down the 10000 results of the last search
+			((Text) dialog.getPatternControl()).setText("p12");
+			Assert.assertTrue(DisplayHelper.waitForCondition(dialog.getShell().getDisplay(), 30000,
+					() -> getTable(dialog.getShell()).getItemCount() == 111));
+			Assert.assertTrue("The items should have been matched in parallel",
+					ForkJoinPool.getCommonPoolParallelism() <= 1
+							|| dialog.matchingThreads.stream().anyMatch(ForkJoinWorkerThread.class::isInstance));
+		} finally {
+			dialog.close();
+		}
+	}
+
+	private static Table getTable(Composite composite) {
+		for (Control child : composite.getChildren()) {
+			if (child instanceof Table) {
+				return (Table) child;
+			}
+			if (child instanceof Composite) {
+				Table table = getTable((Composite) child);
+				if (table != null) {
+					return table;
+				}
+			}
+		}
+		return null;
+	}
+
 	@Override
 	public void doTearDown() throws Exception {
 		super.doTearDown();
@@ -93,5 +162,56 @@ public class ResourceSelectionFilteringDialogTest extends UITestCase {
 		public StructuredSelection getSelectedItems() {
 			return super.getSelectedItems();
 		}
+
+		boolean isParallelMatchingSupported() {
+			return createFilter().isParallelMatchingSupported();
+		}
+
+		boolean isParallelMatchingSupportedBySubclass() {
+			return new ResourceFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					return super.matchItem(item);
+				}
+			}.isParallelMatchingSupported();
+		}
+	}
+
+	/**
+	 * A dialog with a subclassed resource filter which opts in to parallel
+	 * matching, and records the threads it matches items in.
+	 */
+	private static class ParallelFilteredResourcesSelectionDialog extends FilteredResourcesSelectionDialog {
+
+		final Set<Thread> matchingThreads = ConcurrentHashMap.newKeySet();
+
+		volatile boolean searched;
+
+		public ParallelFilteredResourcesSelectionDialog(Shell shell, IContainer container) {
+			super(shell, false, container, IResource.FILE);
+		}
+
+		@Override
+		protected ItemsFilter createFilter() {
+			return new ResourceFilter() {
+				@Override
+				public boolean matchItem(Object item) {
+					matchingThreads.add(Thread.currentThread());
+					return super.matchItem(item);
+				}
+
+				@Override
+				public boolean isParallelMatchingSupported() {
+					return true;
+				}
+			};
+		}
+
+		@Override
+		protected void fillContentProvider(AbstractContentProvider contentProvider, ItemsFilter itemsFilter,
+				IProgressMonitor progressMonitor) throws CoreException {
+			super.fillContentProvider(contentProvider, itemsFilter, progressMonitor);
+			searched = true;
+		}
 	}
 }
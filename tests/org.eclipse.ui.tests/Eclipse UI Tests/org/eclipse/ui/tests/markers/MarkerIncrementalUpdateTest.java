@@ -0,0 +1,237 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ ******************************************************************************/
+
+package org.eclipse.ui.tests.markers;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.core.resources.IFile;
+import org.eclipse.core.resources.IMarker;
+import org.eclipse.core.resources.IProject;
+import org.eclipse.core.resources.IWorkspace;
+import org.eclipse.core.resources.ResourcesPlugin;
+import org.eclipse.core.runtime.CoreException;
+import org.eclipse.core.runtime.NullProgressMonitor;
+import org.eclipse.ui.IPageLayout;
+import org.eclipse.ui.IWorkbenchWindow;
+import org.eclipse.ui.internal.ide.IDEInternalPreferences;
+import org.eclipse.ui.internal.ide.IDEWorkbenchPlugin;
+import org.eclipse.ui.tests.harness.util.FileUtil;
+import org.eclipse.ui.tests.harness.util.UITestCase;
+import org.eclipse.ui.views.markers.MarkerItem;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Tests that the markers of the problems view, which are updated
+ * incrementally with the marker deltas, are the same as the markers of a full
+ * gather after markers were added, removed and changed.
+ */
+@RunWith(JUnit4.class)
+public class MarkerIncrementalUpdateTest extends UITestCase {
+
+	private static final long TIMEOUT = 30000;
+
+	private IProject project;
+
+	private IFile file;
+
+	private Object builder;
+
+	public MarkerIncrementalUpdateTest() {
+		super(MarkerIncrementalUpdateTest.class.getSimpleName());
+	}
+
+	@Override
+	protected void doSetUp() throws Exception {
+		super.doSetUp();
+		project = FileUtil.createProject("incrementalMarkers");
+		file = FileUtil.createFile("markers.txt", project);
+		// the builder reads the preference when the view is created
+		setPreference(IDEWorkbenchPlugin.getDefault().getPreferenceStore(),
+				IDEInternalPreferences.INCREMENTAL_MARKER_UPDATES, true);
+		IWorkbenchWindow window = openTestWindow();
+		Object view = window.getActivePage().showView(IPageLayout.ID_PROBLEM_VIEW);
+		builder = call(view, "getBuilder");
+		assertTrue((Boolean) call(builder, "isIncremental"));
+		workspace().run(monitor -> createMarkers(0, 20, IMarker.SEVERITY_ERROR), null);
+		assertUpdated();
+	}
+
+	@Override
+	protected void doTearDown() throws Exception {
+		FileUtil.deleteProject(project);
+		super.doTearDown();
+	}
+
+	@Test
+	public void testAddedMarkers() throws Exception {
+		workspace().run(monitor -> createMarkers(20, 10, IMarker.SEVERITY_ERROR), null);
+		assertUpdated();
+
+		// adds the warnings category
+		workspace().run(monitor -> createMarkers(30, 5, IMarker.SEVERITY_WARNING), null);
+		assertUpdated();
+	}
+
+	@Test
+	public void testRemovedMarkers() throws Exception {
+		IMarker[] markers = findMarkers();
+		workspace().run(monitor -> {
+			for (int i = 0; i < markers.length; i += 3) {
+				markers[i].delete();
+			}
+		}, null);
+		assertUpdated();
+
+		workspace().run(monitor -> file.deleteMarkers(IMarker.PROBLEM, false, 0), null);
+		assertUpdated();
+	}
+
+	@Test
+	public void testChangedMarkers() throws Exception {
+		IMarker[] markers = findMarkers();
+		// moves markers to the warnings category
+		workspace().run(monitor -> {
+			for (int i = 0; i < markers.length; i += 4) {
+				markers[i].setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+			}
+		}, null);
+		assertUpdated();
+
+		// changes the order of the markers
+		workspace().run(monitor -> {
+			for (int i = 1; i < markers.length; i += 2) {
+				markers[i].setAttribute(IMarker.MESSAGE, "changed marker " + i);
+			}
+		}, null);
+		assertUpdated();
+	}
+
+	@Test
+	public void testQueuedDeltas() throws Exception {
+		IMarker[] markers = findMarkers();
+		workspace().run(monitor -> {
+			createMarkers(20, 3, IMarker.SEVERITY_WARNING);
+			markers[0].setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+			markers[1].delete();
+		}, null);
+		// the deltas of several operations are combined by the update job
+		workspace().run(monitor -> {
+			markers[0].setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_INFO);
+			markers[2].setAttribute(IMarker.MESSAGE, "changed marker");
+			markers[2].delete();
+			IMarker added = createMarker(23, IMarker.SEVERITY_ERROR);
+			added.setAttribute(IMarker.SEVERITY, IMarker.SEVERITY_WARNING);
+		}, null);
+		workspace().run(monitor -> markers[3].delete(), null);
+		assertUpdated();
+	}
+
+	/**
+	 * Wait until the markers of the view are the same as the markers of a full
+	 * gather.
+	 */
+	private void assertUpdated() throws Exception {
+		processEventsUntil(() -> {
+			try {
+				return !(Boolean) call(builder, "updatesPending")
+						&& describe(call(builder, "getMarkers")).equals(describe(gatherMarkers()));
+			} catch (Exception e) {
+				return false;
+			}
+		}, TIMEOUT);
+		assertEquals(describe(gatherMarkers()), describe(call(builder, "getMarkers")));
+	}
+
+	/**
+	 * Gather, sort and group all markers of the view again.
+	 */
+	private Object gatherMarkers() throws Exception {
+		Object markers = call(builder, "getMarkers");
+		Constructor<?> constructor = markers.getClass().getDeclaredConstructor(builder.getClass());
+		constructor.setAccessible(true);
+		Object gathered = constructor.newInstance(builder);
+		Collection<MarkerItem> entries = new ArrayList<>();
+		call(call(builder, "getGenerator"), "generateMarkerEntries", entries, new NullProgressMonitor());
+		call(gathered, "updateWithNewMarkers", entries, Boolean.TRUE, new NullProgressMonitor());
+		return gathered;
+	}
+
+	/**
+	 * Describe the categories and the sorted entries of the markers.
+	 */
+	private static List<String> describe(Object markers) throws Exception {
+		List<String> description = new ArrayList<>();
+		for (Object category : (Object[]) call(markers, "getCategories")) {
+			description.add("category " + call(category, "getName"));
+			for (MarkerItem item : (MarkerItem[]) call(category, "getChildren")) {
+				description.add(" " + describe(item));
+			}
+		}
+		for (MarkerItem item : (MarkerItem[]) call(markers, "getMarkerEntryArray")) {
+			description.add(describe(item));
+		}
+		description.add(Arrays.toString((Object[]) call(markers, "getMarkerCounts")));
+		return description;
+	}
+
+	private static String describe(MarkerItem item) {
+		return item.getMarker().getId() + " " + item.getAttributeValue(IMarker.SEVERITY, -1) + " "
+				+ item.getAttributeValue(IMarker.MESSAGE, "");
+	}
+
+	/**
+	 * Invoke the internal method of the marker support with the given name.
+	 */
+	private static Object call(Object target, String name, Object... args) throws Exception {
+		for (Class<?> type = target.getClass(); type != null; type = type.getSuperclass()) {
+			for (Method method : type.getDeclaredMethods()) {
+				if (method.getName().equals(name) && method.getParameterCount() == args.length) {
+					method.setAccessible(true);
+					return method.invoke(target, args);
+				}
+			}
+		}
+		throw new NoSuchMethodException(name);
+	}
+
+	private IMarker[] findMarkers() throws CoreException {
+		IMarker[] markers = file.findMarkers(IMarker.PROBLEM, false, 0);
+		Arrays.sort(markers, (marker1, marker2) -> Long.compare(marker1.getId(), marker2.getId()));
+		return markers;
+	}
+
+	private void createMarkers(int first, int count, int severity) throws CoreException {
+		for (int i = first; i < first + count; i++) {
+			createMarker(i, severity);
+		}
+	}
+
+	private IMarker createMarker(int index, int severity) throws CoreException {
+		return file.createMarker(IMarker.PROBLEM,
+				Map.of(IMarker.SEVERITY, Integer.valueOf(severity), IMarker.MESSAGE, "marker " + index));
+	}
+
+	private static IWorkspace workspace() {
+		return ResourcesPlugin.getWorkspace();
+	}
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.tests.quickaccess;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import org.eclipse.jface.resource.ImageDescriptor;
+import org.eclipse.ui.internal.quickaccess.QuickAccessIndex;
+import org.eclipse.ui.internal.quickaccess.QuickAccessMatcher;
+import org.eclipse.ui.internal.quickaccess.QuickAccessProvider;
+import org.eclipse.ui.quickaccess.QuickAccessElement;
+import org.junit.Test;
+
+/**
+ * Checks that {@link QuickAccessIndex} only skips elements which
+ * {@link QuickAccessMatcher} would not match.
+ */
+public class QuickAccessIndexTest {
+
+	private static final String[] LABELS = { "Open Type", "Open Resource", "Show View", "Preferences",
+			"Toggle Breakpoint", "Java Editor", "Run As", "Team Synchronizing", "Quick Outline", "New Java Class",
+			"Format", "Open Call Hierarchy", "Git Repositories", "Problems", "Console (General)" };
+
+	private static final String[] FILTERS = { "o", "op", "open", "o r", "ot", "otyp", "*type", "vi?w", "pr*s",
+			"ja ed", "(gen", "a|b", "[abc]", "xyz", "element", "elements op", "tb", "nj", "9", "" };
+
+	private static class Element extends QuickAccessElement {
+		private final String label;
+
+		Element(String label) {
+			this.label = label;
+		}
+
+		@Override
+		public String getLabel() {
+			return label;
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public String getId() {
+			return label;
+		}
+
+		@Override
+		public void execute() {
+		}
+	}
+
+	private static class Provider extends QuickAccessProvider {
+		private final QuickAccessElement[] elements;
+
+		Provider(QuickAccessElement[] elements) {
+			this.elements = elements;
+		}
+
+		@Override
+		public String getId() {
+			return "test.provider";
+		}
+
+		@Override
+		public String getName() {
+			return "Elements";
+		}
+
+		@Override
+		public ImageDescriptor getImageDescriptor() {
+			return null;
+		}
+
+		@Override
+		public QuickAccessElement[] getElements() {
+			return elements;
+		}
+
+		@Override
+		protected void doReset() {
+		}
+	}
+
+	@Test
+	public void testCandidatesContainAllMatches() {
+		Random random = new Random(42);
+		QuickAccessElement[] elements = new QuickAccessElement[500];
+		for (int i = 0; i < elements.length; i++) {
+			String label = LABELS[random.nextInt(LABELS.length)];
+			elements[i] = new Element(i % 3 == 0 ? label : label + " " + i);
+		}
+		Provider provider = new Provider(elements);
+		QuickAccessElement[] sortedElements = provider.getElementsSorted(null, null);
+		QuickAccessIndex index = provider.getIndex(sortedElements);
+		assertSame(index, provider.getIndex(sortedElements));
+
+		for (String filter : FILTERS) {
+			List<QuickAccessElement> candidates = index.getCandidates(filter);
+			for (QuickAccessElement element : sortedElements) {
+				if (new QuickAccessMatcher(element).match(filter, provider) != null) {
+					assertTrue(filter + " should match " + element.getLabel(), candidates.contains(element));
+				}
+			}
+			assertPrefixMatchesFirst(filter, sortedElements, candidates);
+		}
+	}
+
+	@Test
+	public void testCandidatesSkipElements() {
+		QuickAccessElement[] elements = { new Element("Open Type"), new Element("Show View"),
+				new Element("Problems") };
+		Provider provider = new Provider(elements);
+		QuickAccessIndex index = provider.getIndex(provider.getElementsSorted(null, null));
+		assertEquals(1, index.getCandidates("view").size());
+		assertEquals(0, index.getCandidates("xyz").size());
+		assertEquals(3, index.getCandidates("a|z").size());
+	}
+
+	/**
+	 * Candidates whose label starts with the filter come first, and both groups
+	 * keep the order of the index.
+	 */
+	private static void assertPrefixMatchesFirst(String filter, QuickAccessElement[] sortedElements,
+			List<QuickAccessElement> candidates) {
+		List<QuickAccessElement> prefixMatches = new ArrayList<>();
+		List<QuickAccessElement> others = new ArrayList<>();
+		for (QuickAccessElement element : sortedElements) {
+			if (candidates.contains(element)) {
+				if (element.getLabel().toLowerCase().startsWith(filter)) {
+					prefixMatches.add(element);
+				} else {
+					others.add(element);
+				}
+			}
+		}
+		prefixMatches.addAll(others);
+		assertEquals(filter, prefixMatches, candidates);
+	}
+}
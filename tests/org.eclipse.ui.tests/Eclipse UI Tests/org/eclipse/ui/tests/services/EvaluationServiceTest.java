@@ -1,5 +1,5 @@
 /*******************************************************************************
- * Copyright (c) 2007, 2019 IBM Corporation and others.
+ * Copyright (c) 2007, 2023 IBM Corporation and others.
  *
  * This program and the accompanying materials
  * are made available under the terms of the Eclipse Public License 2.0
@@ -21,6 +21,8 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.concurrent.atomic.AtomicBoolean;
 
+import org.eclipse.core.expressions.AndExpression;
+import org.eclipse.core.expressions.EqualsExpression;
 import org.eclipse.core.expressions.EvaluationResult;
 import org.eclipse.core.expressions.Expression;
 import org.eclipse.core.expressions.ExpressionConverter;
@@ -52,6 +54,7 @@ import org.eclipse.ui.handlers.IHandlerActivation;
 import org.eclipse.ui.handlers.IHandlerService;
 import org.eclipse.ui.internal.WorkbenchWindow;
 import org.eclipse.ui.internal.handlers.HandlerPersistence;
+import org.eclipse.ui.internal.services.EvaluationReference;
 import org.eclipse.ui.services.IEvaluationReference;
 import org.eclipse.ui.services.IEvaluationService;
 import org.eclipse.ui.services.ISourceProviderService;
@@ -456,6 +459,204 @@ public class EvaluationServiceTest extends UITestCase {
 		assertEquals(3, listener.count);
 	}
 
+	@Test
+	public void testReevaluatedWhenVariableChanges() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window.getService(IEvaluationService.class);
+		ActiveUserSourceProvider userProvider = getUserProvider(window);
+		userProvider.setUsername("guest");
+
+		MyEval listener = new MyEval();
+		EvaluationReference ref = (EvaluationReference) service.addEvaluationListener(new UserExpression("Paul"),
+				listener, IEvaluationService.RESULT);
+		try {
+			assertEquals(1, ref.getEvaluationCount());
+
+			userProvider.setUsername("John");
+			assertEquals(2, ref.getEvaluationCount());
+			assertFalse(listener.currentValue);
+			assertEquals(1, listener.count);
+
+			userProvider.setUsername("Paul");
+			assertEquals(3, ref.getEvaluationCount());
+			assertTrue(listener.currentValue);
+			assertEquals(2, listener.count);
+		} finally {
+			service.removeEvaluationListener(ref);
+		}
+	}
+
+	@Test
+	public void testNotReevaluatedForUnrelatedVariables() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window.getService(IEvaluationService.class);
+		IContextService contextService = window.getService(IContextService.class);
+		getUserProvider(window).setUsername("guest");
+
+		MyEval listener = new MyEval();
+		EvaluationReference ref = (EvaluationReference) service.addEvaluationListener(new UserExpression("Paul"),
+				listener, IEvaluationService.RESULT);
+		IContextActivation context1 = null;
+		try {
+			assertEquals(1, ref.getEvaluationCount());
+
+			context1 = contextService.activateContext(CONTEXT_ID1);
+			processEvents();
+			assertTrue(contextService.getActiveContextIds().contains(CONTEXT_ID1));
+			assertEquals(1, ref.getEvaluationCount());
+
+			contextService.deactivateContext(context1);
+			context1 = null;
+			processEvents();
+			assertEquals(1, ref.getEvaluationCount());
+			assertEquals(1, listener.count);
+		} finally {
+			if (context1 != null) {
+				contextService.deactivateContext(context1);
+			}
+			service.removeEvaluationListener(ref);
+		}
+	}
+
+	static class SelectionContainsExpression extends Expression {
+		private final Object element;
+
+		public SelectionContainsExpression(Object element) {
+			this.element = element;
+		}
+
+		@Override
+		public void collectExpressionInfo(ExpressionInfo info) {
+			info.markDefaultVariableAccessed();
+		}
+
+		@Override
+		public EvaluationResult evaluate(IEvaluationContext context) {
+			Object selection = context.getDefaultVariable();
+			return EvaluationResult.valueOf(selection instanceof Collection<?> c && c.contains(element));
+		}
+	}
+
+	@Test
+	public void testDefaultVariableAccess() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window.getService(IEvaluationService.class);
+		SelectionProviderView view = (SelectionProviderView) window.getActivePage()
+				.showView(SelectionProviderView.ID);
+		view.setSelection(StructuredSelection.EMPTY);
+		processEvents();
+
+		MyEval listener = new MyEval();
+		IEvaluationReference ref = service.addEvaluationListener(new SelectionContainsExpression("selected"),
+				listener, IEvaluationService.RESULT);
+		try {
+			assertFalse(listener.currentValue);
+
+			// the default variable is computed from the active selection
+			view.setSelection(new StructuredSelection("selected"));
+			processEvents();
+			assertTrue(listener.currentValue);
+
+			view.setSelection(StructuredSelection.EMPTY);
+			processEvents();
+			assertFalse(listener.currentValue);
+		} finally {
+			service.removeEvaluationListener(ref);
+		}
+	}
+
+	/**
+	 * An expression which does not report the variables it reads.
+	 */
+	static class MisbehavingExpression extends Expression {
+		@Override
+		public EvaluationResult evaluate(IEvaluationContext context) {
+			return EvaluationResult.TRUE;
+		}
+	}
+
+	@Test
+	public void testMisbehavingExpressionIsTracked() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window.getService(IEvaluationService.class);
+		ActiveUserSourceProvider userProvider = getUserProvider(window);
+		userProvider.setUsername("guest");
+
+		AndExpression expression = new AndExpression();
+		expression.add(new UserExpression("Paul"));
+		expression.add(new MisbehavingExpression());
+		assertNotNull(expression.computeExpressionInfo().getMisbehavingExpressionTypes());
+
+		MyEval listener = new MyEval();
+		IEvaluationReference ref = service.addEvaluationListener(expression, listener, IEvaluationService.RESULT);
+		try {
+			assertFalse(listener.currentValue);
+			assertEquals(1, listener.count);
+
+			userProvider.setUsername("Paul");
+			assertTrue(listener.currentValue);
+			assertEquals(2, listener.count);
+
+			userProvider.setUsername("John");
+			assertFalse(listener.currentValue);
+			assertEquals(3, listener.count);
+		} finally {
+			service.removeEvaluationListener(ref);
+		}
+	}
+
+	@Test
+	public void testEqualExpressionsShareResults() throws Exception {
+		IWorkbenchWindow window = openTestWindow();
+		IEvaluationService service = window.getService(IEvaluationService.class);
+		ActiveUserSourceProvider userProvider = getUserProvider(window);
+		userProvider.setUsername("guest");
+		assertEquals(userIs("Paul"), userIs("Paul"));
+
+		MyEval paul1 = new MyEval();
+		MyEval paul2 = new MyEval();
+		MyEval john = new MyEval();
+		EvaluationReference ref1 = (EvaluationReference) service.addEvaluationListener(userIs("Paul"), paul1,
+				IEvaluationService.RESULT);
+		EvaluationReference ref2 = (EvaluationReference) service.addEvaluationListener(userIs("Paul"), paul2,
+				IEvaluationService.RESULT);
+		EvaluationReference ref3 = (EvaluationReference) service.addEvaluationListener(userIs("John"), john,
+				IEvaluationService.RESULT);
+		try {
+			int evaluations = ref1.getEvaluationCount() + ref2.getEvaluationCount();
+			int johnEvaluations = ref3.getEvaluationCount();
+
+			userProvider.setUsername("Paul");
+			assertTrue(paul1.currentValue);
+			assertTrue(paul2.currentValue);
+			assertFalse(john.currentValue);
+			assertEquals("Equal expressions are evaluated once", evaluations + 1,
+					ref1.getEvaluationCount() + ref2.getEvaluationCount());
+			assertEquals(johnEvaluations + 1, ref3.getEvaluationCount());
+
+			userProvider.setUsername("John");
+			assertFalse(paul1.currentValue);
+			assertFalse(paul2.currentValue);
+			assertTrue(john.currentValue);
+			assertEquals(evaluations + 2, ref1.getEvaluationCount() + ref2.getEvaluationCount());
+		} finally {
+			service.removeEvaluationListener(ref1);
+			service.removeEvaluationListener(ref2);
+			service.removeEvaluationListener(ref3);
+		}
+	}
+
+	private static Expression userIs(String name) {
+		WithExpression expression = new WithExpression("username");
+		expression.add(new EqualsExpression(name));
+		return expression;
+	}
+
+	private static ActiveUserSourceProvider getUserProvider(IWorkbenchWindow window) {
+		ISourceProviderService sps = window.getService(ISourceProviderService.class);
+		return (ActiveUserSourceProvider) sps.getSourceProvider("username");
+	}
+
 	@Test
 	@SuppressWarnings("unchecked")
 	public void testSourceProviderPriority() throws Exception {
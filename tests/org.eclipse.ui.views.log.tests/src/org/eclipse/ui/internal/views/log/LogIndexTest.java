@@ -0,0 +1,217 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LogIndexTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = folder.newFile(".log");
+	}
+
+	@Test
+	public void testIndexesRecordsAtLineStarts() throws IOException {
+		String log = session(1) + entry(1, "text !ENTRY in a line") + entry(2, "!SUBENTRY 1 a 4 0 2023-01-01 10:00:00.000")
+				+ session(2) + entry(3, "!MESSAGE and !SESSION inside");
+		write(log);
+		LogIndex index = new LogIndex(file);
+		index.update();
+		assertRecords(log, index);
+		assertEquals(log.length(), index.getLength());
+		assertArrayEquals(new int[] { 0, 3 }, index.getSessions());
+	}
+
+	@Test
+	public void testIncompleteLineIsIndexedLater() throws IOException {
+		String log = session(1) + entry(1, "message");
+		write(log + "!ENTRY org.eclipse.ui 4 0");
+		LogIndex index = new LogIndex(file);
+		index.update();
+		assertEquals(2, index.size());
+		assertEquals(log.length(), index.getLength());
+
+		append(" 2023-01-01 10:00:00.000\n!MESSAGE late\n");
+		index.update();
+		assertRecords(read(), index);
+	}
+
+	@Test
+	public void testUpdateOnlyScansAppendedRecords() throws IOException {
+		write(session(1) + entry(1, "first"));
+		LogIndex index = new LogIndex(file);
+		index.update();
+		long offset = index.getOffset(1);
+
+		append(entry(2, "second") + session(2) + entry(3, "third"));
+		index.update();
+		assertEquals(offset, index.getOffset(1));
+		assertRecords(read(), index);
+		assertArrayEquals(new int[] { 0, 3 }, index.getSessions());
+	}
+
+	@Test
+	public void testReplacedLogIsIndexedAgain() throws IOException {
+		write(session(1) + entry(1, "a long message which makes the first log longer"));
+		LogIndex index = new LogIndex(file);
+		index.update();
+
+		String shorter = entry(2, "short");
+		write(shorter);
+		index.update();
+		assertRecords(shorter, index);
+
+		// same length, but the last indexed record is not in place any more
+		String reordered = "\n" + shorter.substring(0, shorter.length() - 1);
+		write(reordered);
+		index.update();
+		assertRecords(reordered, index);
+		assertEquals(1, index.getOffset(0));
+	}
+
+	@Test
+	public void testRecordsAcrossBufferBoundaries() throws IOException {
+		StringBuilder log = new StringBuilder();
+		for (int i = 0; log.length() < 3 * 1024 * 1024; i++) {
+			if (i % 1000 == 0) {
+				log.append(session(i));
+			}
+			// vary the length so that tags are split at every position
+			log.append(entry(i, "message " + "x".repeat(i % 97)));
+		}
+		write(log.toString());
+		LogIndex index = new LogIndex(file);
+		index.update();
+		assertRecords(log.toString(), index);
+	}
+
+	@Test
+	public void testLogCanBeDeletedAfterUpdate() throws IOException {
+		write(session(1) + entry(1, "message"));
+		LogIndex index = new LogIndex(file);
+		index.update();
+		Files.delete(file.toPath());
+		assertFalse(file.exists());
+		index.update();
+		assertEquals(0, index.size());
+	}
+
+	@Test
+	public void testFindRecordAndSession() throws IOException {
+		String log = entry(0, "before") + session(1) + entry(1, "a") + session(2) + entry(2, "b");
+		write(log);
+		LogIndex index = new LogIndex(file);
+		index.update();
+		assertEquals(-1, index.findSession(0));
+		assertEquals(1, index.findSession(1));
+		assertEquals(1, index.findSession(2));
+		assertEquals(3, index.findSession(4));
+		assertEquals(0, index.findRecord(0));
+		assertEquals(1, index.findRecord(1));
+		assertEquals(2, index.findRecord(index.getOffset(2)));
+		assertEquals(index.size(), index.findRecord(log.length()));
+		assertEquals(log.length(), index.getEndOffset(index.size() - 1));
+	}
+
+	@Test
+	public void testSessionText() throws IOException {
+		write(session(1) + entry(1, "a") + session(2));
+		LogIndex index = new LogIndex(file);
+		index.update();
+		index.setSessionText(0, "first");
+		index.setSessionText(2, "last");
+		assertEquals("first", index.getSessionText(0));
+		assertNull("Lines may be appended to the last record", index.getSessionText(2));
+		assertNull(index.getSessionText(1));
+
+		write(entry(3, "replaced"));
+		index.update();
+		write(session(3) + entry(4, "b"));
+		index.update();
+		assertNull(index.getSessionText(0));
+	}
+
+	private static void assertRecords(String log, LogIndex index) {
+		List<Long> offsets = new ArrayList<>();
+		List<Byte> kinds = new ArrayList<>();
+		int lineStart = 0;
+		while (lineStart < log.length()) {
+			int lineEnd = log.indexOf('\n', lineStart);
+			if (lineEnd < 0) {
+				break;
+			}
+			if (log.startsWith(LogSession.SESSION, lineStart)) {
+				offsets.add(Long.valueOf(lineStart));
+				kinds.add(Byte.valueOf(LogIndex.SESSION));
+			} else if (log.startsWith("!ENTRY", lineStart)) {
+				offsets.add(Long.valueOf(lineStart));
+				kinds.add(Byte.valueOf(LogIndex.ENTRY));
+			}
+			lineStart = lineEnd + 1;
+		}
+		assertEquals(offsets.size(), index.size());
+		for (int i = 0; i < offsets.size(); i++) {
+			assertEquals(offsets.get(i).longValue(), index.getOffset(i));
+			assertEquals(kinds.get(i).byteValue(), index.getKind(i));
+		}
+	}
+
+	static String session(int i) {
+		return "!SESSION 2023-01-01 10:" + two(i / 60 % 60) + ":" + two(i % 60)
+				+ ".000 -----------------------------------------------\neclipse.buildId=" + i
+				+ "\njava.version=17\n\n";
+	}
+
+	static String entry(int i, String message) {
+		return "!ENTRY org.eclipse.ui " + (i % 3 == 0 ? 4 : 2) + " 0 2023-01-01 11:" + two(i / 60 % 60) + ":"
+				+ two(i % 60) + ".000\n!MESSAGE " + message + "\n\n";
+	}
+
+	private static String two(int i) {
+		return i < 10 ? "0" + i : Integer.toString(i);
+	}
+
+	private void write(String log) throws IOException {
+		Files.writeString(file.toPath(), log, StandardCharsets.UTF_8);
+	}
+
+	private void append(String log) throws IOException {
+		Files.writeString(file.toPath(), log, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+	}
+
+	private String read() throws IOException {
+		return Files.readString(file.toPath(), StandardCharsets.UTF_8);
+	}
+}
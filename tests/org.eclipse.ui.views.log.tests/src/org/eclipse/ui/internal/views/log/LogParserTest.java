@@ -0,0 +1,163 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.core.runtime.IStatus;
+import org.eclipse.ui.IMemento;
+import org.eclipse.ui.XMLMemento;
+import org.junit.Test;
+
+public class LogParserTest {
+
+	private static final String LOG = """
+			!SESSION 2023-01-01 10:00:00.000 -----------------------------------------------
+			eclipse.buildId=1
+			java.version=17
+
+			!ENTRY org.eclipse.ui 4 0 2023-01-01 10:00:01.000
+			!MESSAGE first line
+			second line
+			!STACK 0
+			java.lang.Exception: failed
+				at a.B.c(B.java:1)
+
+			!ENTRY org.eclipse.core 2 7 2023-01-01 10:00:02.000
+			!MESSAGE parent
+			!SUBENTRY 1 org.eclipse.core 4 0 2023-01-01 10:00:02.000
+			!MESSAGE child
+
+			!ENTRY org.eclipse.ui 1 0 2023-01-01 10:00:03.000
+			!MESSAGE info
+			""";
+
+	static IMemento createMemento(boolean useLimit, int limit, boolean allSessions) {
+		IMemento memento = XMLMemento.createWriteRoot("test");
+		memento.putString(LogView.P_USE_LIMIT, Boolean.toString(useLimit));
+		memento.putInteger(LogView.P_LOG_LIMIT, limit);
+		memento.putString(LogView.P_SHOW_ALL_SESSIONS, Boolean.toString(allSessions));
+		memento.putString(LogView.P_LOG_INFO, "true");
+		memento.putString(LogView.P_LOG_WARNING, "true");
+		memento.putString(LogView.P_LOG_ERROR, "true");
+		memento.putString(LogView.P_LOG_OK, "true");
+		return memento;
+	}
+
+	@Test
+	public void testEntries() throws IOException {
+		List<LogEntry> entries = parse(LOG, createMemento(false, 0, true), true);
+		assertEquals(3, entries.size());
+
+		LogEntry first = entries.get(0);
+		assertEquals("org.eclipse.ui", first.getPluginId());
+		assertEquals(IStatus.ERROR, first.getSeverity());
+		assertEquals("first line" + System.lineSeparator() + "second line", first.getMessage());
+		assertTrue(first.getStack().startsWith("java.lang.Exception: failed"));
+
+		LogEntry second = entries.get(1);
+		assertEquals(IStatus.WARNING, second.getSeverity());
+		assertEquals(7, second.getCode());
+		assertEquals(1, second.getChildren(null).length);
+		assertEquals("child", ((LogEntry) second.getChildren(null)[0]).getMessage());
+
+		assertEquals("info", entries.get(2).getMessage());
+	}
+
+	@Test
+	public void testSession() throws IOException {
+		List<LogEntry> entries = new ArrayList<>();
+		LogReader.LogParser parser = new LogReader.LogParser(entries, createMemento(false, 0, true), true);
+		parser.parse(new BufferedReader(new StringReader(LOG)));
+		parser.finishStack();
+		parser.flush();
+		assertNotNull(parser.session);
+		assertSame(parser.session, parser.currentSession);
+		assertNotNull(parser.session.getDate());
+		assertTrue(parser.session.getSessionData().contains("eclipse.buildId=1"));
+		for (LogEntry entry : entries) {
+			assertSame(parser.session, entry.getSession());
+		}
+	}
+
+	@Test
+	public void testStackAtEndOfLog() throws IOException {
+		String log = """
+				!ENTRY org.eclipse.ui 4 0 2023-01-01 10:00:01.000
+				!MESSAGE failure
+				!STACK 0
+				java.lang.Exception: at the end
+				""";
+		List<LogEntry> entries = parse(log, createMemento(false, 0, true), true);
+		assertEquals(1, entries.size());
+		assertTrue(entries.get(0).getStack().startsWith("java.lang.Exception: at the end"));
+		assertNotNull("Entries without session get a session", entries.get(0).getSession());
+	}
+
+	@Test
+	public void testLimit() throws IOException {
+		List<LogEntry> entries = parse(LOG, createMemento(true, 2, true), true);
+		assertEquals(2, entries.size());
+		assertEquals("parent", entries.get(0).getMessage());
+
+		entries = parse(LOG, createMemento(true, 2, true), false);
+		assertEquals("Only a limiting parser drops entries", 3, entries.size());
+	}
+
+	@Test
+	public void testFilter() throws IOException {
+		IMemento memento = createMemento(false, 0, true);
+		memento.putString(LogView.P_LOG_ERROR, "false");
+		List<LogEntry> entries = parse(LOG, memento, true);
+		assertEquals(2, entries.size());
+		for (LogEntry entry : entries) {
+			assertTrue(entry.getSeverity() != IStatus.ERROR);
+		}
+	}
+
+	@Test
+	public void testNewerSessionDropsOlderEntries() throws IOException {
+		String log = LOG + """
+				!SESSION 2023-01-02 10:00:00.000 -----------------------------------------------
+				eclipse.buildId=2
+
+				!ENTRY org.eclipse.ui 4 0 2023-01-02 10:00:01.000
+				!MESSAGE new session
+				""";
+		List<LogEntry> entries = parse(log, createMemento(false, 0, false), true);
+		assertEquals(1, entries.size());
+		assertEquals("new session", entries.get(0).getMessage());
+
+		entries = parse(log, createMemento(false, 0, true), true);
+		assertEquals(4, entries.size());
+		assertTrue(entries.get(0).getSession().getSessionData().contains("eclipse.buildId=1"));
+	}
+
+	private static List<LogEntry> parse(String log, IMemento memento, boolean limitEntries) throws IOException {
+		List<LogEntry> entries = new ArrayList<>();
+		LogReader.LogParser parser = new LogReader.LogParser(entries, memento, limitEntries);
+		parser.parse(new BufferedReader(new StringReader(log)));
+		parser.finishStack();
+		parser.flush();
+		return entries;
+	}
+}
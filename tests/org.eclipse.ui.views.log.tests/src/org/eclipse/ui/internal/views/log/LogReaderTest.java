@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.internal.views.log;
+
+import static org.eclipse.ui.internal.views.log.LogIndexTest.entry;
+import static org.eclipse.ui.internal.views.log.LogIndexTest.session;
+import static org.eclipse.ui.internal.views.log.LogParserTest.createMemento;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.eclipse.ui.IMemento;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * Compares reading the log through a {@link LogIndex} with reading it
+ * sequentially.
+ */
+public class LogReaderTest {
+
+	@Rule
+	public TemporaryFolder folder = new TemporaryFolder();
+
+	private File file;
+
+	@Before
+	public void setUp() throws IOException {
+		file = folder.newFile(".log");
+	}
+
+	@Test
+	public void testLimitedCurrentSession() throws IOException {
+		write(createLog(5, 300));
+		assertSameEntries(createMemento(true, 50, false), 1);
+		assertSameEntries(createMemento(true, 1000, false), 1);
+	}
+
+	@Test
+	public void testLimitedAllSessions() throws IOException {
+		write(createLog(5, 300));
+		assertSameEntries(createMemento(true, 50, true), 1);
+		assertSameEntries(createMemento(true, 700, true), 1);
+	}
+
+	@Test
+	public void testUnlimited() throws IOException {
+		write(createLog(5, 300));
+		assertSameEntries(createMemento(false, 0, false), 1);
+		assertSameEntries(createMemento(false, 0, true), 1);
+	}
+
+	@Test
+	public void testEntriesBeforeFirstSession() throws IOException {
+		write(entry(1, "no session") + entry(2, "still none") + session(3) + entry(3, "in session"));
+		assertSameEntries(createMemento(true, 10, true), 1);
+		assertSameEntries(createMemento(true, 10, false), 1);
+	}
+
+	@Test
+	public void testLimitedReadStaysInMaxTailSize() throws IOException {
+		write(createLog(1, 30000));
+		assertTrue(file.length() > 2 * 1024 * 1024);
+		IMemento memento = createMemento(true, 100000, true);
+		List<LogEntry> entries = new ArrayList<>();
+		LogReader.parseLogFile(new LogIndex(file), 1, entries, memento);
+		assertTrue("Entries outside the tail must not be read", entries.size() < 30000 / 2);
+		// the sequential reader does not know the session the tail starts in
+		assertSameEntries(new LogIndex(file), memento, 1, false);
+	}
+
+	@Test
+	public void testRefreshAfterAppend() throws IOException {
+		write(createLog(2, 100));
+		LogIndex index = new LogIndex(file);
+		IMemento memento = createMemento(true, 50, false);
+		List<LogEntry> entries = new ArrayList<>();
+		LogReader.parseLogFile(index, 1, entries, memento);
+
+		append(entry(1000, "appended"));
+		entries.clear();
+		LogSession current = LogReader.parseLogFile(index, 1, entries, memento);
+		assertEquals("appended", entries.get(entries.size() - 1).getMessage());
+		assertSame(current, entries.get(entries.size() - 1).getSession());
+		assertSameEntries(index, memento, 1);
+
+		append(session(1001) + entry(1001, "new session"));
+		assertSameEntries(index, memento, 1);
+	}
+
+	private void assertSameEntries(IMemento memento, long maxTailSizeInMegaByte) {
+		assertSameEntries(new LogIndex(file), memento, maxTailSizeInMegaByte, true);
+	}
+
+	private void assertSameEntries(LogIndex index, IMemento memento, long maxTailSizeInMegaByte) {
+		assertSameEntries(index, memento, maxTailSizeInMegaByte, true);
+	}
+
+	private void assertSameEntries(LogIndex index, IMemento memento, long maxTailSizeInMegaByte,
+			boolean compareSessions) {
+		List<LogEntry> expected = new ArrayList<>();
+		LogSession expectedSession = LogReader.parseLogFile(file, maxTailSizeInMegaByte, expected, memento);
+		List<LogEntry> actual = new ArrayList<>();
+		LogSession actualSession = LogReader.parseLogFile(index, maxTailSizeInMegaByte, actual, memento);
+
+		assertNotNull(actualSession);
+		if (compareSessions) {
+			assertEquals(expectedSession.getDate(), actualSession.getDate());
+		}
+		assertEquals(expected.size(), actual.size());
+		for (int i = 0; i < expected.size(); i++) {
+			LogEntry expectedEntry = expected.get(i);
+			LogEntry actualEntry = actual.get(i);
+			assertEquals(expectedEntry.getMessage(), actualEntry.getMessage());
+			assertEquals(expectedEntry.getSeverity(), actualEntry.getSeverity());
+			if (compareSessions) {
+				assertEquals(expectedEntry.getSession().getDate(), actualEntry.getSession().getDate());
+				assertEquals(expectedEntry.getSession().getSessionData(),
+						actualEntry.getSession().getSessionData());
+			}
+		}
+	}
+
+	/**
+	 * Creates a log whose sessions are not in chronological order, so that
+	 * the current session is not always the last one.
+	 */
+	private static String createLog(int sessions, int entriesPerSession) {
+		StringBuilder log = new StringBuilder();
+		int[] order = { 2, 0, 4, 1, 3 };
+		int entry = 0;
+		for (int s = 0; s < sessions; s++) {
+			log.append(session(order[s % order.length] * 60 + s / order.length));
+			for (int i = 0; i < entriesPerSession; i++, entry++) {
+				log.append(entry(entry, "entry " + entry + " " + "x".repeat(entry % 50)));
+			}
+		}
+		return log.toString();
+	}
+
+	private void write(String log) throws IOException {
+		Files.writeString(file.toPath(), log, StandardCharsets.UTF_8);
+	}
+
+	private void append(String log) throws IOException {
+		Files.writeString(file.toPath(), log, StandardCharsets.UTF_8, StandardOpenOption.APPEND);
+	}
+}
@@ -0,0 +1,170 @@
+/*******************************************************************************
+ * Copyright (c) 2023 IBM Corporation and others.
+ *
+ * This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License 2.0
+ * which accompanies this distribution, and is available at
+ * https://www.eclipse.org/legal/epl-2.0/
+ *
+ * SPDX-License-Identifier: EPL-2.0
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.ui.workbench.texteditor.tests;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import org.eclipse.jface.text.BadLocationException;
+import org.eclipse.jface.text.Document;
+import org.eclipse.jface.text.IRegion;
+import org.eclipse.jface.text.Region;
+
+import org.eclipse.ui.internal.texteditor.spelling.ChangedLinesTracker;
+
+/**
+ * Tests for the {@link ChangedLinesTracker}.
+ */
+public class ChangedLinesTrackerTest {
+
+	private Document fDocument;
+
+	private ChangedLinesTracker fTracker;
+
+	@Before
+	public void setUp() {
+		fDocument= new Document("first line\nsecond line\nthird line\nfourth line\nfifth line");
+		fTracker= new ChangedLinesTracker();
+		fTracker.install(fDocument);
+	}
+
+	@After
+	public void tearDown() {
+		fTracker.uninstall();
+	}
+
+	@Test
+	public void testInitiallyAllChanged() {
+		assertArrayEquals(new IRegion[] { new Region(0, fDocument.getLength()) }, fTracker.takeChangedLines());
+		assertFalse(fTracker.hasChanges());
+		assertArrayEquals(new IRegion[0], fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testSingleLineChange() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(14, 0, "x");
+		assertTrue(fTracker.hasChanges());
+		assertArrayEquals(new IRegion[] { lineRegion(1) }, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testChangesAreShifted() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(fDocument.getLineOffset(3) + 2, 1, "");
+		fDocument.replace(0, 5, "1st");
+		assertArrayEquals(new IRegion[] { lineRegion(0), lineRegion(3) }, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testAdjacentLinesAreMerged() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(fDocument.getLineOffset(2), 1, "T");
+		fDocument.replace(fDocument.getLineOffset(1), 1, "S");
+		IRegion first= lineRegion(1);
+		IRegion last= lineRegion(2);
+		assertArrayEquals(new IRegion[] { new Region(first.getOffset(), last.getOffset() + last.getLength() - first.getOffset()) }, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testInsertedLines() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(fDocument.getLineOffset(4), 0, "new\nlines\n");
+		IRegion first= lineRegion(4);
+		IRegion last= lineRegion(6);
+		assertArrayEquals(new IRegion[] { new Region(first.getOffset(), last.getOffset() + last.getLength() - first.getOffset()) }, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testDeletedLines() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(fDocument.getLineOffset(1), fDocument.getLineOffset(3) - fDocument.getLineOffset(1), "");
+		assertArrayEquals(new IRegion[] { lineRegion(1) }, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testMarkAgain() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fDocument.replace(fDocument.getLineOffset(2), 0, "x");
+		IRegion[] changed= fTracker.takeChangedLines();
+		fTracker.mark(changed);
+		assertArrayEquals(changed, fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testUninstall() throws BadLocationException {
+		fTracker.takeChangedLines();
+		fTracker.uninstall();
+		fDocument.replace(0, 0, "x");
+		assertFalse(fTracker.hasChanges());
+	}
+
+	@Test
+	public void testReset() throws BadLocationException {
+		fDocument.replace(0, 0, "x");
+		fTracker.reset();
+		assertFalse(fTracker.hasChanges());
+		assertArrayEquals(new IRegion[0], fTracker.takeChangedLines());
+	}
+
+	@Test
+	public void testDocumentNotCalledWhileLocked() throws BadLocationException {
+		fTracker.uninstall();
+		// a synchronizable document takes its lock for these queries and holds it while notifying
+		Document document= new Document("first line\nsecond line\nthird line") {
+			@Override
+			public int getLength() {
+				assertFalse(Thread.holdsLock(fTracker));
+				return super.getLength();
+			}
+
+			@Override
+			public IRegion getLineInformationOfOffset(int offset) throws BadLocationException {
+				assertFalse(Thread.holdsLock(fTracker));
+				return super.getLineInformationOfOffset(offset);
+			}
+
+			@Override
+			public int getLineOfOffset(int offset) throws BadLocationException {
+				assertFalse(Thread.holdsLock(fTracker));
+				return super.getLineOfOffset(offset);
+			}
+
+			@Override
+			public String getLineDelimiter(int line) throws BadLocationException {
+				assertFalse(Thread.holdsLock(fTracker));
+				return super.getLineDelimiter(line);
+			}
+		};
+		fTracker.install(document);
+		fTracker.takeChangedLines();
+		document.replace(document.getLineOffset(1), 0, "x");
+		document.replace(document.getLineOffset(2), 0, "y");
+		IRegion[] changed= fTracker.takeChangedLines();
+		assertTrue(changed.length > 0);
+		fTracker.mark(changed);
+		fTracker.markAll();
+		assertTrue(fTracker.hasChanges());
+	}
+
+	private IRegion lineRegion(int line) throws BadLocationException {
+		IRegion info= fDocument.getLineInformation(line);
+		return new Region(info.getOffset(), info.getLength());
+	}
+}
@@ -14,21 +14,67 @@
 package org.eclipse.ui.workbench.texteditor.tests;
 
 import static org.eclipse.jface.text.DocumentRewriteSessionType.SEQUENTIAL;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.junit.Test;
 
+import org.eclipse.core.runtime.IProgressMonitor;
+
 import org.eclipse.jface.text.Document;
 import org.eclipse.jface.text.IDocument;
+import org.eclipse.jface.text.source.ILineDiffInfo;
 
 import org.eclipse.ui.internal.texteditor.quickdiff.DocumentLineDiffer;
 
+import org.eclipse.ui.texteditor.ITextEditor;
+import org.eclipse.ui.texteditor.quickdiff.IQuickDiffReferenceProvider;
+
 /**
  * Tests for the {@link DocumentLineDiffer}.
  */
 public class DocumentLineDifferTest {
 
+	/**
+	 * A reference provider returning a fixed document.
+	 */
+	private static final class DocumentReferenceProvider implements IQuickDiffReferenceProvider {
+
+		private final IDocument fReference;
+
+		DocumentReferenceProvider(IDocument reference) {
+			fReference= reference;
+		}
+
+		@Override
+		public IDocument getReference(IProgressMonitor monitor) {
+			return fReference;
+		}
+
+		@Override
+		public void dispose() {
+		}
+
+		@Override
+		public String getId() {
+			return DocumentReferenceProvider.class.getName();
+		}
+
+		@Override
+		public void setActiveEditor(ITextEditor editor) {
+		}
+
+		@Override
+		public boolean isEnabled() {
+			return true;
+		}
+
+		@Override
+		public void setId(String id) {
+		}
+	}
+
 	/** The document to connect to the {@link #fLineDiffer}. */
 	private final Document fDocument= new Document();
 
@@ -169,4 +215,53 @@ public class DocumentLineDifferTest {
 		assertFalse(fLineDiffer.isSuspended());
 	}
 
+	/**
+	 * Test that the differences between two large documents which only differ in a few lines are
+	 * reported on exactly those lines, also after the reference has been updated.
+	 *
+	 * @throws Exception unexpected exception
+	 */
+	@Test
+	public void largeDocumentDifferencesAreReportedOnChangedLines() throws Exception {
+		// given
+		StringBuilder contents= new StringBuilder();
+		for (int i= 0; i < 20000; i++)
+			contents.append("line ").append(i).append('\n');
+		Document reference= new Document(contents.toString());
+		fDocument.set(contents.toString());
+		fDocument.replace(fDocument.getLineOffset(10000), 0, "changed ");
+		fDocument.replace(fDocument.getLineOffset(15000), 0, "added\n");
+
+		// when
+		fLineDiffer.setReferenceProvider(new DocumentReferenceProvider(reference));
+		fLineDiffer.connect(fDocument);
+		waitForSynchronized();
+
+		// then
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(0).getChangeType());
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(9999).getChangeType());
+		assertEquals(ILineDiffInfo.CHANGED, fLineDiffer.getLineInfo(10000).getChangeType());
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(10001).getChangeType());
+		assertEquals(ILineDiffInfo.ADDED, fLineDiffer.getLineInfo(15000).getChangeType());
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(15001).getChangeType());
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(20000).getChangeType());
+
+		// when
+		reference.set(fDocument.get());
+		waitForSynchronized();
+
+		// then
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(10000).getChangeType());
+		assertEquals(ILineDiffInfo.UNCHANGED, fLineDiffer.getLineInfo(15000).getChangeType());
+
+		fLineDiffer.disconnect(fDocument);
+	}
+
+	private void waitForSynchronized() throws InterruptedException {
+		long timeout= System.currentTimeMillis() + 10000;
+		while (!fLineDiffer.isSynchronized()) {
+			assertTrue("Line differ did not synchronize", System.currentTimeMillis() < timeout);
+			Thread.sleep(20);
+		}
+	}
 }
@@ -36,6 +36,7 @@ import org.eclipse.ui.workbench.texteditor.tests.rulers.RulerTestSuite;
 		HippieCompletionTest.class,
 		RangeTest.class,
 		ChangeRegionTest.class,
+		ChangedLinesTrackerTest.class,
 		RulerTestSuite.class,
 		HunkComputerTest.class,
 		ScreenshotTest.class,